@@ -0,0 +1,348 @@
+package com.example.aeriboat.autopilot;
+
+import com.example.aeriboat.metrics.RttHistogram;
+import com.example.aeriboat.metrics.RttSnapshot;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.TelemetryListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Автопилот: ведет лодку по маршруту с фиксированным периодом.
+ * <p>
+ * Подключается слушателем к {@code UdpClient} и запоминает последнюю GPS точку
+ * и курс. Собственный поток с заданным периодом выполняет шаг
+ * {@link WaypointNavigator} и передает уставку в {@link CommandCoalescer},
+ * который отправляет ее через {@code UdpClient}; ограничения сторожа связи
+ * и остановка по геозоне при этом продолжают действовать. Цикл не создает
+ * объектов: точка хранится в volatile полях, навигатор и гистограммы
+ * работают с примитивами.
+ * <p>
+ * Если GPS точка не обновлялась дольше {@link #MAX_FIX_AGE_MS}, автопилот
+ * ставит руль в центр и скорость 0, пока точка не появится снова.
+ * После последней точки маршрута он отправляет остановку и отключается сам.
+ * <p>
+ * Для проверки цикла учитываются опоздание каждого такта относительно
+ * расписания и время вычисления шага.
+ *
+ * @since 1.1
+ */
+public class Autopilot implements TelemetryListener {
+
+    public static final long DEFAULT_PERIOD_MS = 100;
+    public static final long MAX_FIX_AGE_MS = 2000;
+
+    private static final String THREAD_NAME = "autopilot";
+
+    private final CommandCoalescer commandCoalescer;
+    private final WaypointNavigator navigator;
+    private final ScheduledExecutorService executor;
+    private final List<AutopilotListener> listeners;
+    private final RttHistogram jitter;
+    private final RttHistogram compute;
+    private final Object stepLock = new Object();
+    private final long maxFixAgeNanos = TimeUnit.MILLISECONDS.toNanos(MAX_FIX_AGE_MS);
+    private volatile long fixLatitude;
+    private volatile long fixLongitude;
+    private volatile long fixCourse;
+    private volatile long fixNanos;
+    private volatile boolean engaged;
+    private volatile int waypointIndex;
+    private volatile double distanceMeters;
+    private volatile long ticks;
+    private volatile long overruns;
+    private volatile long maxLatenessNanos;
+    private volatile long maxComputeNanos;
+    private long periodNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PERIOD_MS);
+    private long scheduledNanos;
+    private long lastTickNanos;
+    private ScheduledFuture<?> tickTask;
+
+    /**
+     * Создает автопилот с навигатором по умолчанию.
+     *
+     * @param commandCoalescer Планировщик команд, через который отправляются уставки
+     */
+    public Autopilot(CommandCoalescer commandCoalescer) {
+        this(commandCoalescer, new WaypointNavigator());
+    }
+
+    /**
+     * Создает автопилот.
+     *
+     * @param commandCoalescer Планировщик команд, через который отправляются уставки
+     * @param navigator Настроенный навигатор; после передачи используется только автопилотом
+     */
+    public Autopilot(CommandCoalescer commandCoalescer, WaypointNavigator navigator) {
+        this.commandCoalescer = commandCoalescer;
+        this.navigator = navigator;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.jitter = new RttHistogram();
+        this.compute = new RttHistogram();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Устанавливает маршрут. Если автопилот включен, он продолжает вести лодку
+     * уже по новому маршруту с первой точки.
+     *
+     * @param route Маршрут или null
+     */
+    public void setRoute(Route route) {
+        synchronized (stepLock) {
+            navigator.setRoute(route);
+            waypointIndex = 0;
+            distanceMeters = 0;
+        }
+    }
+
+    /**
+     * Возвращает текущий маршрут.
+     *
+     * @return Маршрут или null
+     */
+    public Route getRoute() {
+        synchronized (stepLock) {
+            return navigator.getRoute();
+        }
+    }
+
+    /**
+     * Устанавливает период цикла управления. Применяется при следующем включении.
+     *
+     * @param periodMs Период (мс)
+     */
+    public synchronized void setPeriodMillis(long periodMs) {
+        periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMs));
+    }
+
+    /**
+     * Включает автопилот. Маршрут продолжается с текущей точки,
+     * а пройденный до конца маршрут начинается заново.
+     *
+     * @throws IllegalStateException если маршрут не задан
+     */
+    public synchronized void engage() {
+        if (tickTask != null) {
+            return;
+        }
+        synchronized (stepLock) {
+            if (navigator.getRoute() == null) {
+                throw new IllegalStateException("Маршрут не загружен");
+            }
+            if (navigator.isFinished()) {
+                navigator.restart();
+            }
+            scheduledNanos = 0;
+            lastTickNanos = System.nanoTime();
+            engaged = true;
+        }
+        tickTask = executor.scheduleAtFixedRate(this::tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Отключает автопилот. После возврата из метода автопилот больше
+     * не передает уставок; последняя переданная остается в планировщике команд.
+     *
+     * @return true если автопилот был включен
+     */
+    public synchronized boolean disengage() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+        synchronized (stepLock) {
+            boolean wasEngaged = engaged;
+            engaged = false;
+            return wasEngaged;
+        }
+    }
+
+    public boolean isEngaged() {
+        return engaged;
+    }
+
+    /**
+     * Останавливает поток автопилота.
+     */
+    public synchronized void shutdown() {
+        disengage();
+        executor.shutdown();
+    }
+
+    @Override
+    public void onTelemetry(AirboatTelemetry telemetry) {
+        long latitude = telemetry.getLatitude();
+        long longitude = telemetry.getLongitude();
+        if (latitude == 0 && longitude == 0) {
+            return;
+        }
+        fixLatitude = latitude;
+        fixLongitude = longitude;
+        fixCourse = telemetry.getCourse();
+        fixNanos = System.nanoTime();
+    }
+
+    /**
+     * Добавляет слушателя прохождения точек.
+     *
+     * @param listener Слушатель
+     */
+    public void addListener(AutopilotListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя прохождения точек.
+     *
+     * @param listener Слушатель
+     */
+    public void removeListener(AutopilotListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Возвращает номер текущей точки маршрута на последнем такте.
+     *
+     * @return Номер точки
+     */
+    public int getWaypointIndex() {
+        return waypointIndex;
+    }
+
+    /**
+     * Возвращает расстояние до текущей точки на последнем такте.
+     *
+     * @return Расстояние (м)
+     */
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /**
+     * Собирает статистику опоздания тактов относительно расписания.
+     *
+     * @param windowSeconds Длина окна (1-{@link RttHistogram#MAX_WINDOW_SECONDS} с)
+     * @return Перцентили опоздания (мкс); поле потерь не используется
+     */
+    public RttSnapshot getJitterSnapshot(int windowSeconds) {
+        return jitter.snapshot(windowSeconds);
+    }
+
+    /**
+     * Собирает статистику времени вычисления шага, включая передачу уставки.
+     *
+     * @param windowSeconds Длина окна (1-{@link RttHistogram#MAX_WINDOW_SECONDS} с)
+     * @return Перцентили времени (мкс); поле потерь не используется
+     */
+    public RttSnapshot getComputeSnapshot(int windowSeconds) {
+        return compute.snapshot(windowSeconds);
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Возвращает число тактов, опоздавших на целый период и больше.
+     *
+     * @return Число опозданий
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    public long getMaxComputeNanos() {
+        return maxComputeNanos;
+    }
+
+    /**
+     * Такт цикла управления: шаг навигатора по последней точке и передача уставки.
+     */
+    private void tick() {
+        long start = System.nanoTime();
+        int firstReached;
+        int lastReached = -1;
+        int count;
+        boolean finished = false;
+
+        synchronized (stepLock) {
+            if (!engaged) {
+                return;
+            }
+            // Опоздание считается от расписания, заданного первым тактом, а не от
+            // предыдущего такта, чтобы накопленная задержка была видна
+            if (scheduledNanos == 0) {
+                scheduledNanos = start;
+            }
+            long lateness = start - scheduledNanos;
+            scheduledNanos += periodNanos;
+            if (lateness >= periodNanos) {
+                overruns++;
+            }
+            double dtSeconds = (start - lastTickNanos) / 1e9;
+            lastTickNanos = start;
+
+            firstReached = navigator.getWaypointIndex();
+            int result;
+            if (start - fixNanos > maxFixAgeNanos) {
+                // Нет свежей точки: навигатор не двигается по маршруту, лодка стоит
+                result = WaypointNavigator.STEERING;
+                commandCoalescer.submit(WaypointNavigator.CENTER_ANGLE, 0);
+            } else {
+                result = navigator.step(fixLatitude, fixLongitude, fixCourse, dtSeconds);
+                commandCoalescer.submit(navigator.getAngle(), navigator.getSpeed());
+            }
+
+            if (result == WaypointNavigator.WAYPOINT_REACHED) {
+                lastReached = navigator.getWaypointIndex() - 1;
+            } else if (result == WaypointNavigator.FINISHED) {
+                lastReached = navigator.getWaypointIndex();
+                finished = true;
+                engaged = false;
+            }
+            count = navigator.getRoute() != null ? navigator.getRoute().size() : 0;
+            waypointIndex = navigator.getWaypointIndex();
+            distanceMeters = navigator.getDistanceMeters();
+
+            long computeNanos = System.nanoTime() - start;
+            jitter.record(Math.max(0, lateness), start);
+            compute.record(computeNanos, start);
+            if (lateness > maxLatenessNanos) {
+                maxLatenessNanos = lateness;
+            }
+            if (computeNanos > maxComputeNanos) {
+                maxComputeNanos = computeNanos;
+            }
+            ticks++;
+        }
+
+        if (finished) {
+            // Маршрут пройден: дальнейшие такты не нужны
+            disengage();
+        }
+        for (int index = firstReached; index <= lastReached; index++) {
+            for (AutopilotListener listener : listeners) {
+                try {
+                    listener.onWaypointReached(index, count);
+                } catch (Exception e) {
+                    System.err.println("Ошибка в слушателе автопилота: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
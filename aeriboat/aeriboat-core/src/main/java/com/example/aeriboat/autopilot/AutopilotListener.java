@@ -0,0 +1,20 @@
+package com.example.aeriboat.autopilot;
+
+/**
+ * Слушатель прохождения путевых точек.
+ * Вызывается из потока автопилота, поэтому не должен блокироваться.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface AutopilotListener {
+
+    /**
+     * Обрабатывает прохождение точки.
+     *
+     * @param index Номер пройденной точки
+     * @param count Число точек маршрута; если {@code index == count - 1},
+     *              маршрут пройден и автопилот уже отключился с нулевой скоростью
+     */
+    void onWaypointReached(int index, int count);
+}
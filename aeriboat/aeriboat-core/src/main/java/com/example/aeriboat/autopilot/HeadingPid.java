@@ -0,0 +1,90 @@
+package com.example.aeriboat.autopilot;
+
+/**
+ * ПИД-регулятор курса: по ошибке курса возвращает отклонение руля от центра.
+ * <p>
+ * Интеграл ограничен, чтобы на долгом развороте не накопилось перерегулирование,
+ * а производная считается по ошибке, уже приведенной к [-180, 180], поэтому
+ * переход курса через 0/360° не дает выброса.
+ *
+ * @since 1.1
+ */
+public class HeadingPid {
+
+    private double kp;
+    private double ki;
+    private double kd;
+    private double integralLimit;
+    private double outputLimit;
+    private double integral;
+    private double previousError;
+    private boolean hasPrevious;
+
+    /**
+     * Создает регулятор.
+     *
+     * @param kp Пропорциональный коэффициент (° руля на ° ошибки)
+     * @param ki Интегральный коэффициент (° руля на °·с ошибки)
+     * @param kd Дифференциальный коэффициент (° руля на °/с изменения ошибки)
+     * @param outputLimit Наибольшее отклонение руля (°)
+     */
+    public HeadingPid(double kp, double ki, double kd, double outputLimit) {
+        setGains(kp, ki, kd);
+        setOutputLimit(outputLimit);
+    }
+
+    /**
+     * Устанавливает коэффициенты.
+     *
+     * @param kp Пропорциональный коэффициент
+     * @param ki Интегральный коэффициент
+     * @param kd Дифференциальный коэффициент
+     */
+    public void setGains(double kp, double ki, double kd) {
+        this.kp = kp;
+        this.ki = ki;
+        this.kd = kd;
+        this.integralLimit = ki > 0 ? outputLimit / ki : 0;
+    }
+
+    /**
+     * Устанавливает наибольшее отклонение руля.
+     *
+     * @param outputLimit Отклонение (°)
+     */
+    public void setOutputLimit(double outputLimit) {
+        this.outputLimit = Math.abs(outputLimit);
+        this.integralLimit = ki > 0 ? this.outputLimit / ki : 0;
+    }
+
+    /**
+     * Выполняет шаг регулятора.
+     *
+     * @param error Ошибка курса (от -180 до 180°, положительная - поворот по часовой стрелке)
+     * @param dtSeconds Время с предыдущего шага (с)
+     * @return Отклонение руля (°), положительное - поворот по часовой стрелке
+     */
+    public double update(double error, double dtSeconds) {
+        double derivative = 0;
+        if (dtSeconds > 0) {
+            integral = Math.max(-integralLimit, Math.min(integralLimit, integral + error * dtSeconds));
+            if (hasPrevious) {
+                derivative = (error - previousError) / dtSeconds;
+            }
+        }
+        previousError = error;
+        hasPrevious = true;
+
+        double output = kp * error + ki * integral + kd * derivative;
+        return Math.max(-outputLimit, Math.min(outputLimit, output));
+    }
+
+    /**
+     * Сбрасывает интеграл и предыдущую ошибку (например, при смене путевой точки).
+     */
+    public void reset() {
+        integral = 0;
+        previousError = 0;
+        hasPrevious = false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aeriboat.autopilot;
+
+/**
+ * Расчет расстояния и пеленга между точками в координатах телеметрии.
+ * <p>
+ * Используется плоское приближение (равнопромежуточная проекция в окрестности
+ * точки): на расстояниях до нескольких километров ошибка меньше точности GPS,
+ * а расчет обходится без обратных тригонометрических функций кроме одного atan2.
+ *
+ * @since 1.1
+ */
+public final class Navigation {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double MICRODEGREES = 1_000_000.0;
+    private static final double METERS_PER_MICRODEGREE = METERS_PER_DEGREE / MICRODEGREES;
+
+    private Navigation() {
+    }
+
+    /**
+     * Возвращает расстояние между точками.
+     *
+     * @param fromLatitude Широта начала (миллионные доли градуса)
+     * @param fromLongitude Долгота начала (миллионные доли градуса)
+     * @param toLatitude Широта конца (миллионные доли градуса)
+     * @param toLongitude Долгота конца (миллионные доли градуса)
+     * @return Расстояние (м)
+     */
+    public static double distanceMeters(long fromLatitude, long fromLongitude, long toLatitude, long toLongitude) {
+        double north = northMeters(fromLatitude, toLatitude);
+        double east = eastMeters(fromLatitude, fromLongitude, toLongitude);
+        return Math.sqrt(north * north + east * east);
+    }
+
+    /**
+     * Возвращает пеленг на точку: угол от севера по часовой стрелке.
+     *
+     * @param fromLatitude Широта начала (миллионные доли градуса)
+     * @param fromLongitude Долгота начала (миллионные доли градуса)
+     * @param toLatitude Широта конца (миллионные доли градуса)
+     * @param toLongitude Долгота конца (миллионные доли градуса)
+     * @return Пеленг (0-360°)
+     */
+    public static double bearingDegrees(long fromLatitude, long fromLongitude, long toLatitude, long toLongitude) {
+        double north = northMeters(fromLatitude, toLatitude);
+        double east = eastMeters(fromLatitude, fromLongitude, toLongitude);
+        return normalizeDegrees(Math.toDegrees(Math.atan2(east, north)));
+    }
+
+    /**
+     * Приводит угол к диапазону [0, 360).
+     *
+     * @param degrees Угол (°)
+     * @return Угол (0-360°)
+     */
+    public static double normalizeDegrees(double degrees) {
+        double result = degrees % 360;
+        return result < 0 ? result + 360 : result;
+    }
+
+    /**
+     * Возвращает кратчайшую разность углов: на сколько нужно повернуть
+     * от {@code from} к {@code to}, положительное значение - по часовой стрелке.
+     *
+     * @param from Исходный угол (°)
+     * @param to Целевой угол (°)
+     * @return Разность (от -180 до 180°)
+     */
+    public static double angleDifference(double from, double to) {
+        double difference = normalizeDegrees(to - from);
+        return difference >= 180 ? difference - 360 : difference;
+    }
+
+    private static double northMeters(long fromLatitude, long toLatitude) {
+        return (toLatitude - fromLatitude) * METERS_PER_MICRODEGREE;
+    }
+
+    private static double eastMeters(long fromLatitude, long fromLongitude, long toLongitude) {
+        return (toLongitude - fromLongitude) * METERS_PER_MICRODEGREE
+                * Math.cos(Math.toRadians(fromLatitude / MICRODEGREES));
+    }
+}
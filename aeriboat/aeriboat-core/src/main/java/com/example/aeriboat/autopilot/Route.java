@@ -0,0 +1,74 @@
+package com.example.aeriboat.autopilot;
+
+/**
+ * Маршрут автопилота - последовательность путевых точек в координатах
+ * телеметрии (миллионные доли градуса).
+ * <p>
+ * Точки хранятся в примитивных массивах, поэтому обращение к ним в цикле
+ * управления не создает объектов.
+ *
+ * @since 1.1
+ */
+public final class Route {
+
+    private final String name;
+    private final long[] latitudes;
+    private final long[] longitudes;
+
+    /**
+     * Создает маршрут.
+     *
+     * @param name Название
+     * @param latitudes Широты точек (миллионные доли градуса)
+     * @param longitudes Долготы точек (миллионные доли градуса)
+     */
+    public Route(String name, long[] latitudes, long[] longitudes) {
+        if (latitudes.length != longitudes.length || latitudes.length == 0) {
+            throw new IllegalArgumentException("Маршрут \"" + name + "\" должен иметь хотя бы одну точку");
+        }
+        this.name = name;
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Возвращает число точек маршрута.
+     *
+     * @return Число точек
+     */
+    public int size() {
+        return latitudes.length;
+    }
+
+    /**
+     * Возвращает широту точки.
+     *
+     * @param index Номер точки
+     * @return Широта (миллионные доли градуса)
+     */
+    public long getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    /**
+     * Возвращает долготу точки.
+     *
+     * @param index Номер точки
+     * @return Долгота (миллионные доли градуса)
+     */
+    public long getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    @Override
+    public String toString() {
+        return "Route{" +
+                "name='" + name + '\'' +
+                ", points=" + latitudes.length +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.aeriboat.autopilot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Загрузка маршрута из GeoJSON ({@code FeatureCollection}).
+ * <p>
+ * Точки маршрута берутся по порядку из объектов с геометрией {@code Point}
+ * (одна точка) и {@code LineString} (все вершины линии); остальные объекты
+ * пропускаются. Координаты GeoJSON - пары [долгота, широта] в градусах.
+ *
+ * @since 1.1
+ */
+public final class RouteLoader {
+
+    private static final double MICRODEGREES = 1_000_000.0;
+
+    private final ObjectMapper objectMapper;
+
+    public RouteLoader() {
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Загружает маршрут из файла. Название маршрута - имя файла.
+     *
+     * @param file Файл GeoJSON
+     * @return Маршрут
+     * @throws IOException если файл не читается или в нем нет точек
+     */
+    public Route load(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return load(input, file.getFileName().toString());
+        }
+    }
+
+    /**
+     * Загружает маршрут из потока.
+     *
+     * @param input Поток GeoJSON
+     * @param name Название маршрута
+     * @return Маршрут
+     * @throws IOException если данные не читаются или в них нет точек
+     */
+    public Route load(InputStream input, String name) throws IOException {
+        JsonNode root = objectMapper.readTree(input);
+        if (root == null || !"FeatureCollection".equals(root.path("type").asText())) {
+            throw new IOException("Ожидается GeoJSON FeatureCollection");
+        }
+
+        int capacity = 0;
+        for (JsonNode feature : root.path("features")) {
+            JsonNode geometry = feature.path("geometry");
+            String type = geometry.path("type").asText();
+            if ("Point".equals(type)) {
+                capacity++;
+            } else if ("LineString".equals(type)) {
+                capacity += geometry.path("coordinates").size();
+            }
+        }
+        if (capacity == 0) {
+            throw new IOException("В файле нет точек маршрута (Point или LineString)");
+        }
+
+        long[] latitudes = new long[capacity];
+        long[] longitudes = new long[capacity];
+        int count = 0;
+        int number = 0;
+        for (JsonNode feature : root.path("features")) {
+            number++;
+            JsonNode geometry = feature.path("geometry");
+            String type = geometry.path("type").asText();
+            JsonNode coordinates = geometry.path("coordinates");
+            if ("Point".equals(type)) {
+                readPoint(coordinates, number, latitudes, longitudes, count++);
+            } else if ("LineString".equals(type)) {
+                for (JsonNode point : coordinates) {
+                    readPoint(point, number, latitudes, longitudes, count++);
+                }
+            }
+        }
+        return new Route(name, latitudes, longitudes);
+    }
+
+    private static void readPoint(JsonNode point, int number, long[] latitudes, long[] longitudes, int index)
+            throws IOException {
+        if (!point.path(0).isNumber() || !point.path(1).isNumber()) {
+            throw new IOException("Объект " + number + ": некорректная точка " + point);
+        }
+        longitudes[index] = Math.round(point.get(0).asDouble() * MICRODEGREES);
+        latitudes[index] = Math.round(point.get(1).asDouble() * MICRODEGREES);
+    }
+}
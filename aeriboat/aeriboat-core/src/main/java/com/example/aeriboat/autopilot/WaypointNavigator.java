@@ -0,0 +1,232 @@
+package com.example.aeriboat.autopilot;
+
+/**
+ * Расчет уставки руля и газа для прохождения маршрута по путевым точкам.
+ * <p>
+ * Каждый шаг ({@link #step(long, long, long, double)}) получает положение,
+ * курс и время с предыдущего шага, выбирает текущую точку маршрута и
+ * вычисляет угол сервопривода (ПИД по ошибке курса) и скорость мотора
+ * (снижается при подходе к точке). Время передается явно, поэтому навигатор
+ * одинаково работает в реальном цикле {@link Autopilot} и против модели
+ * лодки в ускоренном времени. Шаг не создает объектов.
+ * <p>
+ * Класс не потокобезопасен: шаги и настройка должны выполняться в одном потоке
+ * или под внешней блокировкой.
+ *
+ * @since 1.1
+ */
+public class WaypointNavigator {
+
+    public static final int NO_ROUTE = 0;
+    public static final int STEERING = 1;
+    public static final int WAYPOINT_REACHED = 2;
+    public static final int FINISHED = 3;
+
+    public static final int CENTER_ANGLE = 90;
+    public static final double DEFAULT_MAX_RUDDER = 60;
+    public static final double DEFAULT_ACCEPTANCE_RADIUS_M = 10;
+    public static final double DEFAULT_SLOWDOWN_RADIUS_M = 30;
+    public static final int DEFAULT_CRUISE_SPEED = 60;
+    public static final int DEFAULT_APPROACH_SPEED = 25;
+    public static final double DEFAULT_KP = 1.0;
+    public static final double DEFAULT_KI = 0.05;
+    public static final double DEFAULT_KD = 0.3;
+
+    private final HeadingPid pid;
+    private Route route;
+    private int waypointIndex;
+    private boolean finished;
+    private double acceptanceRadius = DEFAULT_ACCEPTANCE_RADIUS_M;
+    private double slowdownRadius = DEFAULT_SLOWDOWN_RADIUS_M;
+    private int cruiseSpeed = DEFAULT_CRUISE_SPEED;
+    private int approachSpeed = DEFAULT_APPROACH_SPEED;
+    private int angle = CENTER_ANGLE;
+    private int speed;
+    private double distanceMeters;
+    private double bearing;
+    private double headingError;
+
+    /**
+     * Создает навигатор с коэффициентами регулятора по умолчанию.
+     */
+    public WaypointNavigator() {
+        this.pid = new HeadingPid(DEFAULT_KP, DEFAULT_KI, DEFAULT_KD, DEFAULT_MAX_RUDDER);
+    }
+
+    /**
+     * Устанавливает маршрут и начинает его с первой точки.
+     *
+     * @param route Маршрут или null, чтобы сбросить его
+     */
+    public void setRoute(Route route) {
+        this.route = route;
+        restart();
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    /**
+     * Начинает текущий маршрут заново с первой точки.
+     */
+    public void restart() {
+        waypointIndex = 0;
+        finished = false;
+        distanceMeters = 0;
+        pid.reset();
+        hold();
+    }
+
+    /**
+     * Выполняет шаг навигации.
+     *
+     * @param latitude Широта лодки (миллионные доли градуса)
+     * @param longitude Долгота лодки (миллионные доли градуса)
+     * @param course Курс лодки (0-360°)
+     * @param dtSeconds Время с предыдущего шага (с)
+     * @return {@link #STEERING}, {@link #WAYPOINT_REACHED} (точка пройдена, уставка уже
+     *         на следующую), {@link #FINISHED} (пройдена последняя точка, уставка - стоп)
+     *         или {@link #NO_ROUTE}
+     */
+    public int step(long latitude, long longitude, long course, double dtSeconds) {
+        if (route == null) {
+            hold();
+            return NO_ROUTE;
+        }
+        if (finished) {
+            hold();
+            return FINISHED;
+        }
+
+        int result = STEERING;
+        distanceMeters = Navigation.distanceMeters(latitude, longitude,
+                route.getLatitude(waypointIndex), route.getLongitude(waypointIndex));
+        while (distanceMeters <= acceptanceRadius) {
+            result = WAYPOINT_REACHED;
+            pid.reset();
+            if (++waypointIndex == route.size()) {
+                waypointIndex = route.size() - 1;
+                finished = true;
+                hold();
+                return FINISHED;
+            }
+            distanceMeters = Navigation.distanceMeters(latitude, longitude,
+                    route.getLatitude(waypointIndex), route.getLongitude(waypointIndex));
+        }
+
+        bearing = Navigation.bearingDegrees(latitude, longitude,
+                route.getLatitude(waypointIndex), route.getLongitude(waypointIndex));
+        headingError = Navigation.angleDifference(course, bearing);
+        double rudder = pid.update(headingError, dtSeconds);
+        angle = Math.max(0, Math.min(180, (int) Math.round(CENTER_ANGLE + rudder)));
+
+        // Газ линейно снижается от крейсерского до подходного на последних метрах перед точкой
+        double approach = Math.min(1, (distanceMeters - acceptanceRadius) / slowdownRadius);
+        speed = (int) Math.round(approachSpeed + (cruiseSpeed - approachSpeed) * approach);
+        return result;
+    }
+
+    /**
+     * Устанавливает радиус, в котором точка считается пройденной. Радиус должен
+     * быть не меньше радиуса циркуляции лодки, иначе точка внутри циркуляции
+     * не будет достигнута.
+     *
+     * @param meters Радиус (м)
+     */
+    public void setAcceptanceRadius(double meters) {
+        this.acceptanceRadius = Math.max(0, meters);
+    }
+
+    /**
+     * Устанавливает расстояние до точки, с которого начинается снижение скорости.
+     *
+     * @param meters Расстояние (м)
+     */
+    public void setSlowdownRadius(double meters) {
+        this.slowdownRadius = Math.max(1, meters);
+    }
+
+    /**
+     * Устанавливает скорость на маршруте и при подходе к точке.
+     *
+     * @param cruiseSpeed Крейсерская скорость (0-100%)
+     * @param approachSpeed Скорость у точки (0-100%)
+     */
+    public void setSpeeds(int cruiseSpeed, int approachSpeed) {
+        this.cruiseSpeed = Math.max(0, Math.min(100, cruiseSpeed));
+        this.approachSpeed = Math.max(0, Math.min(this.cruiseSpeed, approachSpeed));
+    }
+
+    /**
+     * Возвращает регулятор курса для настройки коэффициентов.
+     *
+     * @return Регулятор
+     */
+    public HeadingPid getPid() {
+        return pid;
+    }
+
+    /**
+     * Возвращает угол сервопривода, вычисленный на последнем шаге.
+     *
+     * @return Угол (0-180°)
+     */
+    public int getAngle() {
+        return angle;
+    }
+
+    /**
+     * Возвращает скорость мотора, вычисленную на последнем шаге.
+     *
+     * @return Скорость (0-100%)
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Возвращает номер текущей (еще не пройденной) точки маршрута.
+     *
+     * @return Номер точки
+     */
+    public int getWaypointIndex() {
+        return waypointIndex;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Возвращает расстояние до текущей точки на последнем шаге.
+     *
+     * @return Расстояние (м)
+     */
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /**
+     * Возвращает пеленг на текущую точку на последнем шаге.
+     *
+     * @return Пеленг (0-360°)
+     */
+    public double getBearing() {
+        return bearing;
+    }
+
+    /**
+     * Возвращает ошибку курса на последнем шаге.
+     *
+     * @return Ошибка (от -180 до 180°)
+     */
+    public double getHeadingError() {
+        return headingError;
+    }
+
+    private void hold() {
+        angle = CENTER_ANGLE;
+        speed = 0;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Преобразование экспорта телеметрии в CSV и обратно.
+ * <p>
+ * Первая строка CSV - заголовок: {@value #TIMESTAMP_COLUMN} и имена полей
+ * JSON протокола ({@link TelemetryField#getJsonName()}). При чтении колонки
+ * сопоставляются по заголовку и могут идти в любом порядке; отсутствующие
+ * поля считаются нулевыми. Колонки с другими именами пропускаются, но, как
+ * и все значения, должны быть целыми числами.
+ *
+ * @since 1.1
+ */
+public final class CsvConverter {
+
+    public static final String TIMESTAMP_COLUMN = "timestamp_ms";
+
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+    private static final int NOT_PRESENT = -1;
+
+    private CsvConverter() {
+    }
+
+    /**
+     * Записывает строки экспорта в CSV (с учетом интервала времени читателя).
+     *
+     * @param reader Открытый экспорт
+     * @param output Вывод CSV
+     * @return Число записанных строк
+     * @throws IOException если экспорт не читается или CSV не записывается
+     */
+    public static long toCsv(TelemetryExportReader reader, Writer output) throws IOException {
+        StringBuilder line = new StringBuilder(96);
+        line.append(TIMESTAMP_COLUMN);
+        for (TelemetryField field : FIELDS) {
+            line.append(',').append(field.getJsonName());
+        }
+        output.append(line).append('\n');
+
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        long rows = 0;
+        while (reader.next(telemetry)) {
+            line.setLength(0);
+            line.append(reader.getTimestampMillis());
+            for (TelemetryField field : FIELDS) {
+                line.append(',').append(field.get(telemetry));
+            }
+            output.append(line).append('\n');
+            rows++;
+        }
+        output.flush();
+        return rows;
+    }
+
+    /**
+     * Читает CSV и записывает строки в экспорт.
+     *
+     * @param input CSV с заголовком
+     * @param writer Открытый экспорт
+     * @return Число записанных строк
+     * @throws IOException если CSV не читается, поврежден или экспорт не записывается
+     */
+    public static long fromCsv(BufferedReader input, TelemetryExportWriter writer) throws IOException {
+        String header = input.readLine();
+        if (header == null) {
+            throw new IOException("Пустой CSV");
+        }
+        String[] names = header.trim().split(",");
+        int timestampIndex = NOT_PRESENT;
+        int[] fieldIndexes = new int[FIELDS.length];
+        Arrays.fill(fieldIndexes, NOT_PRESENT);
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            if (TIMESTAMP_COLUMN.equals(name)) {
+                timestampIndex = i;
+            }
+            for (TelemetryField field : FIELDS) {
+                if (field.getJsonName().equals(name)) {
+                    fieldIndexes[field.ordinal()] = i;
+                }
+            }
+        }
+        if (timestampIndex == NOT_PRESENT) {
+            throw new IOException("В заголовке CSV нет колонки " + TIMESTAMP_COLUMN);
+        }
+
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        long[] values = new long[names.length];
+        long rows = 0;
+        int lineNumber = 1;
+        String line;
+        while ((line = input.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            parseLine(line, lineNumber, values);
+            for (TelemetryField field : FIELDS) {
+                int index = fieldIndexes[field.ordinal()];
+                field.set(telemetry, index == NOT_PRESENT ? 0 : values[index]);
+            }
+            writer.write(values[timestampIndex], telemetry);
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Разбирает строку CSV из целых чисел без создания подстрок.
+     */
+    private static void parseLine(String line, int lineNumber, long[] values) throws IOException {
+        int column = 0;
+        int position = 0;
+        int length = line.length();
+        while (column < values.length) {
+            while (position < length && line.charAt(position) == ' ') {
+                position++;
+            }
+            boolean negative = position < length && line.charAt(position) == '-';
+            if (negative) {
+                position++;
+            }
+            int start = position;
+            long value = 0;
+            while (position < length && line.charAt(position) >= '0' && line.charAt(position) <= '9') {
+                value = value * 10 + (line.charAt(position++) - '0');
+            }
+            if (position == start) {
+                throw new IOException("Строка " + lineNumber + ", колонка " + (column + 1) + ": ожидается целое число");
+            }
+            while (position < length && line.charAt(position) == ' ') {
+                position++;
+            }
+            values[column++] = negative ? -value : value;
+            if (position == length) {
+                break;
+            }
+            if (line.charAt(position) != ',') {
+                throw new IOException("Строка " + lineNumber + ", колонка " + column + ": ожидается запятая");
+            }
+            position++;
+        }
+        if (column != values.length || position < length) {
+            throw new IOException("Строка " + lineNumber + ": колонок " + column + " вместо " + values.length);
+        }
+    }
+}
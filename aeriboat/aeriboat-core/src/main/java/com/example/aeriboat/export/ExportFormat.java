@@ -0,0 +1,77 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+
+/**
+ * Колоночный формат экспорта телеметрии. Все поля заголовков big-endian
+ * (порядок {@link java.io.DataOutputStream}).
+ * <pre>
+ * смещение  размер  поле
+ * 0         4       сигнатура {@link #MAGIC}
+ * 4         2       версия формата ({@link #VERSION})
+ * 6         2       число колонок ({@link #COLUMN_COUNT})
+ * 8         4       наибольшее число строк в блоке
+ * 12        ...     блоки до конца файла
+ * </pre>
+ * Блок:
+ * <pre>
+ * 0         4       число строк N
+ * 4         4       длина данных колонок L (байт)
+ * 8         16*C    минимум i64 и максимум i64 каждой колонки
+ * 8+16*C    L       колонки подряд, в каждой N чисел varint
+ * </pre>
+ * Колонки: метка времени (мс), затем поля в порядке {@link TelemetryField}.
+ * Каждое число - разность с предыдущим в zig-zag кодировке, записанная
+ * varint (7 бит на байт, старший бит - продолжение). Для метки времени
+ * кодируется разность второго порядка: при ровной частоте телеметрии
+ * она близка к нулю. Первое значение блока отсчитывается от минимума
+ * колонки, поэтому блок декодируется независимо от предыдущих и его можно
+ * пропустить по заголовку, не читая данных.
+ *
+ * @since 1.1
+ */
+final class ExportFormat {
+
+    static final int MAGIC = 0x41425443; // "ABTC"
+    static final int VERSION = 1;
+
+    static final int TIME_COLUMN = 0;
+    static final int COLUMN_COUNT = 1 + TelemetryField.values().length;
+    static final int HEADER_SIZE = 12;
+    static final int BLOCK_HEADER_SIZE = 8 + 16 * COLUMN_COUNT;
+    static final int MAX_VARINT_SIZE = 10;
+    static final int MAX_BLOCK_ROWS = 1 << 20;
+
+    static final String FILE_SUFFIX = ".abtc";
+
+    private ExportFormat() {
+    }
+
+    /**
+     * Возвращает порядок разностей, которым кодируется колонка.
+     *
+     * @param column Номер колонки
+     * @return 2 для метки времени, 1 для полей телеметрии
+     */
+    static int deltaOrder(int column) {
+        return column == TIME_COLUMN ? 2 : 1;
+    }
+
+    /**
+     * Возвращает наибольшую длину данных колонок блока.
+     *
+     * @param rows Число строк блока
+     * @return Длина в байтах
+     */
+    static int maxDataSize(int rows) {
+        return rows * COLUMN_COUNT * MAX_VARINT_SIZE;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
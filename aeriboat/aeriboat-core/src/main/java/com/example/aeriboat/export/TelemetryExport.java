@@ -0,0 +1,173 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.history.TelemetryHistory;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.recorder.TelemetryReplayer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Экспорт телеметрии из истории сеанса и журнала полета, а также
+ * командная строка для преобразований:
+ * <pre>
+ * java -cp aeriboat-core/target/classes:jackson.jar com.example.aeriboat.export.TelemetryExport \
+ *      --journal recordings/run1 --out run1.abtc
+ * ... --to-csv run1.abtc --out run1.csv [--from MS --to MS]
+ * ... --from-csv run1.csv --out run1.abtc
+ * </pre>
+ *
+ * @since 1.1
+ */
+public final class TelemetryExport {
+
+    private static final int CHUNK_ROWS = 4096;
+
+    private TelemetryExport() {
+    }
+
+    /**
+     * Записывает в экспорт все отсчеты, хранимые в истории на момент вызова.
+     * Отсчеты, добавленные во время экспорта, не записываются.
+     *
+     * @param history История сеанса
+     * @param writer Открытый экспорт
+     * @return Число записанных строк
+     * @throws IOException если экспорт не записывается
+     */
+    public static long fromHistory(TelemetryHistory history, TelemetryExportWriter writer) throws IOException {
+        TelemetryField[] fields = TelemetryField.values();
+        long[] timestamps = new long[CHUNK_ROWS];
+        long[][] values = new long[fields.length][CHUNK_ROWS];
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+
+        long end = history.getAppendedCount();
+        long index = end - history.size();
+        long rows = 0;
+        while (index < end) {
+            int count = (int) Math.min(history.copySince(index, timestamps, values), end - index);
+            if (count == 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                for (TelemetryField field : fields) {
+                    field.set(telemetry, values[field.ordinal()][i]);
+                }
+                writer.write(timestamps[i], telemetry);
+            }
+            index += count;
+            rows += count;
+        }
+        return rows;
+    }
+
+    /**
+     * Записывает в экспорт телеметрию журнала полета: ту же последовательность,
+     * что получают слушатели при воспроизведении, с временем приема.
+     *
+     * @param journalDirectory Каталог журнала {@link com.example.aeriboat.recorder.FlightRecorder}
+     * @param writer Открытый экспорт
+     * @return Число записанных строк
+     * @throws IOException если журнал не читается или экспорт не записывается
+     */
+    public static long fromJournal(Path journalDirectory, TelemetryExportWriter writer) throws IOException {
+        TelemetryReplayer replayer = new TelemetryReplayer(journalDirectory);
+        IOException[] failure = new IOException[1];
+        replayer.addTelemetryListener(telemetry -> {
+            if (failure[0] == null) {
+                try {
+                    writer.write(replayer.getPositionMicros() / 1000, telemetry);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        long rows = replayer.replayAll();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return rows;
+    }
+
+    /**
+     * Точка входа командной строки.
+     *
+     * @param args {@code --journal DIR}, {@code --to-csv FILE} или {@code --from-csv FILE};
+     *             {@code --out FILE}; для {@code --to-csv} - {@code --from MS} и {@code --to MS}
+     */
+    public static void main(String[] args) {
+        Path journal = null;
+        Path toCsv = null;
+        Path fromCsv = null;
+        Path out = null;
+        long fromMillis = Long.MIN_VALUE;
+        long toMillis = Long.MAX_VALUE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--journal":
+                    journal = Paths.get(args[i + 1]);
+                    break;
+                case "--to-csv":
+                    toCsv = Paths.get(args[i + 1]);
+                    break;
+                case "--from-csv":
+                    fromCsv = Paths.get(args[i + 1]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[i + 1]);
+                    break;
+                case "--from":
+                    fromMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--to":
+                    toMillis = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Неизвестный параметр: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        int sources = (journal != null ? 1 : 0) + (toCsv != null ? 1 : 0) + (fromCsv != null ? 1 : 0);
+        if (out == null || sources != 1) {
+            System.err.println("Использование: --journal DIR | --to-csv FILE [--from MS --to MS] | --from-csv FILE,"
+                    + " и --out FILE");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        try {
+            long rows;
+            if (toCsv != null) {
+                try (TelemetryExportReader reader = new TelemetryExportReader(toCsv);
+                     Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                    reader.setTimeRange(fromMillis, toMillis);
+                    rows = CsvConverter.toCsv(reader, writer);
+                    System.out.printf("Блоков прочитано %d, пропущено по заголовку %d%n",
+                            reader.getBlocksRead(), reader.getBlocksSkipped());
+                }
+            } else {
+                try (TelemetryExportWriter writer = new TelemetryExportWriter(out)) {
+                    if (journal != null) {
+                        rows = fromJournal(journal, writer);
+                    } else {
+                        try (BufferedReader reader = Files.newBufferedReader(fromCsv, StandardCharsets.UTF_8)) {
+                            rows = CsvConverter.fromCsv(reader, writer);
+                        }
+                    }
+                }
+            }
+            Path source = journal != null ? journal : toCsv != null ? toCsv : fromCsv;
+            System.out.printf("%s -> %s: строк %d, %d байт, %.0f мс%n", source, out, rows, Files.size(out),
+                    (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Ошибка экспорта: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Потоковое чтение экспорта телеметрии, записанного {@link TelemetryExportWriter}.
+ * <p>
+ * Блоки читаются по очереди, в памяти держится только текущий. Если задан
+ * интервал времени ({@link #setTimeRange(long, long)}), блок, целиком лежащий
+ * раньше интервала, пропускается по минимуму и максимуму из заголовка без
+ * чтения и декодирования данных, а на первом блоке позже интервала чтение
+ * заканчивается. Строки пишутся в объект вызывающего, поэтому чтение не создает
+ * объектов на строку. Экземпляр не потокобезопасен.
+ * <pre>
+ * try (TelemetryExportReader reader = new TelemetryExportReader(Paths.get("flight.abtc"))) {
+ *     AirboatTelemetry telemetry = new AirboatTelemetry();
+ *     while (reader.next(telemetry)) {
+ *         System.out.println(reader.getTimestampMillis() + " " + telemetry);
+ *     }
+ * }
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class TelemetryExportReader implements Closeable {
+
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+    private final DataInputStream input;
+    private final long[][] columns;
+    private final long[] minimums;
+    private final long[] maximums;
+    private byte[] data;
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private int rows;
+    private int row;
+    private long timestampMillis;
+    private long blocksRead;
+    private long blocksSkipped;
+    private boolean finished;
+
+    /**
+     * Открывает файл экспорта.
+     *
+     * @param file Файл экспорта
+     * @throws IOException если файл не читается или имеет другой формат
+     */
+    public TelemetryExportReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    /**
+     * Начинает чтение экспорта из потока. Поток закрывается вместе с читателем.
+     *
+     * @param input Поток ввода
+     * @throws IOException если заголовок не читается или имеет другой формат
+     */
+    public TelemetryExportReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        try {
+            if (this.input.readInt() != ExportFormat.MAGIC) {
+                throw new IOException("Файл не является экспортом телеметрии");
+            }
+            int version = this.input.readUnsignedShort();
+            int columnCount = this.input.readUnsignedShort();
+            if (version != ExportFormat.VERSION || columnCount != ExportFormat.COLUMN_COUNT) {
+                throw new IOException("Неподдерживаемая версия экспорта: " + version + ", колонок " + columnCount);
+            }
+            int blockRows = this.input.readInt();
+            if (blockRows <= 0 || blockRows > ExportFormat.MAX_BLOCK_ROWS) {
+                throw new IOException("Недопустимый размер блока: " + blockRows);
+            }
+            this.columns = new long[ExportFormat.COLUMN_COUNT][blockRows];
+        } catch (IOException e) {
+            this.input.close();
+            throw e instanceof EOFException ? new IOException("Файл экспорта обрезан", e) : e;
+        }
+        this.minimums = new long[ExportFormat.COLUMN_COUNT];
+        this.maximums = new long[ExportFormat.COLUMN_COUNT];
+        this.data = new byte[0];
+    }
+
+    /**
+     * Ограничивает чтение интервалом времени. Задается до первого {@link #next(AirboatTelemetry)}.
+     *
+     * @param fromMillis Начало интервала (включительно)
+     * @param toMillis Конец интервала (включительно)
+     */
+    public void setTimeRange(long fromMillis, long toMillis) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+
+    /**
+     * Читает следующую строку.
+     *
+     * @param telemetry Объект, в который записываются поля строки
+     * @return true если строка прочитана, false в конце экспорта или интервала
+     * @throws IOException если данные не читаются или повреждены
+     */
+    public boolean next(AirboatTelemetry telemetry) throws IOException {
+        while (!finished) {
+            if (row == rows) {
+                if (!readBlock()) {
+                    finished = true;
+                    return false;
+                }
+                continue;
+            }
+
+            long timestamp = columns[ExportFormat.TIME_COLUMN][row];
+            if (timestamp > toMillis) {
+                finished = true;
+                return false;
+            }
+            if (timestamp < fromMillis) {
+                row++;
+                continue;
+            }
+
+            timestampMillis = timestamp;
+            for (int i = 0; i < FIELDS.length; i++) {
+                FIELDS[i].set(telemetry, columns[i + 1][row]);
+            }
+            row++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает метку времени последней прочитанной строки.
+     *
+     * @return Миллисекунды
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Возвращает число прочитанных и декодированных блоков.
+     *
+     * @return Число блоков
+     */
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    /**
+     * Возвращает число блоков, пропущенных по заголовку.
+     *
+     * @return Число блоков
+     */
+    public long getBlocksSkipped() {
+        return blocksSkipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        input.close();
+    }
+
+    /**
+     * Читает следующий блок, пересекающийся с интервалом, и декодирует его колонки.
+     *
+     * @return false если блоков больше нет или следующий блок позже интервала
+     */
+    private boolean readBlock() throws IOException {
+        while (true) {
+            int blockRows;
+            try {
+                blockRows = input.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+
+            int length;
+            try {
+                length = input.readInt();
+                if (blockRows <= 0 || blockRows > columns[0].length
+                        || length < 0 || length > ExportFormat.maxDataSize(blockRows)) {
+                    throw new IOException("Поврежден заголовок блока: строк " + blockRows + ", байт " + length);
+                }
+                for (int column = 0; column < ExportFormat.COLUMN_COUNT; column++) {
+                    minimums[column] = input.readLong();
+                    maximums[column] = input.readLong();
+                }
+
+                if (minimums[ExportFormat.TIME_COLUMN] > toMillis) {
+                    return false;
+                }
+                if (maximums[ExportFormat.TIME_COLUMN] < fromMillis) {
+                    input.skipNBytes(length);
+                    blocksSkipped++;
+                    continue;
+                }
+
+                if (data.length < length) {
+                    data = new byte[length];
+                }
+                input.readFully(data, 0, length);
+            } catch (EOFException e) {
+                throw new IOException("Файл экспорта обрезан", e);
+            }
+
+            int position = 0;
+            for (int column = 0; column < ExportFormat.COLUMN_COUNT; column++) {
+                position = decode(columns[column], blockRows, minimums[column],
+                        ExportFormat.deltaOrder(column), position, length);
+            }
+            if (position != length) {
+                throw new IOException("Поврежден блок: длина данных " + length + ", декодировано " + position);
+            }
+            rows = blockRows;
+            row = 0;
+            blocksRead++;
+            return true;
+        }
+    }
+
+    /**
+     * Декодирует колонку блока.
+     *
+     * @return Смещение после колонки
+     */
+    private int decode(long[] values, int count, long min, int order, int position, int limit)
+            throws IOException {
+        long previous = min;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long encoded = 0;
+            int shift = 0;
+            while (true) {
+                if (position == limit || shift > 63) {
+                    throw new IOException("Поврежден блок: некорректное число varint");
+                }
+                byte b = data[position++];
+                encoded |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+                shift += 7;
+            }
+            long delta = ExportFormat.unZigZag(encoded);
+            if (order == 2) {
+                delta += previousDelta;
+            }
+            values[i] = previous + delta;
+            previousDelta = i == 0 ? 0 : delta;
+            previous = values[i];
+        }
+        return position;
+    }
+}
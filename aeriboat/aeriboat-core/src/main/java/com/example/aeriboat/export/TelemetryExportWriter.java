@@ -0,0 +1,206 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Потоковая запись телеметрии в колоночном формате {@link ExportFormat}.
+ * <p>
+ * Строки накапливаются в колонках текущего блока и кодируются целиком,
+ * когда блок заполнен или файл закрывается; в памяти держится только один
+ * блок, поэтому длина экспорта не ограничена. Запись строки не создает
+ * объектов. Экземпляр не потокобезопасен.
+ * <pre>
+ * try (TelemetryExportWriter writer = new TelemetryExportWriter(Paths.get("flight.abtc"))) {
+ *     writer.write(System.currentTimeMillis(), telemetry);
+ * }
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class TelemetryExportWriter implements Closeable {
+
+    /**
+     * Число строк в блоке по умолчанию.
+     */
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+
+    private final DataOutputStream output;
+    private final int blockRows;
+    private final long[][] columns;
+    private final long[] minimums;
+    private final long[] maximums;
+    private final byte[] data;
+    private int rows;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long rowCount;
+    private long blockCount;
+    private long bytesWritten;
+    private boolean closed;
+
+    /**
+     * Создает файл экспорта (существующий перезаписывается).
+     *
+     * @param file Файл экспорта
+     * @throws IOException если файл не удалось создать
+     */
+    public TelemetryExportWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file), DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Начинает экспорт в поток. Поток закрывается вместе с писателем.
+     *
+     * @param output Поток вывода
+     * @param blockRows Наибольшее число строк в блоке
+     * @throws IOException если заголовок не удалось записать
+     */
+    public TelemetryExportWriter(OutputStream output, int blockRows) throws IOException {
+        if (blockRows <= 0 || blockRows > ExportFormat.MAX_BLOCK_ROWS) {
+            throw new IllegalArgumentException("Недопустимый размер блока: " + blockRows);
+        }
+        this.output = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+        this.blockRows = blockRows;
+        this.columns = new long[ExportFormat.COLUMN_COUNT][blockRows];
+        this.minimums = new long[ExportFormat.COLUMN_COUNT];
+        this.maximums = new long[ExportFormat.COLUMN_COUNT];
+        this.data = new byte[ExportFormat.maxDataSize(blockRows)];
+
+        this.output.writeInt(ExportFormat.MAGIC);
+        this.output.writeShort(ExportFormat.VERSION);
+        this.output.writeShort(ExportFormat.COLUMN_COUNT);
+        this.output.writeInt(blockRows);
+        bytesWritten = ExportFormat.HEADER_SIZE;
+    }
+
+    /**
+     * Добавляет строку. Значения копируются, ссылка на объект не сохраняется.
+     *
+     * @param timestampMillis Метка времени (мс); меньшая предыдущей приравнивается к ней
+     * @param telemetry Телеметрия
+     * @throws IOException если заполненный блок не удалось записать
+     */
+    public void write(long timestampMillis, AirboatTelemetry telemetry) throws IOException {
+        if (closed) {
+            throw new IOException("Экспорт уже закрыт");
+        }
+        lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+        columns[ExportFormat.TIME_COLUMN][rows] = lastTimestamp;
+        for (int i = 0; i < FIELDS.length; i++) {
+            columns[i + 1][rows] = FIELDS[i].get(telemetry);
+        }
+        rows++;
+        rowCount++;
+        if (rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Возвращает число записанных строк.
+     *
+     * @return Число строк
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Возвращает число записанных блоков.
+     *
+     * @return Число блоков
+     */
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Возвращает размер записанных данных, включая заголовки.
+     * Незаписанный неполный блок не учитывается до {@link #close()}.
+     *
+     * @return Байты
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Записывает неполный блок и закрывает поток.
+     *
+     * @throws IOException если данные не удалось записать
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rows > 0) {
+                writeBlock();
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int length = 0;
+        for (int column = 0; column < ExportFormat.COLUMN_COUNT; column++) {
+            long[] values = columns[column];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < rows; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            minimums[column] = min;
+            maximums[column] = max;
+            length = encode(values, min, ExportFormat.deltaOrder(column), length);
+        }
+
+        output.writeInt(rows);
+        output.writeInt(length);
+        for (int column = 0; column < ExportFormat.COLUMN_COUNT; column++) {
+            output.writeLong(minimums[column]);
+            output.writeLong(maximums[column]);
+        }
+        output.write(data, 0, length);
+
+        bytesWritten += ExportFormat.BLOCK_HEADER_SIZE + length;
+        blockCount++;
+        rows = 0;
+    }
+
+    /**
+     * Кодирует колонку блока разностями заданного порядка.
+     *
+     * @return Новая длина данных блока
+     */
+    private int encode(long[] values, long min, int order, int position) {
+        long previous = min;
+        long previousDelta = 0;
+        for (int i = 0; i < rows; i++) {
+            long delta = values[i] - previous;
+            long encoded = ExportFormat.zigZag(order == 2 ? delta - previousDelta : delta);
+            while ((encoded & ~0x7FL) != 0) {
+                data[position++] = (byte) ((encoded & 0x7F) | 0x80);
+                encoded >>>= 7;
+            }
+            data[position++] = (byte) encoded;
+            previousDelta = i == 0 ? 0 : delta;
+            previous = values[i];
+        }
+        return position;
+    }
+}
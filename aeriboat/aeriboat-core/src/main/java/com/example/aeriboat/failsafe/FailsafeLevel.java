@@ -0,0 +1,41 @@
+package com.example.aeriboat.failsafe;
+
+/**
+ * Уровень реакции сторожа связи на отсутствие телеметрии.
+ * Уровни упорядочены по возрастанию строгости.
+ *
+ * @since 1.1
+ */
+public enum FailsafeLevel {
+
+    /**
+     * Телеметрия поступает, вмешательства нет.
+     */
+    NORMAL("норма"),
+
+    /**
+     * Телеметрии нет дольше порога предупреждения: только сообщение оператору.
+     */
+    WARNING("предупреждение"),
+
+    /**
+     * Удержание: скорость ограничивается малым ходом, руль остается у оператора.
+     */
+    HOLD("удержание"),
+
+    /**
+     * Остановка: мотору повторно отправляется скорость 0, пока связь не вернется.
+     */
+    STOP("остановка");
+
+    private final String displayName;
+
+    FailsafeLevel(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
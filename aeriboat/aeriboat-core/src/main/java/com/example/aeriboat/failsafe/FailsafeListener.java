@@ -0,0 +1,21 @@
+package com.example.aeriboat.failsafe;
+
+/**
+ * Слушатель смены уровня сторожа связи.
+ * Вызывается из потока сторожа уже после отправки команд уровня,
+ * поэтому не должен блокироваться.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface FailsafeListener {
+
+    /**
+     * Обрабатывает смену уровня.
+     *
+     * @param previous Прежний уровень
+     * @param level Новый уровень
+     * @param silenceMillis Время без телеметрии на момент смены (мс)
+     */
+    void onLevelChanged(FailsafeLevel previous, FailsafeLevel level, long silenceMillis);
+}
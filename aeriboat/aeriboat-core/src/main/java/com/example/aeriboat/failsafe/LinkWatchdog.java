@@ -0,0 +1,384 @@
+package com.example.aeriboat.failsafe;
+
+import com.example.aeriboat.metrics.RttHistogram;
+import com.example.aeriboat.metrics.RttSnapshot;
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.UdpClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Сторож связи: останавливает лодку, если телеметрия перестала поступать.
+ * <p>
+ * Работает в собственном потоке с наивысшим приоритетом и проверяет время
+ * с последней принятой телеметрии ({@link UdpClient#getLastTelemetryNanos()})
+ * на каждом такте. По мере роста паузы уровень повышается:
+ * <ol>
+ *     <li>{@link FailsafeLevel#WARNING} - только уведомление слушателей;</li>
+ *     <li>{@link FailsafeLevel#HOLD} - {@link CommandCoalescer#hold(int)}:
+ *     скорость любых уставок ограничивается малым ходом;</li>
+ *     <li>{@link FailsafeLevel#STOP} - скорость 0, команда остановки
+ *     повторяется с заданным интервалом, пока связь не вернется.</li>
+ * </ol>
+ * Команды отправляются прямо из потока сторожа, не дожидаясь такта планировщика
+ * команд и потока JavaFX. Когда телеметрия возвращается, ограничение снимается;
+ * слушатели должны к этому моменту привести уставку UI к безопасной
+ * (например, обнулить слайдер скорости при остановке).
+ * <p>
+ * Сторож учитывает собственное опоздание: на каждом такте записывается,
+ * насколько позже назначенного момента поток проснулся, а при повышении
+ * уровня - насколько позже порога ушла команда. По этим значениям можно
+ * проверить, что срок реакции выдерживается под нагрузкой GC и UI.
+ * Пропущенные такты не догоняются: после долгой паузы потока следующий
+ * такт назначается от текущего момента.
+ *
+ * @since 1.1
+ */
+public class LinkWatchdog {
+
+    public static final long DEFAULT_PERIOD_MS = 20;
+    public static final long DEFAULT_WARNING_MS = 1000;
+    public static final long DEFAULT_HOLD_MS = 2000;
+    public static final long DEFAULT_STOP_MS = 3000;
+    public static final long DEFAULT_STOP_REPEAT_MS = 200;
+    public static final int DEFAULT_HOLD_SPEED = 20;
+
+    private static final String THREAD_NAME = "link-watchdog";
+
+    private final UdpClient udpClient;
+    private final CommandCoalescer commandCoalescer;
+    private final List<FailsafeListener> listeners;
+    private final RttHistogram jitter;
+    private final LongSupplier clock;
+    private volatile long periodNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PERIOD_MS);
+    private volatile long warningNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_WARNING_MS);
+    private volatile long holdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_HOLD_MS);
+    private volatile long stopNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_STOP_MS);
+    private volatile long stopRepeatNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_STOP_REPEAT_MS);
+    private volatile int holdSpeed = DEFAULT_HOLD_SPEED;
+    private volatile FailsafeLevel level = FailsafeLevel.NORMAL;
+    private volatile boolean running;
+    private volatile long ticks;
+    private volatile long overruns;
+    private volatile long maxLatenessNanos;
+    private volatile long maxReactionNanos;
+    private long lastStopNanos;
+    private Thread thread;
+
+    /**
+     * Создает сторожа. Поток запускается вызовом {@link #start()}.
+     *
+     * @param udpClient Клиент, по которому отслеживается поступление телеметрии
+     * @param commandCoalescer Планировщик команд, через который выполняются удержание и остановка
+     */
+    public LinkWatchdog(UdpClient udpClient, CommandCoalescer commandCoalescer) {
+        this(udpClient, commandCoalescer, System::nanoTime);
+    }
+
+    /**
+     * Создает сторожа с заданными часами (для тестов).
+     *
+     * @param udpClient Клиент, по которому отслеживается поступление телеметрии
+     * @param commandCoalescer Планировщик команд, через который выполняются удержание и остановка
+     * @param clock Источник времени в шкале {@link System#nanoTime()}
+     */
+    LinkWatchdog(UdpClient udpClient, CommandCoalescer commandCoalescer, LongSupplier clock) {
+        this.udpClient = udpClient;
+        this.commandCoalescer = commandCoalescer;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.jitter = new RttHistogram();
+        this.clock = clock;
+    }
+
+    /**
+     * Запускает поток сторожа. Повторный вызов ничего не делает.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток сторожа и дожидается его завершения.
+     */
+    public synchronized void shutdown() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(periodNanos) * 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Устанавливает пороги паузы в телеметрии для каждого уровня.
+     *
+     * @param warningMs Порог предупреждения (мс)
+     * @param holdMs Порог удержания (мс), не меньше порога предупреждения
+     * @param stopMs Порог остановки (мс), не меньше порога удержания
+     * @throws IllegalArgumentException если пороги не возрастают или не положительны
+     */
+    public void setThresholds(long warningMs, long holdMs, long stopMs) {
+        if (warningMs <= 0 || holdMs < warningMs || stopMs < holdMs) {
+            throw new IllegalArgumentException("Пороги должны быть положительны и не убывать: "
+                    + warningMs + ", " + holdMs + ", " + stopMs);
+        }
+        warningNanos = TimeUnit.MILLISECONDS.toNanos(warningMs);
+        holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMs);
+        stopNanos = TimeUnit.MILLISECONDS.toNanos(stopMs);
+    }
+
+    /**
+     * Устанавливает период проверки. Срок реакции на порог - не больше
+     * одного периода плюс опоздание потока.
+     *
+     * @param periodMs Период (мс)
+     */
+    public void setPeriodMillis(long periodMs) {
+        periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMs));
+    }
+
+    /**
+     * Устанавливает интервал повтора команды остановки.
+     *
+     * @param repeatMs Интервал (мс)
+     */
+    public void setStopRepeatMillis(long repeatMs) {
+        stopRepeatNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, repeatMs));
+    }
+
+    /**
+     * Устанавливает наибольшую скорость в режиме удержания.
+     *
+     * @param speed Скорость (0-100%)
+     */
+    public void setHoldSpeed(int speed) {
+        holdSpeed = Math.max(0, Math.min(100, speed));
+    }
+
+    /**
+     * Возвращает наибольшую скорость в режиме удержания.
+     *
+     * @return Скорость (0-100%)
+     */
+    public int getHoldSpeed() {
+        return holdSpeed;
+    }
+
+    /**
+     * Добавляет слушателя смены уровня.
+     *
+     * @param listener Слушатель
+     */
+    public void addListener(FailsafeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя смены уровня.
+     *
+     * @param listener Слушатель
+     */
+    public void removeListener(FailsafeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Возвращает текущий уровень.
+     *
+     * @return Уровень
+     */
+    public FailsafeLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Собирает статистику опоздания тактов за последние секунды.
+     *
+     * @param windowSeconds Длина окна (1-{@link RttHistogram#MAX_WINDOW_SECONDS} с)
+     * @return Перцентили опоздания (мкс); поле потерь не используется
+     */
+    public RttSnapshot getJitterSnapshot(int windowSeconds) {
+        return jitter.snapshot(windowSeconds);
+    }
+
+    /**
+     * Возвращает число выполненных тактов.
+     *
+     * @return Число тактов
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Возвращает число тактов, опоздавших на целый период и больше.
+     *
+     * @return Число опозданий
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Возвращает наибольшее опоздание такта за время работы.
+     *
+     * @return Опоздание (нс)
+     */
+    public long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    /**
+     * Возвращает наибольшую задержку реакции: время от пересечения порога
+     * до отправки команды его уровня.
+     *
+     * @return Задержка (нс) или 0, если уровень еще не повышался
+     */
+    public long getMaxReactionNanos() {
+        return maxReactionNanos;
+    }
+
+    /**
+     * Цикл потока сторожа: ожидание до назначенного момента, учет опоздания, проверка.
+     */
+    private void run() {
+        long deadline = clock.getAsLong() + periodNanos;
+        while (running) {
+            long now = clock.getAsLong();
+            if (now < deadline) {
+                LockSupport.parkNanos(deadline - now);
+                continue;
+            }
+
+            long period = periodNanos;
+            long lateness = now - deadline;
+            jitter.record(lateness, now);
+            if (lateness > maxLatenessNanos) {
+                maxLatenessNanos = lateness;
+            }
+            if (lateness >= period) {
+                overruns++;
+            }
+            ticks++;
+
+            try {
+                check(now);
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка сторожа связи: " + e.getMessage());
+            }
+
+            deadline += period;
+            if (deadline <= now) {
+                deadline = now + period;
+            }
+        }
+    }
+
+    /**
+     * Определяет уровень по паузе в телеметрии и выполняет его действия.
+     * Вызывается из потока сторожа; пакетный доступ оставлен для тестов.
+     *
+     * @param now Текущее значение часов
+     */
+    void check(long now) {
+        if (!udpClient.isConnected()) {
+            // Без соединения команды не уходят; удержание снимается, чтобы не мешать переподключению
+            FailsafeLevel current = level;
+            if (current != FailsafeLevel.NORMAL) {
+                if (current.compareTo(FailsafeLevel.HOLD) >= 0) {
+                    commandCoalescer.release();
+                }
+                changeLevel(FailsafeLevel.NORMAL, 0);
+            }
+            return;
+        }
+
+        long lastTelemetry = udpClient.getLastTelemetryNanos();
+        long silence = now - lastTelemetry;
+        FailsafeLevel target = silence >= stopNanos ? FailsafeLevel.STOP
+                : silence >= holdNanos ? FailsafeLevel.HOLD
+                : silence >= warningNanos ? FailsafeLevel.WARNING
+                : FailsafeLevel.NORMAL;
+
+        FailsafeLevel current = level;
+        if (target == current) {
+            if (target == FailsafeLevel.STOP && now - lastStopNanos >= stopRepeatNanos) {
+                sendStop();
+            }
+            return;
+        }
+
+        if (target.compareTo(current) > 0) {
+            // Уровни проходятся по порядку, даже если поток проспал несколько порогов
+            if (target.compareTo(FailsafeLevel.HOLD) >= 0 && current.compareTo(FailsafeLevel.HOLD) < 0) {
+                sendHold();
+                recordReaction(lastTelemetry + holdNanos);
+            }
+            if (target == FailsafeLevel.STOP) {
+                sendStop();
+                recordReaction(lastTelemetry + stopNanos);
+            }
+        } else if (current.compareTo(FailsafeLevel.HOLD) >= 0 && target.compareTo(FailsafeLevel.HOLD) < 0) {
+            commandCoalescer.release();
+        }
+        changeLevel(target, TimeUnit.NANOSECONDS.toMillis(silence));
+    }
+
+    private void sendHold() {
+        try {
+            commandCoalescer.hold(holdSpeed);
+        } catch (IOException e) {
+            System.err.println("Ошибка отправки удержания: " + e.getMessage());
+        }
+    }
+
+    private void sendStop() {
+        lastStopNanos = clock.getAsLong();
+        try {
+            commandCoalescer.hold(0);
+        } catch (IOException e) {
+            System.err.println("Ошибка отправки остановки: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Учитывает задержку реакции на порог.
+     *
+     * @param thresholdNanos Момент пересечения порога по часам сторожа
+     */
+    private void recordReaction(long thresholdNanos) {
+        long reaction = clock.getAsLong() - thresholdNanos;
+        if (reaction > maxReactionNanos) {
+            maxReactionNanos = reaction;
+        }
+    }
+
+    private void changeLevel(FailsafeLevel next, long silenceMillis) {
+        FailsafeLevel previous = level;
+        level = next;
+        for (FailsafeListener listener : listeners) {
+            try {
+                listener.onLevelChanged(previous, next, silenceMillis);
+            } catch (Exception e) {
+                System.err.println("Ошибка в слушателе сторожа связи: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.aeriboat.fleet;
+
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.SequenceWindow;
+import com.example.aeriboat.protocol.WireFormat;
+
+import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лодка в составе флота: адрес, последняя телеметрия и очередь команд.
+ * <p>
+ * Уставка угла и скорости хранится по принципу "побеждает последнее значение"
+ * и отправляется потоком {@link FleetManager}; разовые команды ставятся в очередь.
+ * Публичные методы потокобезопасны; поля состояния протокола меняет только
+ * поток ввода-вывода менеджера.
+ *
+ * @since 1.1
+ */
+public class BoatEndpoint {
+
+    static final long NO_SETPOINT = Long.MIN_VALUE;
+
+    private final String name;
+    private final InetSocketAddress address;
+    private final Queue<AirboatCommand> commandQueue;
+    private volatile long pendingSetpoint = NO_SETPOINT;
+    private volatile AirboatTelemetry latestTelemetry;
+    private volatile long lastTelemetryNanos;
+    private volatile long telemetryCount;
+    private volatile WireFormat wireFormat = WireFormat.JSON;
+
+    // Состояние потока ввода-вывода
+    final SequenceWindow sequenceWindow = new SequenceWindow();
+    long lastSentSetpoint = NO_SETPOINT;
+    long lastSentNanos;
+    long lastPollNanos;
+    int nextSequence;
+    int helloAttempts;
+    long nextHelloNanos;
+    boolean sendFailing;
+
+    BoatEndpoint(String name, InetSocketAddress address) {
+        this.name = name;
+        this.address = address;
+        this.commandQueue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Возвращает имя лодки.
+     *
+     * @return Имя
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Возвращает UDP адрес лодки.
+     *
+     * @return Адрес
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Сохраняет новую уставку; она уйдет на ближайшем такте менеджера.
+     *
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     */
+    public void submit(int angle, int speed) {
+        pendingSetpoint = ((long) angle << 32) | (speed & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Ставит разовую команду в очередь отправки.
+     *
+     * @param command Команда
+     */
+    public void enqueue(AirboatCommand command) {
+        commandQueue.add(command);
+    }
+
+    /**
+     * Возвращает последнюю принятую телеметрию.
+     *
+     * @return Телеметрия (снимок, который менеджер больше не изменяет) или null, если пакетов еще не было
+     */
+    public AirboatTelemetry getLatestTelemetry() {
+        return latestTelemetry;
+    }
+
+    /**
+     * Возвращает время с момента последнего пакета телеметрии.
+     *
+     * @return Возраст в миллисекундах или -1, если пакетов еще не было
+     */
+    public long getTelemetryAgeMillis() {
+        return telemetryCount == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastTelemetryNanos);
+    }
+
+    /**
+     * Возвращает количество принятых пакетов телеметрии.
+     *
+     * @return Количество пакетов
+     */
+    public long getTelemetryCount() {
+        return telemetryCount;
+    }
+
+    /**
+     * Возвращает формат кадров, согласованный с лодкой.
+     *
+     * @return Формат кадров
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    long getPendingSetpoint() {
+        return pendingSetpoint;
+    }
+
+    AirboatCommand pollCommand() {
+        return commandQueue.poll();
+    }
+
+    void setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * Публикует копию телеметрии как последнее состояние лодки.
+     *
+     * @param telemetry Декодированная телеметрия
+     * @param nowNanos Время приема
+     */
+    void publish(AirboatTelemetry telemetry, long nowNanos) {
+        latestTelemetry = new AirboatTelemetry(telemetry);
+        lastTelemetryNanos = nowNanos;
+        telemetryCount++;
+    }
+
+    @Override
+    public String toString() {
+        return "BoatEndpoint{" +
+                "name='" + name + '\'' +
+                ", address=" + address +
+                ", wireFormat=" + wireFormat +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.aeriboat.fleet;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+
+/**
+ * Слушатель телеметрии лодок флота.
+ * Вызывается из потока ввода-вывода {@link FleetManager} и не должен блокироваться.
+ * Объект телеметрии переиспользуется и действителен только во время вызова.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface FleetListener {
+
+    /**
+     * Обрабатывает пакет телеметрии лодки.
+     *
+     * @param boat Лодка, от которой пришел пакет
+     * @param telemetry Декодированная телеметрия
+     */
+    void onTelemetry(BoatEndpoint boat, AirboatTelemetry telemetry);
+}
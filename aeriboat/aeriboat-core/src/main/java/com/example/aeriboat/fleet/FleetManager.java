@@ -0,0 +1,402 @@
+package com.example.aeriboat.fleet;
+
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.CommandEncoder;
+import com.example.aeriboat.protocol.SequenceWindow;
+import com.example.aeriboat.protocol.TelemetryDecoder;
+import com.example.aeriboat.protocol.WireFormat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер флота лодок на одном UDP канале и одном потоке.
+ * <p>
+ * Все лодки обслуживаются через один неблокирующий {@link DatagramChannel}:
+ * входящие датаграммы разбираются по адресу отправителя, а на каждом такте
+ * поток менеджера отправляет каждой лодке ее последнюю уставку, разовые команды
+ * из очереди и периодические запросы телеметрии. Число потоков не зависит
+ * от размера флота: прием, отправка и таймеры выполняются одним потоком
+ * на {@link Selector}.
+ * <p>
+ * Переход лодки на бинарный протокол запрашивается рукопожатием; пока лодка
+ * его не подтвердила, запрос повторяется с удвоением интервала от
+ * {@link #HELLO_RETRY_MS}, не более {@link #HELLO_MAX_ATTEMPTS} раз, после
+ * чего лодка остается на JSON.
+ *
+ * @since 1.1
+ */
+public class FleetManager implements AutoCloseable {
+
+    public static final int DEFAULT_CONTROL_RATE_HZ = 25;
+    public static final int DEFAULT_POLL_RATE_HZ = 5;
+    public static final long DEFAULT_KEEP_ALIVE_MS = 500;
+    public static final long HELLO_RETRY_MS = 250;
+    public static final int HELLO_MAX_ATTEMPTS = 6;
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final String IO_THREAD_NAME = "fleet-io";
+
+    private final Map<SocketAddress, BoatEndpoint> boats;
+    private final List<FleetListener> listeners;
+    private final ByteBuffer sendBuffer;
+    private final long controlPeriodNanos;
+    private final long pollPeriodNanos;
+    private final long keepAliveNanos;
+    private volatile DatagramChannel channel;
+    private volatile Selector selector;
+    private Thread ioThread;
+
+    /**
+     * Создает менеджер с частотами по умолчанию.
+     */
+    public FleetManager() {
+        this(DEFAULT_CONTROL_RATE_HZ, DEFAULT_POLL_RATE_HZ);
+    }
+
+    /**
+     * Создает менеджер.
+     *
+     * @param controlRateHz Частота отправки уставок (Гц)
+     * @param pollRateHz Частота запросов телеметрии каждой лодки (Гц)
+     */
+    public FleetManager(int controlRateHz, int pollRateHz) {
+        this.boats = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.sendBuffer = ByteBuffer.allocateDirect(CommandEncoder.MAX_COMMAND_SIZE);
+        this.controlPeriodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, controlRateHz);
+        this.pollPeriodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, pollRateHz);
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_KEEP_ALIVE_MS);
+    }
+
+    /**
+     * Открывает канал и запускает поток ввода-вывода.
+     *
+     * @throws IOException если не удалось открыть канал
+     */
+    public synchronized void start() throws IOException {
+        if (channel != null) {
+            return;
+        }
+
+        DatagramChannel newChannel = DatagramChannel.open();
+        Selector newSelector = Selector.open();
+        try {
+            newChannel.configureBlocking(false);
+            newChannel.bind(null);
+            newChannel.register(newSelector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            newSelector.close();
+            newChannel.close();
+            throw e;
+        }
+
+        channel = newChannel;
+        selector = newSelector;
+        ioThread = new Thread(() -> ioLoop(newChannel, newSelector), IO_THREAD_NAME);
+        ioThread.setDaemon(true);
+        ioThread.start();
+        System.out.println("Менеджер флота запущен на порту " + newChannel.socket().getLocalPort());
+    }
+
+    /**
+     * Возвращает локальный адрес канала флота.
+     *
+     * @return Адрес или null, если менеджер не запущен
+     * @throws IOException если адрес не удалось получить
+     */
+    InetSocketAddress getLocalAddress() throws IOException {
+        DatagramChannel current = channel;
+        return current == null ? null : (InetSocketAddress) current.getLocalAddress();
+    }
+
+    /**
+     * Добавляет лодку во флот.
+     *
+     * @param name Имя лодки
+     * @param ip IP адрес ESP32
+     * @param port UDP порт ESP32
+     * @return Добавленная лодка
+     * @throws IOException если адрес не удалось разрешить
+     */
+    public BoatEndpoint addBoat(String name, String ip, int port) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(ip, port);
+        if (address.isUnresolved()) {
+            throw new IOException("Не удалось разрешить адрес " + ip);
+        }
+
+        BoatEndpoint boat = new BoatEndpoint(name, address);
+        BoatEndpoint previous = boats.putIfAbsent(address, boat);
+        if (previous != null) {
+            throw new IOException("Лодка с адресом " + address + " уже добавлена: " + previous.getName());
+        }
+        return boat;
+    }
+
+    /**
+     * Удаляет лодку из флота.
+     *
+     * @param boat Лодка
+     */
+    public void removeBoat(BoatEndpoint boat) {
+        boats.remove(boat.getAddress(), boat);
+    }
+
+    /**
+     * Возвращает лодки флота.
+     *
+     * @return Неизменяемое представление списка лодок
+     */
+    public Collection<BoatEndpoint> getBoats() {
+        return Collections.unmodifiableCollection(boats.values());
+    }
+
+    /**
+     * Добавляет слушателя телеметрии флота.
+     *
+     * @param listener Слушатель
+     */
+    public void addListener(FleetListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя телеметрии флота.
+     *
+     * @param listener Слушатель
+     */
+    public void removeListener(FleetListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Останавливает поток и закрывает канал.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия канала флота: " + e.getMessage());
+        } finally {
+            selector = null;
+            channel = null;
+            ioThread = null;
+        }
+    }
+
+    /**
+     * Цикл потока ввода-вывода: прием до следующего такта, затем такт отправки.
+     *
+     * @param ioChannel Канал флота
+     * @param ioSelector Селектор канала
+     */
+    private void ioLoop(DatagramChannel ioChannel, Selector ioSelector) {
+        ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        TelemetryDecoder decoder = new TelemetryDecoder();
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        long nextTickNanos = System.nanoTime();
+
+        try {
+            while (ioChannel.isOpen()) {
+                long waitNanos = nextTickNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    // Округление вверх: остаток меньше миллисекунды не должен превращаться в selectNow()
+                    long waitMillis = (waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1)
+                            / TimeUnit.MILLISECONDS.toNanos(1);
+                    ioSelector.select(waitMillis);
+                } else {
+                    ioSelector.selectNow();
+                }
+
+                Iterator<SelectionKey> keys = ioSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        drainChannel(ioChannel, receiveBuffer, decoder, telemetry);
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - nextTickNanos >= 0) {
+                    tick(ioChannel, now);
+                    nextTickNanos += controlPeriodNanos;
+                    if (now - nextTickNanos >= 0) {
+                        // Такт опоздал больше чем на период: не догоняем пропущенные
+                        nextTickNanos = now + controlPeriodNanos;
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Менеджер закрыт через close()
+        } catch (IOException e) {
+            if (ioChannel.isOpen()) {
+                System.err.println("Ошибка ввода-вывода флота: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Читает все накопившиеся датаграммы и раздает их лодкам по адресу отправителя.
+     *
+     * @param ioChannel Канал флота
+     * @param buffer Буфер приема
+     * @param decoder Декодер JSON телеметрии
+     * @param telemetry Переиспользуемый объект телеметрии
+     * @throws IOException если произошла ошибка чтения
+     */
+    private void drainChannel(DatagramChannel ioChannel, ByteBuffer buffer, TelemetryDecoder decoder,
+                              AirboatTelemetry telemetry) throws IOException {
+        while (true) {
+            buffer.clear();
+            SocketAddress sender = ioChannel.receive(buffer);
+            if (sender == null) {
+                return;
+            }
+            buffer.flip();
+
+            BoatEndpoint boat = boats.get(sender);
+            if (boat == null) {
+                continue;
+            }
+
+            int sequence;
+            if (BinaryProtocol.isBinaryFrame(buffer)) {
+                if (!BinaryProtocol.isValid(buffer)) {
+                    continue;
+                }
+                int type = BinaryProtocol.getType(buffer);
+                if (type == BinaryProtocol.TYPE_HELLO_ACK) {
+                    boat.setWireFormat(WireFormat.BINARY);
+                    continue;
+                }
+                if (!BinaryProtocol.decodeTelemetry(buffer, telemetry)) {
+                    continue;
+                }
+                // Флот опрашивает лодки сам; кадры потока по подписке принимаются без проверки номера
+                sequence = type == BinaryProtocol.TYPE_STREAM ? 0 : BinaryProtocol.getSequence(buffer);
+            } else if (decoder.decode(buffer, telemetry)) {
+                sequence = Math.max(0, decoder.getSequence());
+            } else {
+                continue;
+            }
+
+            if (sequence != 0 && boat.sequenceWindow.accept(sequence) != SequenceWindow.LATEST) {
+                // Повтор или ответ старее уже принятого
+                continue;
+            }
+
+            boat.publish(telemetry, System.nanoTime());
+            for (FleetListener listener : listeners) {
+                try {
+                    listener.onTelemetry(boat, telemetry);
+                } catch (RuntimeException e) {
+                    System.err.println("Ошибка в обработчике телеметрии флота: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Такт отправки: рукопожатие, разовые команды, уставки и опрос телеметрии.
+     *
+     * @param ioChannel Канал флота
+     * @param now Текущее время (нс)
+     */
+    private void tick(DatagramChannel ioChannel, long now) {
+        for (BoatEndpoint boat : boats.values()) {
+            boolean binary = boat.getWireFormat() == WireFormat.BINARY;
+
+            if (!binary && boat.helloAttempts < HELLO_MAX_ATTEMPTS
+                    && (boat.helloAttempts == 0 || now - boat.nextHelloNanos >= 0)) {
+                sendBuffer.clear();
+                CommandEncoder.encodeHello(sendBuffer, BinaryProtocol.VERSION);
+                send(ioChannel, boat);
+                boat.nextHelloNanos = now + (TimeUnit.MILLISECONDS.toNanos(HELLO_RETRY_MS) << boat.helloAttempts);
+                boat.helloAttempts++;
+            }
+
+            AirboatCommand command;
+            while ((command = boat.pollCommand()) != null) {
+                sendBuffer.clear();
+                if (binary) {
+                    BinaryProtocol.encode(sendBuffer, 0, command);
+                } else {
+                    CommandEncoder.encode(sendBuffer, command);
+                }
+                send(ioChannel, boat);
+            }
+
+            long setpoint = boat.getPendingSetpoint();
+            if (setpoint != BoatEndpoint.NO_SETPOINT
+                    && (setpoint != boat.lastSentSetpoint || now - boat.lastSentNanos >= keepAliveNanos)) {
+                int angle = (int) (setpoint >> 32);
+                int speed = (int) setpoint;
+                sendBuffer.clear();
+                if (binary) {
+                    BinaryProtocol.encodeControl(sendBuffer, 0, angle, speed);
+                } else {
+                    CommandEncoder.encodeControl(sendBuffer, angle, speed);
+                }
+                send(ioChannel, boat);
+                boat.lastSentSetpoint = setpoint;
+                boat.lastSentNanos = now;
+            }
+
+            if (now - boat.lastPollNanos >= pollPeriodNanos) {
+                boat.lastPollNanos = now;
+                boat.nextSequence = boat.nextSequence % 0xFFFF + 1;
+                sendBuffer.clear();
+                if (binary) {
+                    BinaryProtocol.encodeStatusRequest(sendBuffer, boat.nextSequence);
+                } else {
+                    CommandEncoder.encodeStatusRequest(sendBuffer, boat.nextSequence);
+                }
+                send(ioChannel, boat);
+            }
+        }
+    }
+
+    /**
+     * Отправляет подготовленный буфер лодке. Если в буфере сокета нет места,
+     * датаграмма отбрасывается, как при потере на канале. Ошибка отправки одной
+     * лодке не прерывает обслуживание остальных.
+     *
+     * @param ioChannel Канал флота
+     * @param boat Лодка-получатель
+     */
+    private void send(DatagramChannel ioChannel, BoatEndpoint boat) {
+        sendBuffer.flip();
+        try {
+            ioChannel.send(sendBuffer, boat.getAddress());
+            boat.sendFailing = false;
+        } catch (IOException e) {
+            if (!boat.sendFailing) {
+                boat.sendFailing = true;
+                System.err.println("Ошибка отправки лодке " + boat.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
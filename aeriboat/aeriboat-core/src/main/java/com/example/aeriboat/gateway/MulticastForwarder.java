@@ -0,0 +1,161 @@
+package com.example.aeriboat.gateway;
+
+import com.example.aeriboat.service.PacketTap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пересылка принятых от лодки датаграмм подписчикам станции по UDP multicast.
+ * <p>
+ * Подключается к {@link com.example.aeriboat.service.UdpClient} как {@link PacketTap}
+ * и отправляет каждую входящую датаграмму прямо из буфера приема, без копирования
+ * и без декодирования: подписчики получают те же байты (JSON или кадры
+ * {@link com.example.aeriboat.protocol.BinaryProtocol}), что и приложение, и могут
+ * разбирать их теми же декодерами. Отправленные на лодку команды не пересылаются.
+ * <p>
+ * Канал неблокирующий: если буфер отправки переполнен, датаграмма отбрасывается
+ * и учитывается в {@link #getDropped()}, поток приема не ждет. По умолчанию
+ * группа доступна только на петлевом интерфейсе с TTL 1, поэтому пересылка
+ * не уходит в сеть Wi-Fi лодки и не занимает ее эфир. Адрес назначения может
+ * быть и обычным (unicast) - тогда датаграммы получает один подписчик.
+ *
+ * @since 1.1
+ */
+public class MulticastForwarder implements PacketTap, Closeable {
+
+    /**
+     * Группа по умолчанию (локальная для организации область 239.255.0.0/16).
+     */
+    public static final String DEFAULT_GROUP = "239.255.42.99";
+    public static final int DEFAULT_PORT = 12346;
+
+    private static final int DEFAULT_TTL = 1;
+
+    private final DatagramChannel channel;
+    private final InetSocketAddress target;
+    private final AtomicLong forwarded;
+    private final AtomicLong dropped;
+
+    /**
+     * Открывает пересылку в группу по умолчанию на петлевом интерфейсе.
+     *
+     * @throws IOException если канал не удалось открыть
+     */
+    public MulticastForwarder() throws IOException {
+        this(new InetSocketAddress(DEFAULT_GROUP, DEFAULT_PORT), loopbackInterface());
+    }
+
+    /**
+     * Открывает пересылку.
+     *
+     * @param target Группа multicast или адрес единственного подписчика
+     * @param networkInterface Интерфейс для multicast или null - интерфейс по умолчанию системы
+     * @throws IOException если канал не удалось открыть или настроить
+     */
+    public MulticastForwarder(InetSocketAddress target, NetworkInterface networkInterface) throws IOException {
+        if (target.isUnresolved()) {
+            throw new IOException("Не удалось разрешить адрес пересылки: " + target.getHostString());
+        }
+        this.target = target;
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.configureBlocking(false);
+            if (target.getAddress().isMulticastAddress()) {
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, DEFAULT_TTL);
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+                if (networkInterface != null) {
+                    channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.forwarded = new AtomicLong();
+        this.dropped = new AtomicLong();
+    }
+
+    /**
+     * Пересылает входящую датаграмму. Вызывается из потока приема.
+     *
+     * @param direction Направление датаграммы
+     * @param packet Байты датаграммы между position и limit
+     */
+    @Override
+    public void onPacket(int direction, ByteBuffer packet) {
+        if (direction != INBOUND || !channel.isOpen()) {
+            return;
+        }
+        int position = packet.position();
+        try {
+            if (channel.send(packet, target) > 0) {
+                forwarded.incrementAndGet();
+            } else {
+                dropped.incrementAndGet();
+            }
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+        } finally {
+            packet.position(position);
+        }
+    }
+
+    /**
+     * Возвращает адрес, на который пересылаются датаграммы.
+     *
+     * @return Группа или адрес подписчика
+     */
+    public InetSocketAddress getTarget() {
+        return target;
+    }
+
+    /**
+     * Возвращает число пересланных датаграмм.
+     *
+     * @return Число датаграмм
+     */
+    public long getForwarded() {
+        return forwarded.get();
+    }
+
+    /**
+     * Возвращает число датаграмм, которые не удалось отправить.
+     *
+     * @return Число датаграмм
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия канала пересылки: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Находит петлевой интерфейс.
+     *
+     * @return Интерфейс
+     * @throws IOException если система не сообщает петлевой интерфейс
+     */
+    public static NetworkInterface loopbackInterface() throws IOException {
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback == null) {
+            throw new IOException("Петлевой интерфейс не найден");
+        }
+        return loopback;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.aeriboat.gateway;
+
+import com.example.aeriboat.service.UdpClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+
+/**
+ * Шлюз раздачи телеметрии программам станции.
+ * <p>
+ * Подключает к {@link UdpClient} пересылку датаграмм по multicast
+ * ({@link MulticastForwarder}) и HTTP сервер снимков ({@link TelemetryHttpServer}).
+ * Оба только получают то, что приложение уже приняло, и ничего не отправляют
+ * на лодку: сколько бы ни было подписчиков, лодка по-прежнему видит одну
+ * наземную станцию и тот же поток телеметрии.
+ * <pre>
+ * TelemetryGateway gateway = new TelemetryGateway(udpClient);
+ * gateway.startMulticast(new InetSocketAddress("239.255.42.99", 12346), MulticastForwarder.loopbackInterface());
+ * gateway.startHttp(new InetSocketAddress("127.0.0.1", 8090));
+ * ...
+ * gateway.close();
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class TelemetryGateway implements Closeable {
+
+    private final UdpClient udpClient;
+    private MulticastForwarder multicastForwarder;
+    private TelemetryHttpServer httpServer;
+
+    /**
+     * Создает шлюз. Раздача начинается вызовами {@link #startMulticast} и {@link #startHttp}.
+     *
+     * @param udpClient UDP клиент, телеметрию которого раздает шлюз
+     */
+    public TelemetryGateway(UdpClient udpClient) {
+        this.udpClient = udpClient;
+    }
+
+    /**
+     * Начинает пересылку датаграмм. Повторный вызов меняет адрес.
+     *
+     * @param target Группа multicast или адрес единственного подписчика
+     * @param networkInterface Интерфейс для multicast или null - интерфейс по умолчанию системы
+     * @throws IOException если канал не удалось открыть
+     */
+    public synchronized void startMulticast(InetSocketAddress target, NetworkInterface networkInterface)
+            throws IOException {
+        stopMulticast();
+        multicastForwarder = new MulticastForwarder(target, networkInterface);
+        udpClient.addPacketTap(multicastForwarder);
+    }
+
+    /**
+     * Запускает HTTP сервер снимков. Повторный вызов перезапускает его на новом адресе.
+     *
+     * @param bindAddress Адрес и порт сервера
+     * @throws IOException если адрес не удалось занять
+     */
+    public synchronized void startHttp(InetSocketAddress bindAddress) throws IOException {
+        stopHttp();
+        httpServer = new TelemetryHttpServer(bindAddress);
+        udpClient.addTelemetryListener(httpServer);
+    }
+
+    /**
+     * Прекращает пересылку датаграмм, если она ведется.
+     */
+    public synchronized void stopMulticast() {
+        if (multicastForwarder != null) {
+            udpClient.removePacketTap(multicastForwarder);
+            multicastForwarder.close();
+            multicastForwarder = null;
+        }
+    }
+
+    /**
+     * Останавливает HTTP сервер, если он запущен.
+     */
+    public synchronized void stopHttp() {
+        if (httpServer != null) {
+            udpClient.removeTelemetryListener(httpServer);
+            httpServer.close();
+            httpServer = null;
+        }
+    }
+
+    /**
+     * Возвращает пересылку датаграмм.
+     *
+     * @return Пересылка или null, если она не ведется
+     */
+    public synchronized MulticastForwarder getMulticastForwarder() {
+        return multicastForwarder;
+    }
+
+    /**
+     * Возвращает HTTP сервер снимков.
+     *
+     * @return Сервер или null, если он не запущен
+     */
+    public synchronized TelemetryHttpServer getHttpServer() {
+        return httpServer;
+    }
+
+    /**
+     * Возвращает true, если раздача ведется хотя бы одним способом.
+     *
+     * @return true если шлюз работает
+     */
+    public synchronized boolean isActive() {
+        return multicastForwarder != null || httpServer != null;
+    }
+
+    /**
+     * Возвращает краткое описание состояния для строки статуса.
+     *
+     * @return Описание
+     */
+    public synchronized String getStatus() {
+        StringBuilder status = new StringBuilder();
+        if (multicastForwarder != null) {
+            InetSocketAddress target = multicastForwarder.getTarget();
+            status.append(String.format("udp %s:%d переслано %d",
+                    target.getHostString(), target.getPort(), multicastForwarder.getForwarded()));
+            if (multicastForwarder.getDropped() > 0) {
+                status.append(", потеряно ").append(multicastForwarder.getDropped());
+            }
+        }
+        if (httpServer != null) {
+            if (status.length() > 0) {
+                status.append("; ");
+            }
+            InetSocketAddress address = httpServer.getAddress();
+            status.append(String.format("http://%s:%d подписчиков %d, запросов %d",
+                    address.getHostString(), address.getPort(), httpServer.getSubscribers(),
+                    httpServer.getRequests()));
+        }
+        return status.length() > 0 ? status.toString() : "выключен";
+    }
+
+    /**
+     * Останавливает раздачу.
+     */
+    @Override
+    public void close() {
+        stopMulticast();
+        stopHttp();
+    }
+}
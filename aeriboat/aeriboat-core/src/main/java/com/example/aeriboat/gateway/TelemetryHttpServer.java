@@ -0,0 +1,563 @@
+package com.example.aeriboat.gateway;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.TelemetryListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Минимальный HTTP сервер последней телеметрии для программ станции
+ * (журналы, сервер карты, оповещения).
+ * <ul>
+ *   <li>{@code GET /telemetry} - последний снимок в JSON для клиентов, которые опрашивают;</li>
+ *   <li>{@code GET /events} - поток Server-Sent Events: сразу последний снимок, затем каждый новый.</li>
+ * </ul>
+ * Снимок - объект с полями {@code seq}, {@code timestamp_ms} и полями телеметрии
+ * под именами JSON протокола ESP32. Поток приема только копирует значения
+ * под короткой блокировкой и, если есть подписчики, будит поток обслуживания;
+ * объектов он не создает. Сериализует снимок поток обслуживания и только
+ * когда он нужен: для подписчиков или запроса опроса. Снимок записывается
+ * один раз в буфер вне кучи из пула в виде готового события SSE; ответы на
+ * опрос и события всем подписчикам отправляются из этого же буфера без
+ * копирования байтов, а буфер возвращается в пул, когда его дописал последний
+ * клиент. Поэтому число клиентов не влияет на поток приема и не добавляет
+ * ни одного пакета к лодке.
+ * <p>
+ * Все сокеты обслуживает один поток на {@link Selector}. Медленный подписчик
+ * не задерживает остальных: пока он не дочитал текущее событие, для него
+ * хранится только самый свежий снимок, промежуточные пропускаются
+ * ({@link #getSkippedEvents()}). Ответ на опрос закрывает соединение.
+ *
+ * @since 1.1
+ */
+public class TelemetryHttpServer implements TelemetryListener, Closeable {
+
+    public static final int DEFAULT_PORT = 8090;
+    public static final int MAX_CLIENTS = 64;
+
+    private static final String THREAD_NAME = "telemetry-http";
+    private static final int MAX_REQUEST_SIZE = 2048;
+    private static final TelemetryField[] FIELDS = TelemetryField.values();
+    private static final int SEQUENCE_SLOT = 0;
+    private static final int TIMESTAMP_SLOT = 1;
+    private static final int FIELDS_SLOT = 2;
+    // Наибольшее событие с 20-значными числами во всех полях занимает меньше 300 байт
+    private static final int FRAME_CAPACITY = 512;
+
+    private static final byte[] EVENTS_HEADER = ("HTTP/1.1 200 OK\r\n"
+            + "Content-Type: text/event-stream\r\n"
+            + "Cache-Control: no-cache\r\n"
+            + "Access-Control-Allow-Origin: *\r\n"
+            + "Connection: keep-alive\r\n\r\n"
+            + "retry: 1000\n\n").getBytes(StandardCharsets.US_ASCII);
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final InetSocketAddress address;
+    private final long[] pending;
+    private final long[] published;
+    private final StringBuilder json;
+    private final ArrayDeque<Snapshot> pool;
+    private final AtomicLong requests;
+    private final AtomicLong skippedEvents;
+    private final Thread thread;
+    private volatile int subscribers;
+    private volatile boolean running;
+    // Пишется только потоком обслуживания
+    private volatile int snapshotsInUse;
+    private Snapshot current;
+    private int clients;
+
+    /**
+     * Открывает сервер на локальном адресе 127.0.0.1 и порту {@link #DEFAULT_PORT}.
+     *
+     * @throws IOException если порт занят
+     */
+    public TelemetryHttpServer() throws IOException {
+        this(new InetSocketAddress("127.0.0.1", DEFAULT_PORT));
+    }
+
+    /**
+     * Открывает сервер и запускает поток обслуживания.
+     *
+     * @param bindAddress Адрес и порт (порт 0 - любой свободный)
+     * @throws IOException если адрес не удалось занять
+     */
+    public TelemetryHttpServer(InetSocketAddress bindAddress) throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        this.selector = Selector.open();
+        try {
+            serverChannel.bind(bindAddress);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        this.address = (InetSocketAddress) serverChannel.getLocalAddress();
+        this.pending = new long[FIELDS_SLOT + FIELDS.length];
+        this.published = new long[pending.length];
+        this.json = new StringBuilder(FRAME_CAPACITY);
+        this.pool = new ArrayDeque<>();
+        this.requests = new AtomicLong();
+        this.skippedEvents = new AtomicLong();
+        this.running = true;
+        this.thread = new Thread(this::serve, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Публикует новый снимок: копирует значения для сериализации потоком обслуживания.
+     * Вызывается из потока приема {@link com.example.aeriboat.service.UdpClient}
+     * и не создает объектов.
+     *
+     * @param telemetry Телеметрия
+     */
+    @Override
+    public void onTelemetry(AirboatTelemetry telemetry) {
+        long timestamp = System.currentTimeMillis();
+        synchronized (pending) {
+            pending[SEQUENCE_SLOT]++;
+            pending[TIMESTAMP_SLOT] = timestamp;
+            for (int i = 0; i < FIELDS.length; i++) {
+                pending[FIELDS_SLOT + i] = FIELDS[i].get(telemetry);
+            }
+        }
+        if (subscribers > 0) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Возвращает адрес, на котором слушает сервер.
+     *
+     * @return Адрес и фактический порт
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Возвращает число подписчиков потока событий.
+     *
+     * @return Число подписчиков
+     */
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    /**
+     * Возвращает число обработанных HTTP запросов.
+     *
+     * @return Число запросов
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Возвращает число событий, пропущенных медленными подписчиками.
+     *
+     * @return Число событий
+     */
+    public long getSkippedEvents() {
+        return skippedEvents.get();
+    }
+
+    /**
+     * Возвращает число снимков вне пула: текущий, очереди и отправки клиентов.
+     *
+     * @return Число снимков
+     */
+    int getSnapshotsInUse() {
+        return snapshotsInUse;
+    }
+
+    /**
+     * Останавливает сервер и закрывает все соединения.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Цикл потока обслуживания.
+     */
+    private void serve() {
+        long broadcastSequence = 0;
+        try {
+            while (running) {
+                selector.select();
+                Snapshot snapshot = subscribers > 0 ? refresh() : null;
+                if (snapshot != null && snapshot.sequence != broadcastSequence) {
+                    broadcastSequence = snapshot.sequence;
+                    for (SelectionKey key : selector.keys()) {
+                        if (key.attachment() instanceof Client) {
+                            Client client = (Client) key.attachment();
+                            if (client.streaming && client.lastSequence != snapshot.sequence) {
+                                if (offer(client, snapshot)) {
+                                    skippedEvents.incrementAndGet();
+                                }
+                                flush(key, client);
+                            }
+                        }
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            read(key, client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(key, client);
+                        }
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Сервер закрыт
+        } catch (IOException e) {
+            System.err.println("Ошибка HTTP сервера телеметрии: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия HTTP сервера телеметрии: " + e.getMessage());
+            }
+            subscribers = 0;
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (clients >= MAX_CLIENTS) {
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Client());
+            clients++;
+        }
+    }
+
+    /**
+     * Читает запрос; у подписчика потока чтение только обнаруживает закрытие соединения.
+     */
+    private void read(SelectionKey key, Client client) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            ByteBuffer buffer = client.request;
+            if (client.streaming || client.output != null) {
+                buffer.clear();
+            }
+            int bytes = channel.read(buffer);
+            if (bytes < 0) {
+                close(key, client);
+                return;
+            }
+            if (client.streaming || client.output != null) {
+                return;
+            }
+            int end = requestEnd(buffer);
+            if (end < 0) {
+                if (!buffer.hasRemaining()) {
+                    respond(key, client, 431, "Request Header Fields Too Large");
+                }
+                return;
+            }
+            route(key, client, new String(buffer.array(), 0, end, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            close(key, client);
+        }
+    }
+
+    private void route(SelectionKey key, Client client, String head) {
+        requests.incrementAndGet();
+        int lineEnd = head.indexOf('\r');
+        String[] requestLine = head.substring(0, lineEnd < 0 ? head.length() : lineEnd).split(" ");
+        if (requestLine.length < 2 || !"GET".equals(requestLine[0])) {
+            respond(key, client, 405, "Method Not Allowed");
+            return;
+        }
+        String path = requestLine[1];
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        if ("/telemetry".equals(path)) {
+            Snapshot snapshot = refresh();
+            if (snapshot == null) {
+                respond(key, client, 204, "No Content");
+                return;
+            }
+            ByteBuffer body = snapshot.json();
+            String header = "HTTP/1.1 200 OK\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Cache-Control: no-cache\r\n"
+                    + "Access-Control-Allow-Origin: *\r\n"
+                    + "Content-Length: " + body.remaining() + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            client.sending = retain(snapshot);
+            client.output = new ByteBuffer[]{ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)), body};
+            flush(key, client);
+        } else if ("/events".equals(path)) {
+            client.streaming = true;
+            subscribers++;
+            client.output = new ByteBuffer[]{ByteBuffer.wrap(EVENTS_HEADER)};
+            Snapshot snapshot = refresh();
+            if (snapshot != null) {
+                offer(client, snapshot);
+            }
+            flush(key, client);
+        } else {
+            respond(key, client, 404, "Not Found");
+        }
+    }
+
+    private void respond(SelectionKey key, Client client, int status, String reason) {
+        String response = "HTTP/1.1 " + status + " " + reason + "\r\n"
+                + "Content-Length: 0\r\n"
+                + "Connection: close\r\n\r\n";
+        client.output = new ByteBuffer[]{ByteBuffer.wrap(response.getBytes(StandardCharsets.US_ASCII))};
+        flush(key, client);
+    }
+
+    /**
+     * Дописывает ожидающие данные клиента. Ответ на опрос после отправки
+     * закрывает соединение, подписчику отправляется следующий снимок.
+     */
+    private void flush(SelectionKey key, Client client) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            while (true) {
+                if (client.output == null) {
+                    if (client.next == null) {
+                        break;
+                    }
+                    client.sending = client.next;
+                    client.next = null;
+                    client.event[0] = client.sending.event();
+                    client.output = client.event;
+                }
+                channel.write(client.output);
+                if (client.output[client.output.length - 1].hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                client.output = null;
+                release(client.sending);
+                client.sending = null;
+            }
+            if (!client.streaming) {
+                close(key, client);
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close(key, client);
+        }
+    }
+
+    private void close(SelectionKey key, Client client) {
+        if (!key.isValid()) {
+            return;
+        }
+        closeQuietly(key);
+        clients--;
+        if (client.streaming) {
+            subscribers--;
+        }
+        release(client.next);
+        release(client.sending);
+        client.next = null;
+        client.sending = null;
+    }
+
+    /**
+     * Возвращает снимок последней телеметрии, сериализуя его, если с прошлого
+     * раза пришла новая. Вызывается только потоком обслуживания.
+     *
+     * @return Снимок или null, если телеметрии еще не было
+     */
+    private Snapshot refresh() {
+        synchronized (pending) {
+            long sequence = pending[SEQUENCE_SLOT];
+            if (sequence == 0 || (current != null && current.sequence == sequence)) {
+                return current;
+            }
+            System.arraycopy(pending, 0, published, 0, pending.length);
+        }
+
+        long sequence = published[SEQUENCE_SLOT];
+        json.setLength(0);
+        json.append("id: ").append(sequence).append("\ndata: ");
+        int jsonOffset = json.length();
+        json.append("{\"seq\":").append(sequence).append(",\"timestamp_ms\":").append(published[TIMESTAMP_SLOT]);
+        for (int i = 0; i < FIELDS.length; i++) {
+            json.append(",\"").append(FIELDS[i].getJsonName()).append("\":").append(published[FIELDS_SLOT + i]);
+        }
+        json.append('}');
+        int jsonLength = json.length() - jsonOffset;
+        json.append("\n\n");
+
+        Snapshot snapshot = pool.poll();
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+        }
+        snapshotsInUse++;
+        snapshot.fill(sequence, json, jsonOffset, jsonLength);
+        release(current);
+        current = retain(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Ставит снимок в очередь подписчика: не больше одного снимка сверх
+     * отправляемого, более старый заменяется.
+     *
+     * @return true, если заменен еще не отправленный снимок
+     */
+    private boolean offer(Client client, Snapshot snapshot) {
+        boolean replaced = client.next != null;
+        release(client.next);
+        client.next = retain(snapshot);
+        client.lastSequence = snapshot.sequence;
+        return replaced;
+    }
+
+    private static Snapshot retain(Snapshot snapshot) {
+        snapshot.references++;
+        return snapshot;
+    }
+
+    /**
+     * Освобождает ссылку на снимок; снимок без ссылок возвращается в пул.
+     */
+    private void release(Snapshot snapshot) {
+        if (snapshot != null && --snapshot.references == 0) {
+            pool.offer(snapshot);
+            snapshotsInUse--;
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Соединение уже разорвано
+        }
+    }
+
+    /**
+     * Ищет конец заголовков запроса.
+     *
+     * @return Длина заголовков или -1, если они еще не приняты целиком
+     */
+    private static int requestEnd(ByteBuffer buffer) {
+        byte[] data = buffer.array();
+        for (int i = 3; i < buffer.position(); i++) {
+            if (data[i] == '\n' && data[i - 1] == '\r' && data[i - 2] == '\n' && data[i - 3] == '\r') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static void putAscii(ByteBuffer buffer, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Сериализованный снимок телеметрии: готовое событие SSE, внутри которого лежит JSON.
+     * Буфер переиспользуется через пул, когда на снимок не остается ссылок
+     * (текущий снимок, очередь и отправка клиентов).
+     */
+    private static final class Snapshot {
+
+        private final ByteBuffer frame = ByteBuffer.allocateDirect(FRAME_CAPACITY);
+        private long sequence;
+        private int jsonOffset;
+        private int jsonLength;
+        private int references;
+
+        void fill(long sequence, CharSequence event, int jsonOffset, int jsonLength) {
+            this.sequence = sequence;
+            this.jsonOffset = jsonOffset;
+            this.jsonLength = jsonLength;
+            frame.clear();
+            putAscii(frame, event);
+            frame.flip();
+        }
+
+        /**
+         * Возвращает событие SSE: новый указатель на общие байты снимка.
+         */
+        ByteBuffer event() {
+            return frame.asReadOnlyBuffer();
+        }
+
+        /**
+         * Возвращает JSON снимка: новый указатель на часть общих байтов.
+         */
+        ByteBuffer json() {
+            ByteBuffer body = frame.asReadOnlyBuffer();
+            body.limit(jsonOffset + jsonLength).position(jsonOffset);
+            return body;
+        }
+    }
+
+    /**
+     * Состояние соединения с клиентом. Используется только потоком обслуживания.
+     */
+    private static final class Client {
+
+        private final ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+        private final ByteBuffer[] event = new ByteBuffer[1];
+        private ByteBuffer[] output;
+        private Snapshot sending;
+        private Snapshot next;
+        private long lastSequence;
+        private boolean streaming;
+    }
+}
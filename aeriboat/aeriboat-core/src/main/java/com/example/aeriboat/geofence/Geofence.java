@@ -0,0 +1,129 @@
+package com.example.aeriboat.geofence;
+
+/**
+ * Геозона - многоугольник в координатах телеметрии (миллионные доли градуса).
+ * <p>
+ * Вершины хранятся в примитивных массивах вместе с охватывающим
+ * прямоугольником, поэтому проверка точки не создает объектов.
+ * Многоугольник считается замкнутым: последняя вершина соединяется с первой.
+ *
+ * @since 1.1
+ */
+public final class Geofence {
+
+    private final String name;
+    private final GeofenceType type;
+    private final long[] latitudes;
+    private final long[] longitudes;
+    private final long minLatitude;
+    private final long maxLatitude;
+    private final long minLongitude;
+    private final long maxLongitude;
+
+    /**
+     * Создает геозону.
+     *
+     * @param name Название
+     * @param type Тип
+     * @param latitudes Широты вершин (миллионные доли градуса)
+     * @param longitudes Долготы вершин (миллионные доли градуса)
+     */
+    public Geofence(String name, GeofenceType type, long[] latitudes, long[] longitudes) {
+        if (latitudes.length != longitudes.length || latitudes.length < 3) {
+            throw new IllegalArgumentException("Геозона \"" + name + "\" должна иметь не меньше трех вершин");
+        }
+        this.name = name;
+        this.type = type;
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+
+        long minLat = Long.MAX_VALUE;
+        long maxLat = Long.MIN_VALUE;
+        long minLon = Long.MAX_VALUE;
+        long maxLon = Long.MIN_VALUE;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        this.minLatitude = minLat;
+        this.maxLatitude = maxLat;
+        this.minLongitude = minLon;
+        this.maxLongitude = maxLon;
+    }
+
+    /**
+     * Проверяет, лежит ли точка внутри многоугольника (метод луча).
+     * Граница полуоткрыта: точки на нижних и левых ребрах (меньшие широта
+     * и долгота) принадлежат зоне, на верхних и правых - нет, поэтому точка
+     * на общем ребре соседних зон принадлежит ровно одной из них.
+     *
+     * @param latitude Широта (миллионные доли градуса)
+     * @param longitude Долгота (миллионные доли градуса)
+     * @return true если точка внутри
+     */
+    public boolean contains(long latitude, long longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude
+                || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+
+        boolean inside = false;
+        int count = latitudes.length;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            long latI = latitudes[i];
+            long latJ = latitudes[j];
+            if ((latI > latitude) != (latJ > latitude)) {
+                double crossing = longitudes[i] + (double) (longitudes[j] - longitudes[i])
+                        * (latitude - latI) / (latJ - latI);
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public GeofenceType getType() {
+        return type;
+    }
+
+    /**
+     * Возвращает число вершин.
+     *
+     * @return Число вершин
+     */
+    public int getVertexCount() {
+        return latitudes.length;
+    }
+
+    public long getMinLatitude() {
+        return minLatitude;
+    }
+
+    public long getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public long getMinLongitude() {
+        return minLongitude;
+    }
+
+    public long getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    @Override
+    public String toString() {
+        return "Geofence{" +
+                "name='" + name + '\'' +
+                ", type=" + type +
+                ", vertices=" + latitudes.length +
+                '}';
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.aeriboat.geofence;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Неизменяемый пространственный индекс геозон - равномерная сетка над
+ * охватывающим прямоугольником всех зон.
+ * <p>
+ * Каждая ячейка хранит номера зон, чьи прямоугольники ее задевают; списки
+ * ячеек уложены подряд в один массив (смещения начала в отдельном массиве),
+ * поэтому запрос - это вычисление ячейки и проверка нескольких кандидатов
+ * без выделения памяти. Размер сетки растет как корень из числа зон
+ * (не больше {@link #MAX_GRID_SIZE} по стороне), так что на ячейку
+ * приходится несколько зон и при тысячах геозон.
+ * <p>
+ * Экземпляр неизменяем и безопасно читается из любых потоков.
+ *
+ * @since 1.1
+ */
+public final class GeofenceIndex {
+
+    public static final int MAX_GRID_SIZE = 256;
+
+    private static final GeofenceIndex EMPTY = new GeofenceIndex(Collections.emptyList());
+
+    private final Geofence[] fences;
+    private final int gridSize;
+    private final long minLatitude;
+    private final long minLongitude;
+    private final double cellLatitude;
+    private final double cellLongitude;
+    private final int[] cellStart;
+    private final int[] cellFences;
+    private final boolean hasOperatingAreas;
+
+    /**
+     * Строит индекс.
+     *
+     * @param fences Геозоны
+     */
+    public GeofenceIndex(List<Geofence> fences) {
+        this.fences = fences.toArray(new Geofence[0]);
+
+        long minLat = Long.MAX_VALUE;
+        long maxLat = Long.MIN_VALUE;
+        long minLon = Long.MAX_VALUE;
+        long maxLon = Long.MIN_VALUE;
+        boolean operating = false;
+        for (Geofence fence : this.fences) {
+            minLat = Math.min(minLat, fence.getMinLatitude());
+            maxLat = Math.max(maxLat, fence.getMaxLatitude());
+            minLon = Math.min(minLon, fence.getMinLongitude());
+            maxLon = Math.max(maxLon, fence.getMaxLongitude());
+            operating |= fence.getType() == GeofenceType.OPERATING_AREA;
+        }
+        this.hasOperatingAreas = operating;
+
+        if (this.fences.length == 0) {
+            this.gridSize = 1;
+            this.minLatitude = 0;
+            this.minLongitude = 0;
+            this.cellLatitude = 1;
+            this.cellLongitude = 1;
+            this.cellStart = new int[2];
+            this.cellFences = new int[0];
+            return;
+        }
+
+        this.gridSize = (int) Math.max(1, Math.min(MAX_GRID_SIZE, Math.ceil(2 * Math.sqrt(this.fences.length))));
+        this.minLatitude = minLat;
+        this.minLongitude = minLon;
+        this.cellLatitude = Math.max(1, (maxLat - minLat + 1) / (double) gridSize);
+        this.cellLongitude = Math.max(1, (maxLon - minLon + 1) / (double) gridSize);
+
+        // Два прохода: число зон в ячейках, затем раскладка номеров по смещениям
+        int cells = gridSize * gridSize;
+        int[] counts = new int[cells + 1];
+        for (Geofence fence : this.fences) {
+            forEachCell(fence, cell -> counts[cell]++);
+        }
+        this.cellStart = new int[cells + 1];
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell + 1] = cellStart[cell] + counts[cell];
+        }
+        this.cellFences = new int[cellStart[cells]];
+        int[] fill = new int[cells];
+        for (int i = 0; i < this.fences.length; i++) {
+            int fenceIndex = i;
+            forEachCell(this.fences[i], cell -> cellFences[cellStart[cell] + fill[cell]++] = fenceIndex);
+        }
+    }
+
+    /**
+     * Возвращает пустой индекс.
+     *
+     * @return Индекс без геозон
+     */
+    public static GeofenceIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Находит первую зону заданного типа, содержащую точку.
+     *
+     * @param latitude Широта (миллионные доли градуса)
+     * @param longitude Долгота (миллионные доли градуса)
+     * @param type Тип зоны
+     * @return Зона или null, если точка не лежит ни в одной зоне этого типа
+     */
+    public Geofence findContaining(long latitude, long longitude, GeofenceType type) {
+        int cell = cellOf(latitude, longitude);
+        if (cell < 0) {
+            return null;
+        }
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            Geofence fence = fences[cellFences[i]];
+            if (fence.getType() == type && fence.contains(latitude, longitude)) {
+                return fence;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, заданы ли рабочие зоны.
+     *
+     * @return true если есть хотя бы одна зона {@link GeofenceType#OPERATING_AREA}
+     */
+    public boolean hasOperatingAreas() {
+        return hasOperatingAreas;
+    }
+
+    /**
+     * Возвращает число зон в индексе.
+     *
+     * @return Число зон
+     */
+    public int size() {
+        return fences.length;
+    }
+
+    /**
+     * Возвращает зоны индекса.
+     *
+     * @return Неизменяемый список зон
+     */
+    public List<Geofence> getFences() {
+        return List.of(fences);
+    }
+
+    /**
+     * Возвращает номер ячейки точки или -1, если точка вне сетки.
+     */
+    private int cellOf(long latitude, long longitude) {
+        if (fences.length == 0 || latitude < minLatitude || longitude < minLongitude) {
+            return -1;
+        }
+        long row = (long) ((latitude - minLatitude) / cellLatitude);
+        long column = (long) ((longitude - minLongitude) / cellLongitude);
+        if (row >= gridSize || column >= gridSize) {
+            return -1;
+        }
+        return (int) row * gridSize + (int) column;
+    }
+
+    private void forEachCell(Geofence fence, CellConsumer consumer) {
+        int firstRow = clampCell((fence.getMinLatitude() - minLatitude) / cellLatitude);
+        int lastRow = clampCell((fence.getMaxLatitude() - minLatitude) / cellLatitude);
+        int firstColumn = clampCell((fence.getMinLongitude() - minLongitude) / cellLongitude);
+        int lastColumn = clampCell((fence.getMaxLongitude() - minLongitude) / cellLongitude);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                consumer.accept(row * gridSize + column);
+            }
+        }
+    }
+
+    private int clampCell(double position) {
+        return (int) Math.max(0, Math.min(gridSize - 1, position));
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(int cell);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.aeriboat.geofence;
+
+/**
+ * Слушатель нарушений геозон.
+ * Вызывается из потока приема телеметрии уже после отправки команды
+ * остановки, поэтому не должен блокироваться.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface GeofenceListener {
+
+    /**
+     * Обрабатывает нарушение геозоны.
+     *
+     * @param violation Нарушение
+     */
+    void onViolation(GeofenceViolation violation);
+}
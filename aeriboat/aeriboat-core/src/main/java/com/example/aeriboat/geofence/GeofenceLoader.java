@@ -0,0 +1,114 @@
+package com.example.aeriboat.geofence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Загрузка геозон из GeoJSON ({@code FeatureCollection}).
+ * <p>
+ * Учитываются объекты с геометрией {@code Polygon} и {@code MultiPolygon};
+ * из каждого многоугольника берется внешний контур, внутренние контуры
+ * (дыры) не поддерживаются. Свойства объекта:
+ * <ul>
+ *     <li>{@code type} - {@code keep_out} (по умолчанию) или {@code operating_area};</li>
+ *     <li>{@code name} - название для журнала, по умолчанию "Зона N".</li>
+ * </ul>
+ * Координаты GeoJSON - пары [долгота, широта] в градусах.
+ *
+ * @since 1.1
+ */
+public final class GeofenceLoader {
+
+    private static final double MICRODEGREES = 1_000_000.0;
+
+    private final ObjectMapper objectMapper;
+
+    public GeofenceLoader() {
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Загружает геозоны из файла.
+     *
+     * @param file Файл GeoJSON
+     * @return Геозоны в порядке следования в файле
+     * @throws IOException если файл не читается или не является коллекцией геозон
+     */
+    public List<Geofence> load(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return load(input);
+        }
+    }
+
+    /**
+     * Загружает геозоны из потока.
+     *
+     * @param input Поток GeoJSON
+     * @return Геозоны в порядке следования
+     * @throws IOException если данные не читаются или не являются коллекцией геозон
+     */
+    public List<Geofence> load(InputStream input) throws IOException {
+        JsonNode root = objectMapper.readTree(input);
+        if (root == null || !"FeatureCollection".equals(root.path("type").asText())) {
+            throw new IOException("Ожидается GeoJSON FeatureCollection");
+        }
+
+        List<Geofence> fences = new ArrayList<>();
+        int number = 0;
+        for (JsonNode feature : root.path("features")) {
+            number++;
+            JsonNode properties = feature.path("properties");
+            String name = properties.path("name").asText("Зона " + number);
+            GeofenceType type;
+            try {
+                type = GeofenceType.fromFileName(properties.path("type").asText(GeofenceType.KEEP_OUT.getFileName()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Объект " + number + ": " + e.getMessage(), e);
+            }
+
+            JsonNode geometry = feature.path("geometry");
+            String geometryType = geometry.path("type").asText();
+            JsonNode coordinates = geometry.path("coordinates");
+            if ("Polygon".equals(geometryType)) {
+                fences.add(toFence(name, type, coordinates.path(0), number));
+            } else if ("MultiPolygon".equals(geometryType)) {
+                for (JsonNode polygon : coordinates) {
+                    fences.add(toFence(name, type, polygon.path(0), number));
+                }
+            } else {
+                System.err.println("Геозона " + number + " пропущена: геометрия " + geometryType + " не поддерживается");
+            }
+        }
+        return fences;
+    }
+
+    private static Geofence toFence(String name, GeofenceType type, JsonNode ring, int number) throws IOException {
+        int count = ring.size();
+        // Контур GeoJSON замкнут повтором первой точки; повтор не нужен
+        if (count > 1 && ring.get(0).equals(ring.get(count - 1))) {
+            count--;
+        }
+        long[] latitudes = new long[count];
+        long[] longitudes = new long[count];
+        for (int i = 0; i < count; i++) {
+            JsonNode point = ring.get(i);
+            if (!point.path(0).isNumber() || !point.path(1).isNumber()) {
+                throw new IOException("Объект " + number + ": некорректная вершина " + point);
+            }
+            longitudes[i] = Math.round(point.get(0).asDouble() * MICRODEGREES);
+            latitudes[i] = Math.round(point.get(1).asDouble() * MICRODEGREES);
+        }
+        try {
+            return new Geofence(name, type, latitudes, longitudes);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Объект " + number + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.aeriboat.geofence;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.TelemetryListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Проверка каждой GPS точки телеметрии по геозонам с автоматической остановкой.
+ * <p>
+ * Подключается слушателем к {@code UdpClient} и работает в потоке приема:
+ * при входе в запретную зону или выходе из всех рабочих зон команда
+ * {@code speed=0} отправляется сразу через {@link CommandCoalescer#stop()},
+ * минуя поток JavaFX, и только после этого уведомляются слушатели.
+ * Остановка отправляется один раз на нарушение; пока лодка остается в
+ * нарушении, оператор может вывести ее вручную, а повторное нарушение
+ * после возврата в допустимую область снова остановит мотор.
+ * <p>
+ * Набор зон заменяется целиком ({@link #setFences(List)}): индекс строится
+ * в вызывающем потоке и публикуется одной volatile записью, поэтому поток
+ * приема не ждет загрузки.
+ *
+ * @since 1.1
+ */
+public class GeofenceMonitor implements TelemetryListener {
+
+    private final CommandCoalescer commandCoalescer;
+    private final List<GeofenceListener> listeners;
+    private volatile GeofenceIndex index = GeofenceIndex.empty();
+    private volatile boolean violating;
+    private volatile long checks;
+    private volatile long violations;
+    private volatile long maxCheckNanos;
+
+    /**
+     * Создает монитор.
+     *
+     * @param commandCoalescer Планировщик команд, через который отправляется остановка
+     */
+    public GeofenceMonitor(CommandCoalescer commandCoalescer) {
+        this.commandCoalescer = commandCoalescer;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Заменяет набор геозон.
+     *
+     * @param fences Геозоны; пустой список отключает проверку
+     */
+    public void setFences(List<Geofence> fences) {
+        index = fences.isEmpty() ? GeofenceIndex.empty() : new GeofenceIndex(fences);
+        violating = false;
+    }
+
+    /**
+     * Возвращает текущий индекс геозон.
+     *
+     * @return Индекс
+     */
+    public GeofenceIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void onTelemetry(AirboatTelemetry telemetry) {
+        GeofenceIndex current = index;
+        long latitude = telemetry.getLatitude();
+        long longitude = telemetry.getLongitude();
+        if (current.size() == 0 || (latitude == 0 && longitude == 0)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Geofence keepOut = current.findContaining(latitude, longitude, GeofenceType.KEEP_OUT);
+        boolean violation = keepOut != null || (current.hasOperatingAreas()
+                && current.findContaining(latitude, longitude, GeofenceType.OPERATING_AREA) == null);
+
+        if (violation && !violating) {
+            try {
+                commandCoalescer.stop();
+            } catch (IOException e) {
+                System.err.println("Ошибка отправки остановки по геозоне: " + e.getMessage());
+            }
+            long elapsed = System.nanoTime() - start;
+            recordCheck(elapsed);
+            violations++;
+            violating = true;
+
+            GeofenceViolation event = new GeofenceViolation(keepOut, latitude, longitude, elapsed);
+            for (GeofenceListener listener : listeners) {
+                try {
+                    listener.onViolation(event);
+                } catch (Exception e) {
+                    System.err.println("Ошибка в слушателе геозон: " + e.getMessage());
+                }
+            }
+            return;
+        }
+
+        recordCheck(System.nanoTime() - start);
+        violating = violation;
+    }
+
+    /**
+     * Добавляет слушателя нарушений.
+     *
+     * @param listener Слушатель
+     */
+    public void addListener(GeofenceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя нарушений.
+     *
+     * @param listener Слушатель
+     */
+    public void removeListener(GeofenceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Проверяет, находится ли лодка сейчас в нарушении.
+     *
+     * @return true если последняя точка нарушала геозоны
+     */
+    public boolean isViolating() {
+        return violating;
+    }
+
+    /**
+     * Возвращает число проверенных точек.
+     *
+     * @return Число проверок
+     */
+    public long getChecks() {
+        return checks;
+    }
+
+    /**
+     * Возвращает число нарушений (входов в нарушение).
+     *
+     * @return Число нарушений
+     */
+    public long getViolations() {
+        return violations;
+    }
+
+    /**
+     * Возвращает наибольшее время одной проверки, включая отправку остановки.
+     *
+     * @return Время (нс)
+     */
+    public long getMaxCheckNanos() {
+        return maxCheckNanos;
+    }
+
+    /**
+     * Учитывает проверку. Пишет только поток приема, поэтому volatile полей достаточно.
+     */
+    private void recordCheck(long elapsedNanos) {
+        checks++;
+        if (elapsedNanos > maxCheckNanos) {
+            maxCheckNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.aeriboat.geofence;
+
+/**
+ * Тип геозоны.
+ *
+ * @since 1.1
+ */
+public enum GeofenceType {
+
+    /**
+     * Запретная зона: нарушение - лодка внутри.
+     */
+    KEEP_OUT("keep_out", "запретная зона"),
+
+    /**
+     * Рабочая зона: если задана хотя бы одна, нарушение - лодка вне всех рабочих зон.
+     */
+    OPERATING_AREA("operating_area", "рабочая зона");
+
+    private final String fileName;
+    private final String displayName;
+
+    GeofenceType(String fileName, String displayName) {
+        this.fileName = fileName;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Возвращает имя типа в файле геозон.
+     *
+     * @return Имя, например "keep_out"
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Находит тип по имени из файла геозон.
+     *
+     * @param name Имя типа
+     * @return Тип геозоны
+     * @throws IllegalArgumentException если имя неизвестно
+     */
+    public static GeofenceType fromFileName(String name) {
+        for (GeofenceType type : values()) {
+            if (type.fileName.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип геозоны: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.aeriboat.geofence;
+
+/**
+ * Нарушение геозоны: лодка вошла в запретную зону или покинула рабочие зоны.
+ *
+ * @since 1.1
+ */
+public final class GeofenceViolation {
+
+    private final Geofence fence;
+    private final long latitude;
+    private final long longitude;
+    private final long detectionNanos;
+
+    /**
+     * Создает описание нарушения.
+     *
+     * @param fence Запретная зона, в которую вошла лодка, или null, если лодка вне рабочих зон
+     * @param latitude Широта точки нарушения (миллионные доли градуса)
+     * @param longitude Долгота точки нарушения (миллионные доли градуса)
+     * @param detectionNanos Время от приема телеметрии до отправки остановки (нс)
+     */
+    public GeofenceViolation(Geofence fence, long latitude, long longitude, long detectionNanos) {
+        this.fence = fence;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.detectionNanos = detectionNanos;
+    }
+
+    /**
+     * Возвращает запретную зону, в которую вошла лодка.
+     *
+     * @return Зона или null, если нарушение - выход из рабочих зон
+     */
+    public Geofence getFence() {
+        return fence;
+    }
+
+    public long getLatitude() {
+        return latitude;
+    }
+
+    public long getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Возвращает время от начала проверки до отправки команды остановки.
+     *
+     * @return Время (нс)
+     */
+    public long getDetectionNanos() {
+        return detectionNanos;
+    }
+
+    /**
+     * Возвращает описание нарушения для журнала.
+     *
+     * @return Описание, например "вход в запретную зону \"Мост\""
+     */
+    public String describe() {
+        return fence != null
+                ? "вход в запретную зону \"" + fence.getName() + "\""
+                : "выход из рабочих зон";
+    }
+
+    @Override
+    public String toString() {
+        return "GeofenceViolation{" +
+                "fence=" + fence +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
+                ", detectionNanos=" + detectionNanos +
+                '}';
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.aeriboat.headless;
+
+import com.example.aeriboat.failsafe.LinkWatchdog;
+import com.example.aeriboat.gateway.TelemetryGateway;
+import com.example.aeriboat.metrics.LinkMetrics;
+import com.example.aeriboat.recorder.FlightRecorder;
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.TelemetryListener;
+import com.example.aeriboat.service.UdpClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сеанс связи с лодкой без графического интерфейса.
+ * <p>
+ * Собирает вместе то же, что контроллер JavaFX: {@link UdpClient},
+ * {@link CommandCoalescer} с периодической отправкой уставки, сторож связи
+ * {@link LinkWatchdog} и, по желанию, {@link FlightRecorder} и шлюз раздачи
+ * телеметрии {@link TelemetryGateway}. Телеметрия идет
+ * по подписке на поток, а если прошивка поток не поддерживает - опросом
+ * с той же частотой. Классы JavaFX не загружаются, поэтому сеанс подходит
+ * для серверов наземной станции и CI.
+ * <pre>
+ * try (AirboatSession session = new AirboatSession("192.168.4.1", 12345)) {
+ *     session.connect();
+ *     session.addTelemetryListener(telemetry -&gt; System.out.println(telemetry));
+ *     session.startTelemetry(5);
+ *     session.setControl(90, 30);
+ *     Thread.sleep(10_000);
+ * }
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class AirboatSession implements AutoCloseable {
+
+    public static final int CONTROL_RATE_HZ = 25;
+    public static final long HANDSHAKE_WAIT_MS = 2000;
+
+    private static final long PROBE_INTERVAL_MS = 2000;
+    private static final String THREAD_NAME = "session-poller";
+
+    private final UdpClient udpClient;
+    private final CommandCoalescer commandCoalescer;
+    private final LinkWatchdog linkWatchdog;
+    private final TelemetryGateway gateway;
+    private final ScheduledExecutorService scheduler;
+    private volatile double telemetryRateHz;
+    private FlightRecorder flightRecorder;
+    private boolean polling;
+
+    /**
+     * Создает сеанс. Соединение открывается вызовом {@link #connect()}.
+     *
+     * @param ip IP адрес ESP32
+     * @param port UDP порт ESP32
+     */
+    public AirboatSession(String ip, int port) {
+        this.udpClient = new UdpClient();
+        this.udpClient.setConnectionParams(ip, port);
+        this.commandCoalescer = new CommandCoalescer(udpClient);
+        this.linkWatchdog = new LinkWatchdog(udpClient, commandCoalescer);
+        this.gateway = new TelemetryGateway(udpClient);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Подключается к ESP32, согласует бинарный протокол и запускает
+     * отправку уставок и сторожа связи.
+     *
+     * @return true если прошивка подтвердила бинарный протокол
+     * @throws IOException если соединение не удалось открыть
+     */
+    public boolean connect() throws IOException {
+        udpClient.connect();
+        commandCoalescer.resend();
+        commandCoalescer.start(CONTROL_RATE_HZ);
+        linkWatchdog.start();
+        try {
+            return udpClient.negotiateBinaryProtocol().get(HANDSHAKE_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Запускает поступление телеметрии с заданной частотой: подписка на поток
+     * и опрос, который пока идет поток служит только пробой канала.
+     * Повторный вызов меняет частоту.
+     *
+     * @param rateHz Частота ({@link CommandCoalescer#MIN_RATE_HZ}-{@link CommandCoalescer#MAX_RATE_HZ} Гц)
+     * @throws IOException если запрос подписки не удалось отправить
+     * @throws IllegalArgumentException если частота вне допустимого диапазона
+     */
+    public synchronized void startTelemetry(double rateHz) throws IOException {
+        if (!(rateHz >= CommandCoalescer.MIN_RATE_HZ && rateHz <= CommandCoalescer.MAX_RATE_HZ)) {
+            throw new IllegalArgumentException("Частота телеметрии должна быть от " + CommandCoalescer.MIN_RATE_HZ
+                    + " до " + CommandCoalescer.MAX_RATE_HZ + " Гц: " + rateHz);
+        }
+        telemetryRateHz = rateHz;
+        udpClient.subscribeTelemetry(rateHz);
+        if (!polling) {
+            polling = true;
+            scheduler.execute(this::pollTelemetry);
+        }
+    }
+
+    /**
+     * Добавляет слушателя телеметрии. Вызывается из потока приема.
+     *
+     * @param listener Слушатель
+     */
+    public void addTelemetryListener(TelemetryListener listener) {
+        udpClient.addTelemetryListener(listener);
+    }
+
+    /**
+     * Удаляет слушателя телеметрии.
+     *
+     * @param listener Слушатель
+     */
+    public void removeTelemetryListener(TelemetryListener listener) {
+        udpClient.removeTelemetryListener(listener);
+    }
+
+    /**
+     * Задает уставку; она отправляется с частотой {@link #CONTROL_RATE_HZ}.
+     *
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     */
+    public void setControl(int angle, int speed) {
+        commandCoalescer.submit(angle, speed);
+    }
+
+    /**
+     * Немедленно останавливает мотор.
+     *
+     * @throws IOException если команду не удалось отправить
+     */
+    public void stop() throws IOException {
+        commandCoalescer.stop();
+    }
+
+    /**
+     * Начинает запись всех отправленных и принятых пакетов.
+     *
+     * @param directory Каталог журнала (создается при необходимости)
+     * @throws IOException если журнал не удалось открыть
+     */
+    public synchronized void startRecording(Path directory) throws IOException {
+        stopRecording();
+        flightRecorder = new FlightRecorder(directory);
+        udpClient.addPacketTap(flightRecorder);
+    }
+
+    /**
+     * Завершает запись, если она ведется.
+     */
+    public synchronized void stopRecording() {
+        if (flightRecorder != null) {
+            udpClient.removePacketTap(flightRecorder);
+            flightRecorder.close();
+            flightRecorder = null;
+        }
+    }
+
+    /**
+     * Возвращает текущий самописец.
+     *
+     * @return Самописец или null, если запись не ведется
+     */
+    public synchronized FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    public UdpClient getUdpClient() {
+        return udpClient;
+    }
+
+    public LinkMetrics getLinkMetrics() {
+        return udpClient.getLinkMetrics();
+    }
+
+    public LinkWatchdog getLinkWatchdog() {
+        return linkWatchdog;
+    }
+
+    /**
+     * Возвращает шлюз раздачи телеметрии; раздача запускается его методами.
+     *
+     * @return Шлюз сеанса
+     */
+    public TelemetryGateway getGateway() {
+        return gateway;
+    }
+
+    /**
+     * Останавливает мотор, завершает запись и раздачу и закрывает соединение.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        if (udpClient.isConnected()) {
+            try {
+                commandCoalescer.stop();
+            } catch (IOException e) {
+                System.err.println("Ошибка отправки остановки: " + e.getMessage());
+            }
+        }
+        linkWatchdog.shutdown();
+        commandCoalescer.shutdown();
+        udpClient.disconnect();
+        stopRecording();
+        gateway.close();
+    }
+
+    /**
+     * Запрашивает телеметрию и планирует следующий запрос: пока идет поток -
+     * с интервалом пробы канала, иначе с частотой телеметрии.
+     */
+    private void pollTelemetry() {
+        try {
+            if (udpClient.isConnected()) {
+                udpClient.requestTelemetryAsync();
+            }
+        } finally {
+            long delay = udpClient.isStreamActive()
+                    ? PROBE_INTERVAL_MS
+                    : Math.max(1, Math.round(1000 / telemetryRateHz));
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::pollTelemetry, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
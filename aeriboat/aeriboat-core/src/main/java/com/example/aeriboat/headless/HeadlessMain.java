@@ -0,0 +1,236 @@
+package com.example.aeriboat.headless;
+
+import com.example.aeriboat.gateway.MulticastForwarder;
+import com.example.aeriboat.gateway.TelemetryGateway;
+import com.example.aeriboat.gateway.TelemetryHttpServer;
+import com.example.aeriboat.metrics.LinkMetrics;
+import com.example.aeriboat.metrics.RttSnapshot;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.CommandCoalescer;
+
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Точка входа без графического интерфейса: подключение, телеметрия,
+ * уставка, запись полета и раздача телеметрии станции из командной строки.
+ * <p>
+ * По умолчанию раз в секунду печатается последняя телеметрия и состояние
+ * канала; с {@code --csv} каждая принятая телеметрия печатается строкой CSV,
+ * а состояние канала уходит в stderr. Завершение - по {@code --duration}
+ * или Ctrl+C; перед выходом мотор останавливается, а журнал закрывается.
+ * <pre>
+ * java -cp aeriboat-core/target/classes:jackson.jar com.example.aeriboat.headless.HeadlessMain \
+ *      --ip 192.168.4.1 --port 12345 --rate 10 --record recordings/run1 --duration 60
+ * ... --multicast 239.255.42.99:12346 --http 8090
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class HeadlessMain {
+
+    private static final long STATUS_INTERVAL_MS = 1000;
+
+    private HeadlessMain() {
+    }
+
+    /**
+     * Запускает сеанс.
+     *
+     * @param args Параметры в виде {@code --ключ значение}
+     * @throws Exception если сеанс не удалось открыть
+     */
+    public static void main(String[] args) throws Exception {
+        String ip = "192.168.4.1";
+        int port = 12345;
+        double rate = 5;
+        long durationSeconds = 0;
+        Path recordDirectory = null;
+        int angle = 90;
+        int speed = -1;
+        boolean csv = false;
+        InetSocketAddress multicastTarget = null;
+        NetworkInterface multicastInterface = null;
+        InetSocketAddress httpAddress = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if ("--help".equals(option)) {
+                    printUsage();
+                    return;
+                }
+                if ("--csv".equals(option)) {
+                    csv = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Не задано значение параметра " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--ip":
+                        ip = value;
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "--rate":
+                        rate = Double.parseDouble(value);
+                        if (!(rate >= CommandCoalescer.MIN_RATE_HZ && rate <= CommandCoalescer.MAX_RATE_HZ)) {
+                            throw new IllegalArgumentException("Частота телеметрии должна быть от "
+                                    + CommandCoalescer.MIN_RATE_HZ + " до " + CommandCoalescer.MAX_RATE_HZ
+                                    + " Гц: " + value);
+                        }
+                        break;
+                    case "--duration":
+                        durationSeconds = Long.parseLong(value);
+                        break;
+                    case "--record":
+                        recordDirectory = Paths.get(value);
+                        break;
+                    case "--angle":
+                        angle = Integer.parseInt(value);
+                        break;
+                    case "--speed":
+                        speed = Integer.parseInt(value);
+                        break;
+                    case "--multicast":
+                        multicastTarget = parseAddress(value, MulticastForwarder.DEFAULT_GROUP);
+                        break;
+                    case "--multicast-if":
+                        multicastInterface = NetworkInterface.getByName(value);
+                        if (multicastInterface == null) {
+                            throw new IllegalArgumentException("Интерфейс не найден: " + value);
+                        }
+                        break;
+                    case "--http":
+                        httpAddress = parseAddress(value, "127.0.0.1");
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + option);
+                }
+            }
+        } catch (IllegalArgumentException | SocketException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        AirboatSession session = new AirboatSession(ip, port);
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            session.close();
+            finished.countDown();
+        }));
+
+        if (recordDirectory != null) {
+            session.startRecording(recordDirectory);
+        }
+        TelemetryGateway gateway = session.getGateway();
+        if (multicastTarget != null) {
+            gateway.startMulticast(multicastTarget,
+                    multicastInterface != null ? multicastInterface : MulticastForwarder.loopbackInterface());
+        }
+        if (httpAddress != null) {
+            gateway.startHttp(httpAddress);
+        }
+        boolean binary = session.connect();
+        System.err.println("Подключено к " + ip + ":" + port + ", протокол " + (binary ? "бинарный" : "JSON"));
+
+        AtomicReference<AirboatTelemetry> latest = new AtomicReference<>();
+        if (csv) {
+            System.out.println("time_ms,battery_mv,wifi_dbm,latitude,longitude,course");
+            long start = System.nanoTime();
+            session.addTelemetryListener(telemetry -> System.out.println(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + ","
+                            + telemetry.getBatteryVoltage() + "," + telemetry.getWifiSignalLevel() + ","
+                            + telemetry.getLatitude() + "," + telemetry.getLongitude() + ","
+                            + telemetry.getCourse()));
+        } else {
+            session.addTelemetryListener(telemetry -> latest.set(new AirboatTelemetry(telemetry)));
+        }
+        session.startTelemetry(rate);
+        if (speed >= 0) {
+            session.setControl(angle, speed);
+        }
+
+        // nanoTime может быть отрицательным, поэтому срок без --duration задается флагом, а не Long.MAX_VALUE
+        boolean unbounded = durationSeconds <= 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        while (unbounded || System.nanoTime() - deadline < 0) {
+            if (finished.await(STATUS_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            String status = formatStatus(session, latest.get());
+            if (csv) {
+                System.err.println(status);
+            } else {
+                System.out.println(status);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String formatStatus(AirboatSession session, AirboatTelemetry telemetry) {
+        LinkMetrics metrics = session.getLinkMetrics();
+        RttSnapshot window = metrics.snapshot(10);
+        StringBuilder status = new StringBuilder();
+        if (telemetry != null) {
+            status.append("батарея ").append(telemetry.getBatteryVoltage()).append(" мВ, сигнал ")
+                    .append(telemetry.getWifiSignalLevel()).append(" dBm, ")
+                    .append(telemetry.getLatitude()).append('/').append(telemetry.getLongitude())
+                    .append(", курс ").append(telemetry.getCourse()).append("°; ");
+        }
+        status.append("поток ").append(session.getUdpClient().isStreamActive() ? "есть" : "нет")
+                .append(", принято ").append(metrics.getPacketsReceived())
+                .append(", RTT p90 ").append(window.getP90Micros()).append(" мкс")
+                .append(", сторож: ").append(session.getLinkWatchdog().getLevel());
+        if (session.getGateway().isActive()) {
+            status.append(", шлюз: ").append(session.getGateway().getStatus());
+        }
+        return status.toString();
+    }
+
+    /**
+     * Разбирает адрес вида {@code host:port} или {@code port}.
+     *
+     * @param value Значение параметра
+     * @param defaultHost Адрес, если задан только порт
+     * @return Адрес
+     */
+    private static InetSocketAddress parseAddress(String value, String defaultHost) {
+        int colon = value.lastIndexOf(':');
+        String host = colon < 0 ? defaultHost : value.substring(0, colon);
+        int port = Integer.parseInt(value.substring(colon + 1));
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            throw new IllegalArgumentException("Не удалось разрешить адрес: " + host);
+        }
+        return address;
+    }
+
+    private static void printUsage() {
+        System.out.println("Параметры:");
+        System.out.println("  --ip ADDR         IP адрес ESP32 (по умолчанию 192.168.4.1)");
+        System.out.println("  --port N          UDP порт (12345)");
+        System.out.println("  --rate HZ         Частота телеметрии, " + CommandCoalescer.MIN_RATE_HZ + "-"
+                + CommandCoalescer.MAX_RATE_HZ + " Гц (5)");
+        System.out.println("  --angle DEG       Угол руля для --speed (90)");
+        System.out.println("  --speed PCT       Уставка скорости; без параметра команды не отправляются");
+        System.out.println("  --record DIR      Записывать пакеты в каталог журнала");
+        System.out.println("  --duration S      Завершить через S секунд (по умолчанию до Ctrl+C)");
+        System.out.println("  --csv             Печатать каждую телеметрию строкой CSV");
+        System.out.println("  --multicast [G:]P Пересылать датаграммы лодки в группу (" + MulticastForwarder.DEFAULT_GROUP
+                + ":" + MulticastForwarder.DEFAULT_PORT + ")");
+        System.out.println("  --multicast-if IF Интерфейс для группы (по умолчанию петлевой)");
+        System.out.println("  --http [H:]P      HTTP снимки /telemetry и поток /events (127.0.0.1:"
+                + TelemetryHttpServer.DEFAULT_PORT + ")");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.aeriboat.history;
+
+/**
+ * Агрегаты поля телеметрии за интервал времени.
+ *
+ * @since 1.1
+ */
+public final class TelemetryAggregate {
+
+    private final long count;
+    private final long min;
+    private final long max;
+    private final double mean;
+
+    public TelemetryAggregate(long count, long min, long max, double mean) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    /**
+     * Возвращает количество отсчетов в интервале.
+     *
+     * @return Количество отсчетов (0, если интервал пуст)
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryAggregate{" +
+                "count=" + count +
+                ", min=" + min +
+                ", max=" + max +
+                ", mean=" + mean +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aeriboat.history;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+
+/**
+ * Поля телеметрии, хранимые в истории отдельными колонками.
+ *
+ * @since 1.1
+ */
+public enum TelemetryField {
+
+    WIFI_SIGNAL_LEVEL("wifi_signal_level"),
+    BATTERY_VOLTAGE("battery_voltage"),
+    LATITUDE("latitude"),
+    LONGITUDE("longitude"),
+    COURSE("course");
+
+    private final String jsonName;
+
+    TelemetryField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * Возвращает имя поля в JSON протоколе ESP32.
+     *
+     * @return Имя поля
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Извлекает значение поля из телеметрии.
+     *
+     * @param telemetry Телеметрия
+     * @return Значение поля
+     */
+    public long get(AirboatTelemetry telemetry) {
+        switch (this) {
+            case WIFI_SIGNAL_LEVEL:
+                return telemetry.getWifiSignalLevel();
+            case BATTERY_VOLTAGE:
+                return telemetry.getBatteryVoltage();
+            case LATITUDE:
+                return telemetry.getLatitude();
+            case LONGITUDE:
+                return telemetry.getLongitude();
+            case COURSE:
+                return telemetry.getCourse();
+            default:
+                throw new IllegalStateException("Неизвестное поле: " + this);
+        }
+    }
+
+    /**
+     * Записывает значение поля в телеметрию.
+     *
+     * @param telemetry Телеметрия
+     * @param value Значение поля
+     */
+    public void set(AirboatTelemetry telemetry, long value) {
+        switch (this) {
+            case WIFI_SIGNAL_LEVEL:
+                telemetry.setWifiSignalLevel(value);
+                break;
+            case BATTERY_VOLTAGE:
+                telemetry.setBatteryVoltage(value);
+                break;
+            case LATITUDE:
+                telemetry.setLatitude(value);
+                break;
+            case LONGITUDE:
+                telemetry.setLongitude(value);
+                break;
+            case COURSE:
+                telemetry.setCourse(value);
+                break;
+            default:
+                throw new IllegalStateException("Неизвестное поле: " + this);
+        }
+    }
+}
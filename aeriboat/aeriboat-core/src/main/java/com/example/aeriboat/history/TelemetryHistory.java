@@ -0,0 +1,444 @@
+package com.example.aeriboat.history;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Хранилище истории телеметрии в памяти: кольцевой буфер фиксированной емкости
+ * с колоночным размещением (отдельный {@code long[]} на каждое поле и на метки времени).
+ * <p>
+ * Отсчеты не упаковываются в объекты: сутки телеметрии на 20 Гц (1 728 000 отсчетов)
+ * занимают около 83 МБ примитивных массивов и не создают нагрузки на GC.
+ * Колонки выделяются страницами по мере заполнения, поэтому короткая сессия
+ * не резервирует память под всю емкость. При переполнении затираются самые
+ * старые отсчеты.
+ * <p>
+ * Метки времени должны быть неубывающими (миллисекунды); по ним выполняется
+ * двоичный поиск для запросов по интервалу. Запись и чтение потокобезопасны:
+ * писатель (поток приема) и читатели (UI, экспорт) разделены блокировкой чтения-записи.
+ *
+ * @since 1.1
+ */
+public class TelemetryHistory {
+
+    /**
+     * Емкость по умолчанию: сутки телеметрии на частоте 20 Гц.
+     */
+    public static final int DEFAULT_CAPACITY = 20 * 60 * 60 * 24;
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int FIELD_COUNT = TelemetryField.values().length;
+
+    private final int capacity;
+    private final long[][] timestampPages;
+    private final long[][][] columnPages;
+    private final ReadWriteLock lock;
+    private long writeCount;
+
+    /**
+     * Создает хранилище емкостью {@link #DEFAULT_CAPACITY}.
+     */
+    public TelemetryHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает хранилище.
+     *
+     * @param capacity Максимальное число отсчетов (округляется вверх до размера страницы)
+     */
+    public TelemetryHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        int pageCount = (capacity + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        this.capacity = pageCount << PAGE_SHIFT;
+        this.timestampPages = new long[pageCount][];
+        this.columnPages = new long[FIELD_COUNT][pageCount][];
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Добавляет отсчет с текущим временем. Подходит как слушатель телеметрии
+     * {@code udpClient.addTelemetryListener(history::append)}: значения копируются,
+     * ссылка на объект не сохраняется.
+     *
+     * @param telemetry Телеметрия
+     */
+    public void append(AirboatTelemetry telemetry) {
+        append(System.currentTimeMillis(), telemetry);
+    }
+
+    /**
+     * Добавляет отсчет.
+     *
+     * @param timestampMillis Метка времени (мс); меньшая предыдущей приравнивается к ней
+     * @param telemetry Телеметрия
+     */
+    public void append(long timestampMillis, AirboatTelemetry telemetry) {
+        lock.writeLock().lock();
+        try {
+            int slot = (int) (writeCount % capacity);
+            int page = slot >>> PAGE_SHIFT;
+            int offset = slot & PAGE_MASK;
+            if (timestampPages[page] == null) {
+                allocatePage(page);
+            }
+
+            if (writeCount > 0) {
+                timestampMillis = Math.max(timestampMillis, timestampAt(writeCount - 1));
+            }
+            timestampPages[page][offset] = timestampMillis;
+            columnPages[TelemetryField.WIFI_SIGNAL_LEVEL.ordinal()][page][offset] = telemetry.getWifiSignalLevel();
+            columnPages[TelemetryField.BATTERY_VOLTAGE.ordinal()][page][offset] = telemetry.getBatteryVoltage();
+            columnPages[TelemetryField.LATITUDE.ordinal()][page][offset] = telemetry.getLatitude();
+            columnPages[TelemetryField.LONGITUDE.ordinal()][page][offset] = telemetry.getLongitude();
+            columnPages[TelemetryField.COURSE.ordinal()][page][offset] = telemetry.getCourse();
+            writeCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает число хранимых отсчетов.
+     *
+     * @return Число отсчетов
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) Math.min(writeCount, capacity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает емкость хранилища.
+     *
+     * @return Максимальное число отсчетов
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Возвращает метку времени самого старого хранимого отсчета.
+     *
+     * @return Метка времени (мс) или -1, если история пуста
+     */
+    public long getFirstTimestamp() {
+        lock.readLock().lock();
+        try {
+            return writeCount == 0 ? -1 : timestampAt(oldestIndex());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает метку времени последнего отсчета.
+     *
+     * @return Метка времени (мс) или -1, если история пуста
+     */
+    public long getLastTimestamp() {
+        lock.readLock().lock();
+        try {
+            return writeCount == 0 ? -1 : timestampAt(writeCount - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает число отсчетов, добавленных с создания или последней очистки,
+     * включая затертые при переполнении. Служит порядковым номером следующего
+     * отсчета для {@link #copySince(TelemetryField, long, long[], long[])}.
+     *
+     * @return Число добавленных отсчетов
+     */
+    public long getAppendedCount() {
+        lock.readLock().lock();
+        try {
+            return writeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Копирует отсчеты поля, начиная с порядкового номера, в массивы вызывающего.
+     * Позволяет читателю забирать только новые отсчеты, не просматривая историю
+     * заново. Если часть запрошенных отсчетов уже затерта, копирование
+     * начинается с самого старого хранимого.
+     *
+     * @param field Поле телеметрии
+     * @param fromIndex Порядковый номер первого отсчета (см. {@link #getAppendedCount()})
+     * @param timestampsOut Массив для меток времени
+     * @param valuesOut Массив для значений
+     * @return Число скопированных отсчетов
+     */
+    public int copySince(TelemetryField field, long fromIndex,
+                         long[] timestampsOut, long[] valuesOut) {
+        lock.readLock().lock();
+        try {
+            long start = Math.max(fromIndex, oldestIndex());
+            int count = (int) Math.max(0, Math.min(writeCount - start,
+                    Math.min(timestampsOut.length, valuesOut.length)));
+
+            long[][] column = columnPages[field.ordinal()];
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((start + i) % capacity);
+                timestampsOut[i] = timestampPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                valuesOut[i] = column[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Копирует отсчеты всех полей, начиная с порядкового номера, в массивы вызывающего.
+     * Все колонки копируются под одной блокировкой, поэтому строки согласованы
+     * (например, для экспорта). Если часть запрошенных отсчетов уже затерта,
+     * копирование начинается с самого старого хранимого.
+     *
+     * @param fromIndex Порядковый номер первого отсчета (см. {@link #getAppendedCount()})
+     * @param timestampsOut Массив для меток времени
+     * @param valuesOut Массивы для значений, по одному на поле в порядке {@link TelemetryField}
+     * @return Число скопированных отсчетов
+     */
+    public int copySince(long fromIndex, long[] timestampsOut, long[][] valuesOut) {
+        lock.readLock().lock();
+        try {
+            long start = Math.max(fromIndex, oldestIndex());
+            int count = (int) Math.max(0, Math.min(writeCount - start, timestampsOut.length));
+            for (long[] values : valuesOut) {
+                count = Math.min(count, values.length);
+            }
+
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((start + i) % capacity);
+                timestampsOut[i] = timestampPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                for (int field = 0; field < FIELD_COUNT; field++) {
+                    valuesOut[field][i] = columnPages[field][slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Копирует отсчеты поля за интервал [fromMillis, toMillis] в массивы вызывающего.
+     * Если отсчетов больше, чем помещается в массивы, копируются самые ранние.
+     *
+     * @param field Поле телеметрии
+     * @param fromMillis Начало интервала (включительно)
+     * @param toMillis Конец интервала (включительно)
+     * @param timestampsOut Массив для меток времени
+     * @param valuesOut Массив для значений
+     * @return Число скопированных отсчетов
+     */
+    public int copyRange(TelemetryField field, long fromMillis, long toMillis,
+                         long[] timestampsOut, long[] valuesOut) {
+        lock.readLock().lock();
+        try {
+            long start = lowerBound(fromMillis);
+            long end = upperBound(toMillis);
+            int count = (int) Math.min(end - start, Math.min(timestampsOut.length, valuesOut.length));
+
+            long[][] column = columnPages[field.ordinal()];
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((start + i) % capacity);
+                timestampsOut[i] = timestampPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                valuesOut[i] = column[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вычисляет минимум, максимум и среднее поля за интервал.
+     *
+     * @param field Поле телеметрии
+     * @param fromMillis Начало интервала (включительно)
+     * @param toMillis Конец интервала (включительно)
+     * @return Агрегаты; для пустого интервала count равен 0
+     */
+    public TelemetryAggregate aggregate(TelemetryField field, long fromMillis, long toMillis) {
+        lock.readLock().lock();
+        try {
+            long start = lowerBound(fromMillis);
+            long end = upperBound(toMillis);
+            if (end <= start) {
+                return new TelemetryAggregate(0, 0, 0, 0);
+            }
+
+            long[][] column = columnPages[field.ordinal()];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            double sum = 0;
+            for (long i = start; i < end; i++) {
+                int slot = (int) (i % capacity);
+                long value = column[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+            long count = end - start;
+            return new TelemetryAggregate(count, min, max, sum / count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Прореживает поле за интервал: делит его на равные по времени корзины и
+     * для каждой непустой корзины возвращает время начала, минимум и максимум
+     * (и среднее, если передан массив). Пустые корзины пропускаются.
+     *
+     * @param field Поле телеметрии
+     * @param fromMillis Начало интервала (включительно)
+     * @param toMillis Конец интервала (включительно)
+     * @param buckets Число корзин
+     * @param timestampsOut Время начала корзин (длина не меньше buckets)
+     * @param minOut Минимумы (длина не меньше buckets)
+     * @param maxOut Максимумы (длина не меньше buckets)
+     * @param meanOut Средние или null
+     * @return Число непустых корзин
+     */
+    public int downsample(TelemetryField field, long fromMillis, long toMillis, int buckets,
+                          long[] timestampsOut, long[] minOut, long[] maxOut, double[] meanOut) {
+        if (buckets <= 0 || toMillis < fromMillis) {
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try {
+            long start = lowerBound(fromMillis);
+            long end = upperBound(toMillis);
+            long span = toMillis - fromMillis + 1;
+            long[][] column = columnPages[field.ordinal()];
+
+            int filled = 0;
+            int currentBucket = -1;
+            long min = 0;
+            long max = 0;
+            double sum = 0;
+            long count = 0;
+            for (long i = start; i < end; i++) {
+                int slot = (int) (i % capacity);
+                long timestamp = timestampPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                long value = column[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+                int bucket = (int) Math.min(buckets - 1, (timestamp - fromMillis) * buckets / span);
+
+                if (bucket != currentBucket) {
+                    if (count > 0) {
+                        filled = storeBucket(filled, fromMillis, span, buckets, currentBucket, min, max,
+                                sum / count, timestampsOut, minOut, maxOut, meanOut);
+                    }
+                    currentBucket = bucket;
+                    min = value;
+                    max = value;
+                    sum = 0;
+                    count = 0;
+                }
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+                count++;
+            }
+            if (count > 0) {
+                filled = storeBucket(filled, fromMillis, span, buckets, currentBucket, min, max,
+                        sum / count, timestampsOut, minOut, maxOut, meanOut);
+            }
+            return filled;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все отсчеты. Выделенные страницы сохраняются для повторного использования.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            writeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int storeBucket(int index, long fromMillis, long span, int buckets, int bucket,
+                                   long min, long max, double mean, long[] timestampsOut,
+                                   long[] minOut, long[] maxOut, double[] meanOut) {
+        timestampsOut[index] = fromMillis + span * bucket / buckets;
+        minOut[index] = min;
+        maxOut[index] = max;
+        if (meanOut != null) {
+            meanOut[index] = mean;
+        }
+        return index + 1;
+    }
+
+    private void allocatePage(int page) {
+        timestampPages[page] = new long[PAGE_SIZE];
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            columnPages[field][page] = new long[PAGE_SIZE];
+        }
+    }
+
+    private long oldestIndex() {
+        return Math.max(0, writeCount - capacity);
+    }
+
+    private long timestampAt(long index) {
+        int slot = (int) (index % capacity);
+        return timestampPages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+    }
+
+    /**
+     * Находит первый логический индекс с меткой времени не меньше заданной.
+     */
+    private long lowerBound(long timestampMillis) {
+        long low = oldestIndex();
+        long high = writeCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Находит первый логический индекс с меткой времени больше заданной.
+     */
+    private long upperBound(long timestampMillis) {
+        long low = oldestIndex();
+        long high = writeCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestampAt(mid) <= timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
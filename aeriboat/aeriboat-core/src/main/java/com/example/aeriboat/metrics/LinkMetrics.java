@@ -0,0 +1,207 @@
+package com.example.aeriboat.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Показатели качества канала связи с лодкой: счетчики пакетов и байт,
+ * таймауты, ошибки декодирования и гистограмма времени запрос-ответ.
+ * <p>
+ * Счетчики построены на {@link LongAdder}, поэтому поток приема, потоки
+ * отправки и таймеры обновляют их без блокировок и без общей точки
+ * конкуренции. Чтение предназначено для периодического опроса интерфейсом
+ * и возвращает значения, согласованные приблизительно.
+ *
+ * @since 1.1
+ */
+public final class LinkMetrics {
+
+    private final LongAdder packetsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder decodeFailures = new LongAdder();
+    private final LongAdder staleResponses = new LongAdder();
+    private final LongAdder streamPackets = new LongAdder();
+    private final LongAdder streamGaps = new LongAdder();
+    private final RttHistogram rttHistogram = new RttHistogram();
+
+    /**
+     * Учитывает отправленную датаграмму.
+     *
+     * @param bytes Размер датаграммы
+     */
+    public void recordSent(int bytes) {
+        packetsSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    /**
+     * Учитывает принятую датаграмму.
+     *
+     * @param bytes Размер датаграммы
+     */
+    public void recordReceived(int bytes) {
+        packetsReceived.increment();
+        bytesReceived.add(bytes);
+    }
+
+    /**
+     * Учитывает отправленный запрос телеметрии.
+     */
+    public void recordRequest() {
+        requests.increment();
+    }
+
+    /**
+     * Учитывает ответ на запрос и время запрос-ответ.
+     *
+     * @param rttNanos Время запрос-ответ (нс)
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     */
+    public void recordResponse(long rttNanos, long nowNanos) {
+        responses.increment();
+        rttHistogram.record(rttNanos, nowNanos);
+    }
+
+    /**
+     * Учитывает запрос, не получивший ответа за таймаут.
+     *
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     */
+    public void recordTimeout(long nowNanos) {
+        timeouts.increment();
+        rttHistogram.recordLoss(nowNanos);
+    }
+
+    /**
+     * Учитывает датаграмму, которую не удалось декодировать.
+     */
+    public void recordDecodeFailure() {
+        decodeFailures.increment();
+    }
+
+    /**
+     * Учитывает повторный или устаревший ответ, отброшенный окном номеров.
+     */
+    public void recordStaleResponse() {
+        staleResponses.increment();
+    }
+
+    /**
+     * Учитывает пакет потока телеметрии по подписке.
+     *
+     * @param missed Число пропущенных перед ним пакетов потока
+     */
+    public void recordStreamPacket(int missed) {
+        streamPackets.increment();
+        if (missed > 0) {
+            streamGaps.add(missed);
+        }
+    }
+
+    public long getPacketsSent() {
+        return packetsSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getPacketsReceived() {
+        return packetsReceived.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getDecodeFailures() {
+        return decodeFailures.sum();
+    }
+
+    public long getStaleResponses() {
+        return staleResponses.sum();
+    }
+
+    public long getStreamPackets() {
+        return streamPackets.sum();
+    }
+
+    /**
+     * Возвращает число пакетов потока, не дошедших до клиента (по пропускам номеров).
+     *
+     * @return Число пропущенных пакетов потока
+     */
+    public long getStreamGaps() {
+        return streamGaps.sum();
+    }
+
+    /**
+     * Возвращает гистограмму времени запрос-ответ.
+     *
+     * @return Гистограмма
+     */
+    public RttHistogram getRttHistogram() {
+        return rttHistogram;
+    }
+
+    /**
+     * Собирает статистику времени запрос-ответ и потерь за последние секунды.
+     *
+     * @param windowSeconds Длина окна (1-{@link RttHistogram#MAX_WINDOW_SECONDS} с)
+     * @return Статистика окна
+     */
+    public RttSnapshot snapshot(int windowSeconds) {
+        return rttHistogram.snapshot(windowSeconds);
+    }
+
+    /**
+     * Обнуляет все показатели, например при новом подключении.
+     */
+    public void reset() {
+        packetsSent.reset();
+        bytesSent.reset();
+        packetsReceived.reset();
+        bytesReceived.reset();
+        requests.reset();
+        responses.reset();
+        timeouts.reset();
+        decodeFailures.reset();
+        staleResponses.reset();
+        streamPackets.reset();
+        streamGaps.reset();
+        rttHistogram.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "LinkMetrics{" +
+                "packetsSent=" + getPacketsSent() +
+                ", bytesSent=" + getBytesSent() +
+                ", packetsReceived=" + getPacketsReceived() +
+                ", bytesReceived=" + getBytesReceived() +
+                ", requests=" + getRequests() +
+                ", responses=" + getResponses() +
+                ", timeouts=" + getTimeouts() +
+                ", decodeFailures=" + getDecodeFailures() +
+                ", staleResponses=" + getStaleResponses() +
+                ", streamPackets=" + getStreamPackets() +
+                ", streamGaps=" + getStreamGaps() +
+                '}';
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.aeriboat.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма времени запрос-ответ со скользящими окнами.
+ * <p>
+ * Значения хранятся в микросекундах в лог-линейных корзинах: до 16 мкс
+ * каждая корзина точная, дальше каждая степень двойки делится на 8 корзин,
+ * так что относительная ошибка перцентилей не превышает 12.5%. Максимум
+ * хранится точно. Значения больше {@link #MAX_TRACKABLE_MICROS} попадают
+ * в последнюю корзину.
+ * <p>
+ * Время разбито на секундные срезы в кольце из {@link #SLICE_COUNT} элементов;
+ * окно собирается из последних срезов при запросе {@link #snapshot(int)}.
+ * Запись не блокируется и не создает объектов: один атомарный инкремент
+ * корзины и обновление максимума. Срез обнуляется потоком, первым
+ * записавшим в него значение в новой секунде, поэтому на границе секунды
+ * отдельные значения из другого потока могут потеряться - для индикатора
+ * качества связи это допустимо.
+ *
+ * @since 1.1
+ */
+public final class RttHistogram {
+
+    public static final int MAX_WINDOW_SECONDS = 60;
+    public static final long MAX_TRACKABLE_MICROS = (1L << 26) - 1; // ~67 секунд
+
+    private static final int SLICE_COUNT = 64; // степень двойки больше MAX_WINDOW_SECONDS
+    private static final int LINEAR_LIMIT = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_EXPONENT = 4; // log2(LINEAR_LIMIT)
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Slice[] slices;
+
+    public RttHistogram() {
+        this.slices = new Slice[SLICE_COUNT];
+        for (int i = 0; i < SLICE_COUNT; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * Записывает время запрос-ответ.
+     *
+     * @param rttNanos Время запрос-ответ (нс)
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     */
+    public void record(long rttNanos, long nowNanos) {
+        Slice slice = currentSlice(nowNanos);
+        if (slice == null) {
+            return;
+        }
+        long micros = Math.max(0, Math.min(MAX_TRACKABLE_MICROS, rttNanos / 1000));
+        slice.counts.incrementAndGet(bucketIndex(micros));
+        slice.max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Записывает запрос, оставшийся без ответа.
+     *
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     */
+    public void recordLoss(long nowNanos) {
+        Slice slice = currentSlice(nowNanos);
+        if (slice != null) {
+            slice.lost.incrementAndGet();
+        }
+    }
+
+    /**
+     * Собирает статистику за последние секунды.
+     *
+     * @param windowSeconds Длина окна (1-{@link #MAX_WINDOW_SECONDS} с)
+     * @return Статистика окна
+     */
+    public RttSnapshot snapshot(int windowSeconds) {
+        return snapshot(windowSeconds, System.nanoTime());
+    }
+
+    /**
+     * Собирает статистику за последние секунды до указанного момента.
+     *
+     * @param windowSeconds Длина окна (1-{@link #MAX_WINDOW_SECONDS} с)
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     * @return Статистика окна
+     */
+    public RttSnapshot snapshot(int windowSeconds, long nowNanos) {
+        if (windowSeconds < 1 || windowSeconds > MAX_WINDOW_SECONDS) {
+            throw new IllegalArgumentException("Окно должно быть от 1 до " + MAX_WINDOW_SECONDS
+                    + " секунд: " + windowSeconds);
+        }
+
+        long second = Math.floorDiv(nowNanos, NANOS_PER_SECOND);
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0;
+        long lost = 0;
+        long max = 0;
+
+        for (Slice slice : slices) {
+            long epoch = slice.epoch.get();
+            if (epoch > second || epoch <= second - windowSeconds) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long value = slice.counts.get(i);
+                merged[i] += value;
+                count += value;
+            }
+            lost += slice.lost.get();
+            max = Math.max(max, slice.max.get());
+        }
+
+        return new RttSnapshot(windowSeconds, count, lost,
+                percentile(merged, count, 0.50, max),
+                percentile(merged, count, 0.90, max),
+                percentile(merged, count, 0.99, max),
+                max);
+    }
+
+    /**
+     * Очищает все срезы.
+     */
+    public void clear() {
+        for (Slice slice : slices) {
+            slice.reset(Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Возвращает срез текущей секунды, обнуляя его, если он остался от прошлого круга.
+     *
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     * @return Срез или null, если время потока отстает от уже начатого среза
+     */
+    private Slice currentSlice(long nowNanos) {
+        long second = Math.floorDiv(nowNanos, NANOS_PER_SECOND);
+        Slice slice = slices[(int) (second & (SLICE_COUNT - 1))];
+        long epoch = slice.epoch.get();
+        if (epoch == second) {
+            return slice;
+        }
+        if (epoch > second) {
+            return null;
+        }
+        if (slice.epoch.compareAndSet(epoch, second)) {
+            slice.reset(second);
+        }
+        return slice;
+    }
+
+    /**
+     * Перцентиль по объединенным корзинам: верхняя граница корзины, в которую
+     * попадает нужный ранг, но не больше точного максимума.
+     */
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, bucketUpperBound(i));
+            }
+        }
+        return max;
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + LINEAR_EXPONENT;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+
+    /**
+     * Счетчики одной секунды.
+     */
+    private static final class Slice {
+
+        private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong lost = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void reset(long second) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts.set(i, 0);
+            }
+            lost.set(0);
+            max.set(0);
+            epoch.set(second);
+        }
+    }
+}
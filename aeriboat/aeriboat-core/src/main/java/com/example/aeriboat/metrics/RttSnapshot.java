@@ -0,0 +1,94 @@
+package com.example.aeriboat.metrics;
+
+/**
+ * Статистика времени запрос-ответ и потерь за окно.
+ *
+ * @since 1.1
+ */
+public final class RttSnapshot {
+
+    private final int windowSeconds;
+    private final long count;
+    private final long lost;
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    public RttSnapshot(int windowSeconds, long count, long lost,
+                       long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+        this.windowSeconds = windowSeconds;
+        this.count = count;
+        this.lost = lost;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * Возвращает длину окна.
+     *
+     * @return Длина окна (с)
+     */
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * Возвращает число ответов в окне.
+     *
+     * @return Число измеренных ответов
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Возвращает число запросов в окне, оставшихся без ответа.
+     *
+     * @return Число потерь
+     */
+    public long getLost() {
+        return lost;
+    }
+
+    /**
+     * Возвращает долю запросов без ответа.
+     *
+     * @return Доля потерь (0-1), 0 если запросов не было
+     */
+    public double getLossRate() {
+        long total = count + lost;
+        return total == 0 ? 0 : (double) lost / total;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP90Micros() {
+        return p90Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "RttSnapshot{" +
+                "windowSeconds=" + windowSeconds +
+                ", count=" + count +
+                ", lost=" + lost +
+                ", p50Micros=" + p50Micros +
+                ", p90Micros=" + p90Micros +
+                ", p99Micros=" + p99Micros +
+                ", maxMicros=" + maxMicros +
+                '}';
+    }
+}
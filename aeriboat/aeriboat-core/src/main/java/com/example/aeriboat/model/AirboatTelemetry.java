@@ -28,6 +28,19 @@ public class AirboatTelemetry {
     public AirboatTelemetry() {
     }
     
+    /**
+     * Создает копию телеметрии.
+     *
+     * @param other Исходная телеметрия
+     */
+    public AirboatTelemetry(AirboatTelemetry other) {
+        this.wifiSignalLevel = other.wifiSignalLevel;
+        this.batteryVoltage = other.batteryVoltage;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.course = other.course;
+    }
+    
     public long getWifiSignalLevel() {
         return wifiSignalLevel;
     }
@@ -0,0 +1,363 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Компактный бинарный протокол обмена с ESP32.
+ * <p>
+ * Кадр фиксированной структуры, все многобайтовые поля little-endian:
+ * <pre>
+ * смещение  размер  поле
+ * 0         1       версия протокола ({@link #VERSION})
+ * 1         1       тип сообщения (TYPE_*)
+ * 2         2       номер последовательности (0, если не используется)
+ * 4         N       данные сообщения
+ * 4+N       2       CRC-16/CCITT-FALSE по байтам [0, 4+N)
+ * </pre>
+ * Данные по типам:
+ * <pre>
+ * COMMAND    (3):  флаги u8 (бит 0 - угол, бит 1 - скорость, бит 2 - запрос телеметрии),
+ *                  угол u8, скорость u8
+ * TELEMETRY (14):  wifi_signal_level i16, battery_voltage u16, latitude i32,
+ *                  longitude i32, course u16
+ * HELLO_ACK  (1):  выбранная версия u8
+ * SUBSCRIBE  (4):  период u16 (мс, 0 - отписка), аренда u16 (мс)
+ * STREAM    (14):  как TELEMETRY; номер последовательности - счетчик потока лодки
+ * </pre>
+ * Подписка действует, пока не истечет аренда; клиент продлевает ее, повторяя
+ * SUBSCRIBE. Кадры STREAM нумеруются отдельно от ответов на запросы.
+ * JSON кадры всегда начинаются с '{' или пробела, поэтому первый байт
+ * однозначно отличает бинарный кадр от текстового.
+ * <p>
+ * Методы кодирования пишут с текущей позиции буфера и сдвигают ее;
+ * методы декодирования читают байты между position и limit, не изменяя их.
+ *
+ * @since 1.1
+ */
+public final class BinaryProtocol {
+
+    public static final int VERSION = 1;
+
+    public static final int TYPE_COMMAND = 0x01;
+    public static final int TYPE_TELEMETRY = 0x02;
+    public static final int TYPE_HELLO_ACK = 0x03;
+    public static final int TYPE_SUBSCRIBE = 0x04;
+    public static final int TYPE_STREAM = 0x05;
+
+    public static final int HEADER_SIZE = 4;
+    public static final int CRC_SIZE = 2;
+    public static final int COMMAND_PAYLOAD_SIZE = 3;
+    public static final int TELEMETRY_PAYLOAD_SIZE = 14;
+    public static final int HELLO_ACK_PAYLOAD_SIZE = 1;
+    public static final int SUBSCRIBE_PAYLOAD_SIZE = 4;
+
+    public static final int FLAG_ANGLE = 0x01;
+    public static final int FLAG_SPEED = 0x02;
+    public static final int FLAG_STATUS = 0x04;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Проверяет, является ли датаграмма бинарным кадром поддерживаемой версии.
+     *
+     * @param buffer Буфер с датаграммой
+     * @return true если первый байт равен {@link #VERSION}
+     */
+    public static boolean isBinaryFrame(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_SIZE + CRC_SIZE && buffer.get(buffer.position()) == VERSION;
+    }
+
+    /**
+     * Проверяет длину и CRC кадра.
+     *
+     * @param buffer Буфер с кадром
+     * @return true если кадр цел
+     */
+    public static boolean isValid(ByteBuffer buffer) {
+        if (!isBinaryFrame(buffer)) {
+            return false;
+        }
+        int start = buffer.position();
+        int crcOffset = buffer.limit() - CRC_SIZE;
+        int expected = getUnsignedShort(buffer, crcOffset);
+        return Crc16.compute(buffer, start, crcOffset) == expected
+                && payloadSize(buffer) == expectedPayloadSize(buffer);
+    }
+
+    /**
+     * Возвращает тип сообщения кадра.
+     *
+     * @param buffer Буфер с кадром
+     * @return Тип сообщения (TYPE_*)
+     */
+    public static int getType(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + 1) & 0xFF;
+    }
+
+    /**
+     * Возвращает номер последовательности кадра.
+     *
+     * @param buffer Буфер с кадром
+     * @return Номер последовательности (0-65535)
+     */
+    public static int getSequence(ByteBuffer buffer) {
+        return getUnsignedShort(buffer, buffer.position() + 2);
+    }
+
+    /**
+     * Кодирует команду управления углом и скоростью.
+     *
+     * @param buffer Буфер назначения
+     * @param sequence Номер последовательности
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeControl(ByteBuffer buffer, int sequence, int angle, int speed) {
+        encodeCommand(buffer, sequence, FLAG_ANGLE | FLAG_SPEED, angle, speed);
+    }
+
+    /**
+     * Кодирует запрос телеметрии.
+     *
+     * @param buffer Буфер назначения
+     * @param sequence Номер последовательности
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeStatusRequest(ByteBuffer buffer, int sequence) {
+        encodeCommand(buffer, sequence, FLAG_STATUS, 0, 0);
+    }
+
+    /**
+     * Кодирует произвольную команду; поля со значением null не передаются.
+     *
+     * @param buffer Буфер назначения
+     * @param sequence Номер последовательности
+     * @param command Команда
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encode(ByteBuffer buffer, int sequence, AirboatCommand command) {
+        int flags = 0;
+        int angle = 0;
+        int speed = 0;
+        if (command.getAngle() != null) {
+            flags |= FLAG_ANGLE;
+            angle = command.getAngle();
+        }
+        if (command.getSpeed() != null) {
+            flags |= FLAG_SPEED;
+            speed = command.getSpeed();
+        }
+        if (Boolean.TRUE.equals(command.getStatus())) {
+            flags |= FLAG_STATUS;
+        }
+        encodeCommand(buffer, sequence, flags, angle, speed);
+    }
+
+    /**
+     * Кодирует подписку на поток телеметрии.
+     *
+     * @param buffer Буфер назначения
+     * @param periodMillis Период отправки (мс), 0 - отменить подписку
+     * @param leaseMillis Срок действия подписки без продления (мс)
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeSubscribe(ByteBuffer buffer, int periodMillis, int leaseMillis) {
+        int start = buffer.position();
+        putHeader(buffer, TYPE_SUBSCRIBE, 0);
+        putShort(buffer, clamp(periodMillis, 0, 0xFFFF));
+        putShort(buffer, clamp(leaseMillis, 0, 0xFFFF));
+        putCrc(buffer, start);
+    }
+
+    /**
+     * Кодирует кадр телеметрии (сторона ESP32 и симуляторы).
+     *
+     * @param buffer Буфер назначения
+     * @param sequence Номер последовательности
+     * @param telemetry Телеметрия
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeTelemetry(ByteBuffer buffer, int sequence, AirboatTelemetry telemetry) {
+        encodeTelemetry(buffer, TYPE_TELEMETRY, sequence, telemetry);
+    }
+
+    /**
+     * Кодирует кадр потока телеметрии по подписке (сторона ESP32 и симуляторы).
+     *
+     * @param buffer Буфер назначения
+     * @param streamSequence Номер кадра в потоке
+     * @param telemetry Телеметрия
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeStream(ByteBuffer buffer, int streamSequence, AirboatTelemetry telemetry) {
+        encodeTelemetry(buffer, TYPE_STREAM, streamSequence, telemetry);
+    }
+
+    private static void encodeTelemetry(ByteBuffer buffer, int type, int sequence, AirboatTelemetry telemetry) {
+        int start = buffer.position();
+        putHeader(buffer, type, sequence);
+        putShort(buffer, clamp(telemetry.getWifiSignalLevel(), Short.MIN_VALUE, Short.MAX_VALUE));
+        putShort(buffer, clamp(telemetry.getBatteryVoltage(), 0, 0xFFFF));
+        putInt(buffer, clamp(telemetry.getLatitude(), Integer.MIN_VALUE, Integer.MAX_VALUE));
+        putInt(buffer, clamp(telemetry.getLongitude(), Integer.MIN_VALUE, Integer.MAX_VALUE));
+        putShort(buffer, clamp(telemetry.getCourse(), 0, 0xFFFF));
+        putCrc(buffer, start);
+    }
+
+    /**
+     * Кодирует подтверждение перехода на бинарный протокол (сторона ESP32 и симуляторы).
+     *
+     * @param buffer Буфер назначения
+     * @param version Выбранная версия протокола
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeHelloAck(ByteBuffer buffer, int version) {
+        int start = buffer.position();
+        putHeader(buffer, TYPE_HELLO_ACK, 0);
+        buffer.put((byte) version);
+        putCrc(buffer, start);
+    }
+
+    /**
+     * Декодирует кадр телеметрии или потока. Кадр должен быть проверен {@link #isValid(ByteBuffer)}.
+     *
+     * @param buffer Буфер с кадром
+     * @param target Объект, в который записывается результат
+     * @return true если кадр является телеметрией
+     */
+    public static boolean decodeTelemetry(ByteBuffer buffer, AirboatTelemetry target) {
+        int type = getType(buffer);
+        if (type != TYPE_TELEMETRY && type != TYPE_STREAM) {
+            return false;
+        }
+        int offset = buffer.position() + HEADER_SIZE;
+        target.setWifiSignalLevel(buffer.get(offset) & 0xFF | buffer.get(offset + 1) << 8);
+        target.setBatteryVoltage(getUnsignedShort(buffer, offset + 2));
+        target.setLatitude(getInt(buffer, offset + 4));
+        target.setLongitude(getInt(buffer, offset + 8));
+        target.setCourse(getUnsignedShort(buffer, offset + 12));
+        return true;
+    }
+
+    /**
+     * Возвращает флаги кадра команды (FLAG_*).
+     *
+     * @param buffer Буфер с кадром команды
+     * @return Флаги
+     */
+    public static int getCommandFlags(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + HEADER_SIZE) & 0xFF;
+    }
+
+    /**
+     * Возвращает угол из кадра команды.
+     *
+     * @param buffer Буфер с кадром команды
+     * @return Угол сервопривода
+     */
+    public static int getCommandAngle(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + HEADER_SIZE + 1) & 0xFF;
+    }
+
+    /**
+     * Возвращает скорость из кадра команды.
+     *
+     * @param buffer Буфер с кадром команды
+     * @return Скорость мотора
+     */
+    public static int getCommandSpeed(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + HEADER_SIZE + 2) & 0xFF;
+    }
+
+    /**
+     * Возвращает период из кадра подписки.
+     *
+     * @param buffer Буфер с кадром подписки
+     * @return Период отправки (мс), 0 - отписка
+     */
+    public static int getSubscribePeriod(ByteBuffer buffer) {
+        return getUnsignedShort(buffer, buffer.position() + HEADER_SIZE);
+    }
+
+    /**
+     * Возвращает срок аренды из кадра подписки.
+     *
+     * @param buffer Буфер с кадром подписки
+     * @return Срок действия подписки (мс)
+     */
+    public static int getSubscribeLease(ByteBuffer buffer) {
+        return getUnsignedShort(buffer, buffer.position() + HEADER_SIZE + 2);
+    }
+
+    private static void encodeCommand(ByteBuffer buffer, int sequence, int flags, int angle, int speed) {
+        int start = buffer.position();
+        putHeader(buffer, TYPE_COMMAND, sequence);
+        buffer.put((byte) flags);
+        buffer.put((byte) clamp(angle, 0, 0xFF));
+        buffer.put((byte) clamp(speed, 0, 0xFF));
+        putCrc(buffer, start);
+    }
+
+    private static int payloadSize(ByteBuffer buffer) {
+        return buffer.remaining() - HEADER_SIZE - CRC_SIZE;
+    }
+
+    private static int expectedPayloadSize(ByteBuffer buffer) {
+        switch (getType(buffer)) {
+            case TYPE_COMMAND:
+                return COMMAND_PAYLOAD_SIZE;
+            case TYPE_TELEMETRY:
+            case TYPE_STREAM:
+                return TELEMETRY_PAYLOAD_SIZE;
+            case TYPE_HELLO_ACK:
+                return HELLO_ACK_PAYLOAD_SIZE;
+            case TYPE_SUBSCRIBE:
+                return SUBSCRIBE_PAYLOAD_SIZE;
+            default:
+                return -1;
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, int type, int sequence) {
+        buffer.put((byte) VERSION);
+        buffer.put((byte) type);
+        putShort(buffer, sequence);
+    }
+
+    private static void putCrc(ByteBuffer buffer, int start) {
+        putShort(buffer, Crc16.compute(buffer, start, buffer.position()));
+    }
+
+    private static void putShort(ByteBuffer buffer, int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >> 8));
+    }
+
+    private static void putInt(ByteBuffer buffer, int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >> 8));
+        buffer.put((byte) (value >> 16));
+        buffer.put((byte) (value >> 24));
+    }
+
+    private static int getUnsignedShort(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF | (buffer.get(index + 1) & 0xFF) << 8;
+    }
+
+    private static int getInt(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF
+                | (buffer.get(index + 1) & 0xFF) << 8
+                | (buffer.get(index + 2) & 0xFF) << 16
+                | buffer.get(index + 3) << 24;
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
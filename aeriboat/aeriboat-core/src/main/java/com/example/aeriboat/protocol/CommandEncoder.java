@@ -0,0 +1,184 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatCommand;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Кодировщик команд ESP32 в JSON без промежуточных объектов.
+ * <p>
+ * Поля команды пишутся напрямую байтами в переданный буфер, поэтому
+ * кодирование не создает ни строк, ни массивов. Формат совпадает с тем,
+ * что выдает {@link com.example.aeriboat.service.JsonService}:
+ * {@code {"angle":90,"speed":50,"status":true}} без null-полей.
+ *
+ * @since 1.1
+ */
+public final class CommandEncoder {
+
+    /**
+     * Максимальный размер закодированной команды в байтах.
+     */
+    public static final int MAX_COMMAND_SIZE = 64;
+
+    private static final byte[] ANGLE_KEY = ascii("\"angle\":");
+    private static final byte[] SPEED_KEY = ascii("\"speed\":");
+    private static final byte[] STATUS_KEY = ascii("\"status\":");
+    private static final byte[] PROTO_KEY = ascii("\"proto\":");
+    private static final byte[] SEQ_KEY = ascii("\"seq\":");
+    private static final byte[] SUBSCRIBE_KEY = ascii("\"subscribe\":");
+    private static final byte[] LEASE_KEY = ascii("\"lease\":");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] MIN_INT = ascii(String.valueOf(Integer.MIN_VALUE));
+
+    private CommandEncoder() {
+    }
+
+    /**
+     * Кодирует команду управления углом и скоростью.
+     *
+     * @param buffer Буфер назначения; данные пишутся с текущей позиции
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeControl(ByteBuffer buffer, int angle, int speed) {
+        buffer.put((byte) '{');
+        buffer.put(ANGLE_KEY);
+        writeInt(buffer, angle);
+        buffer.put((byte) ',');
+        buffer.put(SPEED_KEY);
+        writeInt(buffer, speed);
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Кодирует запрос телеметрии {@code {"status":true,"seq":N}}.
+     * ESP32 с поддержкой номеров возвращает {@code seq} в ответе; прежняя прошивка
+     * ключ игнорирует.
+     *
+     * @param buffer Буфер назначения; данные пишутся с текущей позиции
+     * @param sequence Номер запроса (1-65535) или 0, чтобы не передавать номер
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeStatusRequest(ByteBuffer buffer, int sequence) {
+        buffer.put((byte) '{');
+        buffer.put(STATUS_KEY);
+        buffer.put(TRUE);
+        if (sequence > 0) {
+            buffer.put((byte) ',');
+            buffer.put(SEQ_KEY);
+            writeInt(buffer, sequence);
+        }
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Кодирует предложение перейти на бинарный протокол {@code {"proto":N}}.
+     * Прошивка с поддержкой {@link BinaryProtocol} отвечает кадром HELLO_ACK,
+     * прежняя прошивка ключ игнорирует.
+     *
+     * @param buffer Буфер назначения; данные пишутся с текущей позиции
+     * @param version Версия бинарного протокола клиента
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeHello(ByteBuffer buffer, int version) {
+        buffer.put((byte) '{');
+        buffer.put(PROTO_KEY);
+        writeInt(buffer, version);
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Кодирует подписку на поток телеметрии {@code {"subscribe":PERIOD,"lease":LEASE}}.
+     * ESP32 с поддержкой подписки шлет телеметрию с ключом {@code stream} каждые
+     * PERIOD мс, пока не истечет аренда; прежняя прошивка ключ игнорирует.
+     *
+     * @param buffer Буфер назначения; данные пишутся с текущей позиции
+     * @param periodMillis Период отправки (мс), 0 - отменить подписку
+     * @param leaseMillis Срок действия подписки без продления (мс)
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encodeSubscribe(ByteBuffer buffer, int periodMillis, int leaseMillis) {
+        buffer.put((byte) '{');
+        buffer.put(SUBSCRIBE_KEY);
+        writeInt(buffer, periodMillis);
+        buffer.put((byte) ',');
+        buffer.put(LEASE_KEY);
+        writeInt(buffer, leaseMillis);
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Кодирует произвольную команду, пропуская поля со значением null.
+     *
+     * @param buffer Буфер назначения; данные пишутся с текущей позиции
+     * @param command Команда
+     * @throws BufferOverflowException если в буфере недостаточно места
+     */
+    public static void encode(ByteBuffer buffer, AirboatCommand command) {
+        buffer.put((byte) '{');
+        boolean hasElements = false;
+
+        if (command.getAngle() != null) {
+            buffer.put(ANGLE_KEY);
+            writeInt(buffer, command.getAngle());
+            hasElements = true;
+        }
+
+        if (command.getSpeed() != null) {
+            if (hasElements) {
+                buffer.put((byte) ',');
+            }
+            buffer.put(SPEED_KEY);
+            writeInt(buffer, command.getSpeed());
+            hasElements = true;
+        }
+
+        if (command.getStatus() != null) {
+            if (hasElements) {
+                buffer.put((byte) ',');
+            }
+            buffer.put(STATUS_KEY);
+            buffer.put(command.getStatus() ? TRUE : FALSE);
+        }
+
+        buffer.put((byte) '}');
+    }
+
+    /**
+     * Пишет десятичное представление целого числа в ASCII.
+     *
+     * @param buffer Буфер назначения
+     * @param value Число
+     */
+    static void writeInt(ByteBuffer buffer, int value) {
+        if (value == Integer.MIN_VALUE) {
+            buffer.put(MIN_INT);
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+}
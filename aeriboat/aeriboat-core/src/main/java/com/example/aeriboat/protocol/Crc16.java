@@ -0,0 +1,45 @@
+package com.example.aeriboat.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CRC-16/CCITT-FALSE (полином 0x1021, начальное значение 0xFFFF) для бинарных кадров.
+ * Табличная реализация: на ESP32 та же таблица занимает 512 байт во flash.
+ *
+ * @since 1.1
+ */
+public final class Crc16 {
+
+    private static final int POLYNOMIAL = 0x1021;
+    private static final int INITIAL = 0xFFFF;
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ POLYNOMIAL : crc << 1;
+            }
+            TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private Crc16() {
+    }
+
+    /**
+     * Вычисляет CRC байтов буфера в диапазоне [from, to) без изменения позиции.
+     *
+     * @param buffer Буфер с данными
+     * @param from Индекс первого байта
+     * @param to Индекс за последним байтом
+     * @return CRC-16 (0-65535)
+     */
+    public static int compute(ByteBuffer buffer, int from, int to) {
+        int crc = INITIAL;
+        for (int i = from; i < to; i++) {
+            crc = ((crc << 8) ^ TABLE[((crc >>> 8) ^ buffer.get(i)) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aeriboat.protocol;
+
+/**
+ * Скользящее окно номеров последовательности для отсева устаревших и повторных ответов.
+ * <p>
+ * Хранит старший принятый номер и 64-битную маску номеров, принятых в окне
+ * за ним (как окно защиты от повторов в IPsec). Номера 16-битные и сравниваются
+ * с учетом переполнения. Экземпляр не потокобезопасен и используется только
+ * потоком приема.
+ *
+ * @since 1.1
+ */
+public final class SequenceWindow {
+
+    /**
+     * Номер новее всех принятых: ответ отражает самое свежее состояние.
+     */
+    public static final int LATEST = 0;
+
+    /**
+     * Номер старше последнего принятого, но в окне и еще не встречался.
+     */
+    public static final int LATE = 1;
+
+    /**
+     * Повтор или номер за пределами окна.
+     */
+    public static final int REJECTED = 2;
+
+    public static final int WINDOW_SIZE = 64;
+
+    /**
+     * Число отказов подряд, после которого {@link #acceptOrRestart(int)} считает,
+     * что отправитель начал счет заново.
+     */
+    public static final int RESTART_REJECTS = 3;
+
+    private static final int SEQUENCE_MASK = 0xFFFF;
+
+    private int highest;
+    private long bitmap;
+    private boolean empty = true;
+    private int consecutiveRejects;
+
+    /**
+     * Проверяет номер и отмечает его как принятый.
+     *
+     * @param sequence Номер последовательности (0-65535)
+     * @return {@link #LATEST}, {@link #LATE} или {@link #REJECTED}
+     */
+    public int accept(int sequence) {
+        sequence &= SEQUENCE_MASK;
+        if (empty) {
+            empty = false;
+            highest = sequence;
+            bitmap = 1L;
+            return LATEST;
+        }
+
+        int delta = (short) (sequence - highest);
+        if (delta > 0) {
+            bitmap = delta >= WINDOW_SIZE ? 1L : (bitmap << delta) | 1L;
+            highest = sequence;
+            return LATEST;
+        }
+
+        int age = -delta;
+        if (age >= WINDOW_SIZE) {
+            return REJECTED;
+        }
+        long bit = 1L << age;
+        if ((bitmap & bit) != 0) {
+            return REJECTED;
+        }
+        bitmap |= bit;
+        return LATE;
+    }
+
+    /**
+     * Проверяет номер, как {@link #accept(int)}, но после {@link #RESTART_REJECTS}
+     * отказов подряд считает, что отправитель начал счет заново (например, лодка
+     * перезагрузилась или поток оформлен повторно): окно сбрасывается, и номер
+     * принимается как первый. Используется для пакетов потока, где иначе все
+     * последующие пакеты отбрасывались бы как устаревшие.
+     *
+     * @param sequence Номер последовательности (0-65535)
+     * @return {@link #LATEST}, {@link #LATE} или {@link #REJECTED}
+     */
+    public int acceptOrRestart(int sequence) {
+        int verdict = accept(sequence);
+        if (verdict != REJECTED) {
+            consecutiveRejects = 0;
+            return verdict;
+        }
+        if (++consecutiveRejects < RESTART_REJECTS) {
+            return REJECTED;
+        }
+        reset();
+        return accept(sequence);
+    }
+
+    /**
+     * Возвращает старший принятый номер.
+     *
+     * @return Номер (0-65535) или -1, если номеров еще не было
+     */
+    public int getHighest() {
+        return empty ? -1 : highest;
+    }
+
+    /**
+     * Сбрасывает окно (например, при новом подключении).
+     */
+    public void reset() {
+        empty = true;
+        highest = 0;
+        bitmap = 0;
+        consecutiveRejects = 0;
+    }
+}
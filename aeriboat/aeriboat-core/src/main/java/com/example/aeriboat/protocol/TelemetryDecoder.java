@@ -0,0 +1,485 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Потоковый декодер JSON телеметрии ESP32, работающий прямо по байтам датаграммы.
+ * <p>
+ * В отличие от пути через {@link com.example.aeriboat.service.JsonService} декодер
+ * не создает строк и объектов: пять известных ключей ({@code wifi_signal_level},
+ * {@code battery_voltage}, {@code latitude}, {@code longitude}, {@code course})
+ * разбираются в переиспользуемый {@link AirboatTelemetry}, неизвестные ключи
+ * и вложенные значения пропускаются без исключений. Числа в кавычках
+ * принимаются так же, как в прежнем fallback парсере; дробная часть и экспонента
+ * отбрасываются. Пакет без единого известного поля телеметрии (например,
+ * подтверждение {@code {"status":"ok"}} или {@code {}}) телеметрией не считается.
+ * Необязательный ключ {@code seq} (номер запроса, на который
+ * отвечает ESP32) доступен через {@link #getSequence()}, а ключ {@code stream}
+ * (номер пакета в потоке по подписке) - через {@link #getStreamSequence()}.
+ * <p>
+ * Экземпляр хранит состояние разбора и не потокобезопасен: каждый поток
+ * приема использует свой декодер.
+ *
+ * @since 1.1
+ */
+public final class TelemetryDecoder {
+
+    private static final byte[] WIFI_SIGNAL_LEVEL = ascii("wifi_signal_level");
+    private static final byte[] BATTERY_VOLTAGE = ascii("battery_voltage");
+    private static final byte[] LATITUDE = ascii("latitude");
+    private static final byte[] LONGITUDE = ascii("longitude");
+    private static final byte[] COURSE = ascii("course");
+    private static final byte[] SEQ = ascii("seq");
+    private static final byte[] STREAM = ascii("stream");
+
+    private static final int FIELD_UNKNOWN = -1;
+    private static final int FIELD_WIFI_SIGNAL_LEVEL = 0;
+    private static final int FIELD_BATTERY_VOLTAGE = 1;
+    private static final int FIELD_LATITUDE = 2;
+    private static final int FIELD_LONGITUDE = 3;
+    private static final int FIELD_COURSE = 4;
+    private static final int FIELD_SEQ = 5;
+    private static final int FIELD_STREAM = 6;
+
+    private static final int MAX_NESTING = 32;
+
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private boolean valueValid;
+    private boolean telemetryFound;
+    private int sequence;
+    private int streamSequence;
+
+    /**
+     * Декодирует телеметрию из байтов между position и limit буфера.
+     * Позиция и лимит буфера не изменяются. Поля, отсутствующие в пакете,
+     * сбрасываются в 0.
+     *
+     * @param source Буфер с датаграммой
+     * @param target Объект, в который записывается результат
+     * @return true если пакет является корректным JSON объектом хотя бы с одним
+     *         числовым полем телеметрии
+     */
+    public boolean decode(ByteBuffer source, AirboatTelemetry target) {
+        this.buffer = source;
+        this.position = source.position();
+        this.limit = source.limit();
+        this.sequence = -1;
+        this.streamSequence = -1;
+        this.telemetryFound = false;
+
+        target.setWifiSignalLevel(0);
+        target.setBatteryVoltage(0);
+        target.setLatitude(0);
+        target.setLongitude(0);
+        target.setCourse(0);
+
+        try {
+            return parseObject(target) && telemetryFound;
+        } finally {
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Возвращает номер последовательности из последнего декодированного пакета.
+     *
+     * @return Номер (0-65535) или -1, если ключ {@code seq} отсутствовал
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Возвращает номер пакета потока из последнего декодированного пакета.
+     *
+     * @return Номер (0-65535) или -1, если ключ {@code stream} отсутствовал
+     */
+    public int getStreamSequence() {
+        return streamSequence;
+    }
+
+    /**
+     * Разбирает объект верхнего уровня.
+     *
+     * @param target Объект телеметрии
+     * @return true если объект корректен
+     */
+    private boolean parseObject(AirboatTelemetry target) {
+        skipWhitespace();
+        if (!consume('{')) {
+            return false;
+        }
+
+        skipWhitespace();
+        if (consume('}')) {
+            return true;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                return false;
+            }
+            int field = readKey();
+            if (field == Integer.MIN_VALUE) {
+                return false;
+            }
+
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            if (field == FIELD_UNKNOWN) {
+                if (!skipValue(0)) {
+                    return false;
+                }
+            } else {
+                long value = readLongValue();
+                if (position > limit) {
+                    return false;
+                }
+                if (valueValid && field == FIELD_SEQ) {
+                    sequence = (int) (value & 0xFFFF);
+                } else if (valueValid && field == FIELD_STREAM) {
+                    streamSequence = (int) (value & 0xFFFF);
+                } else if (valueValid) {
+                    store(target, field, value);
+                    telemetryFound = true;
+                }
+            }
+
+            skipWhitespace();
+            if (consume(',')) {
+                continue;
+            }
+            return consume('}');
+        }
+    }
+
+    /**
+     * Читает ключ в кавычках и определяет поле телеметрии.
+     *
+     * @return Номер поля, {@link #FIELD_UNKNOWN} или {@link Integer#MIN_VALUE} при ошибке
+     */
+    private int readKey() {
+        int start = position + 1;
+        int end = start;
+        while (end < limit) {
+            byte b = buffer.get(end);
+            if (b == '"') {
+                break;
+            }
+            if (b == '\\') {
+                // Экранированные ключи в телеметрии не используются
+                position = start - 1;
+                return skipString() ? FIELD_UNKNOWN : Integer.MIN_VALUE;
+            }
+            end++;
+        }
+        if (end >= limit) {
+            return Integer.MIN_VALUE;
+        }
+        position = end + 1;
+
+        int length = end - start;
+        if (matches(start, length, WIFI_SIGNAL_LEVEL)) {
+            return FIELD_WIFI_SIGNAL_LEVEL;
+        }
+        if (matches(start, length, BATTERY_VOLTAGE)) {
+            return FIELD_BATTERY_VOLTAGE;
+        }
+        if (matches(start, length, LATITUDE)) {
+            return FIELD_LATITUDE;
+        }
+        if (matches(start, length, LONGITUDE)) {
+            return FIELD_LONGITUDE;
+        }
+        if (matches(start, length, COURSE)) {
+            return FIELD_COURSE;
+        }
+        if (matches(start, length, SEQ)) {
+            return FIELD_SEQ;
+        }
+        if (matches(start, length, STREAM)) {
+            return FIELD_STREAM;
+        }
+        return FIELD_UNKNOWN;
+    }
+
+    /**
+     * Читает числовое значение известного поля. Значение может быть числом или
+     * числом в кавычках; для остальных значений {@link #valueValid} равен false.
+     * При синтаксической ошибке позиция переводится за лимит.
+     *
+     * @return Целая часть числа
+     */
+    private long readLongValue() {
+        valueValid = false;
+        int first = peek();
+
+        if (first == '"') {
+            int stringStart = position;
+            position++;
+            skipWhitespace();
+            long value = readNumber();
+            skipWhitespace();
+            if (valueValid && consume('"')) {
+                return value;
+            }
+
+            // Нечисловая строка: значение игнорируется, как в прежнем fallback парсере
+            valueValid = false;
+            position = stringStart;
+            if (!skipString()) {
+                position = limit + 1;
+            }
+            return 0;
+        }
+
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            long value = readNumber();
+            if (!valueValid) {
+                position = limit + 1;
+            }
+            return value;
+        }
+
+        if (!skipValue(0)) {
+            position = limit + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Читает число с текущей позиции, отбрасывая дробную часть и экспоненту.
+     * Устанавливает {@link #valueValid}, если прочитана хотя бы одна цифра.
+     *
+     * @return Целая часть числа
+     */
+    private long readNumber() {
+        boolean negative = consume('-');
+        long value = 0;
+        int digits = 0;
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            digits++;
+            position++;
+        }
+
+        valueValid = digits > 0;
+        if (!valueValid) {
+            return 0;
+        }
+        skipFractionAndExponent();
+        return negative ? -value : value;
+    }
+
+    /**
+     * Пропускает дробную часть и экспоненту числа.
+     */
+    private void skipFractionAndExponent() {
+        if (consume('.')) {
+            skipDigits();
+        }
+        if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+            position++;
+            if (!consume('+')) {
+                consume('-');
+            }
+            skipDigits();
+        }
+    }
+
+    /**
+     * Пропускает произвольное JSON значение.
+     *
+     * @param depth Текущая глубина вложенности
+     * @return true если значение корректно пропущено
+     */
+    private boolean skipValue(int depth) {
+        if (depth > MAX_NESTING || position >= limit) {
+            return false;
+        }
+
+        byte b = buffer.get(position);
+        switch (b) {
+            case '"':
+                return skipString();
+            case '{':
+                return skipContainer('}', depth, true);
+            case '[':
+                return skipContainer(']', depth, false);
+            case 't':
+                return skipLiteral("true");
+            case 'f':
+                return skipLiteral("false");
+            case 'n':
+                return skipLiteral("null");
+            default:
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    consume('-');
+                    int start = position;
+                    skipDigits();
+                    if (position == start) {
+                        return false;
+                    }
+                    skipFractionAndExponent();
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Пропускает вложенный объект или массив.
+     *
+     * @param close Закрывающий символ
+     * @param depth Текущая глубина вложенности
+     * @param object true для объекта (элементы вида ключ:значение)
+     * @return true если контейнер корректно пропущен
+     */
+    private boolean skipContainer(char close, int depth, boolean object) {
+        position++;
+        skipWhitespace();
+        if (consume(close)) {
+            return true;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (object) {
+                if (peek() != '"' || !skipString()) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+            }
+            if (!skipValue(depth + 1)) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume(',')) {
+                continue;
+            }
+            return consume(close);
+        }
+    }
+
+    /**
+     * Пропускает строку в кавычках с учетом экранирования.
+     *
+     * @return true если строка закрыта
+     */
+    private boolean skipString() {
+        position++;
+        while (position < limit) {
+            byte b = buffer.get(position++);
+            if (b == '\\') {
+                position++;
+            } else if (b == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean skipLiteral(String literal) {
+        if (limit - position < literal.length()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buffer.get(position + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        position += literal.length();
+        return true;
+    }
+
+    private void skipDigits() {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b < '0' || b > '9') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private int peek() {
+        return position < limit ? buffer.get(position) : -1;
+    }
+
+    private boolean consume(char expected) {
+        if (position < limit && buffer.get(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean matches(int start, int length, byte[] key) {
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void store(AirboatTelemetry target, int field, long value) {
+        switch (field) {
+            case FIELD_WIFI_SIGNAL_LEVEL:
+                target.setWifiSignalLevel(value);
+                break;
+            case FIELD_BATTERY_VOLTAGE:
+                target.setBatteryVoltage(value);
+                break;
+            case FIELD_LATITUDE:
+                target.setLatitude(value);
+                break;
+            case FIELD_LONGITUDE:
+                target.setLongitude(value);
+                break;
+            case FIELD_COURSE:
+                target.setCourse(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+}
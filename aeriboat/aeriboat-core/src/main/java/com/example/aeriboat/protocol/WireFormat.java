@@ -0,0 +1,19 @@
+package com.example.aeriboat.protocol;
+
+/**
+ * Формат кадров на UDP соединении с ESP32.
+ *
+ * @since 1.1
+ */
+public enum WireFormat {
+
+    /**
+     * Текстовый JSON (формат по умолчанию, поддерживается любой прошивкой).
+     */
+    JSON,
+
+    /**
+     * Компактные бинарные кадры {@link BinaryProtocol}, включаются после рукопожатия.
+     */
+    BINARY
+}
@@ -0,0 +1,225 @@
+package com.example.aeriboat.recorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Последовательное чтение журнала полета, записанного {@link FlightRecorder}.
+ * <p>
+ * Сегменты каталога отображаются в память только для чтения и обходятся
+ * по номерам. {@link #seek(long)} находит сегмент по времени первой записи,
+ * а внутри сегмента - ближайшую запись индекса, после чего дочитывает
+ * не более {@link JournalFormat#INDEX_STRIDE} байт. Экземпляр не потокобезопасен.
+ *
+ * @since 1.1
+ */
+public class FlightJournalReader {
+
+    private final Path directory;
+    private final List<Segment> segments;
+    private int segmentIndex;
+    private int position;
+
+    /**
+     * Открывает журнал.
+     *
+     * @param directory Каталог журнала
+     * @throws IOException если каталог не читается или в нем нет записанных сегментов
+     */
+    public FlightJournalReader(Path directory) throws IOException {
+        this.directory = directory;
+        this.segments = openSegments(directory);
+        if (segments.isEmpty()) {
+            throw new IOException("В каталоге нет записей журнала: " + directory);
+        }
+        rewind();
+    }
+
+    /**
+     * Возвращает каталог журнала.
+     *
+     * @return Каталог
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Возвращает время первой записи журнала.
+     *
+     * @return Микросекунды от эпохи
+     */
+    public long getStartMicros() {
+        return segments.get(0).firstTimestampMicros;
+    }
+
+    /**
+     * Переходит к началу журнала.
+     */
+    public void rewind() {
+        segmentIndex = 0;
+        position = segments.get(0).dataOffset;
+    }
+
+    /**
+     * Переходит к первой записи со временем не меньше заданного.
+     *
+     * @param timestampMicros Время (мкс от эпохи)
+     */
+    public void seek(long timestampMicros) {
+        segmentIndex = 0;
+        for (int i = 1; i < segments.size(); i++) {
+            if (segments.get(i).firstTimestampMicros <= timestampMicros) {
+                segmentIndex = i;
+            }
+        }
+
+        Segment segment = segments.get(segmentIndex);
+        position = segment.dataOffset;
+        int low = 0;
+        int high = segment.indexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = JournalFormat.INDEX_OFFSET + mid * JournalFormat.INDEX_ENTRY_SIZE;
+            if (segment.buffer.getLong(entry) <= timestampMicros) {
+                position = segment.buffer.getInt(entry + 8);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        while (true) {
+            int direction = directionAt(segment, position);
+            if (direction == 0) {
+                if (segmentIndex + 1 == segments.size()) {
+                    return;
+                }
+                segment = segments.get(++segmentIndex);
+                position = segment.dataOffset;
+                continue;
+            }
+            if (segment.buffer.getLong(position + 4) >= timestampMicros) {
+                return;
+            }
+            position += JournalFormat.RECORD_HEADER_SIZE + (segment.buffer.getShort(position) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Читает следующую запись.
+     *
+     * @param record Объект, в который записывается результат
+     * @return true если запись прочитана, false в конце журнала
+     */
+    public boolean next(JournalRecord record) {
+        while (true) {
+            Segment segment = segments.get(segmentIndex);
+            int direction = directionAt(segment, position);
+            if (direction != 0) {
+                int length = segment.buffer.getShort(position) & 0xFFFF;
+                long timestamp = segment.buffer.getLong(position + 4);
+                record.set(direction, timestamp, segment.buffer, position + JournalFormat.RECORD_HEADER_SIZE, length);
+                position += JournalFormat.RECORD_HEADER_SIZE + length;
+                return true;
+            }
+
+            if (segmentIndex + 1 == segments.size()) {
+                return false;
+            }
+            segmentIndex++;
+            position = segments.get(segmentIndex).dataOffset;
+        }
+    }
+
+    /**
+     * Возвращает направление записи по смещению или 0, если данных больше нет
+     * (либо запись выходит за пределы сегмента).
+     */
+    private static int directionAt(Segment segment, int position) {
+        int capacity = segment.buffer.capacity();
+        if (position + JournalFormat.RECORD_HEADER_SIZE > capacity) {
+            return 0;
+        }
+        int length = segment.buffer.getShort(position) & 0xFFFF;
+        if (position + JournalFormat.RECORD_HEADER_SIZE + length > capacity) {
+            return 0;
+        }
+        return segment.buffer.get(position + 2);
+    }
+
+    private static List<Segment> openSegments(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                JournalFormat.SEGMENT_PREFIX + "*" + JournalFormat.SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+
+        List<Segment> segments = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            if (segment != null) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Сегмент журнала, открытый на чтение.
+     */
+    private static final class Segment {
+
+        private final ByteBuffer buffer;
+        private final long firstTimestampMicros;
+        private final int indexCount;
+        private final int dataOffset;
+
+        private Segment(ByteBuffer buffer, long firstTimestampMicros, int indexCount, int dataOffset) {
+            this.buffer = buffer;
+            this.firstTimestampMicros = firstTimestampMicros;
+            this.indexCount = indexCount;
+            this.dataOffset = dataOffset;
+        }
+
+        /**
+         * Отображает файл сегмента в память.
+         *
+         * @return Сегмент или null, если файл поврежден или не содержит записей
+         */
+        static Segment open(Path file) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file)) {
+                if (channel.size() < JournalFormat.INDEX_OFFSET) {
+                    return null;
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            if (buffer.getInt(0) != JournalFormat.MAGIC || buffer.getShort(4) != JournalFormat.VERSION) {
+                System.err.println("Пропущен файл с неизвестным форматом: " + file);
+                return null;
+            }
+            long firstTimestamp = buffer.getLong(JournalFormat.FIRST_TIMESTAMP_OFFSET);
+            int indexCapacity = buffer.getInt(JournalFormat.INDEX_CAPACITY_OFFSET);
+            if (firstTimestamp == 0 || indexCapacity <= 0
+                    || indexCapacity > buffer.capacity() / JournalFormat.INDEX_ENTRY_SIZE) {
+                return null;
+            }
+            int indexCount = Math.min(indexCapacity, buffer.getInt(JournalFormat.INDEX_COUNT_OFFSET));
+            int dataOffset = JournalFormat.dataOffset(indexCapacity);
+            if (dataOffset >= buffer.capacity()) {
+                return null;
+            }
+            return new Segment(buffer, firstTimestamp, indexCount, dataOffset);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.aeriboat.recorder;
+
+import com.example.aeriboat.service.PacketTap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Бортовой самописец: журнал всех отправленных и принятых датаграмм
+ * в файлах сегментов, отображенных в память ({@link MappedByteBuffer}).
+ * <p>
+ * Подключается к {@link com.example.aeriboat.service.UdpClient} как {@link PacketTap}.
+ * Запись датаграммы - это копирование байтов в отображенную память без
+ * системных вызовов; сброс страниц на диск выполняет операционная система.
+ * Следующий сегмент создается, отображается и заранее размечается фоновым
+ * потоком, поэтому смена сегмента на пути сети сводится к замене ссылки.
+ * Если следующий сегмент еще не готов, датаграмма не записывается
+ * и учитывается в {@link #getDroppedCount()}: самописец никогда не задерживает связь.
+ * Закрытый сегмент обрезается до записанных данных, а сегмент без записей удаляется,
+ * так что на диске остается только реально записанное.
+ * <p>
+ * Формат сегмента описан в {@link JournalFormat}; читает журнал {@link FlightJournalReader}.
+ *
+ * @since 1.1
+ */
+public class FlightRecorder implements PacketTap, AutoCloseable {
+
+    /**
+     * Размер сегмента по умолчанию (16 МБ - несколько часов телеметрии).
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int MIN_SEGMENT_SIZE = 256 * 1024;
+    private static final int PAGE_SIZE = 4096;
+    private static final String THREAD_NAME = "flight-recorder";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ExecutorService executor;
+    private final LongSupplier clock;
+    private Segment current;
+    private Future<Segment> next;
+    private int nextNumber;
+    private long recordCount;
+    private long droppedCount;
+    private boolean closed;
+
+    /**
+     * Открывает самописец с размером сегмента по умолчанию.
+     *
+     * @param directory Каталог журнала (создается при необходимости)
+     * @throws IOException если не удалось создать первый сегмент
+     */
+    public FlightRecorder(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Открывает самописец. Нумерация сегментов продолжается после уже
+     * существующих в каталоге.
+     *
+     * @param directory Каталог журнала (создается при необходимости)
+     * @param segmentSize Размер файла сегмента в байтах
+     * @throws IOException если не удалось создать первый сегмент
+     */
+    public FlightRecorder(Path directory, int segmentSize) throws IOException {
+        this(directory, segmentSize, monotonicEpochMicros());
+    }
+
+    /**
+     * Открывает самописец с заданными часами (для тестов).
+     *
+     * @param directory Каталог журнала (создается при необходимости)
+     * @param segmentSize Размер файла сегмента в байтах
+     * @param clock Время записи (мкс от эпохи)
+     * @throws IOException если не удалось создать первый сегмент
+     */
+    FlightRecorder(Path directory, int segmentSize, LongSupplier clock) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Размер сегмента меньше " + MIN_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        int number = lastSegmentNumber(directory) + 1;
+        this.current = Segment.create(directory, number, segmentSize);
+        this.nextNumber = number + 1;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.next = prepareNext();
+    }
+
+    /**
+     * Записывает датаграмму в журнал. Байты копируются, position и limit буфера не меняются.
+     *
+     * @param direction Направление ({@link #INBOUND} или {@link #OUTBOUND})
+     * @param packet Байты датаграммы между position и limit
+     */
+    @Override
+    public synchronized void onPacket(int direction, ByteBuffer packet) {
+        if (closed) {
+            return;
+        }
+        int length = packet.remaining();
+        if (length > JournalFormat.MAX_PAYLOAD_SIZE || (!current.hasRoom(length) && !rollover())) {
+            droppedCount++;
+            return;
+        }
+        current.append(direction, clock.getAsLong(), packet);
+        recordCount++;
+    }
+
+    /**
+     * Возвращает каталог журнала.
+     *
+     * @return Каталог
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Возвращает число записанных датаграмм.
+     *
+     * @return Число записей
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Возвращает число датаграмм, которые не удалось записать
+     * (сегмент не был готов вовремя или датаграмма слишком велика).
+     *
+     * @return Число пропущенных записей
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск и закрывает журнал. Заготовленный,
+     * но не использованный сегмент удаляется до возврата из метода.
+     */
+    @Override
+    public void close() {
+        Future<Segment> unused;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current.close();
+            unused = next;
+        }
+
+        // Отмена не останавливает уже начатое создание файла, поэтому заготовку дожидаемся и удаляем
+        discard(unused);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Самописец не успел завершить фоновые операции");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Переключается на заранее подготовленный сегмент. Вызывается под блокировкой.
+     *
+     * @return true если новый сегмент готов к записи
+     */
+    private boolean rollover() {
+        if (!next.isDone()) {
+            return false;
+        }
+
+        Segment prepared;
+        try {
+            prepared = next.get();
+        } catch (ExecutionException e) {
+            System.err.println("Ошибка создания сегмента журнала: " + e.getCause().getMessage());
+            next = prepareNext();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        Segment finished = current;
+        current = prepared;
+        executor.execute(finished::close);
+        next = prepareNext();
+        return true;
+    }
+
+    private Future<Segment> prepareNext() {
+        int number = nextNumber++;
+        return executor.submit(() -> Segment.create(directory, number, segmentSize));
+    }
+
+    /**
+     * Возвращает часы записи: время от эпохи, отсчитываемое по монотонным часам,
+     * чтобы перевод системного времени не нарушал порядок записей.
+     */
+    private static LongSupplier monotonicEpochMicros() {
+        long baseEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        long baseNanos = System.nanoTime();
+        return () -> baseEpochMicros + (System.nanoTime() - baseNanos) / 1000;
+    }
+
+    private static void discard(Future<Segment> future) {
+        try {
+            // Сегмент без записей удаляется при закрытии
+            future.get().close();
+        } catch (ExecutionException e) {
+            // Сегмент не был создан или уже удален
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int lastSegmentNumber(Path directory) throws IOException {
+        int last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                JournalFormat.SEGMENT_PREFIX + "*" + JournalFormat.SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String digits = name.substring(JournalFormat.SEGMENT_PREFIX.length(),
+                        name.length() - JournalFormat.SEGMENT_SUFFIX.length());
+                try {
+                    last = Math.max(last, Integer.parseInt(digits));
+                } catch (NumberFormatException e) {
+                    // Посторонний файл с похожим именем
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Сегмент журнала, открытый на запись.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int indexCapacity;
+        private int position;
+        private int indexCount;
+        private int lastIndexedPosition;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer, int indexCapacity) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.indexCapacity = indexCapacity;
+            this.position = JournalFormat.dataOffset(indexCapacity);
+        }
+
+        /**
+         * Создает файл сегмента, отображает его в память и записывает заголовок.
+         * Каждая страница затрагивается заранее, чтобы запись на пути сети
+         * не вызывала выделения блоков файла.
+         */
+        static Segment create(Path directory, int number, int size) throws IOException {
+            Path path = directory.resolve(JournalFormat.segmentName(number));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                for (int offset = 0; offset < size; offset += PAGE_SIZE) {
+                    buffer.put(offset, (byte) 0);
+                }
+                int indexCapacity = JournalFormat.indexCapacity(size);
+                buffer.putInt(0, JournalFormat.MAGIC);
+                buffer.putShort(4, (short) JournalFormat.VERSION);
+                buffer.putInt(JournalFormat.INDEX_CAPACITY_OFFSET, indexCapacity);
+                return new Segment(path, channel, buffer, indexCapacity);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                Files.deleteIfExists(path);
+                throw e;
+            }
+        }
+
+        boolean hasRoom(int length) {
+            return position + JournalFormat.RECORD_HEADER_SIZE + length <= buffer.capacity();
+        }
+
+        /**
+         * Добавляет запись. Байт направления пишется последним, поэтому
+         * при аварийном завершении процесса недописанная запись выглядит как конец данных.
+         */
+        void append(int direction, long timestampMicros, ByteBuffer packet) {
+            int length = packet.remaining();
+            if (indexCount == 0 || position - lastIndexedPosition >= JournalFormat.INDEX_STRIDE) {
+                addIndexEntry(timestampMicros);
+            }
+
+            buffer.putShort(position, (short) length);
+            buffer.putLong(position + 4, timestampMicros);
+            buffer.put(position + JournalFormat.RECORD_HEADER_SIZE, packet, packet.position(), length);
+            buffer.put(position + 2, (byte) direction);
+            position += JournalFormat.RECORD_HEADER_SIZE + length;
+        }
+
+        private void addIndexEntry(long timestampMicros) {
+            if (indexCount == indexCapacity) {
+                return;
+            }
+            if (indexCount == 0) {
+                buffer.putLong(JournalFormat.FIRST_TIMESTAMP_OFFSET, timestampMicros);
+            }
+            int entry = JournalFormat.INDEX_OFFSET + indexCount * JournalFormat.INDEX_ENTRY_SIZE;
+            buffer.putLong(entry, timestampMicros);
+            buffer.putInt(entry + 8, position);
+            indexCount++;
+            buffer.putInt(JournalFormat.INDEX_COUNT_OFFSET, indexCount);
+            lastIndexedPosition = position;
+        }
+
+        /**
+         * Сбрасывает сегмент на диск и обрезает файл до конца записанных данных.
+         * Сегмент без записей удаляется. Если система не позволяет обрезать
+         * отображенный файл, он остается полного размера и читается так же.
+         */
+        void close() {
+            boolean empty = indexCount == 0;
+            try {
+                buffer.force();
+                try {
+                    channel.truncate(position);
+                } catch (IOException e) {
+                    System.err.println("Сегмент журнала " + path + " не обрезан: " + e.getMessage());
+                }
+                channel.close();
+                if (empty) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ошибка закрытия сегмента журнала " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
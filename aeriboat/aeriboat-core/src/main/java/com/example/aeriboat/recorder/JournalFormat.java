@@ -0,0 +1,81 @@
+package com.example.aeriboat.recorder;
+
+/**
+ * Формат сегмента журнала полета. Все поля big-endian (порядок {@link java.nio.ByteBuffer} по умолчанию).
+ * <pre>
+ * смещение  размер  поле
+ * 0         4       сигнатура {@link #MAGIC}
+ * 4         2       версия формата ({@link #VERSION})
+ * 6         2       резерв
+ * 8         8       время первой записи (мкс от эпохи), 0 - сегмент пуст
+ * 16        4       емкость индекса (записей)
+ * 20        4       заполнено записей индекса
+ * 24        16*N    индекс: время (мкс) i64, смещение записи i32, резерв i32
+ * ...               записи до конца файла
+ * </pre>
+ * Запись:
+ * <pre>
+ * 0         2       длина данных u16
+ * 2         1       направление ({@link com.example.aeriboat.service.PacketTap})
+ * 3         1       резерв
+ * 4         8       время (мкс от эпохи)
+ * 12        N       байты датаграммы
+ * </pre>
+ * Файл сегмента заранее заполнен нулями, поэтому нулевое направление означает
+ * конец записанных данных; закрытый сегмент обрезан по концу последней записи,
+ * и концом данных служит конец файла. Запись индекса добавляется, когда с предыдущей
+ * проиндексированной записи накопилось не меньше {@link #INDEX_STRIDE} байт.
+ *
+ * @since 1.1
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x41424652; // "ABFR"
+    static final int VERSION = 1;
+
+    static final int FIRST_TIMESTAMP_OFFSET = 8;
+    static final int INDEX_CAPACITY_OFFSET = 16;
+    static final int INDEX_COUNT_OFFSET = 20;
+    static final int INDEX_OFFSET = 24;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int INDEX_STRIDE = 16 * 1024;
+
+    static final int RECORD_HEADER_SIZE = 12;
+    static final int MAX_PAYLOAD_SIZE = 0xFFFF;
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".abfr";
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Возвращает смещение начала записей для сегмента заданного размера.
+     *
+     * @param indexCapacity Емкость индекса
+     * @return Смещение первой записи
+     */
+    static int dataOffset(int indexCapacity) {
+        return INDEX_OFFSET + indexCapacity * INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * Вычисляет емкость индекса для сегмента заданного размера.
+     *
+     * @param segmentSize Размер сегмента в байтах
+     * @return Число записей индекса
+     */
+    static int indexCapacity(int segmentSize) {
+        return segmentSize / INDEX_STRIDE + 1;
+    }
+
+    /**
+     * Формирует имя файла сегмента.
+     *
+     * @param number Номер сегмента
+     * @return Имя файла
+     */
+    static String segmentName(int number) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+}
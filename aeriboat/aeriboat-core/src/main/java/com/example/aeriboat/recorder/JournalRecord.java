@@ -0,0 +1,76 @@
+package com.example.aeriboat.recorder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Запись журнала полета: направление, время и байты датаграммы.
+ * <p>
+ * Объект переиспользуется {@link FlightJournalReader#next(JournalRecord)}:
+ * каждое чтение перезаписывает поля и буфер данных.
+ *
+ * @since 1.1
+ */
+public final class JournalRecord {
+
+    private final ByteBuffer payload;
+    private int direction;
+    private long timestampMicros;
+
+    public JournalRecord() {
+        this.payload = ByteBuffer.allocate(JournalFormat.MAX_PAYLOAD_SIZE);
+    }
+
+    /**
+     * Возвращает направление датаграммы.
+     *
+     * @return {@link com.example.aeriboat.service.PacketTap#INBOUND} или
+     *         {@link com.example.aeriboat.service.PacketTap#OUTBOUND}
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Возвращает время записи.
+     *
+     * @return Микросекунды от эпохи
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    /**
+     * Возвращает байты датаграммы между position и limit.
+     *
+     * @return Буфер данных (действителен до следующего чтения)
+     */
+    public ByteBuffer getPayload() {
+        return payload;
+    }
+
+    /**
+     * Заполняет запись из отображенного сегмента.
+     *
+     * @param direction Направление
+     * @param timestampMicros Время (мкс)
+     * @param source Буфер сегмента
+     * @param offset Смещение данных в сегменте
+     * @param length Длина данных
+     */
+    void set(int direction, long timestampMicros, ByteBuffer source, int offset, int length) {
+        this.direction = direction;
+        this.timestampMicros = timestampMicros;
+        payload.clear();
+        payload.put(0, source, offset, length);
+        payload.limit(length);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "direction=" + direction +
+                ", timestampMicros=" + timestampMicros +
+                ", length=" + payload.remaining() +
+                '}';
+    }
+}
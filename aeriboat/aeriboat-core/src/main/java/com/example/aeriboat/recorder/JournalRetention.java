@@ -0,0 +1,134 @@
+package com.example.aeriboat.recorder;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ограничение числа и общего объема журналов полета в каталоге записей.
+ * <p>
+ * Журналом считается подкаталог, в котором нет ничего, кроме файлов сегментов
+ * (пустой подкаталог тоже); прочие файлы и подкаталоги не трогаются. Журналы
+ * упорядочиваются по времени изменения последнего сегмента, и, начиная с того
+ * места, где превышен лимит числа или объема, все более старые удаляются.
+ *
+ * @since 1.1
+ */
+public final class JournalRetention {
+
+    private JournalRetention() {
+    }
+
+    /**
+     * Удаляет старые журналы сверх лимитов.
+     *
+     * @param root Каталог, в котором лежат каталоги журналов
+     * @param maxJournals Наибольшее число журналов
+     * @param maxTotalBytes Наибольший общий объем журналов (байт)
+     * @param keep Журнал, который не удаляется и учитывается первым (например,
+     *             текущая запись), или null
+     * @return Число удаленных журналов
+     * @throws IOException если каталог записей не читается
+     */
+    public static int prune(Path root, int maxJournals, long maxTotalBytes, Path keep) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Journal> journals = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path entry : entries) {
+                Journal journal = Journal.scan(entry);
+                if (journal != null) {
+                    journals.add(journal);
+                }
+            }
+        }
+        journals.sort(Comparator.comparingLong((Journal journal) -> journal.lastModified).reversed());
+
+        int count = 0;
+        long total = 0;
+        for (Journal journal : journals) {
+            if (keep != null && journal.directory.equals(keep)) {
+                count++;
+                total += journal.size;
+            }
+        }
+
+        int deleted = 0;
+        boolean full = false;
+        for (Journal journal : journals) {
+            if (keep != null && journal.directory.equals(keep)) {
+                continue;
+            }
+            if (!full && count < maxJournals && total + journal.size <= maxTotalBytes) {
+                count++;
+                total += journal.size;
+                continue;
+            }
+            full = true;
+            if (journal.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Каталог журнала с его объемом и временем последнего изменения.
+     */
+    private static final class Journal {
+
+        private final Path directory;
+        private final List<Path> segments;
+        private final long size;
+        private final long lastModified;
+
+        private Journal(Path directory, List<Path> segments, long size, long lastModified) {
+            this.directory = directory;
+            this.segments = segments;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Описывает каталог, если он является журналом.
+         *
+         * @return Журнал или null, если в каталоге есть посторонние файлы
+         */
+        static Journal scan(Path directory) throws IOException {
+            List<Path> segments = new ArrayList<>();
+            long size = 0;
+            long lastModified = Files.getLastModifiedTime(directory).toMillis();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (!Files.isRegularFile(file) || !name.startsWith(JournalFormat.SEGMENT_PREFIX)
+                            || !name.endsWith(JournalFormat.SEGMENT_SUFFIX)) {
+                        return null;
+                    }
+                    segments.add(file);
+                    size += Files.size(file);
+                    lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+            return new Journal(directory, segments, size, lastModified);
+        }
+
+        boolean delete() {
+            try {
+                for (Path segment : segments) {
+                    Files.deleteIfExists(segment);
+                }
+                Files.deleteIfExists(directory);
+                return true;
+            } catch (IOException e) {
+                System.err.println("Не удалось удалить журнал " + directory + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+}
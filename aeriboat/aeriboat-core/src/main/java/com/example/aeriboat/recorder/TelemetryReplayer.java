@@ -0,0 +1,376 @@
+package com.example.aeriboat.recorder;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.SequenceWindow;
+import com.example.aeriboat.protocol.TelemetryDecoder;
+import com.example.aeriboat.service.PacketTap;
+import com.example.aeriboat.service.TelemetryListener;
+import com.example.aeriboat.service.UdpClient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизведение телеметрии из журнала полета вместо живого UDP канала.
+ * <p>
+ * Принятые датаграммы журнала декодируются так же, как в
+ * {@link com.example.aeriboat.service.UdpClient}: оба формата кадров,
+ * отсев повторных и устаревших ответов по номеру последовательности.
+ * Пока по записанным подписке и пакетам потока поток считается идущим,
+ * ответы на запросы слушателям не передаются, как и при приеме
+ * ({@link UdpClient#getStreamStaleMillis(int)}). Слушатели получают ровно
+ * ту последовательность телеметрии, которую видели при записи, поэтому
+ * прогон миссии воспроизводим.
+ * <p>
+ * Темп задается множителем скорости: 1 - реальное время, 4 - вчетверо быстрее,
+ * {@link #MAX_SPEED} - без пауз. Скорость можно менять во время воспроизведения.
+ *
+ * @since 1.1
+ */
+public class TelemetryReplayer {
+
+    /**
+     * Воспроизведение без пауз между пакетами.
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private static final String THREAD_NAME = "telemetry-replay";
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int NO_SEQUENCE = -1;
+    private static final byte[] JSON_SUBSCRIBE_PREFIX = "{\"subscribe\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path directory;
+    private final List<TelemetryListener> telemetryListeners;
+    private volatile double speed = 1.0;
+    private volatile long positionMicros;
+    private volatile boolean running;
+    private volatile Runnable finishHandler;
+    private Thread replayThread;
+
+    /**
+     * Создает проигрыватель журнала.
+     *
+     * @param directory Каталог журнала {@link FlightRecorder}
+     */
+    public TelemetryReplayer(Path directory) {
+        this.directory = directory;
+        this.telemetryListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Добавляет слушателя телеметрии. Вызывается из потока воспроизведения;
+     * объект телеметрии переиспользуется, как и в {@link TelemetryListener}.
+     *
+     * @param listener Слушатель телеметрии
+     */
+    public void addTelemetryListener(TelemetryListener listener) {
+        telemetryListeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя телеметрии.
+     *
+     * @param listener Слушатель телеметрии
+     */
+    public void removeTelemetryListener(TelemetryListener listener) {
+        telemetryListeners.remove(listener);
+    }
+
+    /**
+     * Устанавливает обработчик окончания журнала. Вызывается из потока
+     * воспроизведения, когда записи закончились (но не после {@link #stop()}).
+     *
+     * @param finishHandler Обработчик или null
+     */
+    public void setFinishHandler(Runnable finishHandler) {
+        this.finishHandler = finishHandler;
+    }
+
+    /**
+     * Устанавливает множитель скорости воспроизведения.
+     *
+     * @param speed Множитель (больше 0) или {@link #MAX_SPEED}
+     */
+    public void setSpeed(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Скорость воспроизведения должна быть положительной: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    /**
+     * Возвращает множитель скорости воспроизведения.
+     *
+     * @return Множитель
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Возвращает время записи последнего переданного слушателям пакета.
+     * Во время вызова слушателя это время текущего пакета.
+     *
+     * @return Микросекунды от эпохи или 0, если пакетов еще не было
+     */
+    public long getPositionMicros() {
+        return positionMicros;
+    }
+
+    /**
+     * Проверяет, идет ли воспроизведение.
+     *
+     * @return true если поток воспроизведения работает
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Начинает воспроизведение с начала журнала в отдельном потоке.
+     *
+     * @throws IOException если журнал не удалось открыть
+     */
+    public void start() throws IOException {
+        start(0);
+    }
+
+    /**
+     * Начинает воспроизведение с заданного момента в отдельном потоке.
+     * Текущее воспроизведение, если оно идет, останавливается.
+     *
+     * @param fromMicros Время начала (мкс от эпохи), 0 - с начала журнала
+     * @throws IOException если журнал не удалось открыть
+     */
+    public synchronized void start(long fromMicros) throws IOException {
+        stop();
+
+        FlightJournalReader reader = new FlightJournalReader(directory);
+        if (fromMicros > 0) {
+            reader.seek(fromMicros);
+        }
+        positionMicros = 0;
+        running = true;
+
+        replayThread = new Thread(() -> {
+            replay(reader, true);
+            if (running) {
+                running = false;
+                Runnable handler = finishHandler;
+                if (handler != null) {
+                    handler.run();
+                }
+            }
+        }, THREAD_NAME);
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    /**
+     * Останавливает воспроизведение и ждет завершения потока.
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread thread = replayThread;
+        replayThread = null;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Воспроизводит весь журнал в текущем потоке без пауз.
+     * Удобно для анализа и детерминированных прогонов.
+     *
+     * @return Число пакетов телеметрии, переданных слушателям
+     * @throws IOException если журнал не удалось открыть
+     */
+    public long replayAll() throws IOException {
+        positionMicros = 0;
+        return replay(new FlightJournalReader(directory), false);
+    }
+
+    /**
+     * Читает журнал и передает телеметрию слушателям.
+     *
+     * @param reader Открытый журнал
+     * @param paced true - соблюдать темп записи и останавливаться по {@link #stop()}
+     * @return Число переданных пакетов
+     */
+    private long replay(FlightJournalReader reader, boolean paced) {
+        JournalRecord record = new JournalRecord();
+        ReplayDecoder decoder = new ReplayDecoder();
+        AirboatTelemetry telemetry = decoder.telemetry;
+        long delivered = 0;
+
+        long anchorMicros = 0;
+        long anchorNanos = 0;
+        double anchorSpeed = 0;
+        long lastMicros = -1;
+
+        while ((!paced || running) && reader.next(record)) {
+            if (!decoder.decode(record)) {
+                continue;
+            }
+            long timestamp = record.getTimestampMicros();
+
+            // Время отсчитывается от точки привязки, которая переносится при смене скорости
+            while (paced && running) {
+                double currentSpeed = speed;
+                if (currentSpeed != anchorSpeed) {
+                    anchorMicros = lastMicros < 0 ? timestamp : lastMicros;
+                    anchorNanos = System.nanoTime();
+                    anchorSpeed = currentSpeed;
+                }
+                if (Double.isInfinite(currentSpeed)) {
+                    break;
+                }
+                long target = anchorNanos + (long) ((timestamp - anchorMicros) * 1000 / currentSpeed);
+                long delay = target - System.nanoTime();
+                if (delay <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(Math.min(delay, MAX_PARK_NANOS));
+            }
+            if (paced && !running) {
+                break;
+            }
+
+            lastMicros = timestamp;
+            positionMicros = timestamp;
+            for (TelemetryListener listener : telemetryListeners) {
+                try {
+                    listener.onTelemetry(telemetry);
+                } catch (RuntimeException e) {
+                    System.err.println("Ошибка в обработчике телеметрии: " + e.getMessage());
+                }
+            }
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * Возвращает период из записанной подписки на поток.
+     *
+     * @param payload Отправленная датаграмма
+     * @return Период (мс, 0 - отписка) или -1, если датаграмма не подписка
+     */
+    private static int subscribePeriod(ByteBuffer payload) {
+        if (BinaryProtocol.isBinaryFrame(payload)) {
+            return BinaryProtocol.isValid(payload) && BinaryProtocol.getType(payload) == BinaryProtocol.TYPE_SUBSCRIBE
+                    ? BinaryProtocol.getSubscribePeriod(payload) : -1;
+        }
+        // JSON подписку пишет только CommandEncoder: {"subscribe":PERIOD,"lease":LEASE}
+        int position = payload.position();
+        if (payload.remaining() <= JSON_SUBSCRIBE_PREFIX.length) {
+            return -1;
+        }
+        for (int i = 0; i < JSON_SUBSCRIBE_PREFIX.length; i++) {
+            if (payload.get(position + i) != JSON_SUBSCRIBE_PREFIX[i]) {
+                return -1;
+            }
+        }
+        int period = 0;
+        for (int i = position + JSON_SUBSCRIBE_PREFIX.length; i < payload.limit(); i++) {
+            byte b = payload.get(i);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            period = period * 10 + (b - '0');
+        }
+        return period;
+    }
+
+    /**
+     * Состояние декодирования журнала: окна номеров ответов и потока, как в
+     * {@link UdpClient}, и записанная подписка для определения, идет ли поток.
+     */
+    private static final class ReplayDecoder {
+
+        private final TelemetryDecoder decoder = new TelemetryDecoder();
+        private final AirboatTelemetry telemetry = new AirboatTelemetry();
+        private final SequenceWindow window = new SequenceWindow();
+        private final SequenceWindow streamWindow = new SequenceWindow();
+        private int streamPeriodMillis;
+        private long lastStreamMicros;
+
+        /**
+         * Разбирает запись журнала. Отправленная подписка меняет период потока;
+         * принятая датаграмма декодируется и проверяется по номеру последовательности.
+         * Пакеты потока проверяются по своему окну, как при приеме, включая
+         * перезапуск окна после нескольких отказов подряд.
+         *
+         * @param record Запись журнала
+         * @return true если запись - свежая телеметрия, которую видели слушатели при записи
+         */
+        boolean decode(JournalRecord record) {
+            ByteBuffer payload = record.getPayload();
+            if (record.getDirection() == PacketTap.OUTBOUND) {
+                int period = subscribePeriod(payload);
+                if (period >= 0) {
+                    streamPeriodMillis = period;
+                }
+                return false;
+            }
+            if (record.getDirection() != PacketTap.INBOUND) {
+                return false;
+            }
+
+            long timestamp = record.getTimestampMicros();
+            int sequence;
+            if (BinaryProtocol.isBinaryFrame(payload)) {
+                if (!BinaryProtocol.isValid(payload) || !BinaryProtocol.decodeTelemetry(payload, telemetry)) {
+                    return false;
+                }
+                sequence = BinaryProtocol.getSequence(payload);
+                if (BinaryProtocol.getType(payload) == BinaryProtocol.TYPE_STREAM) {
+                    return acceptStream(sequence, timestamp);
+                }
+                if (sequence == 0) {
+                    sequence = NO_SEQUENCE;
+                }
+            } else if (decoder.decode(payload, telemetry)) {
+                if (decoder.getStreamSequence() >= 0) {
+                    return acceptStream(decoder.getStreamSequence(), timestamp);
+                }
+                sequence = decoder.getSequence() > 0 ? decoder.getSequence() : NO_SEQUENCE;
+            } else {
+                return false;
+            }
+            boolean latest = sequence == NO_SEQUENCE || window.accept(sequence) == SequenceWindow.LATEST;
+            return latest && !isStreamActive(timestamp);
+        }
+
+        private boolean acceptStream(int sequence, long timestamp) {
+            lastStreamMicros = timestamp;
+            return streamWindow.acceptOrRestart(sequence) == SequenceWindow.LATEST;
+        }
+
+        /**
+         * Проверяет, шел ли поток на момент записи, по тому же правилу, что
+         * {@link UdpClient#isStreamActive()}.
+         */
+        private boolean isStreamActive(long timestamp) {
+            if (streamPeriodMillis == 0 || lastStreamMicros == 0) {
+                return false;
+            }
+            long staleMicros = TimeUnit.MILLISECONDS.toMicros(UdpClient.getStreamStaleMillis(streamPeriodMillis));
+            return timestamp - lastStreamMicros < staleMicros;
+        }
+    }
+}
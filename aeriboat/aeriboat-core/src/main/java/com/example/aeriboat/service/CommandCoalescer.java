@@ -0,0 +1,260 @@
+package com.example.aeriboat.service;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Планировщик команд управления по принципу "побеждает последнее значение".
+ * <p>
+ * UI может вызывать {@link #submit(int, int)} сколько угодно часто: сохраняется
+ * только последняя уставка угла и скорости. Отдельный поток отправляет ее
+ * с фиксированной частотой, пропуская неизменившиеся уставки, но не реже
+ * одного раза за интервал keep-alive, чтобы ESP32 видел живую связь.
+ * <p>
+ * В режиме удержания ({@link #hold(int)}) скорость любой уставки ограничивается
+ * сверху до вызова {@link #release()}: аварийная логика снижает ход, и очередное
+ * движение слайдера не может его вернуть, а руль и снижение скорости остаются
+ * у оператора.
+ *
+ * @since 1.1
+ */
+public class CommandCoalescer {
+
+    public static final int DEFAULT_RATE_HZ = 25;
+    public static final int MIN_RATE_HZ = 1;
+    public static final int MAX_RATE_HZ = 100;
+    public static final long DEFAULT_KEEP_ALIVE_MS = 500;
+
+    private static final long NO_SETPOINT = Long.MIN_VALUE;
+    private static final String THREAD_NAME = "command-coalescer";
+    private static final int CENTER_ANGLE = 90;
+    private static final int NO_SPEED_LIMIT = Integer.MAX_VALUE;
+
+    private final UdpClient udpClient;
+    private final ScheduledExecutorService executor;
+    private final long keepAliveNanos;
+    private final Object sendLock = new Object();
+    private volatile long pendingSetpoint = NO_SETPOINT;
+    private volatile long lastSentSetpoint = NO_SETPOINT;
+    private volatile Consumer<Throwable> errorHandler;
+    private volatile int speedLimit = NO_SPEED_LIMIT;
+    private long lastSentNanos;
+    private boolean failing;
+    private ScheduledFuture<?> tickTask;
+    private int rateHz;
+
+    /**
+     * Создает планировщик с интервалом keep-alive по умолчанию.
+     *
+     * @param udpClient Клиент, через который отправляются команды
+     */
+    public CommandCoalescer(UdpClient udpClient) {
+        this(udpClient, DEFAULT_KEEP_ALIVE_MS);
+    }
+
+    /**
+     * Создает планировщик.
+     *
+     * @param udpClient Клиент, через который отправляются команды
+     * @param keepAliveMs Максимальный интервал между отправками одной и той же уставки (мс)
+     */
+    public CommandCoalescer(UdpClient udpClient, long keepAliveMs) {
+        this.udpClient = udpClient;
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(keepAliveMs);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает периодическую отправку или меняет ее частоту.
+     *
+     * @param rateHz Частота отправки (1-100 Гц)
+     */
+    public synchronized void start(int rateHz) {
+        int clampedRate = Math.max(MIN_RATE_HZ, Math.min(MAX_RATE_HZ, rateHz));
+        if (tickTask != null) {
+            if (clampedRate == this.rateHz) {
+                return;
+            }
+            tickTask.cancel(false);
+        }
+
+        this.rateHz = clampedRate;
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / clampedRate;
+        tickTask = executor.scheduleAtFixedRate(this::tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Сохраняет новую уставку. Вызов не блокируется и не отправляет пакет сам:
+     * уставка уйдет на ближайшем такте, промежуточные значения отбрасываются.
+     *
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     */
+    public void submit(int angle, int speed) {
+        pendingSetpoint = pack(angle, speed);
+    }
+
+    /**
+     * Включает удержание: скорость уставок ограничивается сверху, а ограниченная
+     * текущая уставка сразу отправляется в потоке вызывающего. Повторный вызов
+     * меняет ограничение и снова отправляет уставку.
+     *
+     * @param maxSpeed Наибольшая скорость на время удержания (0-100%)
+     * @throws IOException если команду не удалось отправить (удержание все равно включено)
+     */
+    public void hold(int maxSpeed) throws IOException {
+        synchronized (sendLock) {
+            speedLimit = Math.max(0, maxSpeed);
+            long setpoint = pendingSetpoint;
+            int angle = setpoint == NO_SETPOINT ? CENTER_ANGLE : unpackAngle(setpoint);
+            int speed = setpoint == NO_SETPOINT ? 0 : Math.min(unpackSpeed(setpoint), speedLimit);
+            long heldSetpoint = pack(angle, speed);
+            pendingSetpoint = heldSetpoint;
+            udpClient.sendControl(angle, speed);
+            lastSentSetpoint = heldSetpoint;
+            lastSentNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Снимает удержание. Следующий такт отправит текущую уставку без ограничения,
+     * поэтому вызывающему стоит сначала обновить ее через {@link #submit(int, int)}.
+     */
+    public void release() {
+        speedLimit = NO_SPEED_LIMIT;
+    }
+
+    /**
+     * Проверяет, включено ли удержание.
+     *
+     * @return true если скорость ограничена
+     */
+    public boolean isHeld() {
+        return speedLimit != NO_SPEED_LIMIT;
+    }
+
+    /**
+     * Немедленно останавливает мотор: отправляет скорость 0 с текущим углом
+     * в потоке вызывающего, не дожидаясь такта, и делает ее текущей уставкой,
+     * чтобы такт не вернул прежнюю скорость. Предназначен для аварийных
+     * остановок из потока приема телеметрии.
+     *
+     * @throws IOException если команду не удалось отправить (уставка все равно остается нулевой)
+     */
+    public void stop() throws IOException {
+        synchronized (sendLock) {
+            long setpoint = pendingSetpoint;
+            int angle = setpoint == NO_SETPOINT ? CENTER_ANGLE : unpackAngle(setpoint);
+            long stopSetpoint = pack(angle, 0);
+            pendingSetpoint = stopSetpoint;
+            udpClient.sendControl(angle, 0);
+            lastSentSetpoint = stopSetpoint;
+            lastSentNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Сбрасывает информацию о последней отправке, чтобы текущая уставка
+     * ушла на ближайшем такте (например, после переподключения).
+     */
+    public void resend() {
+        lastSentSetpoint = NO_SETPOINT;
+    }
+
+    /**
+     * Устанавливает обработчик ошибок отправки. Вызывается из потока планировщика
+     * один раз на серию неудачных отправок.
+     *
+     * @param errorHandler Обработчик ошибок
+     */
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Возвращает текущую частоту отправки.
+     *
+     * @return Частота (Гц) или 0, если планировщик не запущен
+     */
+    public synchronized int getRateHz() {
+        return tickTask != null ? rateHz : 0;
+    }
+
+    /**
+     * Останавливает планировщик и освобождает поток.
+     */
+    public synchronized void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Такт планировщика: отправляет уставку, если она изменилась
+     * или истек интервал keep-alive. В режиме удержания скорость ограничивается.
+     */
+    private void tick() {
+        long setpoint = pendingSetpoint;
+        if (setpoint == NO_SETPOINT || !udpClient.isConnected()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (limit(setpoint) == lastSentSetpoint && now - lastSentNanos < keepAliveNanos) {
+            return;
+        }
+
+        try {
+            // Под блокировкой, чтобы такт не отправил старую уставку поверх аварийной остановки
+            synchronized (sendLock) {
+                setpoint = limit(pendingSetpoint);
+                udpClient.sendControl(unpackAngle(setpoint), unpackSpeed(setpoint));
+                lastSentSetpoint = setpoint;
+                lastSentNanos = now;
+            }
+            failing = false;
+        } catch (IOException e) {
+            if (!failing) {
+                failing = true;
+                Consumer<Throwable> handler = errorHandler;
+                if (handler != null) {
+                    handler.accept(e);
+                } else {
+                    System.err.println("Ошибка отправки команды: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Применяет ограничение скорости режима удержания к уставке.
+     */
+    private long limit(long setpoint) {
+        int limit = speedLimit;
+        return limit == NO_SPEED_LIMIT || unpackSpeed(setpoint) <= limit
+                ? setpoint
+                : pack(unpackAngle(setpoint), limit);
+    }
+
+    private static long pack(int angle, int speed) {
+        return ((long) angle << 32) | (speed & 0xFFFFFFFFL);
+    }
+
+    private static int unpackAngle(long setpoint) {
+        return (int) (setpoint >> 32);
+    }
+
+    private static int unpackSpeed(long setpoint) {
+        return (int) setpoint;
+    }
+}
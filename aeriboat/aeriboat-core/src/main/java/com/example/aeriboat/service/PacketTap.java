@@ -0,0 +1,35 @@
+package com.example.aeriboat.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Перехватчик сырых датаграмм {@link UdpClient} (например, для записи полета).
+ * <p>
+ * Вызывается синхронно на пути отправки и приема, поэтому реализация должна
+ * быстро скопировать байты и вернуть управление, не выполняя блокирующего ввода-вывода.
+ * Буфер действителен только во время вызова; его position и limit после
+ * вызова должны остаться прежними.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface PacketTap {
+
+    /**
+     * Датаграмма, принятая от ESP32.
+     */
+    int INBOUND = 1;
+
+    /**
+     * Датаграмма, отправленная на ESP32.
+     */
+    int OUTBOUND = 2;
+
+    /**
+     * Обрабатывает датаграмму.
+     *
+     * @param direction Направление ({@link #INBOUND} или {@link #OUTBOUND})
+     * @param packet Байты датаграммы между position и limit
+     */
+    void onPacket(int direction, ByteBuffer packet);
+}
@@ -0,0 +1,25 @@
+package com.example.aeriboat.service;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+
+/**
+ * Слушатель входящей телеметрии от ESP32.
+ * Вызывается из потока приема {@link UdpClient} для каждого декодированного пакета,
+ * поэтому реализация не должна блокироваться.
+ * <p>
+ * Переданный объект переиспользуется потоком приема и действителен только
+ * во время вызова; чтобы сохранить или передать его в другой поток,
+ * сделайте копию через {@link AirboatTelemetry#AirboatTelemetry(AirboatTelemetry)}.
+ *
+ * @since 1.1
+ */
+@FunctionalInterface
+public interface TelemetryListener {
+
+    /**
+     * Обрабатывает пакет телеметрии.
+     *
+     * @param telemetry Декодированная телеметрия
+     */
+    void onTelemetry(AirboatTelemetry telemetry);
+}
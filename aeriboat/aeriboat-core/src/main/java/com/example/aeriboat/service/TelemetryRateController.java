@@ -0,0 +1,233 @@
+package com.example.aeriboat.service;
+
+import com.example.aeriboat.metrics.LinkMetrics;
+import com.example.aeriboat.metrics.RttSnapshot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подбирает частоту телеметрии по измеренному качеству канала.
+ * <p>
+ * При каждой оценке канал относится к одному из трех состояний по потерям
+ * (ответы на запросы и пропуски в потоке), p90 времени запрос-ответ и уровню
+ * WiFi сигнала из последней телеметрии:
+ * <ul>
+ *     <li>плохой - хотя бы один показатель за порогом деградации: частота сразу
+ *     уменьшается вдвое;</li>
+ *     <li>хороший - все показатели лучше порогов качества: после нескольких
+ *     хороших оценок подряд частота увеличивается на четверть;</li>
+ *     <li>промежуточный - частота не меняется.</li>
+ * </ul>
+ * Частота всегда остается в границах {@link #getMinRateHz()}-{@link #getMaxRateHz()}.
+ * После каждого изменения решения не принимаются, пока окно статистики не
+ * заполнится данными на новой частоте, поэтому частота не проваливается до
+ * минимума из-за одной и той же давней просадки.
+ * <p>
+ * Оценку ({@link #update(LinkMetrics, long, long)}) выполняет один поток
+ * планировщика; текущую частоту можно читать из любого потока.
+ *
+ * @since 1.1
+ */
+public class TelemetryRateController {
+
+    /**
+     * Уровень сигнала неизвестен (телеметрии еще не было).
+     */
+    public static final long UNKNOWN_SIGNAL = Long.MIN_VALUE;
+
+    public static final double DEFAULT_MIN_RATE_HZ = 0.5;
+    public static final double DEFAULT_MAX_RATE_HZ = 20;
+    public static final double DEFAULT_INITIAL_RATE_HZ = 5;
+
+    private static final int WINDOW_SECONDS = 5;
+    private static final int GOOD_EVALUATIONS_TO_INCREASE = 3;
+    private static final double INCREASE_FACTOR = 1.25;
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private double minRateHz = DEFAULT_MIN_RATE_HZ;
+    private double maxRateHz = DEFAULT_MAX_RATE_HZ;
+    private double initialRateHz = DEFAULT_INITIAL_RATE_HZ;
+    private double goodLossRate = 0.02;
+    private double badLossRate = 0.1;
+    private long goodRttMicros = 50_000;
+    private long badRttMicros = 250_000;
+    private long strongSignalDbm = -65;
+    private long weakSignalDbm = -80;
+
+    private volatile double rateHz = DEFAULT_INITIAL_RATE_HZ;
+    private int goodEvaluations;
+    private long holdUntilNanos;
+    private boolean holding;
+    private long lastStreamPackets;
+    private long lastStreamGaps;
+
+    /**
+     * Оценивает канал и при необходимости меняет частоту.
+     *
+     * @param metrics Показатели канала
+     * @param wifiSignalLevel Уровень WiFi сигнала лодки (dBm) или {@link #UNKNOWN_SIGNAL}
+     * @param nowNanos Текущее значение {@link System#nanoTime()}
+     * @return Частота телеметрии после оценки (Гц)
+     */
+    public double update(LinkMetrics metrics, long wifiSignalLevel, long nowNanos) {
+        long streamPackets = metrics.getStreamPackets();
+        long streamGaps = metrics.getStreamGaps();
+        long newPackets = streamPackets - lastStreamPackets;
+        long newGaps = streamGaps - lastStreamGaps;
+        lastStreamPackets = streamPackets;
+        lastStreamGaps = streamGaps;
+
+        if (holding && nowNanos - holdUntilNanos < 0) {
+            return rateHz;
+        }
+        holding = false;
+
+        RttSnapshot rtt = metrics.snapshot(WINDOW_SECONDS);
+        double streamLoss = newPackets + newGaps > 0 ? (double) newGaps / (newPackets + newGaps) : 0;
+        double loss = Math.max(rtt.getLossRate(), streamLoss);
+        boolean rttKnown = rtt.getCount() > 0;
+        boolean signalKnown = wifiSignalLevel != UNKNOWN_SIGNAL;
+
+        boolean bad = loss >= badLossRate
+                || (rttKnown && rtt.getP90Micros() >= badRttMicros)
+                || (signalKnown && wifiSignalLevel <= weakSignalDbm);
+        boolean good = loss <= goodLossRate
+                && (!rttKnown || rtt.getP90Micros() <= goodRttMicros)
+                && signalKnown && wifiSignalLevel >= strongSignalDbm;
+
+        if (bad) {
+            goodEvaluations = 0;
+            setRate(rateHz * DECREASE_FACTOR, nowNanos);
+        } else if (good) {
+            if (++goodEvaluations >= GOOD_EVALUATIONS_TO_INCREASE) {
+                goodEvaluations = 0;
+                setRate(rateHz * INCREASE_FACTOR, nowNanos);
+            }
+        } else {
+            goodEvaluations = 0;
+        }
+        return rateHz;
+    }
+
+    /**
+     * Возвращает текущую частоту телеметрии.
+     *
+     * @return Частота (Гц)
+     */
+    public double getRateHz() {
+        return rateHz;
+    }
+
+    /**
+     * Возвращает период телеметрии при текущей частоте.
+     *
+     * @return Период (мс)
+     */
+    public long getPeriodMillis() {
+        return Math.round(1000 / rateHz);
+    }
+
+    /**
+     * Возвращает частоту к начальной и забывает историю оценок, например при новом подключении.
+     */
+    public void reset() {
+        rateHz = initialRateHz;
+        goodEvaluations = 0;
+        holding = false;
+        lastStreamPackets = 0;
+        lastStreamGaps = 0;
+    }
+
+    public double getMinRateHz() {
+        return minRateHz;
+    }
+
+    public double getMaxRateHz() {
+        return maxRateHz;
+    }
+
+    /**
+     * Устанавливает границы частоты телеметрии.
+     *
+     * @param minRateHz Минимальная частота (Гц)
+     * @param maxRateHz Максимальная частота (Гц)
+     */
+    public void setRateBounds(double minRateHz, double maxRateHz) {
+        if (!(minRateHz > 0) || maxRateHz < minRateHz) {
+            throw new IllegalArgumentException("Некорректные границы частоты: " + minRateHz + "-" + maxRateHz);
+        }
+        this.minRateHz = minRateHz;
+        this.maxRateHz = maxRateHz;
+        this.initialRateHz = clamp(initialRateHz);
+        this.rateHz = clamp(rateHz);
+    }
+
+    public double getInitialRateHz() {
+        return initialRateHz;
+    }
+
+    /**
+     * Устанавливает частоту, с которой начинается каждое подключение.
+     *
+     * @param initialRateHz Начальная частота (Гц), ограничивается границами
+     */
+    public void setInitialRateHz(double initialRateHz) {
+        this.initialRateHz = clamp(initialRateHz);
+    }
+
+    /**
+     * Устанавливает пороги доли потерь.
+     *
+     * @param goodLossRate Потери, при которых частоту можно повышать (0-1)
+     * @param badLossRate Потери, при которых частота снижается (0-1)
+     */
+    public void setLossThresholds(double goodLossRate, double badLossRate) {
+        this.goodLossRate = goodLossRate;
+        this.badLossRate = badLossRate;
+    }
+
+    /**
+     * Устанавливает пороги p90 времени запрос-ответ.
+     *
+     * @param goodRttMillis Время, при котором частоту можно повышать (мс)
+     * @param badRttMillis Время, при котором частота снижается (мс)
+     */
+    public void setRttThresholds(long goodRttMillis, long badRttMillis) {
+        this.goodRttMicros = TimeUnit.MILLISECONDS.toMicros(goodRttMillis);
+        this.badRttMicros = TimeUnit.MILLISECONDS.toMicros(badRttMillis);
+    }
+
+    /**
+     * Устанавливает пороги уровня WiFi сигнала.
+     *
+     * @param strongSignalDbm Сигнал, при котором частоту можно повышать (dBm)
+     * @param weakSignalDbm Сигнал, при котором частота снижается (dBm)
+     */
+    public void setSignalThresholds(long strongSignalDbm, long weakSignalDbm) {
+        this.strongSignalDbm = strongSignalDbm;
+        this.weakSignalDbm = weakSignalDbm;
+    }
+
+    private void setRate(double newRateHz, long nowNanos) {
+        double clamped = clamp(newRateHz);
+        if (clamped == rateHz) {
+            return;
+        }
+        rateHz = clamped;
+        holding = true;
+        holdUntilNanos = nowNanos + TimeUnit.SECONDS.toNanos(WINDOW_SECONDS);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minRateHz, Math.min(maxRateHz, value));
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryRateController{" +
+                "rateHz=" + rateHz +
+                ", minRateHz=" + minRateHz +
+                ", maxRateHz=" + maxRateHz +
+                '}';
+    }
+}
@@ -0,0 +1,946 @@
+package com.example.aeriboat.service;
+
+import com.example.aeriboat.metrics.LinkMetrics;
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.CommandEncoder;
+import com.example.aeriboat.protocol.SequenceWindow;
+import com.example.aeriboat.protocol.TelemetryDecoder;
+import com.example.aeriboat.protocol.WireFormat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * UDP клиент для связи с ESP32 airboat контроллером.
+ * Обеспечивает отправку команд управления и получение телеметрии.
+ * <p>
+ * Работает на неблокирующем {@link DatagramChannel}: все входящие датаграммы
+ * читает один выделенный поток приема через {@link Selector}. Он декодирует
+ * телеметрию, завершает ожидающие запросы и уведомляет слушателей. Отправка
+ * команд никогда не ждет приема, а ожидание ответа не занимает ни одного потока.
+ * <p>
+ * Канал подключается к адресу ESP32 один раз при {@link #connect()}, а команды
+ * кодируются {@link CommandEncoder} в заранее выделенный буфер, так что
+ * отправка команды управления не создает мусора. Входящая телеметрия разбирается
+ * {@link TelemetryDecoder} прямо из буфера приема в переиспользуемый объект.
+ * <p>
+ * По умолчанию обмен идет в JSON. После успешного рукопожатия
+ * {@link #negotiateBinaryProtocol()} команды кодируются компактными кадрами
+ * {@link BinaryProtocol}; прием распознает оба формата по первому байту.
+ * <p>
+ * Каждый запрос телеметрии получает 16-битный номер, а ответ сопоставляется
+ * с запросом по таблице ожидания, поэтому одновременно может выполняться
+ * несколько запросов. Повторные и устаревшие ответы отсеивает
+ * {@link SequenceWindow}; слушатели получают только ответы новее уже показанных.
+ * Ответы прежней прошивки без номера сопоставляются с самым старым запросом.
+ * <p>
+ * Вместо опроса можно подписаться на поток телеметрии
+ * ({@link #subscribeTelemetry(double)}): лодка сама шлет пакеты с заданной
+ * частотой, пока действует аренда подписки. Поток приема продлевает аренду
+ * раз в {@link #STREAM_RENEW_MS} мс, поэтому если клиент пропал, лодка
+ * прекращает поток через {@link #STREAM_LEASE_MS} мс. Пакеты потока нумеруются
+ * лодкой отдельно и проходят через свое окно номеров. Пока поток идет
+ * ({@link #isStreamActive()}), ответы на запросы только завершают свои future,
+ * а слушатели получают телеметрию из потока.
+ * <p>
+ * Все отправленные и принятые датаграммы можно перехватить через
+ * {@link #addPacketTap(PacketTap)}, например для записи полета или
+ * раздачи телеметрии другим программам станции.
+ * <p>
+ * Показатели канала (пакеты, байты, таймауты, ошибки декодирования и время
+ * запрос-ответ) собираются без блокировок в {@link LinkMetrics} и доступны
+ * через {@link #getLinkMetrics()}; при каждом подключении они обнуляются.
+ *
+ * @since 1.0
+ */
+public class UdpClient {
+
+
+    private static final int DEFAULT_PORT = 12345;
+    private static final String DEFAULT_IP = "192.168.4.1";
+    private static final int BUFFER_SIZE = 1024;
+    private static final int SOCKET_TIMEOUT = 5000; // 5 секунд
+    private static final int HANDSHAKE_TIMEOUT = 1000; // 1 секунда
+    private static final String RECEIVER_THREAD_NAME = "udp-receiver";
+    private static final int SEQUENCE_SPACE = 1 << 16;
+    private static final int NO_SEQUENCE = -1;
+
+    public static final int STREAM_LEASE_MS = 3000;
+    public static final int STREAM_RENEW_MS = 1000;
+    private static final int MIN_STREAM_PERIOD_MS = 10;
+    private static final int MIN_STREAM_STALE_MS = 1000;
+
+    private final AtomicReferenceArray<PendingRequest> pendingBySequence;
+    private final Queue<PendingRequest> pendingOrder;
+    private final AtomicInteger sequenceCounter;
+    private final List<TelemetryListener> telemetryListeners;
+    private final ByteBuffer sendBuffer;
+    private final LinkMetrics linkMetrics;
+    private volatile DatagramChannel channel;
+    private volatile Selector selector;
+    private Thread receiverThread;
+    private String esp32Ip;
+    private int esp32Port;
+    private volatile boolean connected;
+    private volatile WireFormat wireFormat = WireFormat.JSON;
+    private volatile CompletableFuture<Boolean> pendingHandshake;
+    private final List<PacketTap> packetTaps;
+    private volatile int streamPeriodMillis;
+    private volatile long streamRenewDueNanos;
+    private volatile long lastStreamNanos;
+    private volatile long lastTelemetryNanos;
+
+    public UdpClient() {
+        this.pendingBySequence = new AtomicReferenceArray<>(SEQUENCE_SPACE);
+        this.pendingOrder = new ConcurrentLinkedQueue<>();
+        this.sequenceCounter = new AtomicInteger();
+        this.telemetryListeners = new CopyOnWriteArrayList<>();
+        this.packetTaps = new CopyOnWriteArrayList<>();
+        this.sendBuffer = ByteBuffer.allocateDirect(CommandEncoder.MAX_COMMAND_SIZE);
+        this.linkMetrics = new LinkMetrics();
+        this.esp32Ip = DEFAULT_IP;
+        this.esp32Port = DEFAULT_PORT;
+        this.connected = false;
+    }
+
+    /**
+     * Устанавливает параметры подключения к ESP32.
+     *
+     * @param ip IP адрес ESP32
+     * @param port UDP порт ESP32
+     */
+    public void setConnectionParams(String ip, int port) {
+        this.esp32Ip = ip;
+        this.esp32Port = port;
+    }
+
+    /**
+     * Добавляет слушателя телеметрии. Слушатель получает каждый пакет телеметрии,
+     * включая ответы на запросы и пакеты, пришедшие без запроса.
+     *
+     * @param listener Слушатель телеметрии
+     */
+    public void addTelemetryListener(TelemetryListener listener) {
+        telemetryListeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя телеметрии.
+     *
+     * @param listener Слушатель телеметрии
+     */
+    public void removeTelemetryListener(TelemetryListener listener) {
+        telemetryListeners.remove(listener);
+    }
+
+    /**
+     * Добавляет перехватчик сырых датаграмм.
+     *
+     * @param packetTap Перехватчик
+     */
+    public void addPacketTap(PacketTap packetTap) {
+        packetTaps.add(packetTap);
+    }
+
+    /**
+     * Удаляет перехватчик сырых датаграмм.
+     *
+     * @param packetTap Перехватчик
+     */
+    public void removePacketTap(PacketTap packetTap) {
+        packetTaps.remove(packetTap);
+    }
+
+    /**
+     * Возвращает показатели качества канала.
+     *
+     * @return Показатели канала текущего подключения
+     */
+    public LinkMetrics getLinkMetrics() {
+        return linkMetrics;
+    }
+
+    /**
+     * Устанавливает соединение с ESP32.
+     *
+     * @return true если соединение установлено успешно
+     * @throws IOException если произошла ошибка при создании сокета
+     */
+    public synchronized boolean connect() throws IOException {
+        try {
+            closeChannel();
+
+            InetSocketAddress address = new InetSocketAddress(esp32Ip, esp32Port);
+            if (address.isUnresolved()) {
+                throw new IOException("Не удалось разрешить адрес " + esp32Ip);
+            }
+
+            DatagramChannel newChannel = DatagramChannel.open();
+            Selector newSelector = Selector.open();
+            newChannel.configureBlocking(false);
+            newChannel.bind(null);
+            newChannel.connect(address);
+            newChannel.register(newSelector, SelectionKey.OP_READ);
+
+            channel = newChannel;
+            selector = newSelector;
+            wireFormat = WireFormat.JSON;
+            streamPeriodMillis = 0;
+            lastStreamNanos = 0;
+            lastTelemetryNanos = System.nanoTime();
+            linkMetrics.reset();
+            connected = true;
+
+            receiverThread = new Thread(() -> receiveLoop(newChannel, newSelector), RECEIVER_THREAD_NAME);
+            receiverThread.setDaemon(true);
+            receiverThread.start();
+
+            System.out.println("UDP соединение установлено с " + esp32Ip + ":" + esp32Port);
+            return true;
+        } catch (IOException e) {
+            connected = false;
+            closeChannel();
+            System.err.println("Ошибка установки UDP соединения: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Закрывает соединение с ESP32.
+     */
+    public synchronized void disconnect() {
+        boolean wasOpen = channel != null && channel.isOpen();
+        if (wasOpen && connected) {
+            unsubscribeTelemetry();
+        }
+        connected = false;
+        closeChannel();
+        if (wasOpen) {
+            System.out.println("UDP соединение закрыто");
+        }
+    }
+
+    /**
+     * Отправляет команду на ESP32 асинхронно.
+     *
+     * @param command Команда для отправки
+     * @return CompletableFuture который завершится при отправке
+     */
+    public CompletableFuture<Void> sendCommandAsync(AirboatCommand command) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                sendCommand(command);
+            } catch (IOException e) {
+                System.err.println("Ошибка отправки команды: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Отправляет команду на ESP32.
+     * Канал неблокирующий, поэтому вызов не ждет ни приема, ни освобождения сокета.
+     *
+     * @param command Команда для отправки
+     * @throws IOException если произошла ошибка при отправке
+     */
+    public void sendCommand(AirboatCommand command) throws IOException {
+        DatagramChannel currentChannel = requireChannel();
+
+        try {
+            synchronized (sendBuffer) {
+                sendBuffer.clear();
+                if (wireFormat == WireFormat.BINARY) {
+                    BinaryProtocol.encode(sendBuffer, 0, command);
+                } else {
+                    CommandEncoder.encode(sendBuffer, command);
+                }
+                flushSendBuffer(currentChannel);
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка отправки команды: " + command + ", " + e.getMessage());
+            throw new IOException("Не удалось отправить команду", e);
+        }
+    }
+
+    /**
+     * Отправляет команду управления углом и скоростью без создания объектов.
+     * Предназначен для частой отправки уставок (десятки раз в секунду).
+     *
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость BLDC мотора (0-100%)
+     * @throws IOException если произошла ошибка при отправке
+     */
+    public void sendControl(int angle, int speed) throws IOException {
+        DatagramChannel currentChannel = requireChannel();
+
+        try {
+            synchronized (sendBuffer) {
+                sendBuffer.clear();
+                if (wireFormat == WireFormat.BINARY) {
+                    BinaryProtocol.encodeControl(sendBuffer, 0, angle, speed);
+                } else {
+                    CommandEncoder.encodeControl(sendBuffer, angle, speed);
+                }
+                flushSendBuffer(currentChannel);
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка отправки команды: угол=" + angle + ", скорость=" + speed
+                    + ", " + e.getMessage());
+            throw new IOException("Не удалось отправить команду", e);
+        }
+    }
+
+    /**
+     * Отправляет запрос телеметрии с номером последовательности.
+     *
+     * @param sequence Номер запроса
+     * @throws IOException если произошла ошибка при отправке
+     */
+    private void sendStatusRequest(int sequence) throws IOException {
+        DatagramChannel currentChannel = requireChannel();
+
+        try {
+            synchronized (sendBuffer) {
+                sendBuffer.clear();
+                if (wireFormat == WireFormat.BINARY) {
+                    BinaryProtocol.encodeStatusRequest(sendBuffer, sequence);
+                } else {
+                    CommandEncoder.encodeStatusRequest(sendBuffer, sequence);
+                }
+                flushSendBuffer(currentChannel);
+            }
+        } catch (Exception e) {
+            throw new IOException("Не удалось отправить запрос телеметрии", e);
+        }
+    }
+
+    /**
+     * Отправляет подписку на поток телеметрии или отмену подписки.
+     *
+     * @param periodMillis Период потока (мс), 0 - отмена
+     * @param leaseMillis Срок аренды (мс)
+     * @throws IOException если произошла ошибка при отправке
+     */
+    private void sendSubscribe(int periodMillis, int leaseMillis) throws IOException {
+        DatagramChannel currentChannel = requireChannel();
+
+        try {
+            synchronized (sendBuffer) {
+                sendBuffer.clear();
+                if (wireFormat == WireFormat.BINARY) {
+                    BinaryProtocol.encodeSubscribe(sendBuffer, periodMillis, leaseMillis);
+                } else {
+                    CommandEncoder.encodeSubscribe(sendBuffer, periodMillis, leaseMillis);
+                }
+                flushSendBuffer(currentChannel);
+            }
+        } catch (Exception e) {
+            throw new IOException("Не удалось отправить подписку на телеметрию", e);
+        }
+    }
+
+    /**
+     * Подписывается на поток телеметрии с заданной частотой или меняет частоту
+     * текущей подписки. Аренда продлевается автоматически до отписки или
+     * отключения. Прошивка без поддержки подписки ключ игнорирует, поток
+     * не начинается и {@link #isStreamActive()} остается false.
+     *
+     * @param rateHz Частота потока (Гц)
+     * @throws IOException если соединение не установлено или подписку не удалось отправить
+     */
+    public void subscribeTelemetry(double rateHz) throws IOException {
+        if (!(rateHz > 0)) {
+            throw new IllegalArgumentException("Частота потока должна быть положительной: " + rateHz);
+        }
+        int period = (int) Math.max(MIN_STREAM_PERIOD_MS, Math.min(0xFFFF, Math.round(1000 / rateHz)));
+
+        sendSubscribe(period, STREAM_LEASE_MS);
+        streamPeriodMillis = period;
+        streamRenewDueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STREAM_RENEW_MS);
+        Selector currentSelector = selector;
+        if (currentSelector != null) {
+            // Поток приема пересчитает время продления
+            currentSelector.wakeup();
+        }
+    }
+
+    /**
+     * Отменяет подписку на поток телеметрии. Если отмена потеряется,
+     * лодка остановит поток сама по истечении аренды.
+     */
+    public void unsubscribeTelemetry() {
+        if (streamPeriodMillis == 0) {
+            return;
+        }
+        streamPeriodMillis = 0;
+        try {
+            sendSubscribe(0, 0);
+        } catch (IOException e) {
+            System.err.println("Ошибка отмены подписки на телеметрию: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает запрошенную частоту потока телеметрии.
+     *
+     * @return Частота (Гц) или 0, если подписки нет
+     */
+    public double getStreamRateHz() {
+        int period = streamPeriodMillis;
+        return period == 0 ? 0 : 1000.0 / period;
+    }
+
+    /**
+     * Проверяет, идет ли поток телеметрии: подписка оформлена и пакеты потока
+     * приходили недавно (не позже трех периодов и не позже секунды назад).
+     *
+     * @return true если телеметрия поступает из потока
+     */
+    public boolean isStreamActive() {
+        int period = streamPeriodMillis;
+        long last = lastStreamNanos;
+        if (period == 0 || last == 0) {
+            return false;
+        }
+        return System.nanoTime() - last < TimeUnit.MILLISECONDS.toNanos(getStreamStaleMillis(period));
+    }
+
+    /**
+     * Возвращает, сколько поток считается идущим после последнего пакета:
+     * три периода, но не меньше секунды. Пока поток идет, ответы на запросы
+     * слушателям не передаются.
+     *
+     * @param periodMillis Период подписки (мс)
+     * @return Время (мс)
+     */
+    public static long getStreamStaleMillis(int periodMillis) {
+        return Math.max(MIN_STREAM_STALE_MS, 3L * periodMillis);
+    }
+
+    /**
+     * Предлагает ESP32 перейти на бинарный протокол.
+     * Отправляет JSON {@code {"proto":1}} и ждет кадр HELLO_ACK; до подтверждения
+     * и при его отсутствии соединение остается в JSON.
+     *
+     * @return CompletableFuture с true, если ESP32 подтвердил бинарный протокол
+     */
+    public CompletableFuture<Boolean> negotiateBinaryProtocol() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        pendingHandshake = future;
+
+        try {
+            DatagramChannel currentChannel = requireChannel();
+            synchronized (sendBuffer) {
+                sendBuffer.clear();
+                CommandEncoder.encodeHello(sendBuffer, BinaryProtocol.VERSION);
+                flushSendBuffer(currentChannel);
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка согласования протокола: " + e.getMessage());
+            future.complete(false);
+            return future;
+        }
+
+        return future.completeOnTimeout(false, HANDSHAKE_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Возвращает текущий формат кадров соединения.
+     *
+     * @return Формат кадров
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Запрашивает телеметрию с ESP32 асинхронно.
+     * Запрос получает номер и регистрируется в таблице ожидания; его завершает
+     * поток приема, когда приходит ответ с тем же номером. По истечении таймаута
+     * future завершается значением null. Вызов не ждет предыдущих запросов.
+     *
+     * @return CompletableFuture с телеметрией
+     */
+    public CompletableFuture<AirboatTelemetry> requestTelemetryAsync() {
+        PendingRequest request = new PendingRequest(nextSequence());
+        PendingRequest previous = pendingBySequence.getAndSet(request.sequence, request);
+        if (previous != null) {
+            // Номер прошел полный круг, а старый запрос так и не завершился
+            pendingOrder.remove(previous);
+            previous.future.complete(null);
+        }
+        pendingOrder.add(request);
+
+        try {
+            sendStatusRequest(request.sequence);
+        } catch (IOException e) {
+            System.err.println("Ошибка запроса телеметрии: " + e.getMessage());
+            removePending(request);
+            request.future.complete(null);
+            return request.future;
+        }
+        linkMetrics.recordRequest();
+
+        request.future.completeOnTimeout(null, SOCKET_TIMEOUT, TimeUnit.MILLISECONDS)
+                .whenComplete((telemetry, throwable) -> {
+                    if (removePending(request) && telemetry == null) {
+                        linkMetrics.recordTimeout(System.nanoTime());
+                        System.err.println("Таймаут при запросе телеметрии #" + request.sequence);
+                    }
+                });
+        return request.future;
+    }
+
+    /**
+     * Запрашивает телеметрию с ESP32 и ожидает ответ.
+     *
+     * @return Телеметрия от ESP32 или null если произошла ошибка
+     * @throws IOException если произошла ошибка при запросе
+     */
+    public AirboatTelemetry requestTelemetry() throws IOException {
+        if (!isConnected()) {
+            throw new IOException("UDP соединение не установлено");
+        }
+
+        return requestTelemetryAsync().join();
+    }
+
+    /**
+     * Возвращает время приема последней принятой телеметрии: ответа на запрос
+     * или пакета потока, прошедших проверку номера. Сразу после подключения
+     * равно моменту подключения.
+     *
+     * @return Значение {@link System#nanoTime()} в момент приема
+     */
+    public long getLastTelemetryNanos() {
+        return lastTelemetryNanos;
+    }
+
+    /**
+     * Проверяет состояние соединения.
+     *
+     * @return true если соединение активно
+     */
+    public boolean isConnected() {
+        DatagramChannel currentChannel = channel;
+        return connected && currentChannel != null && currentChannel.isOpen();
+    }
+
+    /**
+     * Возвращает текущий IP адрес ESP32.
+     *
+     * @return IP адрес
+     */
+    public String getEsp32Ip() {
+        return esp32Ip;
+    }
+
+    /**
+     * Возвращает текущий порт ESP32.
+     *
+     * @return UDP порт
+     */
+    public int getEsp32Port() {
+        return esp32Port;
+    }
+
+    /**
+     * Возвращает открытый канал или сообщает об отсутствии соединения.
+     *
+     * @return Текущий канал
+     * @throws IOException если соединение не установлено
+     */
+    private DatagramChannel requireChannel() throws IOException {
+        DatagramChannel currentChannel = channel;
+        if (!connected || currentChannel == null || !currentChannel.isOpen()) {
+            throw new IOException("UDP соединение не установлено");
+        }
+        return currentChannel;
+    }
+
+    /**
+     * Отправляет содержимое буфера отправки в подключенный канал.
+     * Вызывается под блокировкой {@code sendBuffer}.
+     *
+     * @param currentChannel Канал для отправки
+     * @throws IOException если произошла ошибка при отправке
+     */
+    private void flushSendBuffer(DatagramChannel currentChannel) throws IOException {
+        sendBuffer.flip();
+        tapPacket(PacketTap.OUTBOUND, sendBuffer);
+        int bytes = currentChannel.write(sendBuffer);
+        linkMetrics.recordSent(bytes);
+    }
+
+    /**
+     * Передает датаграмму перехватчикам, если они установлены.
+     * Ошибки перехватчика не прерывают отправку и прием.
+     *
+     * @param direction Направление датаграммы
+     * @param packet Буфер с датаграммой
+     */
+    private void tapPacket(int direction, ByteBuffer packet) {
+        if (packetTaps.isEmpty()) {
+            return;
+        }
+        int position = packet.position();
+        int limit = packet.limit();
+        for (PacketTap tap : packetTaps) {
+            try {
+                tap.onPacket(direction, packet);
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка перехватчика пакетов: " + e.getMessage());
+            } finally {
+                packet.limit(limit).position(position);
+            }
+        }
+    }
+
+    /**
+     * Цикл потока приема: ждет готовности канала и вычитывает все датаграммы.
+     *
+     * @param receiveChannel Канал, с которого читаются датаграммы
+     * @param receiveSelector Селектор, на котором зарегистрирован канал
+     */
+    private void receiveLoop(DatagramChannel receiveChannel, Selector receiveSelector) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        TelemetryDecoder decoder = new TelemetryDecoder();
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        SequenceWindow window = new SequenceWindow();
+        SequenceWindow streamWindow = new SequenceWindow();
+
+        try {
+            while (receiveChannel.isOpen()) {
+                long renewIn = renewSubscriptionIfDue(System.nanoTime());
+                if (renewIn > 0) {
+                    receiveSelector.select(renewIn);
+                } else {
+                    receiveSelector.select();
+                }
+
+                Iterator<SelectionKey> keys = receiveSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (key.isValid() && key.isReadable()) {
+                        drainChannel(receiveChannel, buffer, decoder, telemetry, window, streamWindow);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Соединение закрыто через disconnect()
+        } catch (IOException e) {
+            if (receiveChannel.isOpen()) {
+                System.err.println("Ошибка приема UDP: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Продлевает аренду подписки, если подошел срок.
+     *
+     * @param now Текущее время
+     * @return Время до следующего продления (мс) или 0, если подписки нет
+     */
+    private long renewSubscriptionIfDue(long now) {
+        int period = streamPeriodMillis;
+        if (period == 0) {
+            return 0;
+        }
+        long remaining = streamRenewDueNanos - now;
+        if (remaining <= 0) {
+            try {
+                sendSubscribe(period, STREAM_LEASE_MS);
+            } catch (IOException e) {
+                System.err.println("Ошибка продления подписки на телеметрию: " + e.getMessage());
+            }
+            remaining = TimeUnit.MILLISECONDS.toNanos(STREAM_RENEW_MS);
+            streamRenewDueNanos = now + remaining;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    /**
+     * Читает из канала все накопившиеся датаграммы и декодирует телеметрию.
+     *
+     * @param receiveChannel Канал для чтения
+     * @param buffer Буфер приема
+     * @param decoder Декодер телеметрии потока приема
+     * @param telemetry Переиспользуемый объект телеметрии
+     * @param window Окно номеров ответов на запросы
+     * @param streamWindow Окно номеров пакетов потока
+     * @throws IOException если произошла ошибка чтения
+     */
+    private void drainChannel(DatagramChannel receiveChannel, ByteBuffer buffer, TelemetryDecoder decoder,
+                              AirboatTelemetry telemetry, SequenceWindow window,
+                              SequenceWindow streamWindow) throws IOException {
+        while (true) {
+            buffer.clear();
+            int bytes;
+            try {
+                bytes = receiveChannel.read(buffer);
+                if (bytes <= 0) {
+                    return;
+                }
+            } catch (PortUnreachableException e) {
+                // ICMP "порт недоступен": ESP32 еще не слушает порт, продолжаем ждать
+                continue;
+            }
+            buffer.flip();
+            linkMetrics.recordReceived(bytes);
+
+            tapPacket(PacketTap.INBOUND, buffer);
+
+            if (BinaryProtocol.isBinaryFrame(buffer)) {
+                handleBinaryFrame(buffer, telemetry, window, streamWindow);
+            } else if (decoder.decode(buffer, telemetry)) {
+                if (decoder.getStreamSequence() >= 0) {
+                    dispatchStream(telemetry, decoder.getStreamSequence(), streamWindow);
+                } else {
+                    // Как и в бинарном кадре, номер 0 означает "без номера": nextSequence() его не выдает
+                    int sequence = decoder.getSequence();
+                    dispatchTelemetry(telemetry, sequence > 0 ? sequence : NO_SEQUENCE, window);
+                }
+            } else {
+                linkMetrics.recordDecodeFailure();
+                System.err.println("Получен некорректный пакет телеметрии (" + buffer.remaining() + " байт)");
+            }
+        }
+    }
+
+    /**
+     * Обрабатывает бинарный кадр: телеметрию, пакет потока или подтверждение рукопожатия.
+     *
+     * @param buffer Буфер с кадром
+     * @param telemetry Переиспользуемый объект телеметрии
+     * @param window Окно номеров ответов на запросы
+     * @param streamWindow Окно номеров пакетов потока
+     */
+    private void handleBinaryFrame(ByteBuffer buffer, AirboatTelemetry telemetry, SequenceWindow window,
+                                   SequenceWindow streamWindow) {
+        if (!BinaryProtocol.isValid(buffer)) {
+            linkMetrics.recordDecodeFailure();
+            System.err.println("Получен поврежденный бинарный кадр (" + buffer.remaining() + " байт)");
+            return;
+        }
+
+        int type = BinaryProtocol.getType(buffer);
+        if (type == BinaryProtocol.TYPE_TELEMETRY) {
+            BinaryProtocol.decodeTelemetry(buffer, telemetry);
+            int sequence = BinaryProtocol.getSequence(buffer);
+            dispatchTelemetry(telemetry, sequence != 0 ? sequence : NO_SEQUENCE, window);
+        } else if (type == BinaryProtocol.TYPE_STREAM) {
+            BinaryProtocol.decodeTelemetry(buffer, telemetry);
+            dispatchStream(telemetry, BinaryProtocol.getSequence(buffer), streamWindow);
+        } else if (type == BinaryProtocol.TYPE_HELLO_ACK) {
+            // Формат меняется только в ответ на ожидающее согласование: лишний или
+            // повторный HELLO_ACK не переключает протокол
+            CompletableFuture<Boolean> handshake = pendingHandshake;
+            if (handshake != null && !handshake.isDone()) {
+                pendingHandshake = null;
+                wireFormat = WireFormat.BINARY;
+                if (!handshake.complete(true)) {
+                    // Таймаут сработал раньше: вызывающий остался на JSON
+                    wireFormat = WireFormat.JSON;
+                }
+            }
+        }
+    }
+
+    /**
+     * Сопоставляет телеметрию с ожидающим запросом и уведомляет слушателей.
+     * Повторные и вышедшие за окно ответы отбрасываются; опоздавший ответ
+     * завершает свой запрос, но слушателям не передается, чтобы не показывать
+     * состояние старее уже отображенного. Пока идет поток телеметрии, слушатели
+     * получают только его пакеты: у ответов и потока разные счетчики, и их
+     * порядок между собой неизвестен.
+     *
+     * @param telemetry Декодированная телеметрия (переиспользуемый объект)
+     * @param sequence Номер ответа или {@link #NO_SEQUENCE}
+     * @param window Окно номеров последовательности
+     */
+    private void dispatchTelemetry(AirboatTelemetry telemetry, int sequence, SequenceWindow window) {
+        boolean latest = true;
+
+        if (sequence == NO_SEQUENCE) {
+            lastTelemetryNanos = System.nanoTime();
+            completeOldestPending(telemetry);
+        } else {
+            int verdict = window.accept(sequence);
+            if (verdict == SequenceWindow.REJECTED) {
+                linkMetrics.recordStaleResponse();
+                return;
+            }
+            lastTelemetryNanos = System.nanoTime();
+            latest = verdict == SequenceWindow.LATEST;
+
+            PendingRequest request = pendingBySequence.getAndSet(sequence, null);
+            if (request != null) {
+                pendingOrder.remove(request);
+                long now = System.nanoTime();
+                linkMetrics.recordResponse(now - request.sentNanos, now);
+                request.future.complete(new AirboatTelemetry(telemetry));
+            }
+        }
+
+        if (!latest || isStreamActive()) {
+            return;
+        }
+        notifyListeners(telemetry);
+    }
+
+    /**
+     * Обрабатывает пакет потока телеметрии: отсеивает повторы и устаревшие
+     * пакеты, учитывает пропуски номеров и уведомляет слушателей.
+     *
+     * @param telemetry Декодированная телеметрия (переиспользуемый объект)
+     * @param sequence Номер пакета в потоке
+     * @param window Окно номеров пакетов потока
+     */
+    private void dispatchStream(AirboatTelemetry telemetry, int sequence, SequenceWindow window) {
+        lastStreamNanos = System.nanoTime();
+
+        int highest = window.getHighest();
+        // Несколько отказов подряд означают, что лодка начала счет заново (например, после перезагрузки)
+        int verdict = window.acceptOrRestart(sequence);
+        if (verdict == SequenceWindow.REJECTED) {
+            linkMetrics.recordStaleResponse();
+            return;
+        }
+        lastTelemetryNanos = System.nanoTime();
+
+        if (verdict != SequenceWindow.LATEST) {
+            linkMetrics.recordStreamPacket(0);
+            return;
+        }
+        int missed = highest < 0 ? 0 : (short) (sequence - highest) - 1;
+        // После перезапуска окна номер не больше прежнего, и пропуски не считаются
+        linkMetrics.recordStreamPacket(missed > 0 && missed < SequenceWindow.WINDOW_SIZE ? missed : 0);
+        notifyListeners(telemetry);
+    }
+
+    /**
+     * Передает телеметрию слушателям.
+     *
+     * @param telemetry Декодированная телеметрия (переиспользуемый объект)
+     */
+    private void notifyListeners(AirboatTelemetry telemetry) {
+        for (TelemetryListener listener : telemetryListeners) {
+            try {
+                listener.onTelemetry(telemetry);
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка в обработчике телеметрии: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Завершает самый старый ожидающий запрос (ответ прежней прошивки без номера).
+     *
+     * @param telemetry Декодированная телеметрия
+     */
+    private void completeOldestPending(AirboatTelemetry telemetry) {
+        long now = System.nanoTime();
+        PendingRequest request;
+        while ((request = pendingOrder.poll()) != null) {
+            if (pendingBySequence.compareAndSet(request.sequence, request, null)
+                    && request.future.complete(new AirboatTelemetry(telemetry))) {
+                linkMetrics.recordResponse(now - request.sentNanos, now);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет запрос из таблицы ожидания.
+     *
+     * @param request Запрос
+     * @return true если запрос еще находился в таблице
+     */
+    private boolean removePending(PendingRequest request) {
+        pendingOrder.remove(request);
+        return pendingBySequence.compareAndSet(request.sequence, request, null);
+    }
+
+    /**
+     * Выдает следующий номер запроса в диапазоне 1-65535 (0 означает "без номера").
+     *
+     * @return Номер запроса
+     */
+    private int nextSequence() {
+        while (true) {
+            int sequence = sequenceCounter.incrementAndGet() & (SEQUENCE_SPACE - 1);
+            if (sequence != 0) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Закрывает канал и селектор и завершает ожидающие запросы значением null.
+     */
+    private void closeChannel() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия UDP канала: " + e.getMessage());
+        } finally {
+            selector = null;
+            channel = null;
+            receiverThread = null;
+        }
+
+        PendingRequest pending;
+        while ((pending = pendingOrder.poll()) != null) {
+            pendingBySequence.compareAndSet(pending.sequence, pending, null);
+            pending.future.complete(null);
+        }
+
+        CompletableFuture<Boolean> handshake = pendingHandshake;
+        pendingHandshake = null;
+        if (handshake != null) {
+            handshake.complete(false);
+        }
+    }
+
+    /**
+     * Запрос телеметрии, ожидающий ответа.
+     */
+    private static final class PendingRequest {
+
+        private final int sequence;
+        private final long sentNanos;
+        private final CompletableFuture<AirboatTelemetry> future;
+
+        PendingRequest(int sequence) {
+            this.sequence = sequence;
+            this.sentNanos = System.nanoTime();
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
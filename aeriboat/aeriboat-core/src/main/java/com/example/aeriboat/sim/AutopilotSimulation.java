@@ -0,0 +1,117 @@
+package com.example.aeriboat.sim;
+
+import com.example.aeriboat.autopilot.Route;
+import com.example.aeriboat.autopilot.WaypointNavigator;
+
+/**
+ * Прогон навигатора автопилота против {@link BoatModel} в ускоренном времени.
+ * <p>
+ * На каждом шаге навигатор получает положение и курс модели в единицах
+ * телеметрии (курс округляется до градуса, как у ESP32), а модель
+ * продвигается на период цикла управления с полученной уставкой. Реальное
+ * время не используется, поэтому маршрут в несколько минут проходится
+ * за миллисекунды. Используется тестом навигатора и {@code AutopilotBenchmark}.
+ *
+ * @since 1.1
+ */
+public class AutopilotSimulation {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final WaypointNavigator navigator;
+    private final BoatModel boat;
+    private final double periodSeconds;
+    private long steps;
+    private double elapsedSeconds;
+    private double pathMeters;
+
+    /**
+     * Создает прогон.
+     *
+     * @param navigator Навигатор с заданным маршрутом
+     * @param boat Модель лодки в начальном положении
+     * @param periodSeconds Период цикла управления (с)
+     */
+    public AutopilotSimulation(WaypointNavigator navigator, BoatModel boat, double periodSeconds) {
+        this.navigator = navigator;
+        this.boat = boat;
+        this.periodSeconds = periodSeconds;
+    }
+
+    /**
+     * Выполняет один период: шаг навигатора по текущему положению модели
+     * и продвижение модели с новой уставкой.
+     *
+     * @return Результат шага навигатора ({@link WaypointNavigator#STEERING} и т.д.)
+     */
+    public int step() {
+        int result = navigator.step(boat.getLatitudeMicro(), boat.getLongitudeMicro(),
+                Math.round(boat.getCourse()) % 360, periodSeconds);
+        boat.setCommand(navigator.getAngle(), navigator.getSpeed());
+        boat.step(periodSeconds);
+        steps++;
+        elapsedSeconds += periodSeconds;
+        pathMeters += navigator.getSpeed() / 100.0 * BoatModel.MAX_SPEED_MPS * periodSeconds;
+        return result;
+    }
+
+    /**
+     * Выполняет шаги, пока маршрут не будет пройден или не истечет время.
+     *
+     * @param maxSeconds Наибольшее модельное время (с)
+     * @return true если маршрут пройден
+     */
+    public boolean run(double maxSeconds) {
+        while (elapsedSeconds < maxSeconds) {
+            if (step() == WaypointNavigator.FINISHED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Возвращает модельное время с начала прогона.
+     *
+     * @return Время (с)
+     */
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    /**
+     * Возвращает пройденный лодкой путь.
+     *
+     * @return Путь (м)
+     */
+    public double getPathMeters() {
+        return pathMeters;
+    }
+
+    /**
+     * Строит квадратный маршрут с началом в точке старта: на север, на восток,
+     * на юг и обратно к старту.
+     *
+     * @param latitude Широта старта (°)
+     * @param longitude Долгота старта (°)
+     * @param sideMeters Длина стороны (м)
+     * @return Маршрут из четырех точек
+     */
+    public static Route squareRoute(double latitude, double longitude, double sideMeters) {
+        double dLatitude = sideMeters / METERS_PER_DEGREE;
+        double dLongitude = sideMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+        double[] latitudes = {latitude + dLatitude, latitude + dLatitude, latitude, latitude};
+        double[] longitudes = {longitude, longitude + dLongitude, longitude + dLongitude, longitude};
+        long[] microLatitudes = new long[4];
+        long[] microLongitudes = new long[4];
+        for (int i = 0; i < 4; i++) {
+            microLatitudes[i] = Math.round(latitudes[i] * 1_000_000);
+            microLongitudes[i] = Math.round(longitudes[i] * 1_000_000);
+        }
+        return new Route("Квадрат " + Math.round(sideMeters) + " м", microLatitudes, microLongitudes);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.aeriboat.sim;
+
+/**
+ * Простая кинематическая модель лодки с явным шагом по времени.
+ * <p>
+ * Руль поворачивает лодку пропорционально отклонению от 90° и газу,
+ * скорость линейно зависит от газа, батарея разряжается под нагрузкой.
+ * Время передается в {@link #step(double)}, поэтому модель можно гонять
+ * как в реальном времени ({@link EspSimulator}), так и во много раз быстрее,
+ * например для проверки автопилота. Шаг не создает объектов.
+ *
+ * @since 1.1
+ */
+public class BoatModel {
+
+    public static final double MAX_SPEED_MPS = 3.0;
+    public static final double MAX_TURN_RATE_DEG = 45.0;
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double FULL_BATTERY_MV = 4200.0;
+    private static final double EMPTY_BATTERY_MV = 3000.0;
+    private static final double DRAIN_MV_PER_SECOND = 0.5;
+
+    private int angle = 90;
+    private int speed;
+    private double latitude;
+    private double longitude;
+    private double course;
+    private double batteryMillivolts = FULL_BATTERY_MV;
+
+    /**
+     * Создает модель, стоящую в точке с курсом на север.
+     *
+     * @param latitude Широта (°)
+     * @param longitude Долгота (°)
+     */
+    public BoatModel(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Устанавливает уставку.
+     *
+     * @param angle Угол сервопривода (0-180°)
+     * @param speed Скорость мотора (0-100%)
+     */
+    public void setCommand(int angle, int speed) {
+        this.angle = Math.max(0, Math.min(180, angle));
+        this.speed = Math.max(0, Math.min(100, speed));
+    }
+
+    /**
+     * Продвигает модель на заданное время при текущей уставке.
+     *
+     * @param seconds Время (с)
+     */
+    public void step(double seconds) {
+        if (seconds <= 0) {
+            return;
+        }
+
+        double throttle = speed / 100.0;
+        course += (angle - 90) / 90.0 * MAX_TURN_RATE_DEG * throttle * seconds;
+        course = ((course % 360) + 360) % 360;
+
+        double meters = throttle * MAX_SPEED_MPS * seconds;
+        double heading = Math.toRadians(course);
+        latitude += meters * Math.cos(heading) / METERS_PER_DEGREE;
+        longitude += meters * Math.sin(heading) / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+
+        batteryMillivolts = Math.max(EMPTY_BATTERY_MV,
+                batteryMillivolts - DRAIN_MV_PER_SECOND * (0.1 + throttle) * seconds);
+    }
+
+    /**
+     * Устанавливает курс, например для начального условия.
+     *
+     * @param course Курс (°)
+     */
+    public void setCourse(double course) {
+        this.course = ((course % 360) + 360) % 360;
+    }
+
+    public int getAngle() {
+        return angle;
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Возвращает широту в единицах телеметрии.
+     *
+     * @return Широта (миллионные доли градуса)
+     */
+    public long getLatitudeMicro() {
+        return Math.round(latitude * 1_000_000);
+    }
+
+    /**
+     * Возвращает долготу в единицах телеметрии.
+     *
+     * @return Долгота (миллионные доли градуса)
+     */
+    public long getLongitudeMicro() {
+        return Math.round(longitude * 1_000_000);
+    }
+
+    /**
+     * Возвращает курс.
+     *
+     * @return Курс (0-360°)
+     */
+    public double getCourse() {
+        return course;
+    }
+
+    /**
+     * Возвращает напряжение батареи.
+     *
+     * @return Напряжение (мВ)
+     */
+    public double getBatteryMillivolts() {
+        return batteryMillivolts;
+    }
+}
@@ -0,0 +1,641 @@
+package com.example.aeriboat.sim;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.WireFormat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Симулятор ESP32 airboat для проверки клиента без оборудования.
+ * <p>
+ * Реализует текущий протокол: JSON команды {@code angle}/{@code speed}/{@code status}
+ * с необязательным {@code seq}, рукопожатие {@code {"proto":1}}, подписку на поток
+ * телеметрии {@code {"subscribe":PERIOD,"lease":LEASE}} и бинарные кадры
+ * {@link BinaryProtocol}. Отвечает в формате запроса и возвращает номер запроса.
+ * Поток по подписке прекращается, если клиент не продлил аренду вовремя.
+ * Каждая лодка слушает свой UDP порт и движется по простой модели
+ * (см. {@link SimulatedBoat}), так что координаты и курс меняются от команд.
+ * <p>
+ * Канал имитирует задержку с разбросом, потери в обе стороны и переупорядочивание
+ * ответов (см. {@link SimulatorConfig}). Все лодки обслуживает один поток:
+ * входящие пакеты читаются через {@link Selector}, а ответы ждут своего времени
+ * отправки в очереди с приоритетом.
+ * <p>
+ * Запуск из командной строки:
+ * <pre>
+ * java -cp target/classes com.example.aeriboat.sim.EspSimulator --boats 10 --port 12345 \
+ *      --latency 20 --jitter 10 --loss 0.02 --reorder 0.01 --rate 10
+ * </pre>
+ *
+ * @since 1.1
+ */
+public class EspSimulator implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final String THREAD_NAME = "esp-simulator";
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final long REORDER_EXTRA_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long STATS_INTERVAL_MS = 5000;
+    private static final long DEFAULT_LEASE_MS = 3000;
+
+    private final SimulatorConfig config;
+    private final List<SimulatedBoat> boats;
+    private final PriorityQueue<OutgoingPacket> outgoing;
+    private final Random random;
+    private final AirboatTelemetry telemetry;
+    private final StringBuilder jsonBuilder;
+    private final LongAdder receivedCount;
+    private final LongAdder sentCount;
+    private final LongAdder droppedCount;
+    private final long pushIntervalNanos;
+    private Selector selector;
+    private Thread ioThread;
+    private volatile boolean running;
+    private long packetOrder;
+
+    /**
+     * Создает симулятор.
+     *
+     * @param config Параметры симуляции
+     */
+    public EspSimulator(SimulatorConfig config) {
+        this.config = config;
+        this.boats = new ArrayList<>();
+        this.outgoing = new PriorityQueue<>();
+        this.random = new Random(config.getSeed());
+        this.telemetry = new AirboatTelemetry();
+        this.jsonBuilder = new StringBuilder(128);
+        this.receivedCount = new LongAdder();
+        this.sentCount = new LongAdder();
+        this.droppedCount = new LongAdder();
+        this.pushIntervalNanos = config.getTelemetryRateHz() > 0
+                ? (long) (TimeUnit.SECONDS.toNanos(1) / config.getTelemetryRateHz())
+                : 0;
+    }
+
+    /**
+     * Открывает порты всех лодок и запускает поток симуляции.
+     *
+     * @throws IOException если порт не удалось открыть
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+
+        selector = Selector.open();
+        long now = System.nanoTime();
+        try {
+            for (int i = 0; i < config.getBoatCount(); i++) {
+                int port = config.getBasePort() == 0 ? 0 : config.getBasePort() + i;
+                DatagramChannel channel = DatagramChannel.open();
+                channel.configureBlocking(false);
+                channel.bind(new InetSocketAddress(config.getBindAddress(), port));
+                SimulatedBoat boat = new SimulatedBoat(i, channel, now);
+                channel.register(selector, SelectionKey.OP_READ, boat);
+                boats.add(boat);
+            }
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+
+        running = true;
+        ioThread = new Thread(this::ioLoop, THREAD_NAME);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Возвращает адрес, на котором слушает лодка.
+     *
+     * @param index Номер лодки (с 0)
+     * @return Локальный адрес
+     * @throws IOException если адрес не удалось получить
+     */
+    public InetSocketAddress getBoatAddress(int index) throws IOException {
+        return (InetSocketAddress) boats.get(index).getChannel().getLocalAddress();
+    }
+
+    /**
+     * Возвращает число принятых пакетов.
+     *
+     * @return Число пакетов
+     */
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+    /**
+     * Возвращает число отправленных пакетов.
+     *
+     * @return Число пакетов
+     */
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    /**
+     * Возвращает число пакетов, потерянных по модели канала.
+     *
+     * @return Число пакетов
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Останавливает симуляцию и закрывает порты.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannels();
+    }
+
+    /**
+     * Цикл потока симуляции: отправляет созревшие ответы и телеметрию без запроса,
+     * затем ждет входящих пакетов до ближайшего запланированного события.
+     */
+    private void ioLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                sendDuePackets(now);
+                long nextEvent = pushTelemetry(now);
+                if (!outgoing.isEmpty()) {
+                    nextEvent = Math.min(nextEvent, outgoing.peek().dueNanos);
+                }
+
+                if (nextEvent == Long.MAX_VALUE) {
+                    selector.select();
+                } else if (nextEvent - now <= 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextEvent - now)));
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        drainChannel((SimulatedBoat) key.attachment(), buffer);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Симулятор остановлен
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Ошибка симулятора: " + e.getMessage());
+            }
+        }
+    }
+
+    private void drainChannel(SimulatedBoat boat, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            SocketAddress sender = boat.getChannel().receive(buffer);
+            if (sender == null) {
+                return;
+            }
+            buffer.flip();
+            receivedCount.increment();
+
+            if (random.nextDouble() < config.getLossRate()) {
+                droppedCount.increment();
+                continue;
+            }
+            boat.peer = sender;
+            if (BinaryProtocol.isBinaryFrame(buffer)) {
+                handleBinaryCommand(boat, buffer, sender);
+            } else {
+                handleJsonCommand(boat, StandardCharsets.UTF_8.decode(buffer).toString(), sender);
+            }
+        }
+    }
+
+    private void handleBinaryCommand(SimulatedBoat boat, ByteBuffer frame, SocketAddress sender) {
+        if (!BinaryProtocol.isValid(frame)) {
+            return;
+        }
+        long now = System.nanoTime();
+        int type = BinaryProtocol.getType(frame);
+        if (type == BinaryProtocol.TYPE_SUBSCRIBE) {
+            subscribe(boat, sender, WireFormat.BINARY, BinaryProtocol.getSubscribePeriod(frame),
+                    BinaryProtocol.getSubscribeLease(frame), now);
+            return;
+        }
+        if (type != BinaryProtocol.TYPE_COMMAND) {
+            return;
+        }
+        boat.peerFormat = WireFormat.BINARY;
+
+        int flags = BinaryProtocol.getCommandFlags(frame);
+        int angle = (flags & BinaryProtocol.FLAG_ANGLE) != 0 ? BinaryProtocol.getCommandAngle(frame) : -1;
+        int speed = (flags & BinaryProtocol.FLAG_SPEED) != 0 ? BinaryProtocol.getCommandSpeed(frame) : -1;
+        boat.applyCommand(angle, speed, now);
+        if ((flags & BinaryProtocol.FLAG_STATUS) != 0) {
+            scheduleTelemetry(boat, sender, WireFormat.BINARY, BinaryProtocol.getSequence(frame), false, now);
+        }
+    }
+
+    private void handleJsonCommand(SimulatedBoat boat, String json, SocketAddress sender) {
+        long now = System.nanoTime();
+        long proto = jsonNumber(json, "proto");
+        if (proto != NO_VALUE) {
+            // Прежняя прошивка молча игнорирует рукопожатие
+            if (config.isBinarySupported() && proto >= BinaryProtocol.VERSION) {
+                ByteBuffer ack = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE
+                        + BinaryProtocol.HELLO_ACK_PAYLOAD_SIZE + BinaryProtocol.CRC_SIZE);
+                BinaryProtocol.encodeHelloAck(ack, BinaryProtocol.VERSION);
+                schedule(boat, sender, ack.flip(), now);
+            }
+            return;
+        }
+
+        long subscribe = jsonNumber(json, "subscribe");
+        if (subscribe != NO_VALUE) {
+            long lease = jsonNumber(json, "lease");
+            subscribe(boat, sender, WireFormat.JSON, subscribe, lease == NO_VALUE ? DEFAULT_LEASE_MS : lease, now);
+            return;
+        }
+
+        long angle = jsonNumber(json, "angle");
+        long speed = jsonNumber(json, "speed");
+        boat.applyCommand(angle == NO_VALUE ? -1 : (int) angle, speed == NO_VALUE ? -1 : (int) speed, now);
+        if (jsonTrue(json, "status")) {
+            long sequence = jsonNumber(json, "seq");
+            scheduleTelemetry(boat, sender, WireFormat.JSON, sequence == NO_VALUE ? 0 : (int) sequence, false, now);
+        }
+    }
+
+    /**
+     * Оформляет, продлевает или отменяет подписку на поток телеметрии.
+     *
+     * @param boat Лодка
+     * @param sender Адрес подписчика
+     * @param format Формат кадров потока
+     * @param periodMillis Период (мс), 0 или меньше - отмена
+     * @param leaseMillis Срок аренды (мс)
+     * @param now Текущее время
+     */
+    private void subscribe(SimulatedBoat boat, SocketAddress sender, WireFormat format,
+                           long periodMillis, long leaseMillis, long now) {
+        if (!config.isStreamSupported()) {
+            // Прежняя прошивка молча игнорирует подписку
+            return;
+        }
+        if (periodMillis <= 0 || leaseMillis <= 0) {
+            boat.streamPeriodNanos = 0;
+            return;
+        }
+
+        if (boat.streamPeriodNanos == 0) {
+            boat.nextStreamNanos = now;
+        }
+        boat.streamPeer = sender;
+        boat.streamFormat = format;
+        boat.streamPeriodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        boat.streamLeaseExpiresNanos = now + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+    }
+
+    /**
+     * Отправляет телеметрию без запроса: последнему клиенту каждой лодки
+     * с частотой из конфигурации и подписчикам с частотой подписки.
+     *
+     * @param now Текущее время
+     * @return Время следующей отправки или {@link Long#MAX_VALUE}, если отправлять нечего
+     */
+    private long pushTelemetry(long now) {
+        long next = Long.MAX_VALUE;
+        for (SimulatedBoat boat : boats) {
+            if (pushIntervalNanos > 0 && boat.peer != null) {
+                if (now - boat.nextPushNanos >= 0) {
+                    scheduleTelemetry(boat, boat.peer, boat.peerFormat, 0, false, now);
+                    boat.nextPushNanos = now + pushIntervalNanos;
+                }
+                next = Math.min(next, boat.nextPushNanos);
+            }
+
+            if (boat.streamPeriodNanos > 0) {
+                if (now - boat.streamLeaseExpiresNanos >= 0) {
+                    // Аренда не продлена: клиент пропал
+                    boat.streamPeriodNanos = 0;
+                    continue;
+                }
+                if (now - boat.nextStreamNanos >= 0) {
+                    boat.streamSequence = (boat.streamSequence + 1) & 0xFFFF;
+                    scheduleTelemetry(boat, boat.streamPeer, boat.streamFormat, boat.streamSequence, true, now);
+                    boat.nextStreamNanos += boat.streamPeriodNanos;
+                    if (now - boat.nextStreamNanos >= 0) {
+                        // Поток отстал (например, после паузы): не догоняем пачкой
+                        boat.nextStreamNanos = now + boat.streamPeriodNanos;
+                    }
+                }
+                next = Math.min(next, Math.min(boat.nextStreamNanos, boat.streamLeaseExpiresNanos));
+            }
+        }
+        return next;
+    }
+
+    private void scheduleTelemetry(SimulatedBoat boat, SocketAddress target, WireFormat format,
+                                   int sequence, boolean stream, long now) {
+        boat.fillTelemetry(telemetry, now);
+
+        ByteBuffer packet;
+        if (format == WireFormat.BINARY) {
+            packet = ByteBuffer.allocate(BinaryProtocol.HEADER_SIZE + BinaryProtocol.TELEMETRY_PAYLOAD_SIZE
+                    + BinaryProtocol.CRC_SIZE);
+            if (stream) {
+                BinaryProtocol.encodeStream(packet, sequence, telemetry);
+            } else {
+                BinaryProtocol.encodeTelemetry(packet, sequence, telemetry);
+            }
+            packet.flip();
+        } else {
+            StringBuilder json = jsonBuilder;
+            json.setLength(0);
+            json.append("{\"wifi_signal_level\":").append(telemetry.getWifiSignalLevel())
+                    .append(",\"battery_voltage\":").append(telemetry.getBatteryVoltage())
+                    .append(",\"latitude\":").append(telemetry.getLatitude())
+                    .append(",\"longitude\":").append(telemetry.getLongitude())
+                    .append(",\"course\":").append(telemetry.getCourse());
+            if (stream) {
+                json.append(",\"stream\":").append(sequence);
+            } else if (sequence > 0) {
+                json.append(",\"seq\":").append(sequence);
+            }
+            json.append('}');
+            packet = StandardCharsets.UTF_8.encode(json.toString());
+        }
+        schedule(boat, target, packet, now);
+    }
+
+    /**
+     * Ставит ответ в очередь с задержкой по модели канала или теряет его.
+     */
+    private void schedule(SimulatedBoat boat, SocketAddress target, ByteBuffer packet, long now) {
+        if (random.nextDouble() < config.getLossRate()) {
+            droppedCount.increment();
+            return;
+        }
+
+        long latency = TimeUnit.MILLISECONDS.toNanos(config.getLatencyMillis());
+        long jitter = TimeUnit.MILLISECONDS.toNanos(config.getJitterMillis());
+        long delay = latency;
+        if (jitter > 0) {
+            delay += (long) ((random.nextDouble() * 2 - 1) * jitter);
+        }
+        if (random.nextDouble() < config.getReorderRate()) {
+            delay += 2 * (latency + jitter) + REORDER_EXTRA_NANOS;
+        }
+        outgoing.add(new OutgoingPacket(now + Math.max(0, delay), packetOrder++, boat, target, packet));
+    }
+
+    private void sendDuePackets(long now) {
+        while (!outgoing.isEmpty() && outgoing.peek().dueNanos - now <= 0) {
+            OutgoingPacket packet = outgoing.poll();
+            try {
+                if (packet.boat.getChannel().send(packet.data, packet.target) > 0) {
+                    sentCount.increment();
+                } else {
+                    droppedCount.increment();
+                }
+            } catch (IOException e) {
+                // Клиент недоступен: для UDP это та же потеря пакета
+                droppedCount.increment();
+            }
+        }
+    }
+
+    private void closeChannels() {
+        for (SimulatedBoat boat : boats) {
+            try {
+                boat.getChannel().close();
+            } catch (IOException e) {
+                System.err.println("Ошибка закрытия порта лодки " + boat.getIndex() + ": " + e.getMessage());
+            }
+        }
+        boats.clear();
+        outgoing.clear();
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия селектора: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Находит целое значение ключа в JSON без полного разбора (допускаются кавычки вокруг числа).
+     *
+     * @return Значение или {@link #NO_VALUE}, если ключа нет
+     */
+    private static long jsonNumber(String json, String key) {
+        int index = valueIndex(json, key);
+        if (index < 0) {
+            return NO_VALUE;
+        }
+        if (index < json.length() && json.charAt(index) == '"') {
+            index++;
+        }
+        int start = index;
+        if (index < json.length() && json.charAt(index) == '-') {
+            index++;
+        }
+        while (index < json.length() && Character.isDigit(json.charAt(index))) {
+            index++;
+        }
+        try {
+            return Long.parseLong(json.substring(start, index));
+        } catch (NumberFormatException e) {
+            return NO_VALUE;
+        }
+    }
+
+    private static boolean jsonTrue(String json, String key) {
+        int index = valueIndex(json, key);
+        return index >= 0 && json.startsWith("true", index);
+    }
+
+    private static int valueIndex(String json, String key) {
+        int index = json.indexOf("\"" + key + "\"");
+        if (index < 0) {
+            return -1;
+        }
+        index += key.length() + 2;
+        while (index < json.length() && (json.charAt(index) == ':' || Character.isWhitespace(json.charAt(index)))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Точка входа для запуска симулятора из командной строки.
+     *
+     * @param args Параметры в виде {@code --ключ значение}
+     * @throws Exception если симулятор не удалось запустить
+     */
+    public static void main(String[] args) throws Exception {
+        SimulatorConfig config;
+        try {
+            config = parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        EspSimulator simulator = new EspSimulator(config);
+        simulator.start();
+        System.out.println("Симулятор ESP32 запущен: " + config);
+        for (int i = 0; i < config.getBoatCount(); i++) {
+            System.out.println("  лодка " + i + ": " + simulator.getBoatAddress(i));
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            simulator.close();
+            System.out.println("Симулятор остановлен: " + simulator.formatStats());
+        }));
+
+        while (true) {
+            Thread.sleep(STATS_INTERVAL_MS);
+            System.out.println(simulator.formatStats());
+        }
+    }
+
+    private String formatStats() {
+        return "принято=" + getReceivedCount() + ", отправлено=" + getSentCount() + ", потеряно=" + getDroppedCount();
+    }
+
+    private static SimulatorConfig parseArgs(String[] args) {
+        SimulatorConfig config = new SimulatorConfig();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--help".equals(option)) {
+                printUsage();
+                System.exit(0);
+            }
+            if ("--no-binary".equals(option)) {
+                config.setBinarySupported(false);
+                continue;
+            }
+            if ("--no-stream".equals(option)) {
+                config.setStreamSupported(false);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Не задано значение параметра " + option);
+            }
+
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--boats":
+                        config.setBoatCount(Integer.parseInt(value));
+                        break;
+                    case "--port":
+                        config.setBasePort(Integer.parseInt(value));
+                        break;
+                    case "--bind":
+                        config.setBindAddress(value);
+                        break;
+                    case "--latency":
+                        config.setLatencyMillis(Long.parseLong(value));
+                        break;
+                    case "--jitter":
+                        config.setJitterMillis(Long.parseLong(value));
+                        break;
+                    case "--loss":
+                        config.setLossRate(Double.parseDouble(value));
+                        break;
+                    case "--reorder":
+                        config.setReorderRate(Double.parseDouble(value));
+                        break;
+                    case "--rate":
+                        config.setTelemetryRateHz(Double.parseDouble(value));
+                        break;
+                    case "--seed":
+                        config.setSeed(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректное значение " + option + ": " + value);
+            }
+        }
+        return config;
+    }
+
+    private static void printUsage() {
+        System.out.println("Параметры симулятора ESP32:");
+        System.out.println("  --boats N        число лодок (по умолчанию 1)");
+        System.out.println("  --port P         порт первой лодки, 0 - любые свободные (по умолчанию 12345)");
+        System.out.println("  --bind ADDR      адрес для прослушивания (по умолчанию 0.0.0.0)");
+        System.out.println("  --latency MS     задержка ответа, мс");
+        System.out.println("  --jitter MS      разброс задержки ±, мс");
+        System.out.println("  --loss P         доля потерянных пакетов (0-1)");
+        System.out.println("  --reorder P      доля переупорядоченных ответов (0-1)");
+        System.out.println("  --rate HZ        телеметрия без запроса, Гц (0 - только по запросу)");
+        System.out.println("  --seed N         начальное значение генератора случайных чисел");
+        System.out.println("  --no-binary      не подтверждать бинарный протокол");
+        System.out.println("  --no-stream      игнорировать подписку на поток телеметрии");
+    }
+
+    /**
+     * Ответ, ожидающий времени отправки.
+     */
+    private static final class OutgoingPacket implements Comparable<OutgoingPacket> {
+
+        private final long dueNanos;
+        private final long order;
+        private final SimulatedBoat boat;
+        private final SocketAddress target;
+        private final ByteBuffer data;
+
+        OutgoingPacket(long dueNanos, long order, SimulatedBoat boat, SocketAddress target, ByteBuffer data) {
+            this.dueNanos = dueNanos;
+            this.order = order;
+            this.boat = boat;
+            this.target = target;
+            this.data = data;
+        }
+
+        @Override
+        public int compareTo(OutgoingPacket other) {
+            int byTime = Long.compare(dueNanos - other.dueNanos, 0);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+}
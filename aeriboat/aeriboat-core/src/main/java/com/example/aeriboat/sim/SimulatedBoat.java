@@ -0,0 +1,99 @@
+package com.example.aeriboat.sim;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.WireFormat;
+
+import java.net.SocketAddress;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Состояние одной симулируемой лодки: модель {@link BoatModel}, продвигаемая
+ * по реальному времени, и последний клиент. Используется только потоком
+ * {@link EspSimulator}.
+ *
+ * @since 1.1
+ */
+class SimulatedBoat {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final int index;
+    private final DatagramChannel channel;
+    private final double startLatitude;
+    private final double startLongitude;
+    private final BoatModel model;
+    private long lastUpdateNanos;
+
+    // Последний клиент и его формат кадров
+    SocketAddress peer;
+    WireFormat peerFormat = WireFormat.JSON;
+    long nextPushNanos;
+
+    // Подписка на поток телеметрии: период 0 - подписки нет
+    SocketAddress streamPeer;
+    WireFormat streamFormat = WireFormat.JSON;
+    long streamPeriodNanos;
+    long streamLeaseExpiresNanos;
+    long nextStreamNanos;
+    int streamSequence;
+
+    SimulatedBoat(int index, DatagramChannel channel, long nowNanos) {
+        this.index = index;
+        this.channel = channel;
+        this.startLatitude = 55.7555 + index * 0.001;
+        this.startLongitude = 37.6177;
+        this.model = new BoatModel(startLatitude, startLongitude);
+        this.lastUpdateNanos = nowNanos;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    DatagramChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Применяет уставку после продвижения модели до текущего момента.
+     *
+     * @param newAngle Угол или -1, если не задан
+     * @param newSpeed Скорость или -1, если не задана
+     * @param nowNanos Текущее время
+     */
+    void applyCommand(int newAngle, int newSpeed, long nowNanos) {
+        advance(nowNanos);
+        model.setCommand(newAngle >= 0 ? newAngle : model.getAngle(), newSpeed >= 0 ? newSpeed : model.getSpeed());
+    }
+
+    /**
+     * Продвигает модель до текущего момента и заполняет телеметрию.
+     *
+     * @param telemetry Объект, в который записывается результат
+     * @param nowNanos Текущее время
+     */
+    void fillTelemetry(AirboatTelemetry telemetry, long nowNanos) {
+        advance(nowNanos);
+
+        double latitude = model.getLatitude();
+        double longitude = model.getLongitude();
+        double northMeters = (latitude - startLatitude) * METERS_PER_DEGREE;
+        double eastMeters = (longitude - startLongitude) * METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        double distance = Math.hypot(northMeters, eastMeters);
+
+        telemetry.setWifiSignalLevel(Math.max(-90, -35 - Math.round(distance / 10)));
+        telemetry.setBatteryVoltage(Math.round(model.getBatteryMillivolts()));
+        telemetry.setLatitude(model.getLatitudeMicro());
+        telemetry.setLongitude(model.getLongitudeMicro());
+        telemetry.setCourse(Math.round(model.getCourse()) % 360);
+    }
+
+    /**
+     * Продвигает модель на время, прошедшее с предыдущего обновления.
+     */
+    private void advance(long nowNanos) {
+        double seconds = (nowNanos - lastUpdateNanos) / 1e9;
+        lastUpdateNanos = nowNanos;
+        model.step(seconds);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.aeriboat.sim;
+
+/**
+ * Параметры симулятора ESP32: число лодок, порты и свойства канала.
+ * <p>
+ * Задержка ответа складывается из базовой задержки и равномерного разброса
+ * ±jitter. Переупорядоченные пакеты получают дополнительную задержку и
+ * приходят позже отправленных после них.
+ *
+ * @since 1.1
+ */
+public class SimulatorConfig {
+
+    public static final int DEFAULT_BASE_PORT = 12345;
+
+    private int boatCount = 1;
+    private int basePort = DEFAULT_BASE_PORT;
+    private String bindAddress = "0.0.0.0";
+    private long latencyMillis;
+    private long jitterMillis;
+    private double lossRate;
+    private double reorderRate;
+    private double telemetryRateHz;
+    private boolean binarySupported = true;
+    private boolean streamSupported = true;
+    private long seed = System.nanoTime();
+
+    /**
+     * Возвращает число симулируемых лодок.
+     *
+     * @return Число лодок
+     */
+    public int getBoatCount() {
+        return boatCount;
+    }
+
+    /**
+     * Устанавливает число симулируемых лодок; каждая слушает свой порт.
+     *
+     * @param boatCount Число лодок (не меньше 1)
+     */
+    public void setBoatCount(int boatCount) {
+        if (boatCount < 1) {
+            throw new IllegalArgumentException("Число лодок должно быть не меньше 1: " + boatCount);
+        }
+        this.boatCount = boatCount;
+    }
+
+    /**
+     * Возвращает порт первой лодки.
+     *
+     * @return UDP порт
+     */
+    public int getBasePort() {
+        return basePort;
+    }
+
+    /**
+     * Устанавливает порт первой лодки; остальные занимают следующие порты подряд.
+     * Значение 0 выбирает свободные порты автоматически.
+     *
+     * @param basePort UDP порт
+     */
+    public void setBasePort(int basePort) {
+        this.basePort = basePort;
+    }
+
+    /**
+     * Возвращает адрес, на котором слушают лодки.
+     *
+     * @return IP адрес
+     */
+    public String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * Устанавливает адрес, на котором слушают лодки.
+     *
+     * @param bindAddress IP адрес
+     */
+    public void setBindAddress(String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Возвращает базовую задержку ответа.
+     *
+     * @return Задержка (мс)
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Устанавливает базовую задержку ответа.
+     *
+     * @param latencyMillis Задержка (мс)
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+    }
+
+    /**
+     * Возвращает разброс задержки.
+     *
+     * @return Разброс (мс)
+     */
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    /**
+     * Устанавливает разброс задержки (±).
+     *
+     * @param jitterMillis Разброс (мс)
+     */
+    public void setJitterMillis(long jitterMillis) {
+        this.jitterMillis = Math.max(0, jitterMillis);
+    }
+
+    /**
+     * Возвращает долю теряемых пакетов.
+     *
+     * @return Доля (0-1)
+     */
+    public double getLossRate() {
+        return lossRate;
+    }
+
+    /**
+     * Устанавливает долю теряемых пакетов (в обоих направлениях).
+     *
+     * @param lossRate Доля (0-1)
+     */
+    public void setLossRate(double lossRate) {
+        this.lossRate = clampRate(lossRate);
+    }
+
+    /**
+     * Возвращает долю переупорядочиваемых ответов.
+     *
+     * @return Доля (0-1)
+     */
+    public double getReorderRate() {
+        return reorderRate;
+    }
+
+    /**
+     * Устанавливает долю ответов, которые задерживаются дольше последующих.
+     *
+     * @param reorderRate Доля (0-1)
+     */
+    public void setReorderRate(double reorderRate) {
+        this.reorderRate = clampRate(reorderRate);
+    }
+
+    /**
+     * Возвращает частоту телеметрии без запроса.
+     *
+     * @return Частота (Гц), 0 - только ответы на запросы
+     */
+    public double getTelemetryRateHz() {
+        return telemetryRateHz;
+    }
+
+    /**
+     * Устанавливает частоту, с которой лодка сама шлет телеметрию последнему
+     * клиенту. Такие пакеты идут без номера последовательности.
+     *
+     * @param telemetryRateHz Частота (Гц), 0 - только ответы на запросы
+     */
+    public void setTelemetryRateHz(double telemetryRateHz) {
+        this.telemetryRateHz = Math.max(0, telemetryRateHz);
+    }
+
+    /**
+     * Проверяет, подтверждает ли симулятор бинарный протокол.
+     *
+     * @return true если рукопожатие {@code {"proto":1}} подтверждается
+     */
+    public boolean isBinarySupported() {
+        return binarySupported;
+    }
+
+    /**
+     * Включает или выключает поддержку бинарного протокола
+     * (выключенная имитирует прежнюю прошивку).
+     *
+     * @param binarySupported true если рукопожатие подтверждается
+     */
+    public void setBinarySupported(boolean binarySupported) {
+        this.binarySupported = binarySupported;
+    }
+
+    /**
+     * Проверяет, поддерживает ли симулятор подписку на поток телеметрии.
+     *
+     * @return true если команда {@code subscribe} выполняется
+     */
+    public boolean isStreamSupported() {
+        return streamSupported;
+    }
+
+    /**
+     * Включает или выключает поддержку подписки на поток телеметрии
+     * (выключенная имитирует прежнюю прошивку, которая только отвечает на запросы).
+     *
+     * @param streamSupported true если команда {@code subscribe} выполняется
+     */
+    public void setStreamSupported(boolean streamSupported) {
+        this.streamSupported = streamSupported;
+    }
+
+    /**
+     * Возвращает начальное значение генератора случайных чисел.
+     *
+     * @return Seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Устанавливает начальное значение генератора, чтобы потери и задержки повторялись.
+     *
+     * @param seed Seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    private static double clampRate(double rate) {
+        return Math.max(0, Math.min(1, rate));
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatorConfig{" +
+                "boatCount=" + boatCount +
+                ", basePort=" + basePort +
+                ", bindAddress='" + bindAddress + '\'' +
+                ", latencyMillis=" + latencyMillis +
+                ", jitterMillis=" + jitterMillis +
+                ", lossRate=" + lossRate +
+                ", reorderRate=" + reorderRate +
+                ", telemetryRateHz=" + telemetryRateHz +
+                ", binarySupported=" + binarySupported +
+                ", streamSupported=" + streamSupported +
+                ", seed=" + seed +
+                '}';
+    }
+}
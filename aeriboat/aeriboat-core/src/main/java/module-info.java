@@ -0,0 +1,22 @@
+module com.example.aeriboat.core {
+    // Jackson JSON библиотека
+    requires transitive com.fasterxml.jackson.databind;
+
+    // Открываем модели для Jackson
+    opens com.example.aeriboat.model to com.fasterxml.jackson.databind;
+
+    exports com.example.aeriboat.autopilot;
+    exports com.example.aeriboat.export;
+    exports com.example.aeriboat.failsafe;
+    exports com.example.aeriboat.fleet;
+    exports com.example.aeriboat.gateway;
+    exports com.example.aeriboat.geofence;
+    exports com.example.aeriboat.headless;
+    exports com.example.aeriboat.history;
+    exports com.example.aeriboat.metrics;
+    exports com.example.aeriboat.model;
+    exports com.example.aeriboat.protocol;
+    exports com.example.aeriboat.recorder;
+    exports com.example.aeriboat.service;
+    exports com.example.aeriboat.sim;
+}
@@ -0,0 +1,184 @@
+package com.example.aeriboat.export;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.model.AirboatTelemetry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Проверка записи и чтения экспорта: значения с отрицательными разностями,
+ * неровные метки времени (разности второго порядка), границы блоков и
+ * пропуск блоков по интервалу.
+ */
+class TelemetryExportTest {
+
+    private static final int BLOCK_ROWS = 16;
+
+    @Test
+    void roundTripAcrossBlocks() throws IOException {
+        int count = 5 * BLOCK_ROWS + 3;
+        long[] timestamps = new long[count];
+        long[][] values = new long[TelemetryField.values().length][count];
+        Random random = new Random(7);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            // Ровный шаг 50 мс с дрожанием, паузами и повторами метки
+            time += i % 23 == 0 ? 5000 : i % 11 == 0 ? 0 : 50 + random.nextInt(7) - 3;
+            timestamps[i] = time;
+            values[TelemetryField.WIFI_SIGNAL_LEVEL.ordinal()][i] = -40 - random.nextInt(50);
+            values[TelemetryField.BATTERY_VOLTAGE.ordinal()][i] = 4200 - i * 3 + random.nextInt(5);
+            values[TelemetryField.LATITUDE.ordinal()][i] = 55_755_500 - i * 17;
+            values[TelemetryField.LONGITUDE.ordinal()][i] = 37_617_700 + (i % 2 == 0 ? i : -i) * 1000;
+            values[TelemetryField.COURSE.ordinal()][i] = (350 + i * 7) % 360;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TelemetryExportWriter writer = new TelemetryExportWriter(bytes, BLOCK_ROWS);
+        try (writer) {
+            for (int i = 0; i < count; i++) {
+                writer.write(timestamps[i], row(values, i));
+            }
+        }
+        Assertions.assertEquals(count, writer.getRowCount());
+        Assertions.assertEquals(6, writer.getBlockCount());
+        Assertions.assertEquals(bytes.size(), writer.getBytesWritten());
+
+        try (TelemetryExportReader reader = open(bytes)) {
+            AirboatTelemetry telemetry = new AirboatTelemetry();
+            for (int i = 0; i < count; i++) {
+                Assertions.assertTrue(reader.next(telemetry), "строка " + i);
+                Assertions.assertEquals(timestamps[i], reader.getTimestampMillis(), "время строки " + i);
+                for (TelemetryField field : TelemetryField.values()) {
+                    Assertions.assertEquals(values[field.ordinal()][i], field.get(telemetry), field + " строки " + i);
+                }
+            }
+            Assertions.assertFalse(reader.next(telemetry));
+            Assertions.assertEquals(6, reader.getBlocksRead());
+        }
+    }
+
+    @Test
+    void extremeValuesSurviveOverflowingDeltas() throws IOException {
+        long[] extremes = {Long.MAX_VALUE, Long.MIN_VALUE, 0, -1, Long.MAX_VALUE, 1, Long.MIN_VALUE};
+        long[] timestamps = {0, 1, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, Long.MAX_VALUE - 1, Long.MAX_VALUE,
+                Long.MAX_VALUE};
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TelemetryExportWriter writer = new TelemetryExportWriter(bytes, 4)) {
+            for (int i = 0; i < extremes.length; i++) {
+                AirboatTelemetry telemetry = new AirboatTelemetry();
+                telemetry.setLatitude(extremes[i]);
+                telemetry.setLongitude(-extremes[i]);
+                writer.write(timestamps[i], telemetry);
+            }
+        }
+
+        try (TelemetryExportReader reader = open(bytes)) {
+            AirboatTelemetry telemetry = new AirboatTelemetry();
+            for (int i = 0; i < extremes.length; i++) {
+                Assertions.assertTrue(reader.next(telemetry));
+                Assertions.assertEquals(timestamps[i], reader.getTimestampMillis());
+                Assertions.assertEquals(extremes[i], telemetry.getLatitude(), "широта строки " + i);
+                Assertions.assertEquals(-extremes[i], telemetry.getLongitude(), "долгота строки " + i);
+            }
+            Assertions.assertFalse(reader.next(telemetry));
+        }
+    }
+
+    @Test
+    void earlierTimestampIsClampedToPrevious() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TelemetryExportWriter writer = new TelemetryExportWriter(bytes, BLOCK_ROWS)) {
+            writer.write(1000, new AirboatTelemetry());
+            writer.write(900, new AirboatTelemetry());
+            writer.write(1100, new AirboatTelemetry());
+        }
+
+        long[] read = new long[3];
+        try (TelemetryExportReader reader = open(bytes)) {
+            AirboatTelemetry telemetry = new AirboatTelemetry();
+            for (int i = 0; i < read.length; i++) {
+                Assertions.assertTrue(reader.next(telemetry));
+                read[i] = reader.getTimestampMillis();
+            }
+        }
+        Assertions.assertArrayEquals(new long[]{1000, 1000, 1100}, read);
+    }
+
+    @Test
+    void timeRangeSkipsBlocksByHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TelemetryExportWriter writer = new TelemetryExportWriter(bytes, BLOCK_ROWS)) {
+            for (int i = 0; i < 10 * BLOCK_ROWS; i++) {
+                AirboatTelemetry telemetry = new AirboatTelemetry();
+                telemetry.setCourse(i % 360);
+                writer.write(i * 100L, telemetry);
+            }
+        }
+
+        long from = 3 * BLOCK_ROWS * 100L + 250;
+        long to = 5 * BLOCK_ROWS * 100L + 50;
+        try (TelemetryExportReader reader = open(bytes)) {
+            reader.setTimeRange(from, to);
+            AirboatTelemetry telemetry = new AirboatTelemetry();
+            long expected = 3 * BLOCK_ROWS * 100L + 300;
+            while (reader.next(telemetry)) {
+                Assertions.assertEquals(expected, reader.getTimestampMillis());
+                Assertions.assertEquals(expected / 100 % 360, telemetry.getCourse());
+                expected += 100;
+            }
+            Assertions.assertEquals(to - to % 100 + 100, expected);
+            Assertions.assertEquals(3, reader.getBlocksSkipped());
+            Assertions.assertEquals(3, reader.getBlocksRead());
+        }
+    }
+
+    @Test
+    void emptyExportHasNoRows() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TelemetryExportWriter writer = new TelemetryExportWriter(bytes, BLOCK_ROWS);
+        writer.close();
+        Assertions.assertEquals(ExportFormat.HEADER_SIZE, bytes.size());
+        Assertions.assertThrows(IOException.class, () -> writer.write(0, new AirboatTelemetry()));
+
+        try (TelemetryExportReader reader = open(bytes)) {
+            Assertions.assertFalse(reader.next(new AirboatTelemetry()));
+        }
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws IOException {
+        Assertions.assertThrows(IOException.class,
+                () -> new TelemetryExportReader(new ByteArrayInputStream("{\"seq\":1}   ".getBytes())));
+        Assertions.assertThrows(IOException.class, () -> new TelemetryExportReader(new ByteArrayInputStream(new byte[5])));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TelemetryExportWriter writer = new TelemetryExportWriter(bytes, BLOCK_ROWS)) {
+            for (int i = 0; i < BLOCK_ROWS; i++) {
+                writer.write(i, new AirboatTelemetry());
+            }
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 3);
+        try (TelemetryExportReader reader = new TelemetryExportReader(new ByteArrayInputStream(truncated))) {
+            Assertions.assertThrows(IOException.class, () -> reader.next(new AirboatTelemetry()));
+        }
+    }
+
+    private static AirboatTelemetry row(long[][] values, int index) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        for (TelemetryField field : TelemetryField.values()) {
+            field.set(telemetry, values[field.ordinal()][index]);
+        }
+        return telemetry;
+    }
+
+    private static TelemetryExportReader open(ByteArrayOutputStream bytes) throws IOException {
+        return new TelemetryExportReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.aeriboat.failsafe;
+
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.UdpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка эскалации сторожа WARNING - HOLD - STOP по заданным часам
+ * без потока сторожа и без сети.
+ */
+class LinkWatchdogTest {
+
+    private static final long START_NANOS = TimeUnit.SECONDS.toNanos(1000);
+
+    private FakeUdpClient udpClient;
+    private RecordingCoalescer coalescer;
+    private LinkWatchdog watchdog;
+    private List<String> transitions;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        udpClient = new FakeUdpClient();
+        udpClient.lastTelemetryNanos = START_NANOS;
+        coalescer = new RecordingCoalescer();
+        now = START_NANOS;
+        watchdog = new LinkWatchdog(udpClient, coalescer, () -> now);
+        transitions = new ArrayList<>();
+        watchdog.addListener((previous, level, silenceMillis) ->
+                transitions.add(previous.name() + ">" + level.name() + "@" + silenceMillis));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void escalatesThroughLevels() {
+        checkAt(500);
+        Assertions.assertEquals(FailsafeLevel.NORMAL, watchdog.getLevel());
+        Assertions.assertTrue(transitions.isEmpty());
+
+        checkAt(1000);
+        Assertions.assertEquals(FailsafeLevel.WARNING, watchdog.getLevel());
+        Assertions.assertTrue(coalescer.commands.isEmpty(), "предупреждение не отправляет команд");
+
+        checkAt(2000);
+        Assertions.assertEquals(FailsafeLevel.HOLD, watchdog.getLevel());
+        Assertions.assertEquals(List.of("hold " + LinkWatchdog.DEFAULT_HOLD_SPEED), coalescer.commands);
+
+        checkAt(2500);
+        Assertions.assertEquals(1, coalescer.commands.size());
+
+        checkAt(3000);
+        Assertions.assertEquals(FailsafeLevel.STOP, watchdog.getLevel());
+        Assertions.assertEquals("hold 0", coalescer.commands.get(1));
+        Assertions.assertEquals(List.of("NORMAL>WARNING@1000", "WARNING>HOLD@2000", "HOLD>STOP@3000"),
+                transitions);
+    }
+
+    @Test
+    void stopIsRepeatedUntilTelemetryReturns() {
+        checkAt(1000);
+        checkAt(2000);
+        checkAt(3000);
+        int sent = coalescer.commands.size();
+
+        checkAt(3100);
+        Assertions.assertEquals(sent, coalescer.commands.size());
+        checkAt(3200);
+        Assertions.assertEquals(sent + 1, coalescer.commands.size());
+        checkAt(3400);
+        Assertions.assertEquals(sent + 2, coalescer.commands.size());
+
+        udpClient.lastTelemetryNanos = START_NANOS + TimeUnit.MILLISECONDS.toNanos(3450);
+        checkAt(3500);
+        Assertions.assertEquals(FailsafeLevel.NORMAL, watchdog.getLevel());
+        Assertions.assertEquals("release", coalescer.commands.get(coalescer.commands.size() - 1));
+        Assertions.assertEquals("STOP>NORMAL@50", transitions.get(transitions.size() - 1));
+    }
+
+    @Test
+    void oversleptThresholdsStillPassThroughHold() {
+        checkAt(5000);
+        Assertions.assertEquals(FailsafeLevel.STOP, watchdog.getLevel());
+        Assertions.assertEquals(List.of("hold " + LinkWatchdog.DEFAULT_HOLD_SPEED, "hold 0"), coalescer.commands);
+        Assertions.assertEquals(List.of("NORMAL>STOP@5000"), transitions);
+        // Реакция отсчитывается от порога удержания
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(3000), watchdog.getMaxReactionNanos());
+    }
+
+    @Test
+    void warningClearsWithoutRelease() {
+        checkAt(1500);
+        udpClient.lastTelemetryNanos = now;
+        checkAt(1510);
+        Assertions.assertEquals(FailsafeLevel.NORMAL, watchdog.getLevel());
+        Assertions.assertTrue(coalescer.commands.isEmpty());
+    }
+
+    @Test
+    void customThresholdsAndHoldSpeed() {
+        watchdog.setThresholds(100, 200, 300);
+        watchdog.setHoldSpeed(35);
+        Assertions.assertEquals(35, watchdog.getHoldSpeed());
+
+        checkAt(250);
+        Assertions.assertEquals(FailsafeLevel.HOLD, watchdog.getLevel());
+        Assertions.assertEquals(List.of("hold 35"), coalescer.commands);
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), watchdog.getMaxReactionNanos());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> watchdog.setThresholds(200, 100, 300));
+    }
+
+    @Test
+    void disconnectReleasesHold() {
+        checkAt(2000);
+        Assertions.assertEquals(FailsafeLevel.HOLD, watchdog.getLevel());
+
+        udpClient.connected = false;
+        checkAt(2100);
+        Assertions.assertEquals(FailsafeLevel.NORMAL, watchdog.getLevel());
+        Assertions.assertEquals("release", coalescer.commands.get(coalescer.commands.size() - 1));
+
+        // Без соединения пауза не растит уровень
+        checkAt(10_000);
+        Assertions.assertEquals(FailsafeLevel.NORMAL, watchdog.getLevel());
+    }
+
+    private void checkAt(long millis) {
+        now = START_NANOS + TimeUnit.MILLISECONDS.toNanos(millis);
+        watchdog.check(now);
+    }
+
+    /**
+     * Клиент без сокета с управляемым временем последней телеметрии.
+     */
+    private static class FakeUdpClient extends UdpClient {
+
+        private boolean connected = true;
+        private long lastTelemetryNanos;
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public long getLastTelemetryNanos() {
+            return lastTelemetryNanos;
+        }
+    }
+
+    /**
+     * Планировщик без сети: записывает удержания и их снятие.
+     */
+    private static class RecordingCoalescer extends CommandCoalescer {
+
+        private final List<String> commands = new ArrayList<>();
+
+        RecordingCoalescer() {
+            super(null);
+        }
+
+        @Override
+        public void hold(int maxSpeed) {
+            commands.add("hold " + maxSpeed);
+        }
+
+        @Override
+        public void release() {
+            commands.add("release");
+        }
+    }
+}
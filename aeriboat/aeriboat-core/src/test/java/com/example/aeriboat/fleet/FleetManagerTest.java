@@ -0,0 +1,149 @@
+package com.example.aeriboat.fleet;
+
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.WireFormat;
+import com.example.aeriboat.sim.EspSimulator;
+import com.example.aeriboat.sim.SimulatorConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверка менеджера флота на loopback: телеметрия раздается лодкам по адресу
+ * отправителя, а рукопожатие повторяется с удвоением интервала до подтверждения.
+ */
+class FleetManagerTest {
+
+    private static final long TIMEOUT_MS = 5000;
+    // Симулятор ставит лодку с номером i на широту 55.7555 + i * 0.001
+    private static final long[] START_LATITUDES = {55_755_500, 55_756_500};
+    private static final long LATITUDE_TOLERANCE = 100;
+
+    @Test
+    void telemetryReachesBoatBySenderAddress() throws Exception {
+        SimulatorConfig config = new SimulatorConfig();
+        config.setBoatCount(2);
+        config.setBasePort(0);
+        config.setBindAddress("127.0.0.1");
+
+        try (EspSimulator simulator = new EspSimulator(config);
+             FleetManager fleet = new FleetManager(25, 20);
+             DatagramSocket stranger = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            simulator.start();
+            fleet.start();
+            BoatEndpoint[] boats = new BoatEndpoint[2];
+            for (int i = 0; i < boats.length; i++) {
+                boats[i] = fleet.addBoat("boat-" + i, "127.0.0.1", simulator.getBoatAddress(i).getPort());
+            }
+            List<String> mismatches = new ArrayList<>();
+            AtomicLong[] counts = {new AtomicLong(), new AtomicLong()};
+            fleet.addListener((boat, telemetry) -> {
+                int index = boat == boats[0] ? 0 : boat == boats[1] ? 1 : -1;
+                if (index < 0 || Math.abs(telemetry.getLatitude() - START_LATITUDES[index]) > LATITUDE_TOLERANCE) {
+                    synchronized (mismatches) {
+                        mismatches.add(boat.getName() + ": " + telemetry);
+                    }
+                    return;
+                }
+                counts[index].incrementAndGet();
+            });
+
+            // Пакет с чужого адреса не должен попасть ни к одной лодке
+            byte[] forged = "{\"seq\":1,\"latitude\":1}".getBytes(StandardCharsets.US_ASCII);
+            InetSocketAddress fleetAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    fleet.getLocalAddress().getPort());
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+            while ((counts[0].get() < 20 || counts[1].get() < 20) && System.nanoTime() - deadline < 0) {
+                stranger.send(new DatagramPacket(forged, forged.length, fleetAddress));
+                Thread.sleep(20);
+            }
+
+            synchronized (mismatches) {
+                Assertions.assertEquals(List.of(), mismatches);
+            }
+            for (int i = 0; i < boats.length; i++) {
+                Assertions.assertTrue(counts[i].get() >= 20, "пакетов лодки " + i + ": " + counts[i]);
+                Assertions.assertTrue(Math.abs(boats[i].getLatestTelemetry().getLatitude() - START_LATITUDES[i])
+                        <= LATITUDE_TOLERANCE);
+                // Симулятор поддерживает бинарный протокол: рукопожатие подтверждено
+                Assertions.assertEquals(WireFormat.BINARY, boats[i].getWireFormat());
+            }
+        }
+    }
+
+    @Test
+    void helloIsRetriedWithBackoffUntilAcknowledged() throws Exception {
+        try (DatagramSocket boatSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+             FleetManager fleet = new FleetManager(25, 5)) {
+            boatSocket.setSoTimeout(100);
+            fleet.start();
+            BoatEndpoint boat = fleet.addBoat("boat", "127.0.0.1", boatSocket.getLocalPort());
+
+            // Первое предложение сразу, затем через 250, 500 и 1000 мс
+            List<Long> hellos = new ArrayList<>();
+            SocketAddress fleetAddress = null;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+            while (hellos.size() < 4 && System.nanoTime() - deadline < 0) {
+                DatagramPacket packet = receive(boatSocket);
+                if (packet != null && isHello(packet)) {
+                    hellos.add(System.nanoTime());
+                    fleetAddress = packet.getSocketAddress();
+                }
+            }
+            Assertions.assertEquals(4, hellos.size());
+            for (int i = 1; i < hellos.size(); i++) {
+                long intervalMillis = TimeUnit.NANOSECONDS.toMillis(hellos.get(i) - hellos.get(i - 1));
+                long expected = FleetManager.HELLO_RETRY_MS << (i - 1);
+                Assertions.assertTrue(intervalMillis >= expected - 20 && intervalMillis <= expected + 200,
+                        "интервал " + i + ": " + intervalMillis + " мс");
+            }
+            Assertions.assertEquals(WireFormat.JSON, boat.getWireFormat());
+
+            ByteBuffer ack = ByteBuffer.allocate(16);
+            BinaryProtocol.encodeHelloAck(ack, BinaryProtocol.VERSION);
+            boatSocket.send(new DatagramPacket(ack.array(), ack.position(), fleetAddress));
+
+            // После подтверждения предложений больше нет (пятое ушло бы через 2 с), а запросы идут бинарными кадрами
+            int binaryPolls = 0;
+            long quiet = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((FleetManager.HELLO_RETRY_MS << 3) + 500);
+            while (System.nanoTime() - quiet < 0) {
+                DatagramPacket packet = receive(boatSocket);
+                if (packet != null) {
+                    Assertions.assertFalse(isHello(packet), "предложение после подтверждения");
+                    if (BinaryProtocol.isBinaryFrame(ByteBuffer.wrap(packet.getData(), 0, packet.getLength()))) {
+                        binaryPolls++;
+                    }
+                }
+            }
+            Assertions.assertEquals(WireFormat.BINARY, boat.getWireFormat());
+            Assertions.assertTrue(binaryPolls > 0);
+        }
+    }
+
+    private static DatagramPacket receive(DatagramSocket socket) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[512], 512);
+        try {
+            socket.receive(packet);
+            return packet;
+        } catch (SocketTimeoutException e) {
+            return null;
+        }
+    }
+
+    private static boolean isHello(DatagramPacket packet) {
+        return new String(packet.getData(), 0, packet.getLength(), StandardCharsets.US_ASCII).contains("\"proto\"");
+    }
+}
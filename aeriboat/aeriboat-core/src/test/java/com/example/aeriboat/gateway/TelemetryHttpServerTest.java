@@ -0,0 +1,272 @@
+package com.example.aeriboat.gateway;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Проверка HTTP сервера телеметрии на loopback: снимок по запросу, поток
+ * событий с последним снимком в начале, пропуск событий медленным подписчиком
+ * с возвратом снимков в пул, отказы по пути, методу и числу соединений.
+ */
+class TelemetryHttpServerTest {
+
+    private static final int TIMEOUT_MS = 5000;
+    private static final long SLOW_LATITUDE = 777;
+
+    private TelemetryHttpServer server;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new TelemetryHttpServer(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void snapshotBeforeTelemetryIsNoContent() throws IOException {
+        String response = exchange("GET /telemetry HTTP/1.1\r\nHost: test\r\n\r\n");
+
+        Assertions.assertTrue(response.startsWith("HTTP/1.1 204 No Content\r\n"), response);
+        Assertions.assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    void snapshotIsJsonWithLengthAndClosesConnection() throws IOException {
+        server.onTelemetry(telemetry(1));
+        server.onTelemetry(telemetry(2));
+
+        // exchange читает до конца потока: сервер сам закрывает соединение
+        String response = exchange("GET /telemetry?fields=all HTTP/1.1\r\nHost: test\r\n\r\n");
+        int headerEnd = response.indexOf("\r\n\r\n");
+        String header = response.substring(0, headerEnd);
+        String body = response.substring(headerEnd + 4);
+
+        Assertions.assertTrue(header.startsWith("HTTP/1.1 200 OK\r\n"), header);
+        Assertions.assertTrue(header.contains("Content-Type: application/json\r\n"), header);
+        Assertions.assertTrue(header.contains("Connection: close"), header);
+        Assertions.assertTrue(header.contains("Content-Length: " + body.length()), header);
+        Assertions.assertTrue(body.startsWith("{\"seq\":2,\"timestamp_ms\":"), body);
+        Assertions.assertTrue(body.endsWith(",\"wifi_signal_level\":-52,\"battery_voltage\":11002"
+                + ",\"latitude\":55755502,\"longitude\":37617302,\"course\":2}"), body);
+    }
+
+    @Test
+    void eventsStartWithLatestSnapshotThenFollowNewOnes() throws IOException {
+        server.onTelemetry(telemetry(1));
+        server.onTelemetry(telemetry(2));
+
+        Socket socket = connect();
+        InputStream in = subscribe(socket);
+        String event = readUntil(in, "\n\n");
+        Assertions.assertEquals(2, eventId(event), event);
+        Assertions.assertTrue(event.contains("\"latitude\":55755502"), event);
+        Assertions.assertEquals(1, server.getSubscribers());
+
+        for (int i = 3; i <= 5; i++) {
+            server.onTelemetry(telemetry(i));
+            event = readUntil(in, "\n\n");
+            Assertions.assertEquals(i, eventId(event), event);
+            Assertions.assertTrue(event.contains("\"course\":" + i + "}"), event);
+        }
+        Assertions.assertEquals(0, server.getSkippedEvents());
+
+        socket.close();
+        await(() -> server.getSubscribers() == 0);
+        Assertions.assertEquals(1, server.getSnapshotsInUse());
+    }
+
+    @Test
+    void slowSubscriberSkipsEventsAndReleasesSnapshots() throws IOException {
+        Socket socket = slowSubscriber();
+        InputStream in = subscribe(socket);
+        int published = publishUntilSkipped();
+
+        AirboatTelemetry last = telemetry(++published);
+        last.setLatitude(SLOW_LATITUDE);
+        server.onTelemetry(last);
+
+        // После разгрузки подписчик получает последний снимок, номера событий только растут
+        long previousId = 0;
+        int received = 0;
+        String event;
+        do {
+            event = readUntil(in, "\n\n");
+            long id = eventId(event);
+            Assertions.assertTrue(id > previousId, event);
+            previousId = id;
+            received++;
+        } while (!event.contains("\"latitude\":" + SLOW_LATITUDE));
+        Assertions.assertEquals(published, previousId);
+        Assertions.assertTrue(received < published);
+
+        socket.close();
+        await(() -> server.getSubscribers() == 0 && server.getSnapshotsInUse() == 1);
+        Assertions.assertEquals(1, server.getSnapshotsInUse());
+    }
+
+    @Test
+    void subscriberClosedWhileBlockedReleasesSnapshots() throws IOException {
+        Socket socket = slowSubscriber();
+        subscribe(socket);
+        publishUntilSkipped();
+
+        // Отправляемый и ожидающий снимки отброшенного подписчика возвращаются в пул
+        socket.close();
+        await(() -> server.getSubscribers() == 0 && server.getSnapshotsInUse() == 1);
+        Assertions.assertEquals(1, server.getSnapshotsInUse());
+    }
+
+    @Test
+    void unknownPathAndMethodAreRejected() throws IOException {
+        Assertions.assertTrue(exchange("GET /status HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 404 Not Found\r\n"));
+        Assertions.assertTrue(exchange("POST /telemetry HTTP/1.1\r\nContent-Length: 0\r\n\r\n")
+                .startsWith("HTTP/1.1 405 Method Not Allowed\r\n"));
+        Assertions.assertEquals(2, server.getRequests());
+    }
+
+    @Test
+    void connectionsOverLimitAreClosed() throws IOException {
+        List<Socket> idle = new ArrayList<>();
+        for (int i = 0; i < TelemetryHttpServer.MAX_CLIENTS; i++) {
+            idle.add(connect());
+        }
+
+        // Лишнее соединение закрывается сразу после приема
+        Socket extra = connect();
+        Assertions.assertEquals(-1, extra.getInputStream().read());
+
+        // После ухода одного клиента место освобождается
+        idle.get(0).close();
+        await(() -> {
+            try {
+                return exchange("GET /telemetry HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 204");
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private static AirboatTelemetry telemetry(int index) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setWifiSignalLevel(-50 - index % 40);
+        telemetry.setBatteryVoltage(11_000 + index % 1000);
+        telemetry.setLatitude(55_755_500 + index);
+        telemetry.setLongitude(37_617_300 + index);
+        telemetry.setCourse(index % 360);
+        return telemetry;
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setSoTimeout(TIMEOUT_MS);
+        sockets.add(socket);
+        socket.connect(server.getAddress());
+        return socket;
+    }
+
+    /**
+     * Открывает соединение с маленьким приемным буфером для подписчика, который не читает.
+     */
+    private Socket slowSubscriber() throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.setSoTimeout(TIMEOUT_MS);
+        sockets.add(socket);
+        socket.connect(server.getAddress());
+        return socket;
+    }
+
+    /**
+     * Публикует телеметрию, пока буферы подписчика не заполнятся и сервер не начнет пропускать события.
+     *
+     * @return Число опубликованных снимков
+     */
+    private int publishUntilSkipped() {
+        await(() -> server.getSubscribers() == 1);
+        int published = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (server.getSkippedEvents() == 0 && System.nanoTime() - deadline < 0) {
+            server.onTelemetry(telemetry(++published));
+            Thread.yield();
+        }
+        Assertions.assertTrue(server.getSkippedEvents() > 0);
+        return published;
+    }
+
+    /**
+     * Отправляет запрос и читает ответ до закрытия соединения сервером.
+     */
+    private String exchange(String request) throws IOException {
+        Socket socket = connect();
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        socket.close();
+        return response;
+    }
+
+    /**
+     * Подписывается на поток событий и пропускает заголовок ответа.
+     */
+    private static InputStream subscribe(Socket socket) throws IOException {
+        socket.getOutputStream().write("GET /events HTTP/1.1\r\nAccept: text/event-stream\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        String header = readUntil(in, "\r\n\r\n");
+        Assertions.assertTrue(header.startsWith("HTTP/1.1 200 OK\r\n"), header);
+        Assertions.assertTrue(header.contains("Content-Type: text/event-stream\r\n"), header);
+        Assertions.assertEquals("retry: 1000", readUntil(in, "\n\n"));
+        return in;
+    }
+
+    /**
+     * Читает поток до разделителя и возвращает прочитанное без него.
+     */
+    private static String readUntil(InputStream in, String terminator) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < terminator.length()) {
+            int b = in.read();
+            Assertions.assertTrue(b >= 0, "соединение закрыто: " + bytes);
+            bytes.write(b);
+            // В разделителях нет повторяющегося начала, поэтому при несовпадении сравнение начинается заново
+            matched = b == terminator.charAt(matched) ? matched + 1 : b == terminator.charAt(0) ? 1 : 0;
+        }
+        String text = bytes.toString(StandardCharsets.US_ASCII);
+        return text.substring(0, text.length() - terminator.length());
+    }
+
+    private static long eventId(String event) {
+        Assertions.assertTrue(event.startsWith("id: "), event);
+        return Long.parseLong(event.substring(4, event.indexOf('\n')));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() - deadline < 0, "условие не выполнено за " + TIMEOUT_MS + " мс");
+            Thread.onSpinWait();
+        }
+    }
+}
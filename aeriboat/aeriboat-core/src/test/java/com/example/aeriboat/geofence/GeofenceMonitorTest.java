@@ -0,0 +1,156 @@
+package com.example.aeriboat.geofence;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.CommandCoalescer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверка переходов монитора: одна остановка на нарушение, повторная
+ * остановка только после возврата в допустимую область.
+ */
+class GeofenceMonitorTest {
+
+    private CountingCoalescer coalescer;
+    private GeofenceMonitor monitor;
+    private List<GeofenceViolation> events;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new CountingCoalescer();
+        monitor = new GeofenceMonitor(coalescer);
+        events = new ArrayList<>();
+        monitor.addListener(events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void keepOutStopsOncePerEntry() {
+        Geofence bridge = GeofenceTest.square("Мост", GeofenceType.KEEP_OUT, 100, 100, 50);
+        monitor.setFences(List.of(bridge));
+
+        monitor.onTelemetry(position(10, 10));
+        Assertions.assertFalse(monitor.isViolating());
+        Assertions.assertEquals(0, coalescer.stops);
+
+        monitor.onTelemetry(position(120, 120));
+        Assertions.assertTrue(monitor.isViolating());
+        Assertions.assertEquals(1, coalescer.stops);
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertSame(bridge, events.get(0).getFence());
+        Assertions.assertEquals(120, events.get(0).getLatitude());
+
+        // Пока лодка в зоне, остановка не повторяется
+        monitor.onTelemetry(position(121, 121));
+        monitor.onTelemetry(position(122, 122));
+        Assertions.assertEquals(1, coalescer.stops);
+        Assertions.assertEquals(1, monitor.getViolations());
+
+        monitor.onTelemetry(position(10, 10));
+        Assertions.assertFalse(monitor.isViolating());
+
+        monitor.onTelemetry(position(130, 130));
+        Assertions.assertEquals(2, coalescer.stops);
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(2, monitor.getViolations());
+        Assertions.assertEquals(6, monitor.getChecks());
+    }
+
+    @Test
+    void leavingOperatingAreaStops() {
+        monitor.setFences(List.of(GeofenceTest.square("Пруд", GeofenceType.OPERATING_AREA, 0, 0, 100)));
+
+        monitor.onTelemetry(position(50, 50));
+        Assertions.assertEquals(0, coalescer.stops);
+
+        monitor.onTelemetry(position(150, 50));
+        Assertions.assertEquals(1, coalescer.stops);
+        Assertions.assertNull(events.get(0).getFence());
+
+        monitor.onTelemetry(position(60, 50));
+        Assertions.assertFalse(monitor.isViolating());
+    }
+
+    @Test
+    void keepOutInsideOperatingArea() {
+        Geofence island = GeofenceTest.square("Остров", GeofenceType.KEEP_OUT, 40, 40, 20);
+        monitor.setFences(List.of(GeofenceTest.square("Пруд", GeofenceType.OPERATING_AREA, 0, 0, 100), island));
+
+        monitor.onTelemetry(position(10, 10));
+        monitor.onTelemetry(position(50, 50));
+        Assertions.assertEquals(1, coalescer.stops);
+        Assertions.assertSame(island, events.get(0).getFence());
+    }
+
+    @Test
+    void ignoresMissingFixAndEmptyFences() {
+        monitor.onTelemetry(position(10, 10));
+        Assertions.assertEquals(0, monitor.getChecks());
+
+        monitor.setFences(List.of(GeofenceTest.square("Пруд", GeofenceType.OPERATING_AREA, 10, 10, 100)));
+        // Нулевые координаты - нет GPS фиксации, а не точка вне зоны
+        monitor.onTelemetry(position(0, 0));
+        Assertions.assertEquals(0, monitor.getChecks());
+        Assertions.assertEquals(0, coalescer.stops);
+    }
+
+    @Test
+    void replacingFencesClearsViolation() {
+        monitor.setFences(List.of(GeofenceTest.square("Мост", GeofenceType.KEEP_OUT, 0, 0, 100)));
+        monitor.onTelemetry(position(50, 50));
+        Assertions.assertTrue(monitor.isViolating());
+
+        // После замены набора та же точка считается новым нарушением
+        monitor.setFences(List.of(GeofenceTest.square("Мост", GeofenceType.KEEP_OUT, 0, 0, 100)));
+        Assertions.assertFalse(monitor.isViolating());
+        monitor.onTelemetry(position(50, 50));
+        Assertions.assertEquals(2, coalescer.stops);
+    }
+
+    @Test
+    void failingListenerDoesNotBreakOthers() {
+        monitor.addListener(violation -> {
+            throw new IllegalStateException("сбой слушателя");
+        });
+        List<GeofenceViolation> late = new ArrayList<>();
+        monitor.addListener(late::add);
+        monitor.setFences(List.of(GeofenceTest.square("Мост", GeofenceType.KEEP_OUT, 0, 0, 100)));
+
+        monitor.onTelemetry(position(50, 50));
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(1, late.size());
+    }
+
+    private static AirboatTelemetry position(long latitude, long longitude) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setLatitude(latitude);
+        telemetry.setLongitude(longitude);
+        return telemetry;
+    }
+
+    /**
+     * Планировщик без сети: считает команды остановки.
+     */
+    private static class CountingCoalescer extends CommandCoalescer {
+
+        private int stops;
+
+        CountingCoalescer() {
+            super(null);
+        }
+
+        @Override
+        public void stop() {
+            stops++;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.aeriboat.geofence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверка принадлежности точки геозоне, в том числе на ребрах и в вершинах,
+ * и поиска по индексу.
+ */
+class GeofenceTest {
+
+    @Test
+    void interiorAndExterior() {
+        Geofence square = square("квадрат", GeofenceType.KEEP_OUT, 0, 0, 10);
+        Assertions.assertTrue(square.contains(5, 5));
+        Assertions.assertFalse(square.contains(-1, 5));
+        Assertions.assertFalse(square.contains(5, 11));
+        Assertions.assertFalse(square.contains(20, 20));
+    }
+
+    @Test
+    void edgesAreHalfOpen() {
+        Geofence square = square("квадрат", GeofenceType.KEEP_OUT, 0, 0, 10);
+        // Нижнее и левое ребра принадлежат зоне, верхнее и правое - нет
+        Assertions.assertTrue(square.contains(0, 5));
+        Assertions.assertTrue(square.contains(5, 0));
+        Assertions.assertFalse(square.contains(10, 5));
+        Assertions.assertFalse(square.contains(5, 10));
+    }
+
+    @Test
+    void verticesFollowEdgeRule() {
+        Geofence square = square("квадрат", GeofenceType.KEEP_OUT, 0, 0, 10);
+        Assertions.assertTrue(square.contains(0, 0));
+        Assertions.assertFalse(square.contains(0, 10));
+        Assertions.assertFalse(square.contains(10, 0));
+        Assertions.assertFalse(square.contains(10, 10));
+    }
+
+    @Test
+    void sharedEdgeBelongsToExactlyOneFence() {
+        Geofence left = square("левый", GeofenceType.OPERATING_AREA, 0, 0, 10);
+        Geofence right = square("правый", GeofenceType.OPERATING_AREA, 0, 10, 10);
+        for (long latitude = 0; latitude < 10; latitude++) {
+            Assertions.assertTrue(left.contains(latitude, 10) ^ right.contains(latitude, 10),
+                    "широта " + latitude);
+        }
+    }
+
+    @Test
+    void concavePolygonExcludesNotch() {
+        // Буква П: выемка сверху по долготе 4-6
+        long[] latitudes = {0, 0, 10, 10, 4, 4, 10, 10};
+        long[] longitudes = {0, 10, 10, 6, 6, 4, 4, 0};
+        Geofence fence = new Geofence("п", GeofenceType.KEEP_OUT, latitudes, longitudes);
+
+        Assertions.assertTrue(fence.contains(2, 5));
+        Assertions.assertTrue(fence.contains(8, 2));
+        Assertions.assertTrue(fence.contains(8, 8));
+        Assertions.assertFalse(fence.contains(8, 5));
+        // Вершина выемки на нижнем ребре выемки: ребро нижнее для выемки, но верхнее для зоны
+        Assertions.assertFalse(fence.contains(4, 5));
+    }
+
+    @Test
+    void boundsAndValidation() {
+        Geofence triangle = new Geofence("треугольник", GeofenceType.KEEP_OUT,
+                new long[]{-5, 5, 0}, new long[]{0, 0, 8});
+        Assertions.assertEquals(-5, triangle.getMinLatitude());
+        Assertions.assertEquals(5, triangle.getMaxLatitude());
+        Assertions.assertEquals(8, triangle.getMaxLongitude());
+        Assertions.assertEquals(3, triangle.getVertexCount());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Geofence("отрезок", GeofenceType.KEEP_OUT, new long[]{0, 1}, new long[]{0, 1}));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Geofence("разные", GeofenceType.KEEP_OUT, new long[]{0, 1, 2}, new long[]{0, 1}));
+    }
+
+    @Test
+    void indexMatchesBruteForce() {
+        List<Geofence> fences = new ArrayList<>();
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 20; column++) {
+                GeofenceType type = (row + column) % 3 == 0 ? GeofenceType.OPERATING_AREA : GeofenceType.KEEP_OUT;
+                fences.add(square(row + ":" + column, type, row * 100, column * 100, 60));
+            }
+        }
+        GeofenceIndex index = new GeofenceIndex(fences);
+        Assertions.assertEquals(400, index.size());
+        Assertions.assertTrue(index.hasOperatingAreas());
+
+        for (long latitude = -50; latitude < 2050; latitude += 7) {
+            for (long longitude = -50; longitude < 2050; longitude += 13) {
+                for (GeofenceType type : GeofenceType.values()) {
+                    Assertions.assertSame(bruteForce(fences, latitude, longitude, type),
+                            index.findContaining(latitude, longitude, type),
+                            latitude + ", " + longitude + " " + type);
+                }
+            }
+        }
+    }
+
+    @Test
+    void indexFindsFenceOnOuterEdge() {
+        Geofence fence = square("зона", GeofenceType.KEEP_OUT, 1000, 2000, 500);
+        GeofenceIndex index = new GeofenceIndex(List.of(fence));
+
+        Assertions.assertSame(fence, index.findContaining(1000, 2000, GeofenceType.KEEP_OUT));
+        Assertions.assertNull(index.findContaining(1500, 2500, GeofenceType.KEEP_OUT));
+        Assertions.assertNull(index.findContaining(999, 2000, GeofenceType.KEEP_OUT));
+        Assertions.assertNull(index.findContaining(1200, 2200, GeofenceType.OPERATING_AREA));
+        Assertions.assertFalse(index.hasOperatingAreas());
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        GeofenceIndex index = GeofenceIndex.empty();
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertNull(index.findContaining(0, 0, GeofenceType.KEEP_OUT));
+    }
+
+    static Geofence square(String name, GeofenceType type, long latitude, long longitude, long side) {
+        return new Geofence(name, type,
+                new long[]{latitude, latitude, latitude + side, latitude + side},
+                new long[]{longitude, longitude + side, longitude + side, longitude});
+    }
+
+    private static Geofence bruteForce(List<Geofence> fences, long latitude, long longitude, GeofenceType type) {
+        for (Geofence fence : fences) {
+            if (fence.getType() == type && fence.contains(latitude, longitude)) {
+                return fence;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.aeriboat.history;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Проверка кольцевого буфера истории: затирание старых отсчетов,
+ * чтение новых по порядковому номеру и запросы по интервалу.
+ */
+class TelemetryHistoryTest {
+
+    @Test
+    void capacityRoundsUpToPage() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        Assertions.assertEquals(65536, history.getCapacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TelemetryHistory(0));
+    }
+
+    @Test
+    void emptyHistory() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        Assertions.assertEquals(0, history.size());
+        Assertions.assertEquals(-1, history.getFirstTimestamp());
+        Assertions.assertEquals(-1, history.getLastTimestamp());
+        Assertions.assertEquals(0, history.aggregate(TelemetryField.COURSE, 0, Long.MAX_VALUE).getCount());
+    }
+
+    @Test
+    void overwritesOldestWhenFull() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        int capacity = history.getCapacity();
+        for (int i = 0; i < capacity + 5; i++) {
+            history.append(i, telemetry(i));
+        }
+
+        Assertions.assertEquals(capacity, history.size());
+        Assertions.assertEquals(capacity + 5, history.getAppendedCount());
+        Assertions.assertEquals(5, history.getFirstTimestamp());
+        Assertions.assertEquals(capacity + 4, history.getLastTimestamp());
+
+        // Затертые отсчеты пропускаются: чтение начинается с самого старого хранимого
+        long[] timestamps = new long[3];
+        long[] values = new long[3];
+        Assertions.assertEquals(3, history.copySince(TelemetryField.COURSE, 0, timestamps, values));
+        Assertions.assertArrayEquals(new long[]{5, 6, 7}, timestamps);
+        Assertions.assertArrayEquals(new long[]{5, 6, 7}, values);
+
+        // Последние отсчеты лежат в начале кольца
+        Assertions.assertEquals(2, history.copySince(TelemetryField.COURSE, capacity + 3, timestamps, values));
+        Assertions.assertEquals(capacity + 3, values[0]);
+        Assertions.assertEquals(capacity + 4, values[1]);
+    }
+
+    @Test
+    void copySinceReturnsOnlyNewSamples() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        for (int i = 0; i < 4; i++) {
+            history.append(100 + i, telemetry(i));
+        }
+        long next = history.getAppendedCount();
+        history.append(200, telemetry(42));
+
+        long[] timestamps = new long[8];
+        long[][] values = new long[TelemetryField.values().length][8];
+        Assertions.assertEquals(1, history.copySince(next, timestamps, values));
+        Assertions.assertEquals(200, timestamps[0]);
+        Assertions.assertEquals(42, values[TelemetryField.COURSE.ordinal()][0]);
+        Assertions.assertEquals(-42, values[TelemetryField.WIFI_SIGNAL_LEVEL.ordinal()][0]);
+        Assertions.assertEquals(0, history.copySince(next + 1, timestamps, values));
+    }
+
+    @Test
+    void earlierTimestampIsClampedToPrevious() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        history.append(1000, telemetry(1));
+        history.append(900, telemetry(2));
+
+        Assertions.assertEquals(1000, history.getLastTimestamp());
+        Assertions.assertEquals(2, history.aggregate(TelemetryField.COURSE, 1000, 1000).getCount());
+    }
+
+    @Test
+    void rangeQueriesAreInclusive() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        for (int i = 0; i < 10; i++) {
+            history.append(i * 10, telemetry(i));
+        }
+
+        long[] timestamps = new long[10];
+        long[] values = new long[10];
+        Assertions.assertEquals(3, history.copyRange(TelemetryField.COURSE, 20, 40, timestamps, values));
+        Assertions.assertEquals(20, timestamps[0]);
+        Assertions.assertEquals(4, values[2]);
+
+        TelemetryAggregate aggregate = history.aggregate(TelemetryField.COURSE, 20, 45);
+        Assertions.assertEquals(3, aggregate.getCount());
+        Assertions.assertEquals(2, aggregate.getMin());
+        Assertions.assertEquals(4, aggregate.getMax());
+        Assertions.assertEquals(3.0, aggregate.getMean(), 1e-9);
+    }
+
+    @Test
+    void downsampleKeepsBucketExtremes() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        long[] course = {5, 9, 1, 7, 3, 8};
+        for (int i = 0; i < course.length; i++) {
+            history.append(i * 10, telemetry(course[i]));
+        }
+
+        long[] starts = new long[3];
+        long[] min = new long[3];
+        long[] max = new long[3];
+        double[] mean = new double[3];
+        Assertions.assertEquals(3, history.downsample(TelemetryField.COURSE, 0, 59, 3, starts, min, max, mean));
+        Assertions.assertArrayEquals(new long[]{0, 20, 40}, starts);
+        Assertions.assertArrayEquals(new long[]{5, 1, 3}, min);
+        Assertions.assertArrayEquals(new long[]{9, 7, 8}, max);
+        Assertions.assertEquals(7.0, mean[0], 1e-9);
+    }
+
+    @Test
+    void clearEmptiesHistory() {
+        TelemetryHistory history = new TelemetryHistory(10);
+        history.append(1, telemetry(1));
+        history.clear();
+
+        Assertions.assertEquals(0, history.size());
+        Assertions.assertEquals(0, history.getAppendedCount());
+        history.append(5, telemetry(2));
+        Assertions.assertEquals(5, history.getFirstTimestamp());
+    }
+
+    private static AirboatTelemetry telemetry(long value) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setWifiSignalLevel(-value);
+        telemetry.setBatteryVoltage(3700 + value);
+        telemetry.setLatitude(55_000_000 + value);
+        telemetry.setLongitude(37_000_000 + value);
+        telemetry.setCourse(value);
+        return telemetry;
+    }
+}
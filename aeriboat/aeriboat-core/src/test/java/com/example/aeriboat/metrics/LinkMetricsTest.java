@@ -0,0 +1,73 @@
+package com.example.aeriboat.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка итоговых счетчиков показателей канала.
+ */
+class LinkMetricsTest {
+
+    @Test
+    void accumulatesTotals() {
+        LinkMetrics metrics = new LinkMetrics();
+        long now = System.nanoTime();
+
+        metrics.recordSent(10);
+        metrics.recordSent(15);
+        metrics.recordReceived(100);
+        metrics.recordRequest();
+        metrics.recordRequest();
+        metrics.recordRequest();
+        metrics.recordResponse(TimeUnit.MILLISECONDS.toNanos(20), now);
+        metrics.recordResponse(TimeUnit.MILLISECONDS.toNanos(40), now);
+        metrics.recordTimeout(now);
+        metrics.recordDecodeFailure();
+        metrics.recordStaleResponse();
+        metrics.recordStaleResponse();
+        metrics.recordStreamPacket(0);
+        metrics.recordStreamPacket(3);
+        metrics.recordStreamPacket(-1);
+
+        Assertions.assertEquals(2, metrics.getPacketsSent());
+        Assertions.assertEquals(25, metrics.getBytesSent());
+        Assertions.assertEquals(1, metrics.getPacketsReceived());
+        Assertions.assertEquals(100, metrics.getBytesReceived());
+        Assertions.assertEquals(3, metrics.getRequests());
+        Assertions.assertEquals(2, metrics.getResponses());
+        Assertions.assertEquals(1, metrics.getTimeouts());
+        Assertions.assertEquals(1, metrics.getDecodeFailures());
+        Assertions.assertEquals(2, metrics.getStaleResponses());
+        Assertions.assertEquals(3, metrics.getStreamPackets());
+        Assertions.assertEquals(3, metrics.getStreamGaps());
+
+        RttSnapshot snapshot = metrics.getRttHistogram().snapshot(1, now);
+        Assertions.assertEquals(2, snapshot.getCount());
+        Assertions.assertEquals(1, snapshot.getLost());
+        Assertions.assertEquals(40_000, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void resetClearsTotalsAndHistogram() {
+        LinkMetrics metrics = new LinkMetrics();
+        long now = System.nanoTime();
+        metrics.recordSent(10);
+        metrics.recordReceived(10);
+        metrics.recordResponse(1000, now);
+        metrics.recordTimeout(now);
+        metrics.recordStreamPacket(2);
+
+        metrics.reset();
+
+        Assertions.assertEquals(0, metrics.getPacketsSent());
+        Assertions.assertEquals(0, metrics.getBytesReceived());
+        Assertions.assertEquals(0, metrics.getResponses());
+        Assertions.assertEquals(0, metrics.getTimeouts());
+        Assertions.assertEquals(0, metrics.getStreamGaps());
+        RttSnapshot snapshot = metrics.getRttHistogram().snapshot(RttHistogram.MAX_WINDOW_SECONDS, now);
+        Assertions.assertEquals(0, snapshot.getCount());
+        Assertions.assertEquals(0, snapshot.getLost());
+    }
+}
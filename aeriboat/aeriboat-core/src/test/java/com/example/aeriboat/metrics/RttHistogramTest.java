@@ -0,0 +1,140 @@
+package com.example.aeriboat.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка границ корзин гистограммы и смены секундных срезов.
+ */
+class RttHistogramTest {
+
+    private static final long BASE_NANOS = TimeUnit.SECONDS.toNanos(1000);
+    private static final long OUTLIER_MICROS = 1_000_000;
+
+    @Test
+    void linearBucketsAreExact() {
+        for (long micros = 0; micros < 16; micros++) {
+            Assertions.assertEquals(micros, medianBucketBound(micros), "мкс " + micros);
+        }
+    }
+
+    @Test
+    void logBucketBoundaries() {
+        Assertions.assertEquals(17, medianBucketBound(16));
+        Assertions.assertEquals(17, medianBucketBound(17));
+        Assertions.assertEquals(19, medianBucketBound(18));
+        Assertions.assertEquals(31, medianBucketBound(31));
+        Assertions.assertEquals(35, medianBucketBound(32));
+        Assertions.assertEquals(1023, medianBucketBound(1000));
+        Assertions.assertEquals(1151, medianBucketBound(1024));
+    }
+
+    @Test
+    void relativeErrorIsBounded() {
+        for (long micros = 16; micros < 200_000; micros = micros * 3 / 2 + 1) {
+            long bound = medianBucketBound(micros);
+            Assertions.assertTrue(bound >= micros, "мкс " + micros);
+            Assertions.assertTrue(bound - micros <= micros / 8, "мкс " + micros + " -> " + bound);
+        }
+    }
+
+    @Test
+    void percentilesNeverExceedExactMax() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1000), BASE_NANOS);
+
+        RttSnapshot snapshot = histogram.snapshot(1, BASE_NANOS);
+        Assertions.assertEquals(1, snapshot.getCount());
+        Assertions.assertEquals(1000, snapshot.getP50Micros());
+        Assertions.assertEquals(1000, snapshot.getP99Micros());
+        Assertions.assertEquals(1000, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void clampsToMaxTrackable() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.SECONDS.toNanos(100), BASE_NANOS);
+        histogram.record(-5, BASE_NANOS);
+
+        RttSnapshot snapshot = histogram.snapshot(1, BASE_NANOS);
+        Assertions.assertEquals(2, snapshot.getCount());
+        Assertions.assertEquals(RttHistogram.MAX_TRACKABLE_MICROS, snapshot.getMaxMicros());
+        Assertions.assertEquals(0, snapshot.getP50Micros());
+    }
+
+    @Test
+    void windowCoversLastSeconds() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(100), at(0.5));
+        histogram.recordLoss(at(0.6));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(200), at(1.5));
+
+        Assertions.assertEquals(1, histogram.snapshot(1, at(1.9)).getCount());
+        Assertions.assertEquals(0, histogram.snapshot(1, at(1.9)).getLost());
+        RttSnapshot twoSeconds = histogram.snapshot(2, at(1.9));
+        Assertions.assertEquals(2, twoSeconds.getCount());
+        Assertions.assertEquals(1, twoSeconds.getLost());
+        Assertions.assertEquals(1.0 / 3, twoSeconds.getLossRate(), 1e-9);
+        Assertions.assertEquals(0, histogram.snapshot(1, at(3.0)).getCount());
+    }
+
+    @Test
+    void reusedSliceIsResetAfterFullRotation() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(5000), at(0.5));
+        // 64 среза: через 64 секунды запись попадает в тот же срез
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(300), at(64.5));
+
+        RttSnapshot snapshot = histogram.snapshot(RttHistogram.MAX_WINDOW_SECONDS, at(64.5));
+        Assertions.assertEquals(1, snapshot.getCount());
+        Assertions.assertEquals(300, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void lateWriterDoesNotPolluteNewerSlice() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(300), at(64.5));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(5000), at(0.5));
+
+        RttSnapshot snapshot = histogram.snapshot(1, at(64.5));
+        Assertions.assertEquals(1, snapshot.getCount());
+        Assertions.assertEquals(300, snapshot.getMaxMicros());
+    }
+
+    @Test
+    void clearDropsEverything() {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(100), BASE_NANOS);
+        histogram.recordLoss(BASE_NANOS);
+        histogram.clear();
+
+        RttSnapshot snapshot = histogram.snapshot(RttHistogram.MAX_WINDOW_SECONDS, BASE_NANOS);
+        Assertions.assertEquals(0, snapshot.getCount());
+        Assertions.assertEquals(0, snapshot.getLost());
+    }
+
+    @Test
+    void rejectsInvalidWindow() {
+        RttHistogram histogram = new RttHistogram();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.snapshot(0, BASE_NANOS));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> histogram.snapshot(RttHistogram.MAX_WINDOW_SECONDS + 1, BASE_NANOS));
+    }
+
+    /**
+     * Возвращает верхнюю границу корзины значения: медиана двух значений,
+     * где второе - большой выброс, равна границе корзины первого.
+     */
+    private static long medianBucketBound(long micros) {
+        RttHistogram histogram = new RttHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(micros), BASE_NANOS);
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(OUTLIER_MICROS), BASE_NANOS);
+        return histogram.snapshot(1, BASE_NANOS).getP50Micros();
+    }
+
+    private static long at(double seconds) {
+        return BASE_NANOS + (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+}
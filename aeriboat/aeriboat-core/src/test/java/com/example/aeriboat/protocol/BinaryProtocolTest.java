@@ -0,0 +1,126 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Проверка кодирования и декодирования кадров бинарного протокола и отказа
+ * на поврежденных кадрах.
+ */
+class BinaryProtocolTest {
+
+    private static final int TELEMETRY_FRAME_SIZE = BinaryProtocol.HEADER_SIZE
+            + BinaryProtocol.TELEMETRY_PAYLOAD_SIZE + BinaryProtocol.CRC_SIZE;
+
+    @Test
+    void telemetryRoundTrip() {
+        AirboatTelemetry telemetry = telemetry(-72, 11840, -33868820, 151209290, 359);
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeTelemetry(frame, 0xFFFE, telemetry);
+        frame.flip();
+
+        Assertions.assertEquals(TELEMETRY_FRAME_SIZE, frame.remaining());
+        Assertions.assertTrue(BinaryProtocol.isBinaryFrame(frame));
+        Assertions.assertTrue(BinaryProtocol.isValid(frame));
+        Assertions.assertEquals(BinaryProtocol.TYPE_TELEMETRY, BinaryProtocol.getType(frame));
+        Assertions.assertEquals(0xFFFE, BinaryProtocol.getSequence(frame));
+
+        AirboatTelemetry decoded = new AirboatTelemetry();
+        Assertions.assertTrue(BinaryProtocol.decodeTelemetry(frame, decoded));
+        TelemetryDecoderTest.assertTelemetryEquals(telemetry, decoded, "telemetry");
+    }
+
+    @Test
+    void streamFrameCarriesStreamSequence() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeStream(frame, 3, telemetry(-50, 12000, 1, 2, 3));
+        frame.flip();
+
+        Assertions.assertTrue(BinaryProtocol.isValid(frame));
+        Assertions.assertEquals(BinaryProtocol.TYPE_STREAM, BinaryProtocol.getType(frame));
+        Assertions.assertEquals(3, BinaryProtocol.getSequence(frame));
+        Assertions.assertTrue(BinaryProtocol.decodeTelemetry(frame, new AirboatTelemetry()));
+    }
+
+    @Test
+    void controlRoundTrip() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeControl(frame, 9, 135, 42);
+        frame.flip();
+
+        Assertions.assertTrue(BinaryProtocol.isValid(frame));
+        Assertions.assertEquals(BinaryProtocol.TYPE_COMMAND, BinaryProtocol.getType(frame));
+        Assertions.assertEquals(9, BinaryProtocol.getSequence(frame));
+        Assertions.assertEquals(BinaryProtocol.FLAG_ANGLE | BinaryProtocol.FLAG_SPEED,
+                BinaryProtocol.getCommandFlags(frame) & (BinaryProtocol.FLAG_ANGLE | BinaryProtocol.FLAG_SPEED));
+        Assertions.assertEquals(135, BinaryProtocol.getCommandAngle(frame));
+        Assertions.assertEquals(42, BinaryProtocol.getCommandSpeed(frame));
+        Assertions.assertFalse(BinaryProtocol.decodeTelemetry(frame, new AirboatTelemetry()));
+    }
+
+    @Test
+    void subscribeRoundTrip() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeSubscribe(frame, 100, 5000);
+        frame.flip();
+
+        Assertions.assertTrue(BinaryProtocol.isValid(frame));
+        Assertions.assertEquals(BinaryProtocol.TYPE_SUBSCRIBE, BinaryProtocol.getType(frame));
+        Assertions.assertEquals(100, BinaryProtocol.getSubscribePeriod(frame));
+        Assertions.assertEquals(5000, BinaryProtocol.getSubscribeLease(frame));
+    }
+
+    @Test
+    void rejectsCorruptedByte() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeTelemetry(frame, 1, telemetry(-60, 12000, 55755672, 37617700, 90));
+        frame.flip();
+
+        for (int i = BinaryProtocol.HEADER_SIZE; i < frame.limit(); i++) {
+            byte original = frame.get(i);
+            frame.put(i, (byte) (original ^ 0x10));
+            Assertions.assertFalse(BinaryProtocol.isValid(frame), "байт " + i);
+            frame.put(i, original);
+        }
+        Assertions.assertTrue(BinaryProtocol.isValid(frame));
+    }
+
+    @Test
+    void rejectsTruncatedFrameAndWrongVersion() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+        BinaryProtocol.encodeTelemetry(frame, 1, telemetry(-60, 12000, 1, 2, 3));
+        frame.flip();
+
+        ByteBuffer truncated = frame.duplicate();
+        truncated.limit(truncated.limit() - 1);
+        Assertions.assertFalse(BinaryProtocol.isValid(truncated));
+
+        frame.put(0, (byte) (BinaryProtocol.VERSION + 1));
+        Assertions.assertFalse(BinaryProtocol.isBinaryFrame(frame));
+        Assertions.assertFalse(BinaryProtocol.isValid(frame));
+    }
+
+    @Test
+    void validatesFrameAtNonZeroPosition() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(7);
+        BinaryProtocol.encodeTelemetry(buffer, 2, telemetry(-40, 12500, 10, 20, 30));
+        buffer.limit(buffer.position()).position(7);
+
+        Assertions.assertTrue(BinaryProtocol.isValid(buffer));
+        Assertions.assertEquals(2, BinaryProtocol.getSequence(buffer));
+    }
+
+    private static AirboatTelemetry telemetry(long wifi, long battery, long latitude, long longitude, long course) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setWifiSignalLevel(wifi);
+        telemetry.setBatteryVoltage(battery);
+        telemetry.setLatitude(latitude);
+        telemetry.setLongitude(longitude);
+        telemetry.setCourse(course);
+        return telemetry;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.service.JsonService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Проверка кодировщика команд: байты совпадают с сериализацией через
+ * {@link JsonService} для всех видов сообщений и крайних значений,
+ * а самая длинная команда помещается в {@link CommandEncoder#MAX_COMMAND_SIZE}.
+ */
+class CommandEncoderTest {
+
+    private static final int[] EDGE_VALUES = {0, 1, -1, 9, 10, -10, 99, 100, 180, 65535, 999_999_999,
+            1_000_000_000, -1_000_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE + 1, Integer.MIN_VALUE};
+
+    private final JsonService jsonService = new JsonService();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CommandEncoder.MAX_COMMAND_SIZE);
+
+    @Test
+    void writeIntMatchesStringValueOf() {
+        for (int value : EDGE_VALUES) {
+            buffer.clear();
+            CommandEncoder.writeInt(buffer, value);
+            Assertions.assertEquals(String.valueOf(value), written());
+        }
+    }
+
+    @Test
+    void controlMatchesJackson() throws IOException {
+        for (int angle : EDGE_VALUES) {
+            for (int speed : EDGE_VALUES) {
+                buffer.clear();
+                CommandEncoder.encodeControl(buffer, angle, speed);
+                Assertions.assertEquals(jsonService.toJson(new AirboatCommand(angle, speed)), written());
+            }
+        }
+    }
+
+    @Test
+    void statusRequestMatchesJackson() throws IOException {
+        buffer.clear();
+        CommandEncoder.encodeStatusRequest(buffer, 0);
+        Assertions.assertEquals(jsonService.toJson(new AirboatCommand(true)), written());
+
+        for (int sequence : new int[]{1, 9, 10, 255, 256, 65535}) {
+            Map<String, Object> expected = new LinkedHashMap<>();
+            expected.put("status", true);
+            expected.put("seq", sequence);
+            buffer.clear();
+            CommandEncoder.encodeStatusRequest(buffer, sequence);
+            Assertions.assertEquals(jsonService.toJson((Object) expected), written());
+        }
+    }
+
+    @Test
+    void helloAndSubscribeMatchJackson() throws IOException {
+        for (int value : EDGE_VALUES) {
+            buffer.clear();
+            CommandEncoder.encodeHello(buffer, value);
+            Assertions.assertEquals(jsonService.toJson((Object) Map.of("proto", value)), written());
+
+            Map<String, Object> subscribe = new LinkedHashMap<>();
+            subscribe.put("subscribe", value);
+            subscribe.put("lease", -value);
+            buffer.clear();
+            CommandEncoder.encodeSubscribe(buffer, value, -value);
+            Assertions.assertEquals(jsonService.toJson((Object) subscribe), written());
+        }
+    }
+
+    @Test
+    void encodeSkipsNullFieldsLikeJackson() throws IOException {
+        Integer[] numbers = {null, 0, -5, 90, Integer.MIN_VALUE};
+        Boolean[] flags = {null, true, false};
+        for (Integer angle : numbers) {
+            for (Integer speed : numbers) {
+                for (Boolean status : flags) {
+                    AirboatCommand command = new AirboatCommand();
+                    command.setAngle(angle);
+                    command.setSpeed(speed);
+                    command.setStatus(status);
+                    buffer.clear();
+                    CommandEncoder.encode(buffer, command);
+                    Assertions.assertEquals(jsonService.toJson(command), written(), command.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void longestCommandFitsAndShortBufferOverflows() {
+        AirboatCommand longest = new AirboatCommand(Integer.MIN_VALUE, Integer.MIN_VALUE, false);
+        buffer.clear();
+        CommandEncoder.encode(buffer, longest);
+        int length = buffer.position();
+        CommandEncoder.encodeSubscribe(buffer.clear(), Integer.MIN_VALUE, Integer.MIN_VALUE);
+        Assertions.assertTrue(buffer.position() <= length);
+
+        ByteBuffer tooSmall = ByteBuffer.allocate(length - 1);
+        Assertions.assertThrows(BufferOverflowException.class, () -> CommandEncoder.encode(tooSmall, longest));
+        Assertions.assertThrows(BufferOverflowException.class,
+                () -> CommandEncoder.encodeControl(ByteBuffer.allocate(8), Integer.MIN_VALUE, 0));
+    }
+
+    private String written() {
+        ByteBuffer bytes = buffer.duplicate().flip();
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return new String(array, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.aeriboat.protocol;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Проверка классификации номеров окном последовательности, включая переполнение 16 бит.
+ */
+class SequenceWindowTest {
+
+    @Test
+    void firstNumberIsLatest() {
+        SequenceWindow window = new SequenceWindow();
+        Assertions.assertEquals(-1, window.getHighest());
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(100));
+        Assertions.assertEquals(100, window.getHighest());
+    }
+
+    @Test
+    void classifiesLatestLateAndDuplicates() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(10);
+
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(12));
+        Assertions.assertEquals(SequenceWindow.LATE, window.accept(11));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(11));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(12));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(10));
+        Assertions.assertEquals(12, window.getHighest());
+    }
+
+    @Test
+    void rejectsNumbersOutsideWindow() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(1000);
+
+        int oldest = 1000 - (SequenceWindow.WINDOW_SIZE - 1);
+        Assertions.assertEquals(SequenceWindow.LATE, window.accept(oldest));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(oldest - 1));
+    }
+
+    @Test
+    void largeJumpClearsHistory() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(1);
+        window.accept(2);
+
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(2 + SequenceWindow.WINDOW_SIZE + 10));
+        Assertions.assertEquals(SequenceWindow.LATE, window.accept(2 + SequenceWindow.WINDOW_SIZE + 5));
+    }
+
+    @Test
+    void handlesWraparound() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(65534);
+
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(65535));
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(1));
+        Assertions.assertEquals(1, window.getHighest());
+        Assertions.assertEquals(SequenceWindow.LATE, window.accept(0));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(65535));
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(65534));
+        Assertions.assertEquals(SequenceWindow.LATE, window.accept(65533));
+    }
+
+    @Test
+    void masksNumbersTo16Bits() {
+        SequenceWindow window = new SequenceWindow();
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(65536 + 5));
+        Assertions.assertEquals(5, window.getHighest());
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(5));
+    }
+
+    @Test
+    void halfSpaceBehindIsRejected() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(40000);
+        Assertions.assertEquals(SequenceWindow.REJECTED, window.accept(40000 - 32768));
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(40000 + 32767));
+    }
+
+    @Test
+    void resetStartsOver() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(500);
+        window.reset();
+
+        Assertions.assertEquals(-1, window.getHighest());
+        Assertions.assertEquals(SequenceWindow.LATEST, window.accept(3));
+    }
+
+    @Test
+    void restartsAfterRepeatedRejects() {
+        SequenceWindow window = new SequenceWindow();
+        window.acceptOrRestart(30000);
+
+        for (int i = 1; i < SequenceWindow.RESTART_REJECTS; i++) {
+            Assertions.assertEquals(SequenceWindow.REJECTED, window.acceptOrRestart(i));
+        }
+        Assertions.assertEquals(SequenceWindow.LATEST, window.acceptOrRestart(SequenceWindow.RESTART_REJECTS));
+        Assertions.assertEquals(SequenceWindow.RESTART_REJECTS, window.getHighest());
+    }
+
+    @Test
+    void acceptedPacketClearsRejectCount() {
+        SequenceWindow window = new SequenceWindow();
+        window.acceptOrRestart(100);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 1; i < SequenceWindow.RESTART_REJECTS; i++) {
+                Assertions.assertEquals(SequenceWindow.REJECTED, window.acceptOrRestart(100));
+            }
+            Assertions.assertEquals(SequenceWindow.LATEST, window.acceptOrRestart(101 + round));
+        }
+        Assertions.assertEquals(103, window.getHighest());
+    }
+}
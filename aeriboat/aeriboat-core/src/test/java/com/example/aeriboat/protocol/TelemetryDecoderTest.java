@@ -0,0 +1,114 @@
+package com.example.aeriboat.protocol;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.service.JsonService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Проверка потокового декодера JSON телеметрии: совпадение с разбором через
+ * {@link JsonService} и отказ на пакетах, которые телеметрией не являются.
+ */
+class TelemetryDecoderTest {
+
+    private final TelemetryDecoder decoder = new TelemetryDecoder();
+    private final JsonService jsonService = new JsonService();
+
+    @Test
+    void matchesJsonServiceOnTelemetry() throws IOException {
+        String[] packets = {
+                "{\"wifi_signal_level\":-61,\"battery_voltage\":11800,\"latitude\":55755672,"
+                        + "\"longitude\":37617700,\"course\":271}",
+                "{ \"course\" : 15 , \"latitude\" : -33868820 , \"longitude\" : 151209290 }",
+                "{\"battery_voltage\":\"12100\",\"wifi_signal_level\":\"-70\"}",
+                "{\"battery_voltage\":11950.7,\"course\":-12.9}",
+                "{\"seq\":17,\"battery_voltage\":11000,\"course\":90}",
+                "{\"battery_voltage\":11000,\"extra\":{\"nested\":[1,2,{\"a\":\"b\"}]},\"course\":5}"
+        };
+        for (String packet : packets) {
+            AirboatTelemetry expected = jsonService.fromJson(packet, AirboatTelemetry.class);
+            AirboatTelemetry actual = new AirboatTelemetry();
+            Assertions.assertTrue(decoder.decode(wrap(packet), actual), packet);
+            assertTelemetryEquals(expected, actual, packet);
+        }
+    }
+
+    @Test
+    void dropsExponent() {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        Assertions.assertTrue(decoder.decode(wrap("{\"course\":1.2e2,\"battery_voltage\":12000}"), telemetry));
+        Assertions.assertEquals(1, telemetry.getCourse());
+        Assertions.assertEquals(12000, telemetry.getBatteryVoltage());
+    }
+
+    @Test
+    void resetsFieldsMissingFromPacket() {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setLatitude(1);
+        telemetry.setLongitude(2);
+        telemetry.setCourse(3);
+
+        Assertions.assertTrue(decoder.decode(wrap("{\"battery_voltage\":12000}"), telemetry));
+        Assertions.assertEquals(12000, telemetry.getBatteryVoltage());
+        Assertions.assertEquals(0, telemetry.getLatitude());
+        Assertions.assertEquals(0, telemetry.getLongitude());
+        Assertions.assertEquals(0, telemetry.getCourse());
+    }
+
+    @Test
+    void readsSequenceKeys() {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+
+        Assertions.assertTrue(decoder.decode(wrap("{\"seq\":65537,\"course\":1}"), telemetry));
+        Assertions.assertEquals(1, decoder.getSequence());
+        Assertions.assertEquals(-1, decoder.getStreamSequence());
+
+        Assertions.assertTrue(decoder.decode(wrap("{\"stream\":42,\"course\":1}"), telemetry));
+        Assertions.assertEquals(-1, decoder.getSequence());
+        Assertions.assertEquals(42, decoder.getStreamSequence());
+    }
+
+    @Test
+    void rejectsPacketsWithoutTelemetryFields() {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        Assertions.assertFalse(decoder.decode(wrap("{}"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"status\":\"ok\"}"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"seq\":5}"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"battery_voltage\":\"n/a\"}"), telemetry));
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        Assertions.assertFalse(decoder.decode(wrap(""), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("[1,2]"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"course\":1"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"course\":}"), telemetry));
+        Assertions.assertFalse(decoder.decode(wrap("{\"course\" 1}"), telemetry));
+    }
+
+    @Test
+    void leavesBufferPositionUnchanged() {
+        ByteBuffer buffer = wrap("xx{\"course\":7}");
+        buffer.position(2);
+        Assertions.assertTrue(decoder.decode(buffer, new AirboatTelemetry()));
+        Assertions.assertEquals(2, buffer.position());
+        Assertions.assertEquals(buffer.capacity(), buffer.limit());
+    }
+
+    static void assertTelemetryEquals(AirboatTelemetry expected, AirboatTelemetry actual, String message) {
+        Assertions.assertEquals(expected.getWifiSignalLevel(), actual.getWifiSignalLevel(), message);
+        Assertions.assertEquals(expected.getBatteryVoltage(), actual.getBatteryVoltage(), message);
+        Assertions.assertEquals(expected.getLatitude(), actual.getLatitude(), message);
+        Assertions.assertEquals(expected.getLongitude(), actual.getLongitude(), message);
+        Assertions.assertEquals(expected.getCourse(), actual.getCourse(), message);
+    }
+
+    private static ByteBuffer wrap(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.aeriboat.recorder;
+
+import com.example.aeriboat.service.PacketTap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Проверка записи и чтения журнала полета на сегментах минимального размера:
+ * смена сегментов, обрезка и удаление при закрытии, недописанная запись,
+ * переход по времени через индекс и продолжение нумерации сегментов.
+ */
+class FlightRecorderTest {
+
+    private static final int SEGMENT_SIZE = 256 * 1024;
+    private static final long START_MICROS = 1_700_000_000_000_000L;
+    private static final long STEP_MICROS = 1000;
+    private static final int DATA_OFFSET = JournalFormat.dataOffset(JournalFormat.indexCapacity(SEGMENT_SIZE));
+
+    @TempDir
+    Path directory;
+
+    private long nowMicros = START_MICROS;
+
+    @Test
+    void roundTripAcrossSegments() throws IOException {
+        int count = 1600;
+        long recordBytes = 0;
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            for (int i = 0; i < count; i++) {
+                append(recorder, i);
+                recordBytes += JournalFormat.RECORD_HEADER_SIZE + payloadLength(i);
+            }
+            Assertions.assertEquals(count, recorder.getRecordCount());
+        }
+
+        List<Path> segments = segments();
+        Assertions.assertTrue(segments.size() >= 3, "сегментов " + segments.size());
+        long totalSize = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Assertions.assertEquals(JournalFormat.segmentName(i + 1), segments.get(i).getFileName().toString());
+            long size = Files.size(segments.get(i));
+            Assertions.assertTrue(size <= SEGMENT_SIZE);
+            totalSize += size;
+        }
+        // Каждый сегмент обрезан по концу своих записей
+        Assertions.assertEquals(segments.size() * (long) DATA_OFFSET + recordBytes, totalSize);
+
+        FlightJournalReader reader = new FlightJournalReader(directory);
+        Assertions.assertEquals(START_MICROS, reader.getStartMicros());
+        JournalRecord record = new JournalRecord();
+        for (int i = 0; i < count; i++) {
+            Assertions.assertTrue(reader.next(record), "запись " + i);
+            assertRecord(i, record);
+        }
+        Assertions.assertFalse(reader.next(record));
+    }
+
+    @Test
+    void closeTruncatesSegmentAndDeletesUnusedOne() throws IOException {
+        long recordBytes = 0;
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            for (int i = 0; i < 10; i++) {
+                append(recorder, i);
+                recordBytes += JournalFormat.RECORD_HEADER_SIZE + payloadLength(i);
+            }
+        }
+
+        List<Path> segments = segments();
+        Assertions.assertEquals(1, segments.size());
+        Assertions.assertEquals(DATA_OFFSET + recordBytes, Files.size(segments.get(0)));
+    }
+
+    @Test
+    void recorderWithoutRecordsLeavesNoSegments() throws IOException {
+        new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros).close();
+
+        Assertions.assertTrue(segments().isEmpty());
+        Assertions.assertThrows(IOException.class, () -> new FlightJournalReader(directory));
+    }
+
+    @Test
+    void recordCutAtSegmentEndReadsAsEndOfData() throws IOException {
+        int count = 1200;
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            for (int i = 0; i < count; i++) {
+                append(recorder, i);
+            }
+        }
+        List<Path> segments = segments();
+        Assertions.assertTrue(segments.size() >= 2);
+
+        // Последняя запись первого сегмента и последняя запись журнала обрываются
+        int firstSegmentRecords = countRecords(segments.get(0));
+        cut(segments.get(0), 3);
+        cut(segments.get(segments.size() - 1), JournalFormat.RECORD_HEADER_SIZE + 1);
+
+        FlightJournalReader reader = new FlightJournalReader(directory);
+        JournalRecord record = new JournalRecord();
+        for (int i = 0; i < count - 1; i++) {
+            if (i == firstSegmentRecords - 1) {
+                continue;
+            }
+            Assertions.assertTrue(reader.next(record), "запись " + i);
+            assertRecord(i, record);
+        }
+        Assertions.assertFalse(reader.next(record));
+    }
+
+    @Test
+    void seekFindsRecordThroughIndex() throws IOException {
+        int count = 1600;
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            for (int i = 0; i < count; i++) {
+                append(recorder, i);
+            }
+        }
+
+        FlightJournalReader reader = new FlightJournalReader(directory);
+        JournalRecord record = new JournalRecord();
+        for (int i : new int[]{0, 1, 31, 32, 500, 777, 1024, 1599}) {
+            reader.seek(timestamp(i));
+            Assertions.assertTrue(reader.next(record));
+            assertRecord(i, record);
+
+            // Между записями - следующая запись
+            reader.seek(timestamp(i) - STEP_MICROS / 2);
+            Assertions.assertTrue(reader.next(record));
+            assertRecord(i, record);
+        }
+
+        reader.seek(0);
+        Assertions.assertTrue(reader.next(record));
+        assertRecord(0, record);
+
+        reader.seek(timestamp(count));
+        Assertions.assertFalse(reader.next(record));
+
+        reader.rewind();
+        Assertions.assertTrue(reader.next(record));
+        assertRecord(0, record);
+    }
+
+    @Test
+    void numberingContinuesAfterExistingSegments() throws IOException {
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            append(recorder, 0);
+        }
+        // Пустой файл с большим номером и посторонний файл с похожим именем
+        Files.createFile(directory.resolve(JournalFormat.segmentName(5)));
+        Files.createFile(directory.resolve(JournalFormat.SEGMENT_PREFIX + "old" + JournalFormat.SEGMENT_SUFFIX));
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            append(recorder, 1);
+        }
+
+        Assertions.assertTrue(Files.size(directory.resolve(JournalFormat.segmentName(6))) > DATA_OFFSET);
+        FlightJournalReader reader = new FlightJournalReader(directory);
+        JournalRecord record = new JournalRecord();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertTrue(reader.next(record));
+            assertRecord(i, record);
+        }
+        Assertions.assertFalse(reader.next(record));
+    }
+
+    /**
+     * Записывает датаграмму номер index. Если следующий сегмент еще готовится
+     * в фоне и самописец пропустил запись, повторяет ее.
+     */
+    private void append(FlightRecorder recorder, int index) {
+        nowMicros = timestamp(index);
+        ByteBuffer payload = payload(index);
+        long before = recorder.getRecordCount();
+        while (true) {
+            recorder.onPacket(direction(index), payload);
+            if (recorder.getRecordCount() > before) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void assertRecord(int index, JournalRecord record) {
+        Assertions.assertEquals(direction(index), record.getDirection(), "направление записи " + index);
+        Assertions.assertEquals(timestamp(index), record.getTimestampMicros(), "время записи " + index);
+        Assertions.assertEquals(payload(index), record.getPayload(), "данные записи " + index);
+    }
+
+    private static long timestamp(int index) {
+        return START_MICROS + index * STEP_MICROS;
+    }
+
+    private static int direction(int index) {
+        return index % 3 == 0 ? PacketTap.OUTBOUND : PacketTap.INBOUND;
+    }
+
+    private static int payloadLength(int index) {
+        return 1 + index * 37 % 900;
+    }
+
+    private static ByteBuffer payload(int index) {
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength(index));
+        for (int i = 0; i < payload.capacity(); i++) {
+            payload.put((byte) (index + i));
+        }
+        return payload.flip();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static int countRecords(Path segment) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int records = 0;
+        for (int position = DATA_OFFSET; position < bytes.capacity(); records++) {
+            position += JournalFormat.RECORD_HEADER_SIZE + (bytes.getShort(position) & 0xFFFF);
+        }
+        return records;
+    }
+
+    private static void cut(Path segment, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - bytes);
+        }
+    }
+}
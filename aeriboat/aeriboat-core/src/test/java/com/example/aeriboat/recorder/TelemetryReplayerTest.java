@@ -0,0 +1,160 @@
+package com.example.aeriboat.recorder;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.CommandEncoder;
+import com.example.aeriboat.service.PacketTap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка воспроизведения смешанной сессии: поток по подписке и ответы
+ * на периодические запросы. Пока поток идет, ответы слушателям не передаются,
+ * как и при живом приеме; после отписки или остановки потока - передаются.
+ * Ответы помечены курсом {@link #REPLY_COURSE}, пакеты потока - своим номером.
+ */
+class TelemetryReplayerTest {
+
+    private static final int SEGMENT_SIZE = 256 * 1024;
+    private static final long START_MICROS = 1_700_000_000_000_000L;
+    private static final int PERIOD_MS = 50;
+    private static final int REPLY_COURSE = 999;
+
+    @TempDir
+    Path directory;
+
+    private long nowMicros = START_MICROS;
+
+    @Test
+    void jsonRepliesAreHiddenWhileStreamIsActive() throws IOException {
+        Assertions.assertEquals(expectedSession(), replay(recordSession(false)));
+    }
+
+    @Test
+    void binaryRepliesAreHiddenWhileStreamIsActive() throws IOException {
+        Assertions.assertEquals(expectedSession(), replay(recordSession(true)));
+    }
+
+    @Test
+    void repliesWithoutSubscriptionAreDelivered() throws IOException {
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            for (int i = 1; i <= 5; i++) {
+                reply(recorder, false, i, 100 + i);
+                advanceMillis(2000);
+            }
+        }
+        Assertions.assertEquals(List.of(101, 102, 103, 104, 105), replay(directory));
+    }
+
+    /**
+     * Записывает сессию:
+     * подписка, 3 с потока с ответом на запрос каждые 2 с, ответ через 0.5 с после
+     * последнего пакета потока (поток еще считается идущим), ответ через 1.5 с
+     * (поток устарел), снова поток и ответ после отписки.
+     */
+    private Path recordSession(boolean binary) throws IOException {
+        try (FlightRecorder recorder = new FlightRecorder(directory, SEGMENT_SIZE, () -> nowMicros)) {
+            reply(recorder, binary, 1, 1);
+            advanceMillis(100);
+            subscribe(recorder, binary, PERIOD_MS);
+
+            int streamSequence = 0;
+            int replySequence = 2;
+            for (int i = 0; i < 60; i++) {
+                advanceMillis(PERIOD_MS);
+                stream(recorder, binary, ++streamSequence);
+                if (i % 40 == 0) {
+                    reply(recorder, binary, replySequence++, REPLY_COURSE);
+                }
+            }
+            advanceMillis(500);
+            reply(recorder, binary, replySequence++, REPLY_COURSE);
+            advanceMillis(1000);
+            reply(recorder, binary, replySequence++, 2);
+
+            for (int i = 0; i < 10; i++) {
+                advanceMillis(PERIOD_MS);
+                stream(recorder, binary, ++streamSequence);
+            }
+            subscribe(recorder, binary, 0);
+            advanceMillis(10);
+            reply(recorder, binary, replySequence, 3);
+        }
+        return directory;
+    }
+
+    private static List<Integer> expectedSession() {
+        List<Integer> expected = new ArrayList<>();
+        expected.add(1);
+        for (int i = 1; i <= 60; i++) {
+            expected.add(i);
+        }
+        expected.add(2);
+        for (int i = 61; i <= 70; i++) {
+            expected.add(i);
+        }
+        expected.add(3);
+        return expected;
+    }
+
+    private static List<Integer> replay(Path directory) throws IOException {
+        List<Integer> courses = new ArrayList<>();
+        TelemetryReplayer replayer = new TelemetryReplayer(directory);
+        replayer.addTelemetryListener(telemetry -> courses.add((int) telemetry.getCourse()));
+        replayer.replayAll();
+        return courses;
+    }
+
+    private void advanceMillis(long millis) {
+        nowMicros += TimeUnit.MILLISECONDS.toMicros(millis);
+    }
+
+    private static void subscribe(FlightRecorder recorder, boolean binary, int periodMillis) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        if (binary) {
+            BinaryProtocol.encodeSubscribe(buffer, periodMillis, 3000);
+        } else {
+            CommandEncoder.encodeSubscribe(buffer, periodMillis, 3000);
+        }
+        recorder.onPacket(PacketTap.OUTBOUND, buffer.flip());
+    }
+
+    private static void stream(FlightRecorder recorder, boolean binary, int sequence) {
+        if (binary) {
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            BinaryProtocol.encodeStream(buffer, sequence, telemetry(sequence));
+            recorder.onPacket(PacketTap.INBOUND, buffer.flip());
+        } else {
+            recorder.onPacket(PacketTap.INBOUND, json("{\"stream\":" + sequence + ",\"course\":" + sequence + "}"));
+        }
+    }
+
+    private static void reply(FlightRecorder recorder, boolean binary, int sequence, int course) {
+        if (binary) {
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            BinaryProtocol.encodeTelemetry(buffer, sequence, telemetry(course));
+            recorder.onPacket(PacketTap.INBOUND, buffer.flip());
+        } else {
+            recorder.onPacket(PacketTap.INBOUND, json("{\"seq\":" + sequence + ",\"course\":" + course + "}"));
+        }
+    }
+
+    private static AirboatTelemetry telemetry(int course) {
+        AirboatTelemetry telemetry = new AirboatTelemetry();
+        telemetry.setCourse(course);
+        return telemetry;
+    }
+
+    private static ByteBuffer json(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
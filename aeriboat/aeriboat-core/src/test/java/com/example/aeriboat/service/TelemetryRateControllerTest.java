@@ -0,0 +1,122 @@
+package com.example.aeriboat.service;
+
+import com.example.aeriboat.metrics.LinkMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка подбора частоты телеметрии: быстрое снижение на плохом канале,
+ * осторожное повышение на хорошем, удержание решения на время окна и границы.
+ * Потери задаются пропусками в потоке, время оценки - явно.
+ */
+class TelemetryRateControllerTest {
+
+    private static final long STRONG_SIGNAL = -50;
+    private static final long MIDDLE_SIGNAL = -70;
+    private static final long WEAK_SIGNAL = -85;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final TelemetryRateController controller = new TelemetryRateController();
+    private final LinkMetrics metrics = new LinkMetrics();
+    private long now = 1_000 * SECOND;
+
+    @Test
+    void badLinkHalvesRateImmediately() {
+        stream(10, 5);
+        Assertions.assertEquals(2.5, controller.update(metrics, STRONG_SIGNAL, now));
+    }
+
+    @Test
+    void rateRisesByQuarterAfterThreeGoodEvaluations() {
+        for (int i = 0; i < 2; i++) {
+            stream(10, 0);
+            Assertions.assertEquals(5, controller.update(metrics, STRONG_SIGNAL, tick()));
+        }
+        stream(10, 0);
+        Assertions.assertEquals(6.25, controller.update(metrics, STRONG_SIGNAL, tick()));
+    }
+
+    @Test
+    void middleEvaluationRestartsGoodCount() {
+        stream(10, 0);
+        controller.update(metrics, STRONG_SIGNAL, tick());
+        stream(10, 0);
+        controller.update(metrics, STRONG_SIGNAL, tick());
+        stream(10, 0);
+        Assertions.assertEquals(5, controller.update(metrics, MIDDLE_SIGNAL, tick()));
+        for (int i = 0; i < 2; i++) {
+            stream(10, 0);
+            Assertions.assertEquals(5, controller.update(metrics, STRONG_SIGNAL, tick()));
+        }
+        stream(10, 0);
+        Assertions.assertEquals(6.25, controller.update(metrics, STRONG_SIGNAL, tick()));
+    }
+
+    @Test
+    void decisionsAreHeldForWindowAfterChange() {
+        stream(10, 10);
+        Assertions.assertEquals(2.5, controller.update(metrics, STRONG_SIGNAL, now));
+        for (int i = 1; i < 5; i++) {
+            stream(10, 10);
+            Assertions.assertEquals(2.5, controller.update(metrics, WEAK_SIGNAL, now + i * SECOND));
+        }
+        // Пропуски, накопленные во время удержания, не учитываются повторно
+        Assertions.assertEquals(2.5, controller.update(metrics, STRONG_SIGNAL, now + 5 * SECOND));
+        stream(10, 10);
+        Assertions.assertEquals(1.25, controller.update(metrics, STRONG_SIGNAL, now + 6 * SECOND));
+    }
+
+    @Test
+    void rateStaysWithinBounds() {
+        controller.setRateBounds(1, 8);
+        for (int i = 0; i < 10; i++) {
+            stream(10, 10);
+            now += 5 * SECOND;
+            Assertions.assertTrue(controller.update(metrics, WEAK_SIGNAL, now) >= 1);
+        }
+        Assertions.assertEquals(1, controller.getRateHz());
+
+        for (int i = 0; i < 60; i++) {
+            stream(10, 0);
+            now += 5 * SECOND;
+            Assertions.assertTrue(controller.update(metrics, STRONG_SIGNAL, now) <= 8);
+        }
+        Assertions.assertEquals(8, controller.getRateHz());
+        Assertions.assertEquals(125, controller.getPeriodMillis());
+
+        controller.setRateBounds(2, 4);
+        Assertions.assertEquals(4, controller.getRateHz());
+        controller.reset();
+        Assertions.assertEquals(4, controller.getRateHz());
+    }
+
+    @Test
+    void weakSignalAloneForcesDecrease() {
+        stream(100, 0);
+        Assertions.assertEquals(2.5, controller.update(metrics, WEAK_SIGNAL, now));
+    }
+
+    @Test
+    void unknownSignalNeverIncreasesRate() {
+        for (int i = 0; i < 5; i++) {
+            stream(10, 0);
+            Assertions.assertEquals(5, controller.update(metrics, TelemetryRateController.UNKNOWN_SIGNAL, tick()));
+        }
+    }
+
+    private long tick() {
+        now += SECOND;
+        return now;
+    }
+
+    /**
+     * Учитывает пакеты потока с заданным числом пропусков.
+     */
+    private void stream(int packets, int gaps) {
+        for (int i = 0; i < packets; i++) {
+            metrics.recordStreamPacket(i == 0 ? gaps : 0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.aeriboat.service;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.BinaryProtocol;
+import com.example.aeriboat.protocol.WireFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка согласования бинарного протокола с поддельной лодкой на loopback:
+ * формат меняет только HELLO_ACK в ответ на ожидающее согласование.
+ */
+class UdpClientTest {
+
+    private DatagramChannel boat;
+    private UdpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        boat = DatagramChannel.open();
+        boat.bind(new InetSocketAddress("127.0.0.1", 0));
+        client = new UdpClient();
+        client.setConnectionParams("127.0.0.1", ((InetSocketAddress) boat.getLocalAddress()).getPort());
+        Assertions.assertTrue(client.connect());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.disconnect();
+        boat.close();
+    }
+
+    @Test
+    void acknowledgedHandshakeSwitchesToBinary() throws Exception {
+        CompletableFuture<Boolean> handshake = client.negotiateBinaryProtocol();
+        SocketAddress sender = receive();
+        sendHelloAck(sender);
+
+        Assertions.assertTrue(handshake.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(WireFormat.BINARY, client.getWireFormat());
+    }
+
+    @Test
+    void strayHelloAckDoesNotSwitchProtocol() throws Exception {
+        CompletableFuture<AirboatTelemetry> reply = client.requestTelemetryAsync();
+        SocketAddress sender = receive();
+        sendHelloAck(sender);
+        // Ответ после HELLO_ACK: когда он получен, HELLO_ACK уже обработан
+        send(sender, ByteBuffer.wrap("{\"battery_voltage\":11000}".getBytes(StandardCharsets.US_ASCII)));
+
+        AirboatTelemetry telemetry = reply.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(11000, telemetry.getBatteryVoltage());
+        Assertions.assertEquals(WireFormat.JSON, client.getWireFormat());
+    }
+
+    @Test
+    void lateHelloAckAfterTimeoutDoesNotSwitchProtocol() throws Exception {
+        CompletableFuture<Boolean> handshake = client.negotiateBinaryProtocol();
+        SocketAddress sender = receive();
+        Assertions.assertFalse(handshake.get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<AirboatTelemetry> reply = client.requestTelemetryAsync();
+        receive();
+        sendHelloAck(sender);
+        send(sender, ByteBuffer.wrap("{\"course\":90}".getBytes(StandardCharsets.US_ASCII)));
+
+        Assertions.assertEquals(90, reply.get(5, TimeUnit.SECONDS).getCourse());
+        Assertions.assertEquals(WireFormat.JSON, client.getWireFormat());
+    }
+
+    private SocketAddress receive() throws IOException {
+        return boat.receive(ByteBuffer.allocate(512));
+    }
+
+    private void sendHelloAck(SocketAddress target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        BinaryProtocol.encodeHelloAck(buffer, BinaryProtocol.VERSION);
+        send(target, buffer.flip());
+    }
+
+    private void send(SocketAddress target, ByteBuffer buffer) throws IOException {
+        boat.send(buffer, target);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.aeriboat.sim;
+
+import com.example.aeriboat.autopilot.Navigation;
+import com.example.aeriboat.autopilot.Route;
+import com.example.aeriboat.autopilot.WaypointNavigator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Прогон навигатора против модели лодки: маршрут проходится по порядку
+ * точек, а отклонение от линии участка остается ограниченным.
+ */
+class AutopilotSimulationTest {
+
+    private static final double START_LATITUDE = 55.7555;
+    private static final double START_LONGITUDE = 37.6177;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    @Test
+    void squareRouteIsCompleted() {
+        Track track = fly(200, 0.1);
+
+        Assertions.assertTrue(track.finished, "маршрут не пройден за " + track.simulation.getElapsedSeconds() + " с");
+        Assertions.assertEquals(4, track.reached);
+        Assertions.assertEquals(0, track.boat.getSpeed(), "после финиша мотор остановлен");
+        Assertions.assertTrue(track.finalDistance <= WaypointNavigator.DEFAULT_ACCEPTANCE_RADIUS_M + 1,
+                "до старта " + track.finalDistance + " м");
+        // Четыре стороны по 200 м; срезание углов и развороты не удлиняют путь больше чем на треть
+        Assertions.assertTrue(track.simulation.getPathMeters() < 800 * 4 / 3.0,
+                "путь " + track.simulation.getPathMeters() + " м");
+    }
+
+    @Test
+    void waypointsAreReachedInOrderWithinRadius() {
+        Track track = fly(200, 0.1);
+
+        for (int i = 0; i < track.reachedDistances.length; i++) {
+            Assertions.assertTrue(track.reachedDistances[i] <= WaypointNavigator.DEFAULT_ACCEPTANCE_RADIUS_M,
+                    "точка " + i + " пройдена в " + track.reachedDistances[i] + " м");
+        }
+    }
+
+    @Test
+    void crossTrackErrorIsBounded() {
+        Track track = fly(200, 0.1);
+
+        // Навигатор ведет на точку, а не по линии: вынос возникает только от срезания
+        // угла и не превышает радиуса, в котором точка считается пройденной
+        Assertions.assertTrue(track.maxCrossTrack <= WaypointNavigator.DEFAULT_ACCEPTANCE_RADIUS_M,
+                "вынос " + track.maxCrossTrack + " м");
+        // К концу участка вынос сокращается
+        Assertions.assertTrue(track.maxApproachCrossTrack < WaypointNavigator.DEFAULT_ACCEPTANCE_RADIUS_M / 2,
+                "на подходе " + track.maxApproachCrossTrack + " м");
+    }
+
+    @Test
+    void slowerControlLoopStillCompletes() {
+        Track track = fly(300, 0.25);
+
+        Assertions.assertTrue(track.finished);
+        Assertions.assertEquals(4, track.reached);
+        Assertions.assertTrue(track.maxCrossTrack <= WaypointNavigator.DEFAULT_ACCEPTANCE_RADIUS_M,
+                "вынос " + track.maxCrossTrack + " м");
+    }
+
+    private static Track fly(double sideMeters, double periodSeconds) {
+        Route route = AutopilotSimulation.squareRoute(START_LATITUDE, START_LONGITUDE, sideMeters);
+        WaypointNavigator navigator = new WaypointNavigator();
+        navigator.setRoute(route);
+        BoatModel boat = new BoatModel(START_LATITUDE, START_LONGITUDE);
+        AutopilotSimulation simulation = new AutopilotSimulation(navigator, boat, periodSeconds);
+
+        Track track = new Track(simulation, boat, route.size());
+        long legLatitude = Math.round(START_LATITUDE * 1_000_000);
+        long legLongitude = Math.round(START_LONGITUDE * 1_000_000);
+        double maxSeconds = sideMeters * 100;
+        while (simulation.getElapsedSeconds() < maxSeconds) {
+            int index = navigator.getWaypointIndex();
+            long latitude = boat.getLatitudeMicro();
+            long longitude = boat.getLongitudeMicro();
+            int result = simulation.step();
+            if (result == WaypointNavigator.WAYPOINT_REACHED || result == WaypointNavigator.FINISHED) {
+                track.reachedDistances[track.reached++] = Navigation.distanceMeters(latitude, longitude,
+                        route.getLatitude(index), route.getLongitude(index));
+                legLatitude = route.getLatitude(index);
+                legLongitude = route.getLongitude(index);
+            }
+            if (result == WaypointNavigator.FINISHED) {
+                track.finished = true;
+                track.finalDistance = track.reachedDistances[track.reached - 1];
+                break;
+            }
+
+            int target = navigator.getWaypointIndex();
+            double error = crossTrack(legLatitude, legLongitude, route.getLatitude(target), route.getLongitude(target),
+                    boat.getLatitudeMicro(), boat.getLongitudeMicro());
+            track.maxCrossTrack = Math.max(track.maxCrossTrack, error);
+            if (navigator.getDistanceMeters() < sideMeters / 4) {
+                track.maxApproachCrossTrack = Math.max(track.maxApproachCrossTrack, error);
+            }
+        }
+        return track;
+    }
+
+    /**
+     * Расстояние от точки до прямой участка в плоской проекции (м).
+     */
+    private static double crossTrack(long fromLatitude, long fromLongitude, long toLatitude, long toLongitude,
+                                     long latitude, long longitude) {
+        double scale = METERS_PER_DEGREE / 1_000_000;
+        double cos = Math.cos(Math.toRadians(fromLatitude / 1_000_000.0));
+        double dx = (toLongitude - fromLongitude) * scale * cos;
+        double dy = (toLatitude - fromLatitude) * scale;
+        double px = (longitude - fromLongitude) * scale * cos;
+        double py = (latitude - fromLatitude) * scale;
+        return Math.abs(dx * py - dy * px) / Math.hypot(dx, dy);
+    }
+
+    /**
+     * Итоги прогона.
+     */
+    private static class Track {
+
+        private final AutopilotSimulation simulation;
+        private final BoatModel boat;
+        private final double[] reachedDistances;
+        private int reached;
+        private boolean finished;
+        private double finalDistance;
+        private double maxCrossTrack;
+        private double maxApproachCrossTrack;
+
+        Track(AutopilotSimulation simulation, BoatModel boat, int waypoints) {
+            this.simulation = simulation;
+            this.boat = boat;
+            this.reachedDistances = new double[waypoints];
+        }
+    }
+}
@@ -0,0 +1,1264 @@
+package com.example.aeriboat;
+
+import com.example.aeriboat.autopilot.Autopilot;
+import com.example.aeriboat.autopilot.Route;
+import com.example.aeriboat.autopilot.RouteLoader;
+import com.example.aeriboat.chart.TelemetryChart;
+import com.example.aeriboat.export.TelemetryExport;
+import com.example.aeriboat.export.TelemetryExportWriter;
+import com.example.aeriboat.failsafe.FailsafeLevel;
+import com.example.aeriboat.failsafe.LinkWatchdog;
+import com.example.aeriboat.gateway.MulticastForwarder;
+import com.example.aeriboat.gateway.TelemetryGateway;
+import com.example.aeriboat.gateway.TelemetryHttpServer;
+import com.example.aeriboat.geofence.Geofence;
+import com.example.aeriboat.geofence.GeofenceLoader;
+import com.example.aeriboat.geofence.GeofenceMonitor;
+import com.example.aeriboat.geofence.GeofenceViolation;
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.history.TelemetryHistory;
+import com.example.aeriboat.log.LogBuffer;
+import com.example.aeriboat.log.LogCell;
+import com.example.aeriboat.log.LogEntry;
+import com.example.aeriboat.log.LogLevel;
+import com.example.aeriboat.metrics.LinkMetrics;
+import com.example.aeriboat.metrics.RttSnapshot;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.recorder.FlightRecorder;
+import com.example.aeriboat.recorder.JournalRetention;
+import com.example.aeriboat.recorder.TelemetryReplayer;
+import com.example.aeriboat.service.CommandCoalescer;
+import com.example.aeriboat.service.TelemetryRateController;
+import com.example.aeriboat.service.UdpClient;
+import com.example.aeriboat.track.TrackView;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Главный контроллер JavaFX для управления ESP32 airboat.
+ * Обеспечивает пользовательский интерфейс для управления углом сервопривода,
+ * скоростью BLDC мотора и отображения телеметрии.
+ * 
+ * @since 1.0
+ */
+public class AirboatController {
+    
+    // Частота отправки команд управления (Гц)
+    private static final int CONTROL_RATE_HZ = 25;
+    
+    // Границы и начальная частота телеметрии (Гц), оценка канала раз в 2 секунды;
+    // во время потока запрос телеметрии остается пробой канала раз в 2 секунды
+    private static final double TELEMETRY_MIN_RATE_HZ = 0.5;
+    private static final double TELEMETRY_MAX_RATE_HZ = 20;
+    private static final double TELEMETRY_INITIAL_RATE_HZ = 5;
+    private static final long TELEMETRY_ADAPT_INTERVAL_MS = 2000;
+    private static final long TELEMETRY_PROBE_INTERVAL_MS = 2000;
+    
+    // Каталог журналов полета и варианты скорости воспроизведения
+    private static final Path RECORDINGS_DIR = Paths.get(System.getProperty("user.home"), "aeriboat", "recordings");
+    private static final DateTimeFormatter RECORDING_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int MAX_RECORDINGS = 20;
+    private static final long MAX_RECORDINGS_BYTES = 1024L * 1024 * 1024;
+    private static final String[] REPLAY_SPEEDS = {"1x", "4x", "16x", "Макс"};
+    
+    // Интервал перестроения графиков истории (нс)
+    private static final long CHART_REFRESH_NANOS = 1_000_000_000L;
+    
+    // Окна статистики канала (с) и пороги деградации связи
+    private static final int LINK_WINDOW_SHORT = 10;
+    private static final int LINK_WINDOW_LONG = 60;
+    private static final double LINK_LOSS_WARNING = 0.1;
+    private static final double LINK_LOSS_CRITICAL = 0.3;
+    private static final long LINK_RTT_WARNING_MICROS = 250_000;
+    private static final long LINK_RTT_CRITICAL_MICROS = 1_000_000;
+    
+    // Элементы управления подключением
+    @FXML
+    private TextField ipField;
+    @FXML
+    private TextField portField;
+    @FXML
+    private Button connectButton;
+    @FXML
+    private Button disconnectButton;
+    @FXML
+    private Circle connectionStatus;
+    @FXML
+    private Label connectionLabel;
+    
+    // Элементы управления углом сервопривода
+    @FXML
+    private Slider angleSlider;
+    @FXML
+    private Label angleValueLabel;
+    
+    // Элементы управления скоростью мотора
+    @FXML
+    private Slider speedSlider;
+    @FXML
+    private Label speedValueLabel;
+    
+    // Кнопки управления
+    @FXML
+    private Button stopButton;
+    @FXML
+    private Button centerButton;
+    
+    // Элементы телеметрии
+    @FXML
+    private Label wifiSignalLabel;
+    @FXML
+    private Label batteryVoltageLabel;
+    @FXML
+    private Label latitudeLabel;
+    @FXML
+    private Label longitudeLabel;
+    @FXML
+    private Label courseLabel;
+    @FXML
+    private ProgressBar batteryProgressBar;
+    @FXML
+    private ProgressBar wifiSignalProgressBar;
+    
+    // Качество связи
+    @FXML
+    private Circle linkQualityIndicator;
+    @FXML
+    private Label rttShortLabel;
+    @FXML
+    private Label rttLongLabel;
+    @FXML
+    private Label lossLabel;
+    @FXML
+    private Label packetsLabel;
+    @FXML
+    private Label bytesLabel;
+    @FXML
+    private Label linkErrorsLabel;
+    @FXML
+    private Label streamLabel;
+    @FXML
+    private Label watchdogLabel;
+    
+    // Графики истории телеметрии
+    @FXML
+    private VBox chartsBox;
+    @FXML
+    private Pane trackPane;
+    @FXML
+    private Button exportButton;
+    
+    // Геозоны
+    @FXML
+    private Button routeButton;
+    @FXML
+    private ToggleButton autopilotButton;
+    @FXML
+    private Label autopilotLabel;
+    
+    @FXML
+    private Button geofenceButton;
+    @FXML
+    private Label geofenceLabel;
+    
+    // Лог
+    @FXML
+    private ListView<LogEntry> logList;
+    @FXML
+    private ComboBox<LogLevel> logLevelBox;
+    @FXML
+    private TextField logSearchField;
+    @FXML
+    private CheckBox logAutoScrollBox;
+    
+    // Запись и воспроизведение полета
+    @FXML
+    private Label recorderLabel;
+    @FXML
+    private Button replayButton;
+    @FXML
+    private ComboBox<String> replaySpeedBox;
+    @FXML
+    private Button stopReplayButton;
+    
+    // Раздача телеметрии станции
+    @FXML
+    private CheckBox gatewayBox;
+    @FXML
+    private Label gatewayLabel;
+    
+    private final UdpClient udpClient;
+    private final CommandCoalescer commandCoalescer;
+    private final GeofenceMonitor geofenceMonitor;
+    private final LinkWatchdog linkWatchdog;
+    private final Autopilot autopilot;
+    private final TelemetryHistory telemetryHistory;
+    private final LogBuffer logBuffer;
+    private final ScheduledExecutorService scheduler;
+    private final TelemetryRateController telemetryRate;
+    private final TelemetryGateway telemetryGateway;
+    private AnimationTimer uiPulse;
+    
+    // Последняя принятая телеметрия (пишет поток приема) и последняя отображенная (поток JavaFX)
+    private volatile AirboatTelemetry latestTelemetry;
+    private AirboatTelemetry renderedTelemetry;
+    private final List<TelemetryChart> telemetryCharts = new ArrayList<>();
+    private long lastChartRefreshNanos;
+    private TrackView trackView;
+    private FlightRecorder flightRecorder;
+    private TelemetryReplayer telemetryReplayer;
+    private int currentAngle = 90;
+    private int currentSpeed = 0;
+    
+    public AirboatController() {
+        this.udpClient = new UdpClient();
+        this.commandCoalescer = new CommandCoalescer(udpClient);
+        // Геозоны проверяются первыми, чтобы остановка не ждала остальных слушателей
+        this.geofenceMonitor = new GeofenceMonitor(commandCoalescer);
+        this.geofenceMonitor.addListener(this::onGeofenceViolation);
+        this.udpClient.addTelemetryListener(geofenceMonitor);
+        this.linkWatchdog = new LinkWatchdog(udpClient, commandCoalescer);
+        this.linkWatchdog.addListener(this::onFailsafeLevelChanged);
+        this.autopilot = new Autopilot(commandCoalescer);
+        this.autopilot.addListener(this::onWaypointReached);
+        this.udpClient.addTelemetryListener(autopilot);
+        this.telemetryHistory = new TelemetryHistory();
+        this.udpClient.addTelemetryListener(telemetryHistory::append);
+        this.udpClient.addTelemetryListener(this::publishTelemetry);
+        this.logBuffer = new LogBuffer();
+        this.scheduler = Executors.newScheduledThreadPool(2);
+        this.telemetryRate = new TelemetryRateController();
+        this.telemetryRate.setRateBounds(TELEMETRY_MIN_RATE_HZ, TELEMETRY_MAX_RATE_HZ);
+        this.telemetryRate.setInitialRateHz(TELEMETRY_INITIAL_RATE_HZ);
+        this.telemetryGateway = new TelemetryGateway(udpClient);
+    }
+    
+    /**
+     * Инициализация контроллера после загрузки FXML.
+     */
+    @FXML
+    private void initialize() {
+        // Настройка значений по умолчанию
+        ipField.setText("192.168.4.1");
+        portField.setText("12345");
+        
+        // Настройка слайдеров
+        setupSliders();
+        
+        // Журнал событий и телеметрия обновляются раз за кадр
+        setupLog();
+        setupCharts();
+        setupTrack();
+        startUiPulse();
+        
+        // Отправка последней уставки с фиксированной частотой
+        commandCoalescer.setErrorHandler(throwable -> 
+            logMessage(LogLevel.ERROR, "Ошибка отправки команды: " + throwable.getMessage()));
+        commandCoalescer.start(CONTROL_RATE_HZ);
+        
+        // Сторож связи останавливает лодку при пропаже телеметрии
+        linkWatchdog.start();
+        autopilotButton.setDisable(true);
+        
+        // Настройка состояния подключения
+        updateConnectionStatus(false);
+        
+        // Запись полета и воспроизведение
+        replaySpeedBox.getItems().setAll(REPLAY_SPEEDS);
+        replaySpeedBox.getSelectionModel().selectFirst();
+        stopReplayButton.setDisable(true);
+        
+        // Логирование
+        logMessage("Приложение запущено");
+        logMessage("Для подключения введите IP и порт ESP32, затем нажмите 'Подключиться'");
+        
+        // Опрос телеметрии с подстраиваемой частотой и оценка канала
+        scheduler.schedule(this::pollTelemetry, 5, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(this::adaptTelemetryRate,
+                TELEMETRY_ADAPT_INTERVAL_MS, TELEMETRY_ADAPT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        
+        // Обновление панели качества связи раз в секунду
+        scheduler.scheduleAtFixedRate(this::refreshLinkMetrics, 1, 1, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Настройка слайдеров управления.
+     */
+    private void setupSliders() {
+        // Слайдер угла сервопривода (0-180°)
+        angleSlider.setMin(0);
+        angleSlider.setMax(180);
+        angleSlider.setValue(90);
+        angleSlider.setMajorTickUnit(30);
+        angleSlider.setMinorTickCount(5);
+        angleSlider.setShowTickLabels(true);
+        angleSlider.setShowTickMarks(true);
+        
+        angleSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            currentAngle = newVal.intValue();
+            angleValueLabel.setText(currentAngle + "°");
+            sendControlCommand();
+        });
+        
+        // Слайдер скорости мотора (0-100%)
+        speedSlider.setMin(0);
+        speedSlider.setMax(100);
+        speedSlider.setValue(0);
+        speedSlider.setMajorTickUnit(20);
+        speedSlider.setMinorTickCount(4);
+        speedSlider.setShowTickLabels(true);
+        speedSlider.setShowTickMarks(true);
+        
+        speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            currentSpeed = newVal.intValue();
+            speedValueLabel.setText(currentSpeed + "%");
+            sendControlCommand();
+        });
+        
+        // Установка начальных значений лейблов
+        angleValueLabel.setText("90°");
+        speedValueLabel.setText("0%");
+    }
+    
+    /**
+     * Подключает список журнала событий, фильтр по уровню и поиск.
+     */
+    private void setupLog() {
+        logList.setItems(logBuffer);
+        logList.setCellFactory(list -> new LogCell());
+        
+        logLevelBox.getItems().setAll(LogLevel.values());
+        logLevelBox.getSelectionModel().selectFirst();
+        logLevelBox.valueProperty().addListener((obs, oldVal, newVal) -> applyLogFilter());
+        logSearchField.textProperty().addListener((obs, oldVal, newVal) -> applyLogFilter());
+    }
+    
+    /**
+     * Запускает импульс интерфейса: раз за кадр JavaFX отображает последнюю
+     * телеметрию и переносит накопленные сообщения журнала. Частота телеметрии
+     * и частота отрисовки не зависят друг от друга.
+     */
+    private void startUiPulse() {
+        uiPulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+        uiPulse.start();
+    }
+    
+    /**
+     * Создает графики истории батареи, сигнала и курса.
+     */
+    private void setupCharts() {
+        telemetryCharts.add(new TelemetryChart("Батарея", "В", telemetryHistory,
+                TelemetryField.BATTERY_VOLTAGE, 0.001));
+        telemetryCharts.add(new TelemetryChart("WiFi сигнал", "dBm", telemetryHistory,
+                TelemetryField.WIFI_SIGNAL_LEVEL, 1));
+        telemetryCharts.add(new TelemetryChart("Курс", "°", telemetryHistory,
+                TelemetryField.COURSE, 1));
+        for (TelemetryChart chart : telemetryCharts) {
+            chartsBox.getChildren().add(chart.getNode());
+        }
+    }
+    
+    /**
+     * Создает холст трека лодки, растягиваемый по размеру вкладки.
+     */
+    private void setupTrack() {
+        trackView = new TrackView(telemetryHistory);
+        Canvas canvas = trackView.getCanvas();
+        // Холст не участвует в расчете размеров панели, иначе она не сможет уменьшиться
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(trackPane.widthProperty());
+        canvas.heightProperty().bind(trackPane.heightProperty());
+        trackPane.getChildren().add(canvas);
+    }
+    
+    /**
+     * Очищает историю телеметрии, графики и трек перед новым сеансом или воспроизведением.
+     */
+    private void clearTelemetryHistory() {
+        telemetryHistory.clear();
+        for (TelemetryChart chart : telemetryCharts) {
+            chart.clear();
+        }
+        trackView.clear();
+    }
+    
+    /**
+     * Выполняется в каждом кадре JavaFX.
+     *
+     * @param now Время кадра (нс)
+     */
+    private void onPulse(long now) {
+        AirboatTelemetry telemetry = latestTelemetry;
+        if (telemetry != renderedTelemetry) {
+            updateTelemetry(telemetry, renderedTelemetry);
+            renderedTelemetry = telemetry;
+            trackView.setHeading(telemetry.getCourse());
+        }
+        trackView.refresh();
+        
+        if (logBuffer.drain() > 0 && logAutoScrollBox.isSelected()) {
+            logList.scrollTo(logBuffer.size() - 1);
+        }
+        
+        // Графики забирают новые отсчеты истории и перестраиваются реже кадров
+        if (now - lastChartRefreshNanos >= CHART_REFRESH_NANOS) {
+            lastChartRefreshNanos = now;
+            for (TelemetryChart chart : telemetryCharts) {
+                chart.refresh();
+            }
+            updateAutopilotStatus();
+        }
+    }
+    
+    /**
+     * Применяет выбранный уровень и строку поиска к журналу событий.
+     */
+    private void applyLogFilter() {
+        LogLevel level = logLevelBox.getValue();
+        logBuffer.setFilter(level != null ? level : LogLevel.INFO, logSearchField.getText());
+        if (logAutoScrollBox.isSelected() && !logBuffer.isEmpty()) {
+            logList.scrollTo(logBuffer.size() - 1);
+        }
+    }
+    
+    /**
+     * Открывает журнал полета для нового подключения и подключает его к UDP клиенту,
+     * затем удаляет старые журналы сверх {@link #MAX_RECORDINGS} и {@link #MAX_RECORDINGS_BYTES}.
+     * Если журнал открыть не удалось, приложение работает без записи.
+     */
+    private void startFlightRecorder() {
+        if (flightRecorder != null) {
+            return;
+        }
+        Path directory = RECORDINGS_DIR.resolve(LocalDateTime.now().format(RECORDING_NAME_FORMAT));
+        try {
+            flightRecorder = new FlightRecorder(directory);
+            udpClient.addPacketTap(flightRecorder);
+            recorderLabel.setText("Запись: " + directory);
+        } catch (IOException | RuntimeException e) {
+            recorderLabel.setText("Запись не ведется");
+            logMessage(LogLevel.WARNING, "Запись полета отключена: " + e.getMessage());
+            return;
+        }
+        try {
+            int deleted = JournalRetention.prune(RECORDINGS_DIR, MAX_RECORDINGS, MAX_RECORDINGS_BYTES, directory);
+            if (deleted > 0) {
+                logMessage("Удалено старых журналов полета: " + deleted);
+            }
+        } catch (IOException e) {
+            logMessage(LogLevel.WARNING, "Не удалось очистить старые журналы: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Завершает запись полета, если она ведется. Каталог журнала без записей удаляется.
+     */
+    private void stopFlightRecorder() {
+        if (flightRecorder == null) {
+            return;
+        }
+        udpClient.removePacketTap(flightRecorder);
+        flightRecorder.close();
+        if (flightRecorder.getRecordCount() == 0) {
+            try {
+                Files.deleteIfExists(flightRecorder.getDirectory());
+            } catch (IOException e) {
+                // В каталоге остались посторонние файлы
+            }
+        }
+        flightRecorder = null;
+        recorderLabel.setText("Запись не ведется");
+    }
+    
+    /**
+     * Включает или выключает раздачу телеметрии программам станции: пересылку
+     * датаграмм в группу multicast на петлевом интерфейсе и HTTP сервер на 127.0.0.1.
+     */
+    @FXML
+    private void onGatewayToggle() {
+        if (!gatewayBox.isSelected()) {
+            telemetryGateway.close();
+            gatewayLabel.setText(telemetryGateway.getStatus());
+            logMessage("Раздача телеметрии выключена");
+            return;
+        }
+        try {
+            telemetryGateway.startMulticast(
+                    new InetSocketAddress(MulticastForwarder.DEFAULT_GROUP, MulticastForwarder.DEFAULT_PORT),
+                    MulticastForwarder.loopbackInterface());
+            telemetryGateway.startHttp(new InetSocketAddress("127.0.0.1", TelemetryHttpServer.DEFAULT_PORT));
+            gatewayLabel.setText(telemetryGateway.getStatus());
+            logMessage("Раздача телеметрии: " + telemetryGateway.getStatus());
+        } catch (IOException e) {
+            telemetryGateway.close();
+            gatewayBox.setSelected(false);
+            gatewayLabel.setText(telemetryGateway.getStatus());
+            logMessage(LogLevel.ERROR, "Ошибка запуска раздачи телеметрии: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Обработчик кнопки подключения.
+     */
+    @FXML
+    private void onConnectButtonClick() {
+        if (stopReplay()) {
+            clearTelemetryHistory();
+        }
+        
+        try {
+            String ip = ipField.getText().trim();
+            int port = Integer.parseInt(portField.getText().trim());
+            
+            if (ip.isEmpty()) {
+                logMessage(LogLevel.ERROR, "Ошибка: Введите IP адрес ESP32");
+                return;
+            }
+            
+            udpClient.setConnectionParams(ip, port);
+            // Журнал открывается до подключения, чтобы в него попало рукопожатие
+            startFlightRecorder();
+            boolean connected = udpClient.connect();
+            
+            if (connected) {
+                telemetryRate.reset();
+                commandCoalescer.resend();
+                updateConnectionStatus(true);
+                logMessage("Подключено к " + ip + ":" + port);
+                
+                // Бинарный протокол включается, только если прошивка его подтвердит;
+                // подписка на поток оформляется уже в выбранном формате
+                udpClient.negotiateBinaryProtocol()
+                        .thenAccept(binary -> {
+                            logMessage(binary
+                                    ? "Включен бинарный протокол"
+                                    : "ESP32 не поддерживает бинарный протокол, используется JSON");
+                            subscribeTelemetryStream();
+                        });
+            } else {
+                stopFlightRecorder();
+                logMessage(LogLevel.ERROR, "Ошибка подключения к " + ip + ":" + port);
+            }
+            
+        } catch (NumberFormatException e) {
+            logMessage(LogLevel.ERROR, "Ошибка: Некорректный порт");
+        } catch (IOException e) {
+            logMessage(LogLevel.ERROR, "Ошибка подключения: " + e.getMessage());
+            stopFlightRecorder();
+            updateConnectionStatus(false);
+        }
+    }
+    
+    /**
+     * Подписывается на поток телеметрии с текущей частотой. Если прошивка поток
+     * не поддерживает, телеметрия продолжает поступать через опрос.
+     */
+    private void subscribeTelemetryStream() {
+        try {
+            udpClient.subscribeTelemetry(telemetryRate.getRateHz());
+        } catch (IOException e) {
+            logMessage(LogLevel.ERROR, "Ошибка подписки на телеметрию: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Обработчик кнопки отключения.
+     */
+    @FXML
+    private void onDisconnectButtonClick() {
+        disengageAutopilot("отключение от ESP32");
+        udpClient.disconnect();
+        stopFlightRecorder();
+        updateConnectionStatus(false);
+        logMessage("Отключено от ESP32");
+    }
+    
+    /**
+     * Обработчик кнопки воспроизведения: выбирает каталог журнала и проигрывает
+     * записанную телеметрию вместо живого канала.
+     */
+    @FXML
+    private void onReplayButtonClick() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Выберите каталог записи полета");
+        if (Files.isDirectory(RECORDINGS_DIR)) {
+            chooser.setInitialDirectory(RECORDINGS_DIR.toFile());
+        }
+        File directory = chooser.showDialog(replayButton.getScene().getWindow());
+        if (directory == null) {
+            return;
+        }
+        
+        stopReplay();
+        if (udpClient.isConnected()) {
+            onDisconnectButtonClick();
+        }
+        clearTelemetryHistory();
+        
+        TelemetryReplayer replayer = new TelemetryReplayer(directory.toPath());
+        replayer.setSpeed(selectedReplaySpeed());
+        replayer.addTelemetryListener(telemetry -> {
+            telemetryHistory.append(replayer.getPositionMicros() / 1000, telemetry);
+            publishTelemetry(telemetry);
+        });
+        replayer.setFinishHandler(() -> Platform.runLater(() -> {
+            logMessage("Воспроизведение завершено");
+            updateReplayControls(false);
+        }));
+        
+        try {
+            replayer.start();
+            telemetryReplayer = replayer;
+            updateReplayControls(true);
+            logMessage("Воспроизведение записи " + directory + " (" + replaySpeedBox.getValue() + ")");
+        } catch (IOException e) {
+            logMessage(LogLevel.ERROR, "Ошибка открытия записи: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Обработчик выбора скорости воспроизведения.
+     */
+    @FXML
+    private void onReplaySpeedChange() {
+        if (telemetryReplayer != null) {
+            telemetryReplayer.setSpeed(selectedReplaySpeed());
+        }
+    }
+    
+    /**
+     * Обработчик кнопки остановки воспроизведения.
+     */
+    @FXML
+    private void onStopReplayButtonClick() {
+        if (stopReplay()) {
+            logMessage("Воспроизведение остановлено");
+        }
+    }
+    
+    /**
+     * Обработчик кнопки экспорта истории сеанса. Файл в колоночном формате
+     * записывается в фоновом потоке; в CSV его переводит {@link TelemetryExport}.
+     */
+    @FXML
+    private void onExportButtonClick() {
+        if (telemetryHistory.size() == 0) {
+            logMessage(LogLevel.WARNING, "История сеанса пуста, экспортировать нечего");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Экспорт истории телеметрии");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Экспорт телеметрии", "*.abtc"));
+        chooser.setInitialFileName("telemetry-" + LocalDateTime.now().format(RECORDING_NAME_FORMAT) + ".abtc");
+        File file = chooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        exportButton.setDisable(true);
+        scheduler.execute(() -> {
+            try {
+                TelemetryExportWriter writer = new TelemetryExportWriter(file.toPath());
+                long rows;
+                try (writer) {
+                    rows = TelemetryExport.fromHistory(telemetryHistory, writer);
+                }
+                // Неполный последний блок дописывается при закрытии, поэтому размер берется после него
+                logMessage("История экспортирована: " + file.getName() + ", строк " + rows
+                        + ", " + writer.getBytesWritten() / 1024 + " КБ");
+            } catch (IOException e) {
+                logMessage(LogLevel.ERROR, "Ошибка экспорта истории: " + e.getMessage());
+            } finally {
+                Platform.runLater(() -> exportButton.setDisable(false));
+            }
+        });
+    }
+    
+    /**
+     * Останавливает воспроизведение, если оно идет.
+     *
+     * @return true если воспроизведение было активно
+     */
+    private boolean stopReplay() {
+        TelemetryReplayer replayer = telemetryReplayer;
+        if (replayer == null) {
+            return false;
+        }
+        telemetryReplayer = null;
+        replayer.stop();
+        updateReplayControls(false);
+        return true;
+    }
+    
+    /**
+     * Возвращает множитель скорости, выбранный в списке.
+     *
+     * @return Множитель скорости воспроизведения
+     */
+    private double selectedReplaySpeed() {
+        String value = replaySpeedBox.getValue();
+        if (value == null || !value.endsWith("x")) {
+            return TelemetryReplayer.MAX_SPEED;
+        }
+        return Double.parseDouble(value.substring(0, value.length() - 1));
+    }
+    
+    /**
+     * Переключает элементы интерфейса между воспроизведением и живым каналом.
+     *
+     * @param replaying true во время воспроизведения
+     */
+    private void updateReplayControls(boolean replaying) {
+        stopReplayButton.setDisable(!replaying);
+        if (replaying) {
+            connectionStatus.setFill(Color.ORANGE);
+            connectionLabel.setText("Воспроизведение");
+        } else {
+            updateConnectionStatus(udpClient.isConnected());
+        }
+    }
+    
+    /**
+     * Обработчик кнопки стоп (устанавливает скорость в 0).
+     */
+    @FXML
+    private void onStopButtonClick() {
+        disengageAutopilot("команда СТОП");
+        speedSlider.setValue(0);
+        sendControlCommand();
+        logMessage("Команда СТОП - скорость установлена в 0%");
+    }
+    
+    /**
+     * Обработчик кнопки загрузки маршрута. Файл GeoJSON читается в фоновом
+     * потоке; если автопилот включен, он продолжает вести лодку по новому маршруту.
+     */
+    @FXML
+    private void onRouteButtonClick() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Выберите файл маршрута");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("GeoJSON", "*.geojson", "*.json"),
+                new FileChooser.ExtensionFilter("Все файлы", "*.*"));
+        File file = chooser.showOpenDialog(routeButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        scheduler.execute(() -> {
+            try {
+                Route route = new RouteLoader().load(file.toPath());
+                autopilot.setRoute(route);
+                logMessage("Маршрут загружен: " + route.getName() + ", точек " + route.size());
+                Platform.runLater(() -> {
+                    autopilotButton.setDisable(false);
+                    updateAutopilotStatus();
+                });
+            } catch (IOException e) {
+                logMessage(LogLevel.ERROR, "Ошибка загрузки маршрута: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Обработчик кнопки автопилота. Пока автопилот включен, слайдеры
+     * не передают уставок; при выключении лодка останавливается.
+     */
+    @FXML
+    private void onAutopilotButtonClick() {
+        if (autopilotButton.isSelected()) {
+            try {
+                autopilot.engage();
+                logMessage("Автопилот включен: " + autopilot.getRoute().getName());
+            } catch (IllegalStateException e) {
+                autopilotButton.setSelected(false);
+                logMessage(LogLevel.ERROR, "Автопилот не включен: " + e.getMessage());
+            }
+        } else {
+            disengageAutopilot("оператором");
+            speedSlider.setValue(0);
+            sendControlCommand();
+        }
+        updateAutopilotStatus();
+    }
+    
+    /**
+     * Отключает автопилот, если он был включен.
+     *
+     * @param reason Причина для журнала
+     * @return true если автопилот был включен
+     */
+    private boolean disengageAutopilot(String reason) {
+        if (!autopilot.disengage()) {
+            return false;
+        }
+        logMessage(LogLevel.WARNING, "Автопилот отключен: " + reason);
+        Platform.runLater(() -> {
+            autopilotButton.setSelected(false);
+            updateAutopilotStatus();
+        });
+        return true;
+    }
+    
+    /**
+     * Обрабатывает прохождение точки маршрута. После последней точки автопилот
+     * уже отключился и передал скорость 0; здесь с этим сводятся слайдеры.
+     *
+     * @param index Номер пройденной точки
+     * @param count Число точек маршрута
+     */
+    private void onWaypointReached(int index, int count) {
+        if (index < count - 1) {
+            logMessage("Автопилот: точка " + (index + 1) + " из " + count + " пройдена");
+            return;
+        }
+        logMessage("Автопилот: маршрут пройден, мотор остановлен");
+        Platform.runLater(() -> {
+            autopilotButton.setSelected(false);
+            speedSlider.setValue(0);
+            angleSlider.setValue(90);
+            updateAutopilotStatus();
+        });
+    }
+    
+    /**
+     * Обновляет строку состояния автопилота.
+     */
+    private void updateAutopilotStatus() {
+        Route route = autopilot.getRoute();
+        if (route == null) {
+            return;
+        }
+        if (!autopilot.isEngaged()) {
+            autopilotLabel.setText("Маршрут " + route.getName() + ", точек " + route.size());
+            return;
+        }
+        RttSnapshot jitter = autopilot.getJitterSnapshot(LINK_WINDOW_SHORT);
+        RttSnapshot compute = autopilot.getComputeSnapshot(LINK_WINDOW_SHORT);
+        autopilotLabel.setText(String.format("Точка %d из %d, %.0f м; такт: опоздание p99 %d мкс, расчет p99 %d мкс",
+                autopilot.getWaypointIndex() + 1, route.size(), autopilot.getDistanceMeters(),
+                jitter.getP99Micros(), compute.getP99Micros()));
+    }
+    
+    /**
+     * Обработчик кнопки загрузки геозон. Файл GeoJSON читается и индексируется
+     * в фоновом потоке, затем набор зон заменяется целиком.
+     */
+    @FXML
+    private void onGeofenceButtonClick() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Выберите файл геозон");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("GeoJSON", "*.geojson", "*.json"),
+                new FileChooser.ExtensionFilter("Все файлы", "*.*"));
+        File file = chooser.showOpenDialog(geofenceButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        scheduler.execute(() -> {
+            try {
+                List<Geofence> fences = new GeofenceLoader().load(file.toPath());
+                geofenceMonitor.setFences(fences);
+                String status = "Загружено зон: " + fences.size() + " (" + file.getName() + ")";
+                Platform.runLater(() -> geofenceLabel.setText(status));
+                logMessage("Геозоны: " + status);
+            } catch (IOException e) {
+                logMessage(LogLevel.ERROR, "Ошибка загрузки геозон: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Обрабатывает нарушение геозоны. Мотор к этому моменту уже остановлен
+     * монитором в потоке приема; здесь обнуляется слайдер, чтобы следующая
+     * уставка из интерфейса не вернула прежнюю скорость.
+     *
+     * @param violation Нарушение
+     */
+    private void onGeofenceViolation(GeofenceViolation violation) {
+        if (disengageAutopilot("нарушение геозоны")) {
+            // Такт автопилота мог передать уставку уже после остановки монитором
+            try {
+                commandCoalescer.stop();
+            } catch (IOException e) {
+                logMessage(LogLevel.ERROR, "Ошибка отправки остановки: " + e.getMessage());
+            }
+        }
+        logMessage(LogLevel.ERROR, String.format("Геозона: %s, мотор остановлен (проверка %d мкс)",
+                violation.describe(), TimeUnit.NANOSECONDS.toMicros(violation.getDetectionNanos())));
+        Platform.runLater(() -> {
+            speedSlider.setValue(0);
+            geofenceLabel.setText("Нарушение: " + violation.describe());
+        });
+    }
+    
+    /**
+     * Обрабатывает смену уровня сторожа связи. Команды уровня к этому моменту
+     * уже отправлены; здесь слайдер скорости приводится к ограничению, чтобы
+     * после возврата связи лодка не набрала прежний ход.
+     *
+     * @param previous Прежний уровень
+     * @param level Новый уровень
+     * @param silenceMillis Время без телеметрии (мс)
+     */
+    private void onFailsafeLevelChanged(FailsafeLevel previous, FailsafeLevel level, long silenceMillis) {
+        switch (level) {
+            case WARNING:
+                logMessage(LogLevel.WARNING, "Нет телеметрии " + silenceMillis + " мс");
+                break;
+            case HOLD:
+                int holdSpeed = linkWatchdog.getHoldSpeed();
+                logMessage(LogLevel.WARNING, "Нет телеметрии " + silenceMillis
+                        + " мс, скорость ограничена " + holdSpeed + "%");
+                Platform.runLater(() -> speedSlider.setValue(Math.min(speedSlider.getValue(), holdSpeed)));
+                break;
+            case STOP:
+                logMessage(LogLevel.ERROR, "Нет телеметрии " + silenceMillis + " мс, мотор остановлен");
+                disengageAutopilot("нет телеметрии");
+                Platform.runLater(() -> {
+                    speedSlider.setValue(0);
+                    // Уставка автопилота могла остаться в планировщике, а слайдер уже стоять на 0
+                    sendControlCommand();
+                });
+                break;
+            default:
+                if (previous != FailsafeLevel.WARNING && udpClient.isConnected()) {
+                    logMessage("Телеметрия возобновилась, ограничение скорости снято");
+                }
+                break;
+        }
+    }
+    
+    /**
+     * Обработчик кнопки центр (устанавливает угол в 90°).
+     */
+    @FXML
+    private void onCenterButtonClick() {
+        angleSlider.setValue(90);
+        logMessage("Команда ЦЕНТР - угол установлен в 90°");
+    }
+    
+    /**
+     * Передает текущую уставку планировщику команд, если лодкой не управляет автопилот.
+     * Сама отправка выполняется планировщиком с частотой {@link #CONTROL_RATE_HZ}.
+     */
+    private void sendControlCommand() {
+        if (autopilot.isEngaged()) {
+            return;
+        }
+        commandCoalescer.submit(currentAngle, currentSpeed);
+    }
+    
+    /**
+     * Запрашивает телеметрию и планирует следующий запрос: с текущей частотой
+     * телеметрии, а пока идет поток - с интервалом пробы канала.
+     */
+    private void pollTelemetry() {
+        try {
+            requestTelemetryIfConnected();
+        } finally {
+            long delay = udpClient.isStreamActive()
+                    ? TELEMETRY_PROBE_INTERVAL_MS
+                    : telemetryRate.getPeriodMillis();
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::pollTelemetry, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+    
+    /**
+     * Оценивает качество канала и уровень сигнала лодки и подстраивает частоту
+     * телеметрии. Новая частота применяется к подписке сразу, а к опросу -
+     * со следующего запроса.
+     */
+    private void adaptTelemetryRate() {
+        if (!udpClient.isConnected()) {
+            return;
+        }
+        AirboatTelemetry telemetry = latestTelemetry;
+        long signal = telemetry != null ? telemetry.getWifiSignalLevel() : TelemetryRateController.UNKNOWN_SIGNAL;
+        double previousRate = telemetryRate.getRateHz();
+        double rate = telemetryRate.update(udpClient.getLinkMetrics(), signal, System.nanoTime());
+        if (rate == previousRate) {
+            return;
+        }
+        
+        logMessage(String.format("Частота телеметрии: %.1f -> %.1f Гц", previousRate, rate));
+        if (udpClient.getStreamRateHz() > 0) {
+            try {
+                udpClient.subscribeTelemetry(rate);
+            } catch (IOException e) {
+                logMessage(LogLevel.ERROR, "Ошибка изменения частоты потока: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Запрашивает телеметрию если подключение активно. Пока идет поток телеметрии,
+     * запрос служит пробой канала для измерения времени запрос-ответ и потерь;
+     * без потока он остается основным источником телеметрии.
+     */
+    private void requestTelemetryIfConnected() {
+        if (!udpClient.isConnected()) {
+            return;
+        }
+        
+        // Ответ отображается через слушателя телеметрии в ближайшем кадре
+        udpClient.requestTelemetryAsync()
+                .exceptionally(throwable -> {
+                    logMessage(LogLevel.ERROR, "Ошибка получения телеметрии: " + throwable.getMessage());
+                    return null;
+                });
+    }
+    
+    /**
+     * Публикует телеметрию для отрисовки в ближайшем кадре.
+     * Вызывается из потока приема или воспроизведения; кадр увидит только
+     * последний снимок, промежуточные просто заменяются.
+     *
+     * @param telemetry Данные телеметрии (объект источника переиспользуется, поэтому копируется)
+     */
+    private void publishTelemetry(AirboatTelemetry telemetry) {
+        latestTelemetry = new AirboatTelemetry(telemetry);
+    }
+    
+    /**
+     * Обновляет отображение телеметрии. Изменяются только элементы,
+     * значения которых отличаются от предыдущего отображенного снимка.
+     *
+     * @param telemetry Данные телеметрии
+     * @param previous Предыдущий отображенный снимок или null
+     */
+    private void updateTelemetry(AirboatTelemetry telemetry, AirboatTelemetry previous) {
+        if (telemetry == null) {
+            return;
+        }
+        
+        if (previous == null || previous.getWifiSignalLevel() != telemetry.getWifiSignalLevel()) {
+            wifiSignalLabel.setText(telemetry.getWifiSignalLevel() + " dBm");
+            // WiFi сигнал: -30 dBm (отличный) до -90 dBm (плохой)
+            double wifiPercent = Math.max(0, Math.min(100, (90 + telemetry.getWifiSignalLevel()) / 60.0 * 100));
+            wifiSignalProgressBar.setProgress(wifiPercent / 100.0);
+        }
+        
+        if (previous == null || previous.getBatteryVoltage() != telemetry.getBatteryVoltage()) {
+            batteryVoltageLabel.setText(String.format("%.2f В", telemetry.getBatteryVoltageVolts()));
+            // Батарея: 3000-4200 мВ (типичный диапазон для Li-Po)
+            double batteryPercent = Math.max(0, Math.min(100,
+                (telemetry.getBatteryVoltage() - 3000) / 1200.0 * 100));
+            batteryProgressBar.setProgress(batteryPercent / 100.0);
+        }
+        
+        if (previous == null || previous.getLatitude() != telemetry.getLatitude()) {
+            latitudeLabel.setText(String.valueOf(telemetry.getLatitude()));
+        }
+        if (previous == null || previous.getLongitude() != telemetry.getLongitude()) {
+            longitudeLabel.setText(String.valueOf(telemetry.getLongitude()));
+        }
+        if (previous == null || previous.getCourse() != telemetry.getCourse()) {
+            courseLabel.setText(telemetry.getCourse() + "°");
+        }
+    }
+    
+    /**
+     * Снимает показатели канала и передает их на панель качества связи.
+     * Вызывается планировщиком, сама панель обновляется в потоке JavaFX.
+     */
+    private void refreshLinkMetrics() {
+        LinkMetrics metrics = udpClient.getLinkMetrics();
+        RttSnapshot shortWindow = metrics.snapshot(LINK_WINDOW_SHORT);
+        RttSnapshot longWindow = metrics.snapshot(LINK_WINDOW_LONG);
+        boolean connected = udpClient.isConnected();
+        
+        String packets = "↑ " + metrics.getPacketsSent() + " / ↓ " + metrics.getPacketsReceived();
+        String bytes = "↑ " + formatBytes(metrics.getBytesSent()) + " / ↓ " + formatBytes(metrics.getBytesReceived());
+        String stream = udpClient.isStreamActive()
+                ? String.format("%.1f Гц, принято %d, пропущено %d", udpClient.getStreamRateHz(),
+                        metrics.getStreamPackets(), metrics.getStreamGaps())
+                : (connected ? String.format("нет, опрос %.1f Гц", telemetryRate.getRateHz()) : "-");
+        String errors = "таймауты " + metrics.getTimeouts()
+                + ", поврежденные " + metrics.getDecodeFailures()
+                + ", устаревшие " + metrics.getStaleResponses();
+        RttSnapshot jitter = linkWatchdog.getJitterSnapshot(LINK_WINDOW_LONG);
+        String watchdog = String.format("%s, опоздание p99 %d мкс, макс %d мкс, реакция %d мс",
+                linkWatchdog.getLevel(), jitter.getP99Micros(),
+                TimeUnit.NANOSECONDS.toMicros(linkWatchdog.getMaxLatenessNanos()),
+                TimeUnit.NANOSECONDS.toMillis(linkWatchdog.getMaxReactionNanos()));
+        String gateway = telemetryGateway.getStatus();
+        
+        Platform.runLater(() -> {
+            rttShortLabel.setText(formatRtt(shortWindow));
+            rttLongLabel.setText(formatRtt(longWindow));
+            lossLabel.setText(String.format("%.1f%% (10 с), %.1f%% (60 с)",
+                    shortWindow.getLossRate() * 100, longWindow.getLossRate() * 100));
+            packetsLabel.setText(packets);
+            bytesLabel.setText(bytes);
+            linkErrorsLabel.setText(errors);
+            streamLabel.setText(stream);
+            watchdogLabel.setText(watchdog);
+            gatewayLabel.setText(gateway);
+            linkQualityIndicator.setFill(connected ? linkQualityColor(shortWindow) : Color.LIGHTGRAY);
+        });
+    }
+    
+    /**
+     * Оценивает качество связи по короткому окну: потери и p90 времени запрос-ответ.
+     *
+     * @param snapshot Статистика короткого окна
+     * @return Зеленый, оранжевый или красный цвет индикатора
+     */
+    private static Color linkQualityColor(RttSnapshot snapshot) {
+        if (snapshot.getCount() == 0) {
+            // Ни одного ответа за окно: при наличии потерь связь фактически потеряна
+            return snapshot.getLost() > 0 ? Color.RED : Color.LIGHTGRAY;
+        }
+        double loss = snapshot.getLossRate();
+        long p90 = snapshot.getP90Micros();
+        if (loss >= LINK_LOSS_CRITICAL || p90 >= LINK_RTT_CRITICAL_MICROS) {
+            return Color.RED;
+        }
+        if (loss >= LINK_LOSS_WARNING || p90 >= LINK_RTT_WARNING_MICROS) {
+            return Color.ORANGE;
+        }
+        return Color.GREEN;
+    }
+    
+    /**
+     * Форматирует перцентили времени запрос-ответ в миллисекундах.
+     *
+     * @param snapshot Статистика окна
+     * @return Строка для панели
+     */
+    private static String formatRtt(RttSnapshot snapshot) {
+        if (snapshot.getCount() == 0) {
+            return "нет ответов";
+        }
+        return String.format("p50 %.1f / p90 %.1f / p99 %.1f / max %.1f мс",
+                snapshot.getP50Micros() / 1000.0, snapshot.getP90Micros() / 1000.0,
+                snapshot.getP99Micros() / 1000.0, snapshot.getMaxMicros() / 1000.0);
+    }
+    
+    /**
+     * Форматирует объем трафика.
+     *
+     * @param bytes Число байт
+     * @return Строка в байтах, КБ или МБ
+     */
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " Б";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f КБ", bytes / 1024.0);
+        }
+        return String.format("%.1f МБ", bytes / (1024.0 * 1024.0));
+    }
+    
+    /**
+     * Обновляет статус подключения в интерфейсе.
+     *
+     * @param connected true если подключен
+     */
+    private void updateConnectionStatus(boolean connected) {
+        if (connected) {
+            connectionStatus.setFill(Color.GREEN);
+            connectionLabel.setText("Подключено");
+            connectButton.setDisable(true);
+            disconnectButton.setDisable(false);
+            ipField.setDisable(true);
+            portField.setDisable(true);
+        } else {
+            connectionStatus.setFill(Color.RED);
+            connectionLabel.setText("Отключено");
+            connectButton.setDisable(false);
+            disconnectButton.setDisable(true);
+            ipField.setDisable(false);
+            portField.setDisable(false);
+        }
+    }
+    
+    /**
+     * Добавляет информационное сообщение в лог.
+     *
+     * @param message Сообщение для логирования
+     */
+    private void logMessage(String message) {
+        logMessage(LogLevel.INFO, message);
+    }
+    
+    /**
+     * Добавляет сообщение в лог. Может вызываться из любого потока:
+     * сообщение попадает в очередь и отображается в ближайшем кадре.
+     *
+     * @param level Уровень сообщения
+     * @param message Сообщение для логирования
+     */
+    private void logMessage(LogLevel level, String message) {
+        logBuffer.post(level, message);
+    }
+    
+    /**
+     * Возвращает историю принятой телеметрии.
+     * 
+     * @return История телеметрии
+     */
+    public TelemetryHistory getTelemetryHistory() {
+        return telemetryHistory;
+    }
+    
+    /**
+     * Освобождает ресурсы при закрытии приложения.
+     */
+    public void shutdown() {
+        if (uiPulse != null) {
+            uiPulse.stop();
+        }
+        if (telemetryReplayer != null) {
+            telemetryReplayer.stop();
+        }
+        autopilot.shutdown();
+        linkWatchdog.shutdown();
+        commandCoalescer.shutdown();
+        udpClient.disconnect();
+        stopFlightRecorder();
+        telemetryGateway.close();
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.example.aeriboat.chart;
+
+import java.util.Arrays;
+
+/**
+ * Прореживание ряда для графика за весь сеанс: фиксированное число корзин
+ * равной длительности, в каждой хранятся минимум и максимум с моментами,
+ * когда они были достигнуты.
+ * <p>
+ * Отсчеты добавляются по одному за O(1). Когда ряд выходит за последнюю
+ * корзину, соседние корзины попарно сливаются и длительность корзины
+ * удваивается, поэтому память не зависит от длины сеанса, а пики и провалы
+ * не теряются ни на каком масштабе. Для отрисовки корзины дополнительно
+ * объединяются группами так, чтобы точек было не больше, чем пикселей.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ *
+ * @since 1.1
+ */
+public final class MinMaxDecimator {
+
+    public static final int DEFAULT_BUCKETS = 2048;
+    public static final long DEFAULT_BUCKET_MILLIS = 100;
+
+    private final long[] minValues;
+    private final long[] maxValues;
+    private final long[] minTimes;
+    private final long[] maxTimes;
+    private final boolean[] filled;
+    private final long initialBucketMillis;
+    private long bucketMillis;
+    private long originMillis;
+    private int size;
+    private long sampleCount;
+
+    public MinMaxDecimator() {
+        this(DEFAULT_BUCKETS, DEFAULT_BUCKET_MILLIS);
+    }
+
+    /**
+     * Создает прореживатель.
+     *
+     * @param buckets Число корзин (четное, не меньше 2)
+     * @param bucketMillis Начальная длительность корзины (мс)
+     */
+    public MinMaxDecimator(int buckets, long bucketMillis) {
+        if (buckets < 2 || buckets % 2 != 0) {
+            throw new IllegalArgumentException("Число корзин должно быть четным и не меньше 2: " + buckets);
+        }
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Длительность корзины должна быть положительной: " + bucketMillis);
+        }
+        this.minValues = new long[buckets];
+        this.maxValues = new long[buckets];
+        this.minTimes = new long[buckets];
+        this.maxTimes = new long[buckets];
+        this.filled = new boolean[buckets];
+        this.initialBucketMillis = bucketMillis;
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Добавляет отсчет. Метки времени должны быть неубывающими; более ранние
+     * приравниваются к началу ряда.
+     *
+     * @param timestampMillis Метка времени (мс)
+     * @param value Значение
+     */
+    public void add(long timestampMillis, long value) {
+        if (sampleCount == 0) {
+            originMillis = timestampMillis;
+        }
+        timestampMillis = Math.max(timestampMillis, originMillis);
+
+        long index = (timestampMillis - originMillis) / bucketMillis;
+        while (index >= filled.length) {
+            compact();
+            index = (timestampMillis - originMillis) / bucketMillis;
+        }
+
+        int bucket = (int) index;
+        if (!filled[bucket]) {
+            filled[bucket] = true;
+            minValues[bucket] = value;
+            maxValues[bucket] = value;
+            minTimes[bucket] = timestampMillis;
+            maxTimes[bucket] = timestampMillis;
+        } else {
+            if (value < minValues[bucket]) {
+                minValues[bucket] = value;
+                minTimes[bucket] = timestampMillis;
+            }
+            if (value > maxValues[bucket]) {
+                maxValues[bucket] = value;
+                maxTimes[bucket] = timestampMillis;
+            }
+        }
+        size = Math.max(size, bucket + 1);
+        sampleCount++;
+    }
+
+    /**
+     * Выдает точки для отрисовки: корзины объединяются группами так, чтобы
+     * точек было не больше maxPoints; из каждой группы берутся минимум и
+     * максимум в порядке их появления (одна точка, если они совпадают).
+     *
+     * @param maxPoints Наибольшее число точек (не меньше 2), обычно ширина графика в пикселях
+     * @param timestampsOut Метки времени точек (длина не меньше maxPoints)
+     * @param valuesOut Значения точек (длина не меньше maxPoints)
+     * @return Число точек
+     */
+    public int render(int maxPoints, long[] timestampsOut, long[] valuesOut) {
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("Нужно не меньше двух точек: " + maxPoints);
+        }
+        int groups = maxPoints / 2;
+        int groupSize = Math.max(1, (size + groups - 1) / groups);
+
+        int points = 0;
+        for (int from = 0; from < size; from += groupSize) {
+            int to = Math.min(size, from + groupSize);
+            int minBucket = -1;
+            int maxBucket = -1;
+            for (int i = from; i < to; i++) {
+                if (!filled[i]) {
+                    continue;
+                }
+                if (minBucket < 0 || minValues[i] < minValues[minBucket]) {
+                    minBucket = i;
+                }
+                if (maxBucket < 0 || maxValues[i] > maxValues[maxBucket]) {
+                    maxBucket = i;
+                }
+            }
+            if (minBucket < 0) {
+                continue;
+            }
+
+            long minTime = minTimes[minBucket];
+            long maxTime = maxTimes[maxBucket];
+            long min = minValues[minBucket];
+            long max = maxValues[maxBucket];
+            if (min == max || minTime == maxTime) {
+                timestampsOut[points] = minTime;
+                valuesOut[points++] = min == max ? min : max;
+            } else if (minTime < maxTime) {
+                timestampsOut[points] = minTime;
+                valuesOut[points++] = min;
+                timestampsOut[points] = maxTime;
+                valuesOut[points++] = max;
+            } else {
+                timestampsOut[points] = maxTime;
+                valuesOut[points++] = max;
+                timestampsOut[points] = minTime;
+                valuesOut[points++] = min;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Возвращает метку времени первого отсчета.
+     *
+     * @return Метка времени (мс) или -1, если отсчетов не было
+     */
+    public long getOriginMillis() {
+        return sampleCount == 0 ? -1 : originMillis;
+    }
+
+    /**
+     * Возвращает текущую длительность корзины.
+     *
+     * @return Длительность (мс)
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Возвращает число добавленных отсчетов.
+     *
+     * @return Число отсчетов
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Удаляет все отсчеты и возвращает начальную длительность корзины.
+     */
+    public void clear() {
+        Arrays.fill(filled, false);
+        bucketMillis = initialBucketMillis;
+        size = 0;
+        sampleCount = 0;
+    }
+
+    /**
+     * Сливает соседние корзины попарно и удваивает длительность корзины.
+     */
+    private void compact() {
+        int half = filled.length / 2;
+        for (int i = 0; i < half; i++) {
+            int left = 2 * i;
+            int right = left + 1;
+            if (filled[left] && filled[right]) {
+                if (minValues[right] < minValues[left]) {
+                    minValues[i] = minValues[right];
+                    minTimes[i] = minTimes[right];
+                } else {
+                    minValues[i] = minValues[left];
+                    minTimes[i] = minTimes[left];
+                }
+                if (maxValues[right] > maxValues[left]) {
+                    maxValues[i] = maxValues[right];
+                    maxTimes[i] = maxTimes[right];
+                } else {
+                    maxValues[i] = maxValues[left];
+                    maxTimes[i] = maxTimes[left];
+                }
+                filled[i] = true;
+            } else if (filled[left] || filled[right]) {
+                int source = filled[left] ? left : right;
+                minValues[i] = minValues[source];
+                minTimes[i] = minTimes[source];
+                maxValues[i] = maxValues[source];
+                maxTimes[i] = maxTimes[source];
+                filled[i] = true;
+            } else {
+                filled[i] = false;
+            }
+        }
+        Arrays.fill(filled, half, filled.length, false);
+        size = (size + 1) / 2;
+        bucketMillis *= 2;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.aeriboat.chart;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.history.TelemetryHistory;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * График поля телеметрии за весь сеанс.
+ * <p>
+ * Новые отсчеты забираются из {@link TelemetryHistory} по порядковому номеру
+ * и добавляются в {@link MinMaxDecimator}, так что обновление стоит
+ * пропорционально числу новых отсчетов, а не длине истории. В серию графика
+ * попадает не больше точек, чем пикселей по ширине оси, поэтому число узлов
+ * сцены ограничено и после многочасового сеанса на высокой частоте.
+ * <p>
+ * Все методы вызываются в потоке JavaFX.
+ *
+ * @since 1.1
+ */
+public final class TelemetryChart {
+
+    private static final int READ_CHUNK = 4096;
+    private static final int MAX_CHUNKS_PER_REFRESH = 16;
+    private static final int DEFAULT_WIDTH_PIXELS = 300;
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+
+    private final TelemetryHistory history;
+    private final TelemetryField field;
+    private final double scale;
+    private final MinMaxDecimator decimator;
+    private final LineChart<Number, Number> chart;
+    private final XYChart.Series<Number, Number> series;
+    private final long[] chunkTimes;
+    private final long[] chunkValues;
+    private long[] pointTimes;
+    private long[] pointValues;
+    private long nextIndex;
+    private int renderedWidth;
+    private boolean dirty;
+
+    /**
+     * Создает график.
+     *
+     * @param title Заголовок графика
+     * @param unit Единица измерения значений для подписи оси
+     * @param history История телеметрии
+     * @param field Отображаемое поле
+     * @param scale Множитель, переводящий хранимое значение в единицы графика
+     */
+    public TelemetryChart(String title, String unit, TelemetryHistory history, TelemetryField field, double scale) {
+        this.history = history;
+        this.field = field;
+        this.scale = scale;
+        this.decimator = new MinMaxDecimator();
+        this.chunkTimes = new long[READ_CHUNK];
+        this.chunkValues = new long[READ_CHUNK];
+
+        NumberAxis xAxis = new NumberAxis();
+        xAxis.setLabel("Время сеанса, мин");
+        xAxis.setForceZeroInRange(true);
+        NumberAxis yAxis = new NumberAxis();
+        yAxis.setLabel(unit);
+        yAxis.setForceZeroInRange(false);
+
+        this.series = new XYChart.Series<>();
+        this.chart = new LineChart<>(xAxis, yAxis);
+        chart.setTitle(title);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(false);
+        chart.setPrefHeight(160);
+        chart.setMinHeight(120);
+        chart.getData().add(series);
+    }
+
+    /**
+     * Возвращает узел графика для размещения в сцене.
+     *
+     * @return График
+     */
+    public LineChart<Number, Number> getNode() {
+        return chart;
+    }
+
+    /**
+     * Забирает новые отсчеты из истории и, если они были или изменилась
+     * ширина графика, перестраивает серию. За один вызов обрабатывается
+     * ограниченное число отсчетов, остальные - при следующих вызовах.
+     */
+    public void refresh() {
+        long appended = history.getAppendedCount();
+        if (appended < nextIndex) {
+            // История очищена
+            clear();
+        }
+
+        for (int chunk = 0; chunk < MAX_CHUNKS_PER_REFRESH && nextIndex < appended; chunk++) {
+            long start = Math.max(nextIndex, appended - history.getCapacity());
+            int count = history.copySince(field, start, chunkTimes, chunkValues);
+            if (count == 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                decimator.add(chunkTimes[i], chunkValues[i]);
+            }
+            nextIndex = start + count;
+            dirty = true;
+        }
+
+        int width = (int) chart.getXAxis().getWidth();
+        if (width <= 0) {
+            width = DEFAULT_WIDTH_PIXELS;
+        }
+        if (dirty || width != renderedWidth) {
+            render(Math.max(2, width));
+        }
+    }
+
+    /**
+     * Удаляет данные графика; следующий {@link #refresh()} начнет с текущих
+     * отсчетов истории.
+     */
+    public void clear() {
+        decimator.clear();
+        nextIndex = 0;
+        renderedWidth = 0;
+        dirty = false;
+        series.getData().clear();
+    }
+
+    private void render(int width) {
+        if (pointTimes == null || pointTimes.length < width) {
+            pointTimes = new long[width];
+            pointValues = new long[width];
+        }
+        int count = decimator.render(width, pointTimes, pointValues);
+
+        long origin = decimator.getOriginMillis();
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new XYChart.Data<>((pointTimes[i] - origin) / MILLIS_PER_MINUTE, pointValues[i] * scale));
+        }
+        series.getData().setAll(points);
+        renderedWidth = width;
+        dirty = false;
+    }
+}
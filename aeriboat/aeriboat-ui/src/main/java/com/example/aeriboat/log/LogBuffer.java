@@ -0,0 +1,227 @@
+package com.example.aeriboat.log;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Журнал событий фиксированной емкости для {@code ListView}.
+ * <p>
+ * Любой поток добавляет сообщения через {@link #post(LogLevel, String)} в
+ * неблокирующую очередь; поток JavaFX раз за импульс вызывает {@link #drain()}
+ * и переносит накопленное одной пачкой в кольцевой буфер. Список видит только
+ * поток JavaFX и получает одно уведомление об изменении на импульс, а не на
+ * каждое сообщение.
+ * <p>
+ * Хранятся два кольца одинаковой емкости: все сообщения и сообщения,
+ * прошедшие фильтр (минимальный уровень и строка поиска). Список отображает
+ * второе кольцо; при смене фильтра оно перестраивается из первого. Память и
+ * работа за импульс ограничены емкостью и не растут с длиной сеанса: если
+ * поток JavaFX не успевает, лишние сообщения отбрасываются и учитываются
+ * в {@link #getDroppedCount()}.
+ *
+ * @since 1.1
+ */
+public final class LogBuffer extends ObservableListBase<LogEntry> {
+
+    public static final int DEFAULT_CAPACITY = 5000;
+
+    private final Queue<LogEntry> pending;
+    private final AtomicInteger pendingCount;
+    private final LongAdder dropped;
+    private final int queueLimit;
+    private final LogEntry[] all;
+    private final LogEntry[] visible;
+    private final List<LogEntry> batch;
+    private int allHead;
+    private int allSize;
+    private int visibleHead;
+    private int visibleSize;
+    private long reportedDrops;
+    private LogLevel minLevel = LogLevel.INFO;
+    private String query = "";
+
+    public LogBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LogBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость журнала должна быть положительной: " + capacity);
+        }
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger();
+        this.dropped = new LongAdder();
+        this.queueLimit = capacity;
+        this.all = new LogEntry[capacity];
+        this.visible = new LogEntry[capacity];
+        this.batch = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Добавляет сообщение. Может вызываться из любого потока и не блокируется.
+     *
+     * @param level Уровень сообщения
+     * @param message Текст сообщения
+     */
+    public void post(LogLevel level, String message) {
+        if (pendingCount.incrementAndGet() > queueLimit) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.offer(new LogEntry(level, message));
+    }
+
+    /**
+     * Переносит накопленные сообщения в кольцо и уведомляет список одним изменением.
+     * Вызывается только в потоке JavaFX, обычно из {@code AnimationTimer}.
+     *
+     * @return Число сообщений, добавленных в отображаемый список
+     */
+    public int drain() {
+        long droppedTotal = dropped.sum();
+        if (droppedTotal != reportedDrops) {
+            accept(new LogEntry(LogLevel.WARNING,
+                    "Журнал не успевает: пропущено сообщений " + (droppedTotal - reportedDrops)));
+            reportedDrops = droppedTotal;
+        }
+
+        LogEntry entry;
+        while ((entry = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            accept(entry);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        int capacity = visible.length;
+        int added = Math.min(batch.size(), capacity);
+        int oldSize = visibleSize;
+        int newSize = Math.min(capacity, oldSize + added);
+        int evicted = oldSize + added - newSize;
+
+        beginChange();
+        if (evicted > 0) {
+            nextRemove(0, copyVisible(0, evicted));
+        }
+        for (int i = batch.size() - added; i < batch.size(); i++) {
+            appendVisible(batch.get(i));
+        }
+        nextAdd(newSize - added, newSize);
+        endChange();
+
+        batch.clear();
+        return added;
+    }
+
+    /**
+     * Устанавливает фильтр и перестраивает отображаемый список.
+     * Вызывается только в потоке JavaFX.
+     *
+     * @param level Минимальный уровень сообщений
+     * @param search Строка поиска без учета регистра; пустая или null - без поиска
+     */
+    public void setFilter(LogLevel level, String search) {
+        String normalized = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+        if (level == minLevel && normalized.equals(query)) {
+            return;
+        }
+        minLevel = level;
+        query = normalized;
+
+        List<LogEntry> removed = copyVisible(0, visibleSize);
+        Arrays.fill(visible, null);
+        visibleHead = 0;
+        visibleSize = 0;
+        for (int i = 0; i < allSize; i++) {
+            LogEntry entry = all[(allHead + i) % all.length];
+            if (matches(entry)) {
+                appendVisible(entry);
+            }
+        }
+
+        beginChange();
+        if (!removed.isEmpty()) {
+            nextRemove(0, removed);
+        }
+        if (visibleSize > 0) {
+            nextAdd(0, visibleSize);
+        }
+        endChange();
+    }
+
+    /**
+     * Возвращает число сообщений, отброшенных из-за переполнения очереди.
+     *
+     * @return Число отброшенных сообщений
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public LogEntry get(int index) {
+        if (index < 0 || index >= visibleSize) {
+            throw new IndexOutOfBoundsException("Индекс " + index + ", размер " + visibleSize);
+        }
+        return visible[(visibleHead + index) % visible.length];
+    }
+
+    @Override
+    public int size() {
+        return visibleSize;
+    }
+
+    /**
+     * Записывает сообщение в кольцо всех сообщений и, если оно проходит
+     * фильтр, в пачку текущего импульса.
+     */
+    private void accept(LogEntry entry) {
+        if (allSize < all.length) {
+            all[(allHead + allSize) % all.length] = entry;
+            allSize++;
+        } else {
+            all[allHead] = entry;
+            allHead = (allHead + 1) % all.length;
+        }
+
+        if (matches(entry)) {
+            if (batch.size() == visible.length) {
+                // Пачка больше емкости: ее начало все равно не попадет в список
+                batch.remove(0);
+            }
+            batch.add(entry);
+        }
+    }
+
+    private void appendVisible(LogEntry entry) {
+        if (visibleSize < visible.length) {
+            visible[(visibleHead + visibleSize) % visible.length] = entry;
+            visibleSize++;
+        } else {
+            visible[visibleHead] = entry;
+            visibleHead = (visibleHead + 1) % visible.length;
+        }
+    }
+
+    private List<LogEntry> copyVisible(int from, int to) {
+        List<LogEntry> copy = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            copy.add(visible[(visibleHead + i) % visible.length]);
+        }
+        return copy;
+    }
+
+    private boolean matches(LogEntry entry) {
+        return entry.getLevel().isAtLeast(minLevel) && entry.contains(query);
+    }
+}
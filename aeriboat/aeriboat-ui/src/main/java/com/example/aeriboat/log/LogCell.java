@@ -0,0 +1,37 @@
+package com.example.aeriboat.log;
+
+import javafx.scene.control.ListCell;
+
+/**
+ * Ячейка журнала событий: готовая строка сообщения, цвет по уровню.
+ *
+ * @since 1.1
+ */
+public class LogCell extends ListCell<LogEntry> {
+
+    private static final String WARNING_STYLE = "-fx-text-fill: #b36b00;";
+    private static final String ERROR_STYLE = "-fx-text-fill: #cc0000;";
+
+    @Override
+    protected void updateItem(LogEntry entry, boolean empty) {
+        super.updateItem(entry, empty);
+        if (empty || entry == null) {
+            setText(null);
+            setStyle(null);
+            return;
+        }
+
+        setText(entry.getText());
+        switch (entry.getLevel()) {
+            case WARNING:
+                setStyle(WARNING_STYLE);
+                break;
+            case ERROR:
+                setStyle(ERROR_STYLE);
+                break;
+            default:
+                setStyle(null);
+                break;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.aeriboat.log;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Неизменяемое сообщение журнала событий. Текст строки с отметкой времени
+ * формируется один раз при создании, в потоке, записавшем сообщение.
+ *
+ * @since 1.1
+ */
+public final class LogEntry {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final LogLevel level;
+    private final String message;
+    private final String text;
+
+    public LogEntry(LogLevel level, String message) {
+        this(level, message, LocalTime.now());
+    }
+
+    public LogEntry(LogLevel level, String message, LocalTime time) {
+        this.level = level;
+        this.message = message;
+        this.text = "[" + TIME_FORMAT.format(time) + "] " + message;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Возвращает строку для отображения.
+     *
+     * @return Строка вида {@code [HH:mm:ss] сообщение}
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Проверяет, содержит ли строка искомый текст без учета регистра.
+     *
+     * @param lowerCaseQuery Искомый текст в нижнем регистре; пустой подходит всегда
+     * @return true если строка содержит текст
+     */
+    public boolean contains(String lowerCaseQuery) {
+        return lowerCaseQuery.isEmpty() || text.toLowerCase(Locale.ROOT).contains(lowerCaseQuery);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.aeriboat.log;
+
+/**
+ * Уровень сообщения журнала событий. Порядок констант задает важность.
+ *
+ * @since 1.1
+ */
+public enum LogLevel {
+
+    INFO("Все"),
+    WARNING("Предупреждения"),
+    ERROR("Ошибки");
+
+    private final String displayName;
+
+    LogLevel(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Проверяет, не ниже ли уровень указанного порога.
+     *
+     * @param threshold Минимальный уровень
+     * @return true если сообщение этого уровня проходит порог
+     */
+    public boolean isAtLeast(LogLevel threshold) {
+        return ordinal() >= threshold.ordinal();
+    }
+
+    /**
+     * Возвращает название фильтра для списка уровней.
+     *
+     * @return Название, например "Предупреждения"
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
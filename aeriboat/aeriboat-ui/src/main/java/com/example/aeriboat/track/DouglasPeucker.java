@@ -0,0 +1,103 @@
+package com.example.aeriboat.track;
+
+/**
+ * Упрощение ломаной алгоритмом Дугласа-Пекера.
+ * <p>
+ * Рекурсия заменена явным стеком, поэтому длинные участки не переполняют
+ * стек вызовов.
+ *
+ * @since 1.1
+ */
+public final class DouglasPeucker {
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Упрощает участок ломаной [from, to]: оставляет точки, отклоняющиеся от
+     * упрощенной линии больше допуска. Первая и последняя точки сохраняются всегда.
+     *
+     * @param xs Координаты X точек
+     * @param ys Координаты Y точек
+     * @param from Индекс первой точки участка
+     * @param to Индекс последней точки участка (включительно)
+     * @param tolerance Допуск в единицах координат
+     * @return Индексы оставленных точек по возрастанию
+     */
+    public static int[] simplify(double[] xs, double[] ys, int from, int to, double tolerance) {
+        if (to - from < 2) {
+            int[] all = new int[to - from + 1];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int length = to - from + 1;
+        boolean[] keep = new boolean[length];
+        keep[0] = true;
+        keep[length - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+
+        int[] stack = new int[2 * length];
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to;
+        int kept = 2;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            double ax = xs[first];
+            double ay = ys[first];
+            double dx = xs[last] - ax;
+            double dy = ys[last] - ay;
+            double lengthSquared = dx * dx + dy * dy;
+
+            int farthest = -1;
+            double farthestDistance = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceSquared(xs[i] - ax, ys[i] - ay, dx, dy, lengthSquared);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest - from] = true;
+                kept++;
+                if (farthest - first > 1) {
+                    stack[top++] = first;
+                    stack[top++] = farthest;
+                }
+                if (last - farthest > 1) {
+                    stack[top++] = farthest;
+                    stack[top++] = last;
+                }
+            }
+        }
+
+        int[] indices = new int[kept];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (keep[i]) {
+                indices[count++] = from + i;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Квадрат расстояния от точки (px, py) до отрезка из начала координат в (dx, dy).
+     */
+    private static double distanceSquared(double px, double py, double dx, double dy, double lengthSquared) {
+        if (lengthSquared == 0) {
+            return px * px + py * py;
+        }
+        double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+        double ex = px - t * dx;
+        double ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+}
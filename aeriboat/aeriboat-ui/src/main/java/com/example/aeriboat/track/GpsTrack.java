@@ -0,0 +1,199 @@
+package com.example.aeriboat.track;
+
+import java.util.Arrays;
+
+/**
+ * Трек лодки в локальных метрах относительно первой точки: X на восток, Y на север.
+ * <p>
+ * Координаты хранятся в примитивных массивах и только дополняются. Трек
+ * разбит на участки по {@link #CHUNK_SIZE} отрезков; соседние участки делят
+ * крайнюю точку. Для завершенного участка хранится охватывающий прямоугольник
+ * и по требованию строится упрощенная ломаная для каждого уровня масштаба
+ * (допуск - половина пикселя), которая затем переиспользуется. Поэтому при
+ * добавлении точек работа не зависит от длины трека.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ *
+ * @since 1.1
+ */
+public final class GpsTrack {
+
+    /**
+     * Число отрезков в участке.
+     */
+    public static final int CHUNK_SIZE = 256;
+
+    /**
+     * Число уровней масштаба.
+     */
+    public static final int LEVELS = 17;
+
+    private static final double FINEST_METERS_PER_PIXEL = 0.125;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final double MICRODEGREES = 1_000_000.0;
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private int size;
+    private long originLatitude;
+    private long originLongitude;
+    private double metersPerLongitudeMicro;
+
+    private double[] chunkBounds = new double[64];
+    private int[][][] simplified = new int[16][][];
+    private int completeChunks;
+
+    /**
+     * Возвращает масштаб уровня.
+     *
+     * @param level Уровень масштаба (0 - самый подробный)
+     * @return Метров на пиксель
+     */
+    public static double metersPerPixel(int level) {
+        return FINEST_METERS_PER_PIXEL * (1L << level);
+    }
+
+    /**
+     * Добавляет точку. Повтор последней точки и координаты 0, 0 (нет GPS фиксации) пропускаются.
+     *
+     * @param latitude Широта (миллионные доли градуса)
+     * @param longitude Долгота (миллионные доли градуса)
+     * @return true если точка добавлена
+     */
+    public boolean append(long latitude, long longitude) {
+        if (latitude == 0 && longitude == 0) {
+            return false;
+        }
+        if (size == 0) {
+            originLatitude = latitude;
+            originLongitude = longitude;
+            metersPerLongitudeMicro = METERS_PER_DEGREE / MICRODEGREES
+                    * Math.cos(Math.toRadians(latitude / MICRODEGREES));
+        }
+
+        double x = (longitude - originLongitude) * metersPerLongitudeMicro;
+        double y = (latitude - originLatitude) * (METERS_PER_DEGREE / MICRODEGREES);
+        if (size > 0 && xs[size - 1] == x && ys[size - 1] == y) {
+            return false;
+        }
+
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+
+        if (size - 1 == (completeChunks + 1) * CHUNK_SIZE) {
+            completeChunk();
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает число точек.
+     *
+     * @return Число точек
+     */
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Возвращает число завершенных участков. Точки после последнего
+     * завершенного участка образуют хвост трека.
+     *
+     * @return Число участков
+     */
+    public int getCompleteChunks() {
+        return completeChunks;
+    }
+
+    /**
+     * Возвращает индекс первой точки хвоста (общей с последним завершенным участком).
+     *
+     * @return Индекс точки
+     */
+    public int getTailStart() {
+        return completeChunks * CHUNK_SIZE;
+    }
+
+    /**
+     * Проверяет, пересекает ли завершенный участок прямоугольник.
+     *
+     * @param chunk Номер участка
+     * @param minX Левая граница (м)
+     * @param minY Нижняя граница (м)
+     * @param maxX Правая граница (м)
+     * @param maxY Верхняя граница (м)
+     * @return true если охватывающий прямоугольник участка пересекает заданный
+     */
+    public boolean chunkIntersects(int chunk, double minX, double minY, double maxX, double maxY) {
+        int offset = chunk * 4;
+        return chunkBounds[offset] <= maxX && chunkBounds[offset + 2] >= minX
+                && chunkBounds[offset + 1] <= maxY && chunkBounds[offset + 3] >= minY;
+    }
+
+    /**
+     * Возвращает упрощенную ломаную завершенного участка для уровня масштаба.
+     *
+     * @param chunk Номер участка
+     * @param level Уровень масштаба
+     * @return Индексы точек упрощенной ломаной (массив не изменять)
+     */
+    public int[] getSimplifiedChunk(int chunk, int level) {
+        int[][] levels = simplified[chunk];
+        if (levels[level] == null) {
+            levels[level] = DouglasPeucker.simplify(xs, ys, chunk * CHUNK_SIZE, (chunk + 1) * CHUNK_SIZE,
+                    metersPerPixel(level) / 2);
+        }
+        return levels[level];
+    }
+
+    /**
+     * Удаляет все точки.
+     */
+    public void clear() {
+        size = 0;
+        Arrays.fill(simplified, 0, completeChunks, null);
+        completeChunks = 0;
+    }
+
+    private void completeChunk() {
+        int chunk = completeChunks;
+        if (chunkBounds.length < (chunk + 1) * 4) {
+            chunkBounds = Arrays.copyOf(chunkBounds, chunkBounds.length * 2);
+        }
+        if (simplified.length == chunk) {
+            simplified = Arrays.copyOf(simplified, chunk * 2);
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = chunk * CHUNK_SIZE; i <= (chunk + 1) * CHUNK_SIZE; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int offset = chunk * 4;
+        chunkBounds[offset] = minX;
+        chunkBounds[offset + 1] = minY;
+        chunkBounds[offset + 2] = maxX;
+        chunkBounds[offset + 3] = maxY;
+        simplified[chunk] = new int[LEVELS][];
+        completeChunks++;
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.aeriboat.track;
+
+import com.example.aeriboat.history.TelemetryField;
+import com.example.aeriboat.history.TelemetryHistory;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Трек лодки на одном {@link Canvas} с указателем текущего курса.
+ * <p>
+ * Завершенные участки трека ({@link GpsTrack}) растеризуются в квадратные
+ * плитки текущего масштаба, упрощенные алгоритмом Дугласа-Пекера с допуском
+ * в полпикселя. Плитки кэшируются: новый участок дорисовывается только в
+ * уже построенные плитки, которые он задевает, а кадр состоит из вывода
+ * видимых плиток, хвоста трека (не больше {@link GpsTrack#CHUNK_SIZE}
+ * отрезков) и указателя. Поэтому стоимость кадра не растет с длиной маршрута.
+ * При смене масштаба кэш сбрасывается и видимые плитки строятся заново.
+ * <p>
+ * Колесо мыши меняет масштаб, перетаскивание сдвигает карту, двойной щелчок
+ * возвращает слежение за лодкой. Все методы вызываются в потоке JavaFX.
+ *
+ * @since 1.1
+ */
+public final class TrackView {
+
+    private static final int TILE_SIZE = 256;
+    private static final int MAX_TILES = 64;
+    private static final int READ_CHUNK = 4096;
+    private static final int MAX_CHUNKS_PER_REFRESH = 16;
+    private static final int DEFAULT_LEVEL = 3;
+    private static final int TRACK_ARGB = 0xFF1E64C8;
+    private static final Color TRACK_COLOR = Color.rgb(30, 100, 200);
+    private static final Color BOAT_COLOR = Color.rgb(220, 60, 40);
+    private static final Color BACKGROUND = Color.web("#fdfdf8");
+
+    private final Canvas canvas;
+    private final TelemetryHistory history;
+    private final GpsTrack track;
+    private final Map<Long, WritableImage> tiles;
+    private final long[] timestamps;
+    private final long[] latitudes;
+    private final long[] longitudes;
+    private final double[] tailX;
+    private final double[] tailY;
+    private long nextIndex;
+    private int level = DEFAULT_LEVEL;
+    private int drawnChunks;
+    private double centerX;
+    private double centerY;
+    private boolean follow = true;
+    private double heading = Double.NaN;
+    private double dragX;
+    private double dragY;
+    private boolean dirty = true;
+
+    /**
+     * Создает вид трека, читающий координаты из истории телеметрии.
+     *
+     * @param history История телеметрии
+     */
+    public TrackView(TelemetryHistory history) {
+        this.history = history;
+        this.track = new GpsTrack();
+        this.tiles = new LinkedHashMap<Long, WritableImage>(MAX_TILES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> eldest) {
+                return size() > MAX_TILES;
+            }
+        };
+        this.timestamps = new long[READ_CHUNK];
+        this.latitudes = new long[READ_CHUNK];
+        this.longitudes = new long[READ_CHUNK];
+        this.tailX = new double[GpsTrack.CHUNK_SIZE + 1];
+        this.tailY = new double[GpsTrack.CHUNK_SIZE + 1];
+
+        this.canvas = new Canvas();
+        canvas.widthProperty().addListener((obs, oldVal, newVal) -> dirty = true);
+        canvas.heightProperty().addListener((obs, oldVal, newVal) -> dirty = true);
+        canvas.setOnScroll(this::onScroll);
+        canvas.setOnMousePressed(this::onMousePressed);
+        canvas.setOnMouseDragged(this::onMouseDragged);
+        canvas.setOnMouseClicked(this::onMouseClicked);
+    }
+
+    /**
+     * Возвращает холст для размещения в сцене.
+     *
+     * @return Холст
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Устанавливает курс лодки для указателя.
+     *
+     * @param course Курс (градусы по часовой стрелке от севера)
+     */
+    public void setHeading(double course) {
+        if (course != heading) {
+            heading = course;
+            dirty = true;
+        }
+    }
+
+    /**
+     * Забирает новые точки из истории, дорисовывает завершенные участки
+     * в кэш и перерисовывает холст, если что-то изменилось.
+     */
+    public void refresh() {
+        long appended = history.getAppendedCount();
+        if (appended < nextIndex) {
+            // История очищена
+            clear();
+        }
+
+        for (int chunk = 0; chunk < MAX_CHUNKS_PER_REFRESH && nextIndex < appended; chunk++) {
+            long start = Math.max(nextIndex, appended - history.getCapacity());
+            int count = Math.min(
+                    history.copySince(TelemetryField.LATITUDE, start, timestamps, latitudes),
+                    history.copySince(TelemetryField.LONGITUDE, start, timestamps, longitudes));
+            if (count == 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                dirty |= track.append(latitudes[i], longitudes[i]);
+            }
+            nextIndex = start + count;
+        }
+
+        if (drawnChunks < track.getCompleteChunks()) {
+            drawNewChunks();
+        }
+        if (follow && track.size() > 0) {
+            centerX = track.getX(track.size() - 1);
+            centerY = track.getY(track.size() - 1);
+        }
+        if (dirty) {
+            redraw();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Удаляет трек; следующий {@link #refresh()} начнет с текущих отсчетов истории.
+     */
+    public void clear() {
+        track.clear();
+        tiles.clear();
+        nextIndex = 0;
+        drawnChunks = 0;
+        follow = true;
+        dirty = true;
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, width, height);
+        if (track.size() == 0) {
+            gc.setFill(Color.GRAY);
+            gc.fillText("Нет GPS данных", 10, 20);
+            return;
+        }
+
+        // Экранный пиксель (0, 0) в глобальных пикселях уровня; Y растет на юг
+        double metersPerPixel = GpsTrack.metersPerPixel(level);
+        long originX = Math.round(centerX / metersPerPixel - width / 2);
+        long originY = Math.round(-centerY / metersPerPixel - height / 2);
+        long firstTileX = Math.floorDiv(originX, TILE_SIZE);
+        long firstTileY = Math.floorDiv(originY, TILE_SIZE);
+        long lastTileX = Math.floorDiv(originX + (long) width, TILE_SIZE);
+        long lastTileY = Math.floorDiv(originY + (long) height, TILE_SIZE);
+        for (long ty = firstTileY; ty <= lastTileY; ty++) {
+            for (long tx = firstTileX; tx <= lastTileX; tx++) {
+                gc.drawImage(tile((int) tx, (int) ty), tx * TILE_SIZE - originX, ty * TILE_SIZE - originY);
+            }
+        }
+
+        int tailStart = track.getTailStart();
+        int tailCount = track.size() - tailStart;
+        for (int i = 0; i < tailCount; i++) {
+            tailX[i] = track.getX(tailStart + i) / metersPerPixel - originX;
+            tailY[i] = -track.getY(tailStart + i) / metersPerPixel - originY;
+        }
+        gc.setStroke(TRACK_COLOR);
+        gc.setLineWidth(2);
+        gc.strokePolyline(tailX, tailY, tailCount);
+
+        drawBoat(gc, tailX[tailCount - 1], tailY[tailCount - 1]);
+
+        gc.setFill(Color.DIMGRAY);
+        gc.fillText(formatScale(metersPerPixel) + (follow ? "" : " · двойной щелчок - к лодке"), 8, height - 8);
+    }
+
+    private void drawBoat(GraphicsContext gc, double x, double y) {
+        gc.setFill(BOAT_COLOR);
+        if (Double.isNaN(heading)) {
+            gc.fillOval(x - 5, y - 5, 10, 10);
+            return;
+        }
+        double radians = Math.toRadians(heading);
+        double dx = Math.sin(radians);
+        double dy = -Math.cos(radians);
+        gc.fillPolygon(
+                new double[]{x + 12 * dx, x - 6 * dx - 5 * dy, x - 6 * dx + 5 * dy},
+                new double[]{y + 12 * dy, y - 6 * dy + 5 * dx, y - 6 * dy - 5 * dx},
+                3);
+    }
+
+    /**
+     * Возвращает плитку из кэша или строит ее из всех завершенных участков, которые ее задевают.
+     */
+    private WritableImage tile(int tx, int ty) {
+        long key = tileKey(tx, ty);
+        WritableImage image = tiles.get(key);
+        if (image == null) {
+            image = new WritableImage(TILE_SIZE, TILE_SIZE);
+            for (int chunk = 0; chunk < drawnChunks; chunk++) {
+                drawChunkIfIntersects(image.getPixelWriter(), tx, ty, chunk);
+            }
+            tiles.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Дорисовывает недавно завершенные участки в построенные плитки.
+     */
+    private void drawNewChunks() {
+        int complete = track.getCompleteChunks();
+        for (Map.Entry<Long, WritableImage> entry : tiles.entrySet()) {
+            int tx = (int) (entry.getKey() >> 32);
+            int ty = (int) (long) entry.getKey();
+            for (int chunk = drawnChunks; chunk < complete; chunk++) {
+                drawChunkIfIntersects(entry.getValue().getPixelWriter(), tx, ty, chunk);
+            }
+        }
+        drawnChunks = complete;
+        dirty = true;
+    }
+
+    private void drawChunkIfIntersects(PixelWriter writer, int tx, int ty, int chunk) {
+        double metersPerPixel = GpsTrack.metersPerPixel(level);
+        double margin = 2 * metersPerPixel;
+        double minX = (double) tx * TILE_SIZE * metersPerPixel - margin;
+        double maxX = (double) (tx + 1) * TILE_SIZE * metersPerPixel + margin;
+        double minY = -(double) (ty + 1) * TILE_SIZE * metersPerPixel - margin;
+        double maxY = -(double) ty * TILE_SIZE * metersPerPixel + margin;
+        if (!track.chunkIntersects(chunk, minX, minY, maxX, maxY)) {
+            return;
+        }
+
+        int[] indices = track.getSimplifiedChunk(chunk, level);
+        long offsetX = (long) tx * TILE_SIZE;
+        long offsetY = (long) ty * TILE_SIZE;
+        long previousX = Math.round(track.getX(indices[0]) / metersPerPixel) - offsetX;
+        long previousY = Math.round(-track.getY(indices[0]) / metersPerPixel) - offsetY;
+        for (int i = 1; i < indices.length; i++) {
+            long x = Math.round(track.getX(indices[i]) / metersPerPixel) - offsetX;
+            long y = Math.round(-track.getY(indices[i]) / metersPerPixel) - offsetY;
+            drawSegment(writer, previousX, previousY, x, y);
+            previousX = x;
+            previousY = y;
+        }
+    }
+
+    /**
+     * Рисует отрезок толщиной 2 пикселя алгоритмом Брезенхэма, отбрасывая
+     * пиксели за пределами плитки.
+     */
+    private static void drawSegment(PixelWriter writer, long x0, long y0, long x1, long y1) {
+        if ((x0 < -1 && x1 < -1) || (x0 >= TILE_SIZE && x1 >= TILE_SIZE)
+                || (y0 < -1 && y1 < -1) || (y0 >= TILE_SIZE && y1 >= TILE_SIZE)) {
+            return;
+        }
+        long dx = Math.abs(x1 - x0);
+        long dy = -Math.abs(y1 - y0);
+        int stepX = x0 < x1 ? 1 : -1;
+        int stepY = y0 < y1 ? 1 : -1;
+        long error = dx + dy;
+        long x = x0;
+        long y = y0;
+        while (true) {
+            plot(writer, x, y);
+            plot(writer, x + 1, y);
+            plot(writer, x, y + 1);
+            plot(writer, x + 1, y + 1);
+            if (x == x1 && y == y1) {
+                return;
+            }
+            long doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+    }
+
+    private static void plot(PixelWriter writer, long x, long y) {
+        if (x >= 0 && x < TILE_SIZE && y >= 0 && y < TILE_SIZE) {
+            writer.setArgb((int) x, (int) y, TRACK_ARGB);
+        }
+    }
+
+    private static long tileKey(int tx, int ty) {
+        return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+    }
+
+    private static String formatScale(double metersPerPixel) {
+        if (metersPerPixel >= 1000) {
+            return String.format("%.0f км/пикс", metersPerPixel / 1000);
+        }
+        return metersPerPixel >= 1
+                ? String.format("%.0f м/пикс", metersPerPixel)
+                : String.format("%.3f м/пикс", metersPerPixel);
+    }
+
+    private void onScroll(ScrollEvent event) {
+        int newLevel = Math.max(0, Math.min(GpsTrack.LEVELS - 1, level + (event.getDeltaY() > 0 ? -1 : 1)));
+        if (event.getDeltaY() == 0 || newLevel == level) {
+            return;
+        }
+        level = newLevel;
+        tiles.clear();
+        dirty = true;
+    }
+
+    private void onMousePressed(MouseEvent event) {
+        dragX = event.getX();
+        dragY = event.getY();
+    }
+
+    private void onMouseDragged(MouseEvent event) {
+        double metersPerPixel = GpsTrack.metersPerPixel(level);
+        centerX -= (event.getX() - dragX) * metersPerPixel;
+        centerY += (event.getY() - dragY) * metersPerPixel;
+        dragX = event.getX();
+        dragY = event.getY();
+        follow = false;
+        dirty = true;
+    }
+
+    private void onMouseClicked(MouseEvent event) {
+        if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+            follow = true;
+            dirty = true;
+        }
+    }
+}
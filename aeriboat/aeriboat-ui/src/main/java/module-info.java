@@ -0,0 +1,11 @@
+module com.example.aeriboat {
+    requires javafx.controls;
+    requires javafx.fxml;
+
+    // Связь, протоколы и модели без JavaFX
+    requires com.example.aeriboat.core;
+
+    opens com.example.aeriboat to javafx.fxml;
+
+    exports com.example.aeriboat;
+}
@@ -0,0 +1,120 @@
+package com.example.aeriboat.chart;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Проверка прореживания: пики и провалы с моментами их появления
+ * сохраняются после слияния корзин и при отрисовке.
+ */
+class MinMaxDecimatorTest {
+
+    @Test
+    void keepsExtremesAfterCompaction() {
+        MinMaxDecimator decimator = new MinMaxDecimator(8, 10);
+        for (long t = 0; t < 1000; t++) {
+            long value = t == 537 ? 100 : t == 812 ? -50 : 0;
+            decimator.add(t, value);
+        }
+
+        // 1000 мс в 8 корзинах: длительность удваивается с 10 до 160 мс
+        Assertions.assertEquals(160, decimator.getBucketMillis());
+        Assertions.assertEquals(1000, decimator.getSampleCount());
+
+        long[] timestamps = new long[16];
+        long[] values = new long[16];
+        int points = decimator.render(16, timestamps, values);
+        Assertions.assertEquals(537, timestampOf(100, timestamps, values, points));
+        Assertions.assertEquals(812, timestampOf(-50, timestamps, values, points));
+    }
+
+    @Test
+    void renderLimitsPointsAndKeepsExtremes() {
+        MinMaxDecimator decimator = new MinMaxDecimator();
+        for (long t = 0; t < 100_000; t += 20) {
+            decimator.add(t, t == 45_000 ? 9999 : t % 200);
+        }
+
+        long[] timestamps = new long[10];
+        long[] values = new long[10];
+        int points = decimator.render(10, timestamps, values);
+        Assertions.assertTrue(points <= 10, "точек " + points);
+        Assertions.assertEquals(45_000, timestampOf(9999, timestamps, values, points));
+        for (int i = 1; i < points; i++) {
+            Assertions.assertTrue(timestamps[i] >= timestamps[i - 1], "порядок точек");
+        }
+    }
+
+    @Test
+    void groupEmitsMinAndMaxInTimeOrder() {
+        MinMaxDecimator decimator = new MinMaxDecimator(4, 100);
+        decimator.add(0, 5);
+        decimator.add(10, 9);
+        decimator.add(20, 1);
+
+        long[] timestamps = new long[2];
+        long[] values = new long[2];
+        Assertions.assertEquals(2, decimator.render(2, timestamps, values));
+        Assertions.assertArrayEquals(new long[]{10, 20}, timestamps);
+        Assertions.assertArrayEquals(new long[]{9, 1}, values);
+    }
+
+    @Test
+    void constantBucketGivesSinglePoint() {
+        MinMaxDecimator decimator = new MinMaxDecimator(4, 100);
+        decimator.add(0, 7);
+        decimator.add(50, 7);
+
+        long[] timestamps = new long[4];
+        long[] values = new long[4];
+        Assertions.assertEquals(1, decimator.render(4, timestamps, values));
+        Assertions.assertEquals(7, values[0]);
+    }
+
+    @Test
+    void earlierTimestampIsClampedToOrigin() {
+        MinMaxDecimator decimator = new MinMaxDecimator(4, 100);
+        decimator.add(1000, 1);
+        decimator.add(500, 2);
+
+        Assertions.assertEquals(1000, decimator.getOriginMillis());
+        long[] timestamps = new long[4];
+        long[] values = new long[4];
+        // Оба отсчета попадают в один момент, и группа дает одну точку с максимумом
+        Assertions.assertEquals(1, decimator.render(4, timestamps, values));
+        Assertions.assertEquals(1000, timestamps[0]);
+        Assertions.assertEquals(2, values[0]);
+    }
+
+    @Test
+    void clearRestoresInitialBucket() {
+        MinMaxDecimator decimator = new MinMaxDecimator(4, 100);
+        for (long t = 0; t < 2000; t += 100) {
+            decimator.add(t, t);
+        }
+        Assertions.assertTrue(decimator.getBucketMillis() > 100);
+
+        decimator.clear();
+        Assertions.assertEquals(100, decimator.getBucketMillis());
+        Assertions.assertEquals(-1, decimator.getOriginMillis());
+        Assertions.assertEquals(0, decimator.render(4, new long[4], new long[4]));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MinMaxDecimator(3, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MinMaxDecimator(4, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new MinMaxDecimator().render(1, new long[1], new long[1]));
+    }
+
+    private static long timestampOf(long value, long[] timestamps, long[] values, int points) {
+        for (int i = 0; i < points; i++) {
+            if (values[i] == value) {
+                return timestamps[i];
+            }
+        }
+        Assertions.fail("Нет точки со значением " + value);
+        return -1;
+    }
+}
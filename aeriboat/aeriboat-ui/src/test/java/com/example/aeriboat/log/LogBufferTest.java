@@ -0,0 +1,155 @@
+package com.example.aeriboat.log;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверка уведомлений журнала: одно изменение на импульс, вытеснение
+ * старых сообщений и перестроение по фильтру. Изменения применяются к копии
+ * списка, и копия должна совпасть со списком после каждого уведомления.
+ */
+class LogBufferTest {
+
+    private LogBuffer buffer;
+    private List<LogEntry> mirror;
+    private int changes;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LogBuffer(4);
+        mirror = new ArrayList<>();
+        changes = 0;
+        buffer.addListener((ListChangeListener<LogEntry>) change -> {
+            changes++;
+            while (change.next()) {
+                Assertions.assertFalse(change.wasPermutated(), "журнал не переставляет сообщения");
+                if (change.wasRemoved()) {
+                    mirror.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                }
+                if (change.wasAdded()) {
+                    mirror.addAll(change.getFrom(), change.getAddedSubList());
+                }
+            }
+            Assertions.assertEquals(new ArrayList<>(change.getList()), mirror);
+        });
+    }
+
+    @Test
+    void postDoesNotNotifyUntilDrain() {
+        buffer.post(LogLevel.INFO, "раз");
+        buffer.post(LogLevel.INFO, "два");
+        Assertions.assertEquals(0, changes);
+        Assertions.assertEquals(0, buffer.size());
+
+        Assertions.assertEquals(2, buffer.drain());
+        Assertions.assertEquals(1, changes);
+        Assertions.assertEquals(List.of("раз", "два"), messages());
+    }
+
+    @Test
+    void emptyDrainDoesNotNotify() {
+        Assertions.assertEquals(0, buffer.drain());
+        Assertions.assertEquals(0, changes);
+    }
+
+    @Test
+    void drainEvictsOldestInOneChange() {
+        post("a", "b", "c");
+        buffer.drain();
+        post("d", "e");
+        Assertions.assertEquals(2, buffer.drain());
+
+        Assertions.assertEquals(2, changes);
+        Assertions.assertEquals(List.of("b", "c", "d", "e"), messages());
+    }
+
+    @Test
+    void batchLargerThanCapacityKeepsNewest() {
+        post("a", "b");
+        buffer.drain();
+        post("c", "d", "e", "f", "g");
+        // Очередь ограничена емкостью: "g" отбрасывается при записи
+        Assertions.assertEquals(1, buffer.getDroppedCount());
+
+        buffer.drain();
+        Assertions.assertEquals(2, changes);
+        Assertions.assertEquals(4, buffer.size());
+        // Предупреждение о пропуске идет перед пачкой и вытесняется ею
+        Assertions.assertEquals(List.of("c", "d", "e", "f"), messages());
+    }
+
+    @Test
+    void dropsAreReportedOnce() {
+        buffer.setFilter(LogLevel.WARNING, "");
+        post("a", "b", "c", "d", "e");
+        buffer.drain();
+        Assertions.assertEquals(1, buffer.size());
+        Assertions.assertEquals(LogLevel.WARNING, buffer.get(0).getLevel());
+        Assertions.assertTrue(buffer.get(0).getMessage().endsWith(" 1"), buffer.get(0).getMessage());
+
+        post("f");
+        Assertions.assertEquals(0, buffer.drain());
+        Assertions.assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void filterRebuildsVisibleList() {
+        buffer.post(LogLevel.INFO, "подключено");
+        buffer.post(LogLevel.WARNING, "слабый сигнал");
+        buffer.post(LogLevel.ERROR, "ошибка отправки");
+        buffer.drain();
+
+        buffer.setFilter(LogLevel.WARNING, null);
+        Assertions.assertEquals(2, changes);
+        Assertions.assertEquals(List.of("слабый сигнал", "ошибка отправки"), messages());
+
+        buffer.setFilter(LogLevel.INFO, "  СИГНАЛ ");
+        Assertions.assertEquals(List.of("слабый сигнал"), messages());
+
+        // Тот же фильтр после нормализации не перестраивает список
+        buffer.setFilter(LogLevel.INFO, "сигнал");
+        Assertions.assertEquals(3, changes);
+
+        buffer.post(LogLevel.INFO, "сигнал восстановлен");
+        buffer.post(LogLevel.INFO, "подключено");
+        Assertions.assertEquals(1, buffer.drain());
+        Assertions.assertEquals(List.of("слабый сигнал", "сигнал восстановлен"), messages());
+
+        buffer.setFilter(LogLevel.INFO, "");
+        Assertions.assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void filteredOutMessagesDoNotNotify() {
+        buffer.setFilter(LogLevel.ERROR, "");
+        int before = changes;
+        buffer.post(LogLevel.INFO, "шум");
+        Assertions.assertEquals(0, buffer.drain());
+        Assertions.assertEquals(before, changes);
+    }
+
+    @Test
+    void getChecksBounds() {
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LogBuffer(0));
+    }
+
+    private void post(String... messages) {
+        for (String message : messages) {
+            buffer.post(LogLevel.INFO, message);
+        }
+    }
+
+    private List<String> messages() {
+        List<String> messages = new ArrayList<>();
+        for (LogEntry entry : buffer) {
+            messages.add(entry.getMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.aeriboat.track;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Проверка упрощения ломаной: допуск, сохранение концов и индексы участка.
+ */
+class DouglasPeuckerTest {
+
+    @Test
+    void straightLineKeepsEndpoints() {
+        double[] xs = {0, 1, 2, 3, 4};
+        double[] ys = {0, 1, 2, 3, 4};
+        Assertions.assertArrayEquals(new int[]{0, 4}, DouglasPeucker.simplify(xs, ys, 0, 4, 0.01));
+    }
+
+    @Test
+    void pointIsKeptOnlyBeyondTolerance() {
+        double[] xs = {0, 5, 10};
+        double[] ys = {0, 1, 0};
+        Assertions.assertArrayEquals(new int[]{0, 1, 2}, DouglasPeucker.simplify(xs, ys, 0, 2, 0.99));
+        // Отклонение, равное допуску, не превышает его
+        Assertions.assertArrayEquals(new int[]{0, 2}, DouglasPeucker.simplify(xs, ys, 0, 2, 1.0));
+        Assertions.assertArrayEquals(new int[]{0, 2}, DouglasPeucker.simplify(xs, ys, 0, 2, 1.5));
+    }
+
+    @Test
+    void zeroToleranceKeepsEveryCorner() {
+        double[] xs = {0, 1, 2, 3, 4};
+        double[] ys = {0, 1, 0, 1, 0};
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 3, 4}, DouglasPeucker.simplify(xs, ys, 0, 4, 0));
+    }
+
+    @Test
+    void distanceIsMeasuredToSegmentNotLine() {
+        // Точка за концом отрезка лежит на его продолжении, но далеко от самого отрезка
+        double[] xs = {0, 20, 10};
+        double[] ys = {0, 0, 0};
+        Assertions.assertArrayEquals(new int[]{0, 1, 2}, DouglasPeucker.simplify(xs, ys, 0, 2, 5));
+    }
+
+    @Test
+    void closedLoopKeepsFarthestPoint() {
+        double[] xs = {0, 10, 10, 0, 0};
+        double[] ys = {0, 0, 10, 10, 0};
+        int[] kept = DouglasPeucker.simplify(xs, ys, 0, 4, 1);
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 3, 4}, kept);
+    }
+
+    @Test
+    void subRangeReturnsAbsoluteIndices() {
+        double[] xs = {100, 0, 5, 10, 100};
+        double[] ys = {100, 0, 3, 0, 100};
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, DouglasPeucker.simplify(xs, ys, 1, 3, 1));
+        Assertions.assertArrayEquals(new int[]{1, 3}, DouglasPeucker.simplify(xs, ys, 1, 3, 5));
+    }
+
+    @Test
+    void shortRangesAreReturnedWhole() {
+        double[] xs = {0, 1, 2};
+        double[] ys = {0, 5, 0};
+        Assertions.assertArrayEquals(new int[]{1}, DouglasPeucker.simplify(xs, ys, 1, 1, 10));
+        Assertions.assertArrayEquals(new int[]{1, 2}, DouglasPeucker.simplify(xs, ys, 1, 2, 10));
+    }
+
+    @Test
+    void droppedPointsStayWithinTolerance() {
+        Random random = new Random(42);
+        int count = 5000;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for (int i = 1; i < count; i++) {
+            xs[i] = xs[i - 1] + random.nextDouble();
+            ys[i] = ys[i - 1] + random.nextGaussian();
+        }
+        double tolerance = 2.5;
+
+        int[] kept = DouglasPeucker.simplify(xs, ys, 0, count - 1, tolerance);
+        Assertions.assertEquals(0, kept[0]);
+        Assertions.assertEquals(count - 1, kept[kept.length - 1]);
+        Assertions.assertTrue(kept.length < count / 2, "оставлено " + kept.length);
+
+        for (int k = 1; k < kept.length; k++) {
+            int first = kept[k - 1];
+            int last = kept[k];
+            Assertions.assertTrue(last > first, "индексы по возрастанию");
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegment(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                Assertions.assertTrue(distance <= tolerance + 1e-9, "точка " + i + " на " + distance);
+            }
+        }
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0
+                : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.aeriboat.benchmark;
+
+import com.example.aeriboat.autopilot.Route;
+import com.example.aeriboat.autopilot.WaypointNavigator;
+import com.example.aeriboat.sim.AutopilotSimulation;
+import com.example.aeriboat.sim.BoatModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шаг автопилота против модели лодки: расчет пеленга и расстояния, ПИД курса
+ * и продвижение модели на период 100 мс. Маршрут - квадрат со стороной 1 км;
+ * пройденный маршрут начинается заново, чтобы шаги не вырождались в стоянку.
+ * Профилировщик GC показывает, что шаг не создает объектов.
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutopilotBenchmark {
+
+    private static final double START_LATITUDE = 55.7555;
+    private static final double START_LONGITUDE = 37.6177;
+    private static final double PERIOD_SECONDS = 0.1;
+
+    private WaypointNavigator navigator;
+    private AutopilotSimulation simulation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Route route = AutopilotSimulation.squareRoute(START_LATITUDE, START_LONGITUDE, 1000);
+        navigator = new WaypointNavigator();
+        navigator.setRoute(route);
+        simulation = new AutopilotSimulation(navigator,
+                new BoatModel(START_LATITUDE, START_LONGITUDE), PERIOD_SECONDS);
+    }
+
+    @Benchmark
+    public int step() {
+        int result = simulation.step();
+        if (result == WaypointNavigator.FINISHED) {
+            navigator.restart();
+        }
+        return result;
+    }
+}
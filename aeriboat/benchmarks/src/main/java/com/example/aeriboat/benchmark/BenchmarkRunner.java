@@ -0,0 +1,58 @@
+package com.example.aeriboat.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Точка входа benchmarks.jar: запускает JMH с профилировщиком GC,
+ * чтобы каждый отчет содержал {@code gc.alloc.rate} и {@code gc.alloc.rate.norm} (байт на операцию).
+ * Принимает обычные параметры командной строки JMH, например фильтр бенчмарков или {@code -f 2}.
+ *
+ * @since 1.1
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Запускает бенчмарки.
+     *
+     * @param args Параметры командной строки JMH
+     * @throws RunnerException если запуск JMH завершился ошибкой
+     * @throws IOException если не удалось вывести справку
+     */
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Ошибка параметров JMH: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        Runner runner = new Runner(options);
+        if (commandLine.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
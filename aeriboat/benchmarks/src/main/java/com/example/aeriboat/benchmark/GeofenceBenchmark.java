@@ -0,0 +1,95 @@
+package com.example.aeriboat.benchmark;
+
+import com.example.aeriboat.geofence.Geofence;
+import com.example.aeriboat.geofence.GeofenceIndex;
+import com.example.aeriboat.geofence.GeofenceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка точки по геозонам: поиск через сеточный {@link GeofenceIndex}
+ * против перебора всех зон. Зоны - случайные многоугольники 8-48 вершин
+ * радиусом 50-350 м в квадрате около 100 км, точки равномерно в том же квадрате.
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeofenceBenchmark {
+
+    private static final int POINTS = 4096;
+    private static final long AREA = 1_000_000;
+
+    @Param({"100", "5000"})
+    private int fenceCount;
+
+    private List<Geofence> fences;
+    private GeofenceIndex index;
+    private long[] latitudes;
+    private long[] longitudes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(1);
+        fences = new ArrayList<>(fenceCount);
+        for (int i = 0; i < fenceCount; i++) {
+            long centerLatitude = 55_000_000 + (long) (random.nextDouble() * AREA);
+            long centerLongitude = 37_000_000 + (long) (random.nextDouble() * AREA);
+            int vertices = 8 + random.nextInt(41);
+            long[] fenceLatitudes = new long[vertices];
+            long[] fenceLongitudes = new long[vertices];
+            for (int k = 0; k < vertices; k++) {
+                double angle = 2 * Math.PI * k / vertices;
+                double radius = 500 + random.nextInt(3000);
+                fenceLatitudes[k] = centerLatitude + Math.round(radius * Math.sin(angle));
+                fenceLongitudes[k] = centerLongitude + Math.round(radius * Math.cos(angle));
+            }
+            fences.add(new Geofence("zone-" + i, GeofenceType.KEEP_OUT, fenceLatitudes, fenceLongitudes));
+        }
+        index = new GeofenceIndex(fences);
+
+        latitudes = new long[POINTS];
+        longitudes = new long[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 55_000_000 + (long) (random.nextDouble() * AREA);
+            longitudes[i] = 37_000_000 + (long) (random.nextDouble() * AREA);
+        }
+    }
+
+    @Benchmark
+    public Geofence indexed() {
+        int i = next++ & (POINTS - 1);
+        return index.findContaining(latitudes[i], longitudes[i], GeofenceType.KEEP_OUT);
+    }
+
+    @Benchmark
+    public Geofence linearScan() {
+        int i = next++ & (POINTS - 1);
+        for (Geofence fence : fences) {
+            if (fence.contains(latitudes[i], longitudes[i])) {
+                return fence;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.aeriboat.benchmark;
+
+import com.example.aeriboat.model.AirboatCommand;
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.CommandEncoder;
+import com.example.aeriboat.service.JsonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и разбор JSON через {@link JsonService}: команда в JSON
+ * и fallback парсер {@code parseSimpleTelemetry} сам по себе.
+ * Для сравнения измеряется кодирование той же команды {@link CommandEncoder}.
+ * Полный разбор телеметрии через Jackson измеряет {@link TelemetryDecodeBenchmark}.
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonServiceBenchmark {
+
+    private JsonService jsonService;
+    private AirboatCommand command;
+    private ByteBuffer commandBuffer;
+    private MethodHandle parseSimpleTelemetry;
+    private PrintStream originalErr;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        jsonService = new JsonService();
+        command = new AirboatCommand(120, 75);
+        commandBuffer = ByteBuffer.allocateDirect(CommandEncoder.MAX_COMMAND_SIZE);
+
+        // Fallback парсер закрыт; бенчмарк вызывает его напрямую, без стоимости исключения Jackson
+        Method method = JsonService.class.getDeclaredMethod("parseSimpleTelemetry", String.class);
+        method.setAccessible(true);
+        parseSimpleTelemetry = MethodHandles.lookup().unreflect(method);
+
+        originalErr = TelemetryFixtures.muteStdErr();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TelemetryFixtures.restoreStdErr(originalErr);
+    }
+
+    /**
+     * Команда управления в JSON строку через Jackson.
+     */
+    @Benchmark
+    public String toJsonCommand() {
+        return jsonService.toJson(command);
+    }
+
+    /**
+     * Та же команда, закодированная в буфер отправки без создания объектов.
+     */
+    @Benchmark
+    public ByteBuffer encodeCommand() {
+        commandBuffer.clear();
+        CommandEncoder.encode(commandBuffer, command);
+        return commandBuffer;
+    }
+
+    /**
+     * Fallback парсер телеметрии сам по себе.
+     */
+    @Benchmark
+    public AirboatTelemetry parseSimpleTelemetry() throws Throwable {
+        return (AirboatTelemetry) parseSimpleTelemetry.invokeExact(jsonService, TelemetryFixtures.FALLBACK_JSON);
+    }
+}
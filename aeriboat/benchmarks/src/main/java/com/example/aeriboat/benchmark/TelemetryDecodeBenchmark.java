@@ -0,0 +1,92 @@
+package com.example.aeriboat.benchmark;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.TelemetryDecoder;
+import com.example.aeriboat.service.JsonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение путей декодирования телеметрии из принятой датаграммы:
+ * Jackson через String, fallback парсер {@link JsonService} и потоковый
+ * {@link TelemetryDecoder}.
+ *
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TelemetryDecodeBenchmark {
+
+    private JsonService jsonService;
+    private TelemetryDecoder decoder;
+    private AirboatTelemetry holder;
+    private byte[] datagram;
+    private byte[] fallbackDatagram;
+    private ByteBuffer datagramBuffer;
+    private PrintStream originalErr;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jsonService = new JsonService();
+        decoder = new TelemetryDecoder();
+        holder = new AirboatTelemetry();
+        datagram = TelemetryFixtures.TELEMETRY_JSON.getBytes(StandardCharsets.UTF_8);
+        fallbackDatagram = TelemetryFixtures.FALLBACK_JSON.getBytes(StandardCharsets.UTF_8);
+        datagramBuffer = ByteBuffer.allocateDirect(1024);
+        datagramBuffer.put(datagram).flip();
+
+        originalErr = TelemetryFixtures.muteStdErr();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TelemetryFixtures.restoreStdErr(originalErr);
+    }
+
+    /**
+     * Прежний путь UdpClient: копия датаграммы в String и Jackson.
+     */
+    @Benchmark
+    public AirboatTelemetry jacksonFromString() throws IOException {
+        String json = new String(datagram, 0, datagram.length, StandardCharsets.UTF_8);
+        return jsonService.fromJson(json, AirboatTelemetry.class);
+    }
+
+    /**
+     * Прежний путь при пакете, который Jackson не принимает: исключение и fallback парсер.
+     */
+    @Benchmark
+    public AirboatTelemetry jacksonWithSimpleFallback() throws IOException {
+        String json = new String(fallbackDatagram, 0, fallbackDatagram.length, StandardCharsets.UTF_8);
+        return jsonService.fromJson(json, AirboatTelemetry.class);
+    }
+
+    /**
+     * Потоковый декодер прямо из буфера приема в переиспользуемый объект.
+     */
+    @Benchmark
+    public AirboatTelemetry streamingDecoder() {
+        decoder.decode(datagramBuffer, holder);
+        return holder;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.aeriboat.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Общие данные бенчмарков разбора телеметрии.
+ *
+ * @since 1.1
+ */
+final class TelemetryFixtures {
+
+    /**
+     * Корректный пакет телеметрии.
+     */
+    static final String TELEMETRY_JSON = "{\"wifi_signal_level\":-45,\"battery_voltage\":3700,"
+            + "\"latitude\":55755500,\"longitude\":37617700,\"course\":180}";
+
+    /**
+     * Ключи без кавычек Jackson отвергает, и JsonService уходит в fallback парсер.
+     */
+    static final String FALLBACK_JSON = "{wifi_signal_level:-45,battery_voltage:3700,"
+            + "latitude:55755500,longitude:37617700,course:180}";
+
+    private TelemetryFixtures() {
+    }
+
+    /**
+     * Отключает System.err: fallback путь JsonService пишет в него на каждом пакете,
+     * а бенчмарк должен измерять разбор, а не консоль.
+     *
+     * @return Прежний поток для {@link #restoreStdErr}
+     */
+    static PrintStream muteStdErr() {
+        PrintStream original = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+
+    /**
+     * Возвращает System.err, отключенный {@link #muteStdErr}.
+     *
+     * @param original Прежний поток
+     */
+    static void restoreStdErr(PrintStream original) {
+        System.setErr(original);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.aeriboat.benchmark;
+
+import com.example.aeriboat.model.AirboatTelemetry;
+import com.example.aeriboat.protocol.WireFormat;
+import com.example.aeriboat.service.UdpClient;
+import com.example.aeriboat.sim.EspSimulator;
+import com.example.aeriboat.sim.SimulatorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправка и прием через {@link UdpClient} по loopback с {@link EspSimulator}
+ * без искусственной задержки и потерь: полный цикл запрос-ответ телеметрии
+ * и отправка команды управления, в JSON и в бинарном формате.
+ * <p>
+ * Цикл запрос-ответ измеряется в режиме SampleTime, поэтому в отчете есть
+ * перцентили задержки, а не только среднее. Симулятор работает в том же
+ * процессе, и его выделения памяти входят в {@code gc.alloc.rate.norm}.
+ *
+ * @since 1.1
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdpRoundTripBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    private WireFormat wireFormat;
+
+    private EspSimulator simulator;
+    private UdpClient udpClient;
+    private int angle;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SimulatorConfig config = new SimulatorConfig();
+        config.setBindAddress("127.0.0.1");
+        config.setBasePort(0);
+        config.setSeed(1);
+        simulator = new EspSimulator(config);
+        simulator.start();
+
+        udpClient = new UdpClient();
+        udpClient.setConnectionParams("127.0.0.1", simulator.getBoatAddress(0).getPort());
+        udpClient.connect();
+        if (wireFormat == WireFormat.BINARY && !udpClient.negotiateBinaryProtocol().join()) {
+            throw new IllegalStateException("Симулятор не подтвердил бинарный протокол");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        udpClient.disconnect();
+        simulator.close();
+    }
+
+    /**
+     * Запрос телеметрии и ожидание ответа с тем же номером.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public AirboatTelemetry requestTelemetryRoundTrip() {
+        return udpClient.requestTelemetryAsync().join();
+    }
+
+    /**
+     * Отправка уставки угла и скорости (путь планировщика команд).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void sendControl() throws IOException {
+        angle = angle == 180 ? 0 : angle + 1;
+        udpClient.sendControl(angle, 50);
+    }
+}